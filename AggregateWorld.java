@@ -0,0 +1,828 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A world much larger than the field, of which the field is one region,
+ * followed organism by organism, while the rest of the world is kept only
+ * as the number of organisms of each species in each square block of
+ * locations.
+ *
+ * At each step the counts of every block outside the field evolve under a
+ * stochastic model of the populations, worked out from the LifeHistory of
+ * each species as if the organisms of a block were spread evenly over it.
+ * The young, not yet of breeding age, are counted apart from the adults,
+ * and grow up at the rate that brings them to breeding age on average.
+ * The chances that an organism has food, a mate or free locations next to
+ * it follow from the counts in its block, and the numbers that die, are
+ * eaten, grow up, are born and move to each neighbouring block are drawn
+ * as binomials. The blocks are worked on a row at a time, each row with
+ * its own stream of random numbers, and the moves between blocks are
+ * added in a second pass, so the rows of both passes can be split among
+ * threads.
+ *
+ * At the edge of the field the two meet: animals on the edge of the field
+ * may leave it for the block beyond, where they are counted, and animals
+ * that leave a block for the field are created at its edge: the young
+ * newborn, the adults at random ages. When the field moves, the organisms
+ * in it are counted into the blocks it leaves and those of the blocks it
+ * comes to are created in the same way, so only whether each organism is
+ * young or adult is kept, not its age, hunger or disease.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class AggregateWorld
+{
+    // The number of neighbouring blocks, and the steps in rows and in
+    // columns to each. Each direction is followed by its opposite, so
+    // that the opposite of side is side ^ 1.
+    private static final int SIDES = 4;
+    private static final int[] ROW_STEPS = { -1, 1, 0, 0 };
+    private static final int[] COL_STEPS = { 0, 0, -1, 1 };
+    // The number of locations next to a location.
+    private static final int NEIGHBOURS = 8;
+    // The share of the locations next to one on the edge of a block that
+    // are across that edge.
+    private static final double ACROSS = 3.0 / NEIGHBOURS;
+    // The number of ways of choosing each number of the locations next
+    // to a location.
+    private static final int[] WAYS = { 1, 8, 28, 56, 70, 56, 28, 8, 1 };
+    // The mean below which binomials are drawn exactly rather than by
+    // the normal approximation.
+    private static final double SMALL_MEAN = 20;
+
+    // The number of locations along each side of a block, and in a block.
+    private final int blockSize;
+    private final int area;
+    // The size of the world, in blocks.
+    private final int blockRows;
+    private final int blockCols;
+    // The size of the field, and where it lies, in blocks.
+    private final int fieldRows;
+    private final int fieldCols;
+    private int fieldTop;
+    private int fieldLeft;
+    // The number of species.
+    private final int species;
+    // The traits of each species, by ordinal; the chances of dying in
+    // snow and in wind, and of crossing an edge of a block at a step; the
+    // share of the organisms populated at random that are young; and the
+    // mean number of young put down at a birth, by the number of free
+    // locations next to the parent.
+    private final LifeHistory[] traits;
+    private final double[] snowDeaths;
+    private final double[] windDeaths;
+    private final double[] crossings;
+    private final double[] youngShares;
+    private final double[][] litters;
+    // The number of young organisms of each species in each block, row by
+    // row, followed by the number of adults of each, and the number of
+    // each moving from each block to each side at this step.
+    private final int[][] counts;
+    private final int[][] outflows;
+    // The source of the streams of the rows.
+    private final RandomStream source;
+
+    /**
+     * Create the world of a simulation, with no organisms until populated.
+     * @param config The settings of the simulation, which give the size
+     *               of the world and of the field, the size of the
+     *               blocks and where the field lies.
+     * @param source The stream to make the streams of the rows from.
+     */
+    public AggregateWorld(SimulationConfig config, RandomStream source)
+    {
+        blockSize = config.getBlockSize();
+        if(blockSize <= 0) {
+            throw new IllegalArgumentException("The block size must be greater than zero.");
+        }
+        if(config.getWorldDepth() % blockSize != 0 || config.getWorldWidth() % blockSize != 0
+           || config.getDepth() % blockSize != 0 || config.getWidth() % blockSize != 0) {
+            throw new IllegalArgumentException("The sizes of the world and of the field must be "
+                                               + "multiples of the block size.");
+        }
+        area = blockSize * blockSize;
+        blockRows = config.getWorldDepth() / blockSize;
+        blockCols = config.getWorldWidth() / blockSize;
+        fieldRows = config.getDepth() / blockSize;
+        fieldCols = config.getWidth() / blockSize;
+        if(fieldRows > blockRows || fieldCols > blockCols) {
+            throw new IllegalArgumentException("The field must not be larger than the world.");
+        }
+        setFieldOrigin(config.getFieldTop(), config.getFieldLeft());
+        this.source = source;
+
+        species = Species.count();
+        traits = new LifeHistory[species];
+        snowDeaths = new double[species];
+        windDeaths = new double[species];
+        crossings = new double[species];
+        youngShares = new double[species];
+        litters = new double[species][NEIGHBOURS + 1];
+        for(Species kind : Species.values()) {
+            int s = kind.ordinal();
+            LifeHistory life = kind.getLifeHistory();
+            traits[s] = life;
+            if(kind == Species.PLANT) {
+                int size = (int) life.getMeanSize();
+                snowDeaths[s] = Math.max(0, 1 - Plant.snowSurvivalProbability(size));
+                windDeaths[s] = Math.max(0, 1 - Plant.windSurvivalProbability(size));
+                // Plants are always created newborn.
+                youngShares[s] = 1;
+            }
+            else {
+                int age = life.getMaxAge() / 2;
+                snowDeaths[s] = Math.max(0, 1 - WeatherMortality.snowSurvivalProbability(kind, age));
+                // An animal crosses an edge when it is on that edge of its
+                // block, and moves to one of the locations across it.
+                crossings[s] = ACROSS / blockSize * life.getAwakeShare();
+                youngShares[s] = Math.min(1, (double) life.getBreedingAge() / life.getMaxAge());
+            }
+            // A litter is of one up to the maximum number of young, as
+            // many as there are free locations for.
+            int size = life.getMaxLitterSize();
+            for(int free = life.getRoomToBreed(); free <= NEIGHBOURS && size > 0; free++) {
+                double young = 0;
+                for(int litter = 1; litter <= size; litter++) {
+                    young += Math.min(litter, free);
+                }
+                litters[s][free] = young / size;
+            }
+        }
+        counts = new int[2 * species][blockRows * blockCols];
+        outflows = new int[2 * species][blockRows * blockCols * SIDES];
+    }
+
+    /**
+     * Fill some rows of blocks outside the field, each location with one
+     * occupant drawn with the given chances, as the field is populated,
+     * the animals at random ages.
+     * @param weights The weight of each species, by ordinal, followed by
+     *                that of an empty location.
+     * @param key A number drawn afresh for each filling of the world.
+     * @param start The first row of blocks.
+     * @param end One past the last row of blocks.
+     */
+    public void populate(double[] weights, long key, int start, int end)
+    {
+        for(int row = start; row < end; row++) {
+            RandomStream rand = source.split(key, row);
+            for(int col = 0; col < blockCols; col++) {
+                if(inField(row, col)) {
+                    continue;
+                }
+                int block = row * blockCols + col;
+                int remaining = area;
+                double rest = 0;
+                for(double weight : weights) {
+                    rest += weight;
+                }
+                // Share the locations among the species one at a time.
+                for(int s = 0; s < species; s++) {
+                    int count = rest > 0 ? binomial(rand, remaining, weights[s] / rest) : 0;
+                    int young = binomial(rand, count, youngShares[s]);
+                    counts[s][block] = young;
+                    counts[species + s][block] = count - young;
+                    remaining -= count;
+                    rest -= weights[s];
+                }
+            }
+        }
+    }
+
+    /**
+     * Let the populations of some rows of blocks outside the field live
+     * through one step, and draw how many of each move to the blocks
+     * around. Every row must be stepped before any is migrated.
+     * @param key A number drawn afresh for each step.
+     * @param weather The weather of the step.
+     * @param start The first row of blocks.
+     * @param end One past the last row of blocks.
+     */
+    public void step(long key, Weather weather, int start, int end)
+    {
+        Block work = new Block();
+        for(int row = start; row < end; row++) {
+            RandomStream rand = source.split(key, row);
+            for(int col = 0; col < blockCols; col++) {
+                if(!inField(row, col)) {
+                    live(row * blockCols + col, weather, rand, work);
+                    drawOutflows(row, col, rand);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the organisms that leave some rows of blocks outside the field
+     * to the blocks they go to, once every row has been stepped. Those
+     * that go to the field are left for exchange.
+     * @param start The first row of blocks.
+     * @param end One past the last row of blocks.
+     */
+    public void migrate(int start, int end)
+    {
+        for(int row = start; row < end; row++) {
+            for(int col = 0; col < blockCols; col++) {
+                if(inField(row, col)) {
+                    continue;
+                }
+                int block = row * blockCols + col;
+                for(int group = 0; group < counts.length; group++) {
+                    int count = counts[group][block];
+                    for(int side = 0; side < SIDES; side++) {
+                        count -= outflows[group][block * SIDES + side];
+                        int r = row + ROW_STEPS[side];
+                        int c = col + COL_STEPS[side];
+                        if(inWorld(r, c) && !inField(r, c)) {
+                            count += outflows[group][(r * blockCols + c) * SIDES + (side ^ 1)];
+                        }
+                    }
+                    counts[group][block] = count;
+                }
+            }
+        }
+    }
+
+    /**
+     * Let animals cross the edge of the field, once the blocks have been
+     * migrated: animals on the edge of the field may leave it for the
+     * block beyond, and the animals that left the blocks around for the
+     * field are created at random free locations of its edge next to
+     * their block. Those that find no free location stay in their block.
+     * Animals that leave are set dead, to be removed from the list.
+     * @param field The field.
+     * @param animals The animals of the field, to add the new ones to.
+     * @param rand The random number generator to draw with.
+     */
+    public void exchange(Field field, List<Animal> animals, Random rand)
+    {
+        int depth = field.getDepth();
+        int width = field.getWidth();
+        // Visit the locations on the edge of the field: all of the first
+        // and last rows, and the first and last columns of the others.
+        for(int row = 0; row < depth; row++) {
+            boolean edgeRow = row == 0 || row == depth - 1;
+            for(int col = 0; col < width; col = edgeRow || col == width - 1 ? col + 1 : width - 1) {
+                Object occupant = field.getObjectAt(row, col);
+                if(occupant instanceof Animal) {
+                    leave((Animal) occupant, row, col, depth, width, rand);
+                }
+            }
+        }
+
+        for(int row = fieldTop; row < fieldTop + fieldRows; row++) {
+            for(int col = fieldLeft; col < fieldLeft + fieldCols; col++) {
+                for(int side = 0; side < SIDES; side++) {
+                    int r = row + ROW_STEPS[side];
+                    int c = col + COL_STEPS[side];
+                    if(inWorld(r, c) && !inField(r, c)) {
+                        enter(field, animals, row, col, side, rand);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the field to another region of the world. The organisms in the
+     * field are counted into the blocks there, and the organisms counted
+     * in the blocks of the new region are created in the field, at random
+     * locations within their blocks.
+     * @param top The row of the world at which the field is to start; a
+     *            multiple of the block size.
+     * @param left The column of the world at which the field is to start;
+     *             a multiple of the block size.
+     * @param field The field.
+     * @param animals The animals of the field, replaced by the new ones.
+     * @param plants The plants of the field, replaced by the new ones.
+     * @param rand The random number generator to draw with.
+     */
+    public void moveField(int top, int left, Field field, List<Animal> animals,
+                          List<Plant> plants, Random rand)
+    {
+        int oldTop = fieldTop;
+        int oldLeft = fieldLeft;
+        setFieldOrigin(top, left);
+
+        // Count the organisms of the field into their blocks.
+        for(Animal animal : animals) {
+            Location location = animal.getLocation();
+            if(animal.isAlive() && location != null) {
+                count(animal.getSpecies(), animal.getAge(), location, oldTop, oldLeft);
+            }
+        }
+        for(Plant plant : plants) {
+            Location location = plant.getLocation();
+            if(plant.isAlive() && location != null) {
+                count(Species.PLANT, plant.getAge(), location, oldTop, oldLeft);
+            }
+        }
+        animals.clear();
+        plants.clear();
+        field.clear();
+
+        // Create the organisms of the blocks now in the field.
+        for(int row = fieldTop; row < fieldTop + fieldRows; row++) {
+            for(int col = fieldLeft; col < fieldLeft + fieldCols; col++) {
+                release(row, col, field, animals, plants, rand);
+            }
+        }
+    }
+
+    /**
+     * Return the number of organisms of a species in the world outside
+     * the field.
+     * @param kind The species to count.
+     * @return The number counted in the blocks.
+     */
+    public long getCount(Species kind)
+    {
+        long total = 0;
+        for(int block = 0; block < blockRows * blockCols; block++) {
+            total += counts[kind.ordinal()][block] + counts[species + kind.ordinal()][block];
+        }
+        return total;
+    }
+
+    /**
+     * Return the number of organisms of a species in one block. Blocks
+     * in the field count none.
+     * @param kind The species to count.
+     * @param row The row of the block.
+     * @param col The column of the block.
+     * @return The number counted in the block.
+     */
+    public int getCount(Species kind, int row, int col)
+    {
+        int block = row * blockCols + col;
+        return counts[kind.ordinal()][block] + counts[species + kind.ordinal()][block];
+    }
+
+    /**
+     * @return The number of locations along each side of a block.
+     */
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * @return The number of rows of blocks in the world.
+     */
+    public int getBlockRows()
+    {
+        return blockRows;
+    }
+
+    /**
+     * @return The number of columns of blocks in the world.
+     */
+    public int getBlockCols()
+    {
+        return blockCols;
+    }
+
+    /**
+     * @return The row of the world at which the field starts.
+     */
+    public int getFieldTop()
+    {
+        return fieldTop * blockSize;
+    }
+
+    /**
+     * @return The column of the world at which the field starts.
+     */
+    public int getFieldLeft()
+    {
+        return fieldLeft * blockSize;
+    }
+
+    /**
+     * Let the population of one block live through one step. The counts
+     * at the start of the step give the chances of every species, and
+     * what happens to each is then taken from the counts together.
+     * @param block The index of the block.
+     * @param weather The weather of the step.
+     * @param rand The random number generator to draw with.
+     * @param work Work space for the block.
+     */
+    private void live(int block, Weather weather, Random rand, Block work)
+    {
+        int occupied = 0;
+        for(int[] count : counts) {
+            occupied += count[block];
+        }
+        if(occupied == 0) {
+            return;
+        }
+        work.clear();
+        // The chance of each number of free locations next to an organism.
+        double[] free = work.free;
+        double freeShare = 1 - (double) occupied / area;
+        double power = 1;
+        for(int k = 0; k <= NEIGHBOURS; k++) {
+            free[k] = WAYS[k] * power;
+            power *= freeShare;
+        }
+        power = 1;
+        for(int k = NEIGHBOURS; k >= 0; k--) {
+            free[k] *= power;
+            power *= 1 - freeShare;
+        }
+
+        for(int s = 0; s < species; s++) {
+            int young = counts[s][block];
+            int adults = counts[species + s][block];
+            if(young + adults == 0) {
+                continue;
+            }
+            LifeHistory life = traits[s];
+            // Old age takes one in every maximum age plus one, and an
+            // organism that is awake and cannot move dies of overcrowding.
+            double death = either(1.0 / (life.getMaxAge() + 1), free[0] * life.getAwakeShare());
+            if(weather == Weather.SNOWING) {
+                death = either(death, snowDeaths[s]);
+            }
+            else if(weather == Weather.WINDY) {
+                death = either(death, windDeaths[s]);
+            }
+            Species food = life.getFood();
+            double meal = 0;
+            if(food != null) {
+                int f = food.ordinal();
+                meal = life.getFeedingShare() * nextTo(counts[f][block] + counts[species + f][block]);
+                death = either(death, starvation(meal, life.getFoodValue()));
+            }
+            work.deaths[s] = binomial(rand, young, death);
+            work.deaths[species + s] = binomial(rand, adults, death);
+            young -= work.deaths[s];
+            adults -= work.deaths[species + s];
+
+            if(food != null) {
+                int meals = binomial(rand, young + adults, meal);
+                int f = food.ordinal();
+                // A bite of a plant eats it up only if it is small enough.
+                work.eaten[f] += life.getBite() == 0 ? meals
+                                 : binomial(rand, meals, Math.min(1, life.getBite()
+                                                                  / traits[f].getMeanSize()));
+            }
+            work.grown[s] = binomial(rand, young, 1.0 / Math.max(1, life.getBreedingAge()));
+
+            // Adults breed with room for their young, and a mate if they
+            // need one.
+            double room = 0;
+            double placed = 0;
+            for(int k = life.getRoomToBreed(); k <= NEIGHBOURS; k++) {
+                room += free[k];
+                placed += free[k] * litters[s][k];
+            }
+            double breeding = life.getAwakeShare() * life.getBreedingProbability() * room;
+            Species mate = life.getMate();
+            if(mate != null) {
+                breeding *= nextTo(counts[species + mate.ordinal()][block]);
+            }
+            int breeders = binomial(rand, adults, breeding);
+            int most = life.getMaxLitterSize();
+            work.births[s] = room > 0 ? binomial(rand, breeders * most, placed / room / most) : 0;
+        }
+
+        int vacant = area;
+        for(int s = 0; s < species; s++) {
+            int young = counts[s][block] - work.deaths[s];
+            int adults = counts[species + s][block] - work.deaths[species + s];
+            if(work.eaten[s] > 0 && young + adults > 0) {
+                int eaten = Math.min(work.eaten[s], young + adults);
+                int eatenAdults = binomial(rand, eaten, (double) adults / (young + adults));
+                eatenAdults = Math.max(eaten - young, Math.min(adults, eatenAdults));
+                adults -= eatenAdults;
+                young -= eaten - eatenAdults;
+            }
+            int grown = Math.min(work.grown[s], young);
+            counts[s][block] = young - grown;
+            counts[species + s][block] = adults + grown;
+            vacant -= young + adults;
+        }
+        for(int s = 0; s < species; s++) {
+            // The young are born only into free locations.
+            int born = Math.min(work.births[s], vacant);
+            vacant -= born;
+            Species mate = traits[s].getMate();
+            if(mate != null) {
+                int mates = binomial(rand, born, 0.5);
+                counts[mate.ordinal()][block] += mates;
+                born -= mates;
+            }
+            counts[s][block] += born;
+        }
+    }
+
+    /**
+     * Draw how many of the organisms of a block move across each of its
+     * edges at this step. None cross the edge of the world.
+     * @param row The row of the block.
+     * @param col The column of the block.
+     * @param rand The random number generator to draw with.
+     */
+    private void drawOutflows(int row, int col, Random rand)
+    {
+        int block = row * blockCols + col;
+        for(int group = 0; group < counts.length; group++) {
+            int staying = counts[group][block];
+            double crossing = crossings[group % species];
+            for(int side = 0; side < SIDES; side++) {
+                int moving = 0;
+                if(inWorld(row + ROW_STEPS[side], col + COL_STEPS[side])) {
+                    moving = binomial(rand, staying, crossing);
+                    staying -= moving;
+                }
+                outflows[group][block * SIDES + side] = moving;
+            }
+        }
+    }
+
+    /**
+     * Let an animal on the edge of the field leave it, with the chance of
+     * its moving across each edge of the field it is on into a block.
+     * @param animal The animal.
+     * @param row The row of its location.
+     * @param col The column of its location.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param rand The random number generator to draw with.
+     */
+    private void leave(Animal animal, int row, int col, int depth, int width, Random rand)
+    {
+        int s = animal.getSpecies().ordinal();
+        double chance = ACROSS * traits[s].getAwakeShare();
+        for(int side = 0; side < SIDES; side++) {
+            boolean onEdge = side == 0 ? row == 0 : side == 1 ? row == depth - 1
+                             : side == 2 ? col == 0 : col == width - 1;
+            int r = fieldTop + row / blockSize + ROW_STEPS[side];
+            int c = fieldLeft + col / blockSize + COL_STEPS[side];
+            if(onEdge && inWorld(r, c) && rand.nextDouble() < chance) {
+                counts[group(s, animal.getAge())][r * blockCols + c]++;
+                animal.setDead();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Create in the field the animals that left a block for the block of
+     * the field next to it, on the edge of the field between the two.
+     * @param field The field.
+     * @param animals The list to add the new animals to.
+     * @param row The row of the block of the field.
+     * @param col The column of the block of the field.
+     * @param side The side of that block the animals come from.
+     * @param rand The random number generator to draw with.
+     */
+    private void enter(Field field, List<Animal> animals, int row, int col, int side, Random rand)
+    {
+        int from = (row + ROW_STEPS[side]) * blockCols + col + COL_STEPS[side];
+        int flow = from * SIDES + (side ^ 1);
+        // The first location of the edge, in the field.
+        int edgeRow = (row - fieldTop) * blockSize + (side == 1 ? blockSize - 1 : 0);
+        int edgeCol = (col - fieldLeft) * blockSize + (side == 3 ? blockSize - 1 : 0);
+        boolean alongRow = side < 2;
+        for(int group = 0; group < counts.length; group++) {
+            int entering = outflows[group][flow];
+            outflows[group][flow] = 0;
+            for(int i = 0; i < entering; i++) {
+                int offset = rand.nextInt(blockSize);
+                Location location = alongRow ? new Location(edgeRow, edgeCol + offset)
+                                             : new Location(edgeRow + offset, edgeCol);
+                if(field.getObjectAt(location) == null) {
+                    animals.add((Animal) create(group, field, location, rand));
+                }
+                else {
+                    counts[group][from]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the organisms counted in a block of the field, each at a
+     * random location of the block, and empty its counts. Every location
+     * in turn draws its occupant from those still to be placed.
+     * @param row The row of the block.
+     * @param col The column of the block.
+     * @param field The field, empty in the block.
+     * @param animals The list to add the new animals to.
+     * @param plants The list to add the new plants to.
+     * @param rand The random number generator to draw with.
+     */
+    private void release(int row, int col, Field field, List<Animal> animals,
+                         List<Plant> plants, Random rand)
+    {
+        int block = row * blockCols + col;
+        int top = (row - fieldTop) * blockSize;
+        int left = (col - fieldLeft) * blockSize;
+        int remaining = area;
+        for(int r = top; r < top + blockSize; r++) {
+            for(int c = left; c < left + blockSize; c++) {
+                int pick = rand.nextInt(remaining--);
+                for(int group = 0; group < counts.length; group++) {
+                    if(pick < counts[group][block]) {
+                        counts[group][block]--;
+                        Object organism = create(group, field, new Location(r, c), rand);
+                        if(organism instanceof Plant) {
+                            plants.add((Plant) organism);
+                        }
+                        else {
+                            animals.add((Animal) organism);
+                        }
+                        break;
+                    }
+                    pick -= counts[group][block];
+                }
+            }
+        }
+    }
+
+    /**
+     * Count an organism of the field into the block it lies in.
+     * @param kind Its species.
+     * @param age Its age.
+     * @param location Its location in the field.
+     * @param top The row of blocks at which the field starts.
+     * @param left The column of blocks at which the field starts.
+     */
+    private void count(Species kind, int age, Location location, int top, int left)
+    {
+        int row = top + location.getRow() / blockSize;
+        int col = left + location.getCol() / blockSize;
+        counts[group(kind.ordinal(), age)][row * blockCols + col]++;
+    }
+
+    /**
+     * Create an organism of a group in the field: a young one newborn, an
+     * adult one at a random age.
+     * @param group The group of the organism.
+     * @param field The field.
+     * @param location Where to create it.
+     * @param rand The random number generator to draw the age with.
+     * @return The new organism.
+     */
+    private Object create(int group, Field field, Location location, Random rand)
+    {
+        Species kind = Species.fromOrdinal(group % species);
+        if(group < species) {
+            return kind.create(false, field, location);
+        }
+        return kind.create(rand, field, location);
+    }
+
+    /**
+     * @param s The ordinal of a species.
+     * @param age The age of an organism of the species.
+     * @return The group the organism is counted in.
+     */
+    private int group(int s, int age)
+    {
+        return age < traits[s].getBreedingAge() ? s : species + s;
+    }
+
+    /**
+     * Set where the field lies in the world.
+     * @param top The row of the world at which the field starts.
+     * @param left The column of the world at which the field starts.
+     */
+    private void setFieldOrigin(int top, int left)
+    {
+        if(top < 0 || left < 0 || top % blockSize != 0 || left % blockSize != 0
+           || top / blockSize + fieldRows > blockRows || left / blockSize + fieldCols > blockCols) {
+            throw new IllegalArgumentException("The field must lie in the world, at multiples "
+                                               + "of the block size: " + top + ", " + left);
+        }
+        fieldTop = top / blockSize;
+        fieldLeft = left / blockSize;
+    }
+
+    /**
+     * @param row The row of a block.
+     * @param col The column of a block.
+     * @return Whether the block is in the world.
+     */
+    private boolean inWorld(int row, int col)
+    {
+        return row >= 0 && row < blockRows && col >= 0 && col < blockCols;
+    }
+
+    /**
+     * @param row The row of a block.
+     * @param col The column of a block.
+     * @return Whether the block is in the field.
+     */
+    private boolean inField(int row, int col)
+    {
+        return row >= fieldTop && row < fieldTop + fieldRows
+               && col >= fieldLeft && col < fieldLeft + fieldCols;
+    }
+
+    /**
+     * Return the chance that at least one of a number of organisms spread
+     * evenly over a block is next to a given location.
+     * @param count The number of organisms.
+     * @return The chance.
+     */
+    private double nextTo(int count)
+    {
+        return 1 - Math.pow(1 - Math.min(1.0, (double) count / area), NEIGHBOURS);
+    }
+
+    /**
+     * @param first The chance of one event.
+     * @param second The chance of another, independent of the first.
+     * @return The chance of either.
+     */
+    private static double either(double first, double second)
+    {
+        return 1 - (1 - first) * (1 - second);
+    }
+
+    /**
+     * Work out the chance that an animal starves at a step, when it finds
+     * a meal with a given chance at every step, and each meal lasts it a
+     * given number of steps. It lives only if it finds a meal within that
+     * many steps, and that chance is spread evenly over them, so that an
+     * animal that can find no food at all does not live on.
+     * @param meal The chance of finding a meal at a step.
+     * @param foodValue The number of steps a meal lasts.
+     * @return The chance of starving.
+     */
+    private static double starvation(double meal, int foodValue)
+    {
+        double fed = 1 - Math.pow(1 - meal, foodValue);
+        return 1 - Math.pow(fed, 1.0 / foodValue);
+    }
+
+    /**
+     * Draw the number of successes of a number of trials, each with the
+     * same chance. Small means are drawn exactly, by drawing the gaps
+     * between the successes; large ones by the normal approximation.
+     * @param rand The random number generator to draw with.
+     * @param trials The number of trials.
+     * @param chance The chance of success of each.
+     * @return The number of successes, from 0 to the number of trials.
+     */
+    private static int binomial(Random rand, int trials, double chance)
+    {
+        if(trials <= 0 || chance <= 0) {
+            return 0;
+        }
+        if(chance >= 1) {
+            return trials;
+        }
+        if(chance > 0.5) {
+            return trials - binomial(rand, trials, 1 - chance);
+        }
+        double mean = trials * chance;
+        if(mean < SMALL_MEAN) {
+            double logFailure = Math.log1p(-chance);
+            int successes = 0;
+            double position = 0;
+            while(true) {
+                position += Math.floor(Math.log(1 - rand.nextDouble()) / logFailure) + 1;
+                if(position > trials) {
+                    return successes;
+                }
+                successes++;
+            }
+        }
+        long successes = Math.round(mean + Math.sqrt(mean * (1 - chance)) * rand.nextGaussian());
+        return (int) Math.max(0, Math.min(trials, successes));
+    }
+
+    /**
+     * The work space of a block as it lives through a step: what happens
+     * to each species, drawn from the counts at the start of the step
+     * before any is applied. A thread keeps one for all its blocks.
+     */
+    private class Block
+    {
+        // The chance of each number of free locations next to an organism.
+        private final double[] free = new double[NEIGHBOURS + 1];
+        // The deaths of each group, and the number of each species eaten,
+        // growing up and born.
+        private final int[] deaths = new int[2 * species];
+        private final int[] eaten = new int[species];
+        private final int[] grown = new int[species];
+        private final int[] births = new int[species];
+
+        /**
+         * Forget what happened in the last block.
+         */
+        private void clear()
+        {
+            Arrays.fill(deaths, 0);
+            Arrays.fill(eaten, 0);
+            Arrays.fill(grown, 0);
+            Arrays.fill(births, 0);
+        }
+    }
+}
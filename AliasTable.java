@@ -0,0 +1,117 @@
+import java.util.Random;
+
+/**
+ * Draws one of several outcomes, each with its own chance, from a single
+ * random number, by Walker's alias method as Vose sets it out.
+ *
+ * The outcomes are spread over as many columns of equal width. Each
+ * column holds part of the chance of its own outcome and, above a
+ * cutoff, part of the chance of one other outcome, its alias. A draw
+ * picks a column with the high 32 bits of one nextLong and a height
+ * within it with the low 32, in integer arithmetic, so every draw takes
+ * the same short time however many outcomes there are. The chances are
+ * so kept to 32 bits, which is out by less than one in four billion.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class AliasTable
+{
+    // The height of a full column.
+    private static final long HEIGHT = 1L << 32;
+
+    // The height of each column below which its own outcome is drawn,
+    // out of 2^32.
+    private final long[] cutoffs;
+    // The outcome drawn above the cutoff of each column.
+    private final int[] aliases;
+
+    /**
+     * Build the table for outcomes with the given weights. The chance of
+     * each outcome is its weight over the sum of the weights.
+     * @param weights The weight of each outcome. None may be negative,
+     *                and at least one must be positive.
+     */
+    public AliasTable(double[] weights)
+    {
+        int count = weights.length;
+        double total = 0;
+        for(double weight : weights) {
+            if(!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("The weights must be finite and not negative.");
+            }
+            total += weight;
+        }
+        if(total <= 0) {
+            throw new IllegalArgumentException("Some weight must be positive.");
+        }
+
+        cutoffs = new long[count];
+        aliases = new int[count];
+        // Scale the chances so that a full column holds 1, and sort the
+        // columns into those holding less and those holding more.
+        double[] scaled = new double[count];
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallCount = 0;
+        int largeCount = 0;
+        for(int i = 0; i < count; i++) {
+            scaled[i] = weights[i] * count / total;
+            if(scaled[i] < 1) {
+                small[smallCount++] = i;
+            }
+            else {
+                large[largeCount++] = i;
+            }
+        }
+        // Fill each column that holds too little from one that holds
+        // too much, which may then hold too little itself.
+        while(smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            cutoffs[less] = Math.round(scaled[less] * HEIGHT);
+            aliases[less] = more;
+            scaled[more] -= 1 - scaled[less];
+            if(scaled[more] < 1) {
+                small[smallCount++] = more;
+            }
+            else {
+                large[largeCount++] = more;
+            }
+        }
+        // What is left is full, up to rounding.
+        while(largeCount > 0) {
+            int more = large[--largeCount];
+            cutoffs[more] = HEIGHT;
+            aliases[more] = more;
+        }
+        while(smallCount > 0) {
+            int less = small[--smallCount];
+            cutoffs[less] = HEIGHT;
+            aliases[less] = less;
+        }
+    }
+
+    /**
+     * Draw an outcome.
+     * @param rand The random number generator to draw with.
+     * @return The index of the outcome, with the chance of its weight.
+     */
+    public int sample(Random rand)
+    {
+        long bits = rand.nextLong();
+        int index = (int) (((bits >>> 32) * cutoffs.length) >>> 32);
+        // Load the alias before comparing, so that the choice, which is
+        // unpredictable, can be made without a branch.
+        int alias = aliases[index];
+        return (bits & (HEIGHT - 1)) < cutoffs[index] ? index : alias;
+    }
+
+    /**
+     * @return The number of outcomes.
+     */
+    public int size()
+    {
+        return cutoffs.length;
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.List;
+import java.util.Random;
 
 /**
  * A class representing shared characteristics of animals.
@@ -16,6 +17,8 @@ public abstract class Animal
     private Field field;
     // The animal's position in the field.
     private Location location;
+    // The animal's slot in the field's InfectedIndex, or -1 if it is not in it.
+    int infectedSlot = -1;
 
     /**
      * Create a new animal at location in field.
@@ -40,7 +43,7 @@ public abstract class Animal
         incrementAge();
         incrementHunger();
         if (isAlive()){
-            spreadDisease(); // This could kill the animal.
+            actOnDisease(); // This could kill the animal.
         }
 
         if(isAlive()) {
@@ -49,8 +52,9 @@ public abstract class Animal
             // Look for food.
             Location newLocation = findFood();
             if(newLocation == null) { 
-                // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+                // No food found - try to move to a free location,
+                // towards food if any can be seen.
+                newLocation = getField().freeAdjacentLocationTowards(getLocation(), getFood());
             }
             // See if it was possible to move.
             if(newLocation != null) {
@@ -110,14 +114,121 @@ public abstract class Animal
      */
     public abstract double calculateSnowSurvivalProbability();
 
+    /**
+     * Return the species of this animal.
+     * @return The animal's species.
+     */
+    public abstract Species getSpecies();
+
+    /**
+     * Return the species this animal eats.
+     * @return The species of the animal's food.
+     */
+    public abstract Species getFood();
+
+    /**
+     * Eat food found next to the animal. Food that is eaten up dies.
+     * @param food A live organism of the species the animal eats.
+     */
+    protected abstract void eat(Object food);
+
+    /**
+     * Work out how many young the animal has at this step, when animals
+     * act on intents (see AnimalIntents). Only the given generator may
+     * be drawn from, and the field must not be changed.
+     * @param random The animal's generator for this step.
+     * @param adjacent The locations adjacent to the animal, shuffled.
+     * @param free How many of them are free.
+     * @return The number of births (may be zero), however many there is
+     *         room for.
+     */
+    protected abstract int countYoung(Random random, List<Location> adjacent, int free);
+
+    /**
+     * Return the species of a young animal of this one.
+     * @param random The generator to draw from, if the species is random.
+     * @return The species of the young.
+     */
+    protected Species getYoungSpecies(Random random)
+    {
+        return getSpecies();
+    }
+
+    /**
+     * Check whether the disease of this animal spreads to another next to
+     * it: by default, to animals of the same species.
+     * @param other An animal next to this one.
+     * @return true if the other animal can catch the disease.
+     */
+    protected boolean canInfect(Animal other)
+    {
+        return other.getSpecies() == getSpecies();
+    }
+
+    /**
+     * Check whether the animal is awake, so that it breeds, eats and moves.
+     * @param night Whether it is night.
+     * @return true if the animal is awake; by default it always is.
+     */
+    protected boolean isAwake(boolean night)
+    {
+        return true;
+    }
+
+    /**
+     * Check whether the animal looks for food, rather than only moving.
+     * @param night Whether it is night.
+     * @return true if the animal looks for food; by default it always does.
+     */
+    protected boolean isHunting(boolean night)
+    {
+        return true;
+    }
+
+    /**
+     * @return The age beyond which the animal dies.
+     */
+    protected abstract int getMaxAge();
+
+    /**
+     * @return The chance of the animal dying of disease at each step, if
+     *         it is infected.
+     */
+    protected abstract double getDiseaseDeathProbability();
+
+    /**
+     * @return The age of the animal, in steps.
+     */
+    public abstract int getAge();
+
+    /**
+     * @return How many more steps the animal can go without eating.
+     */
+    public abstract int getFoodLevel();
+
+    /**
+     * Set the age and food level of the animal, e.g. when restoring it
+     * from a checkpoint.
+     * @param age The age of the animal.
+     * @param foodLevel The food level of the animal.
+     */
+    protected abstract void restoreState(int age, int foodLevel);
+
     public boolean getInfected()
     {
         return infected;
     }
 
+    /**
+     * Infect the animal with disease, if it is alive and not already
+     * infected, and add it to the field's index of infected animals.
+     */
     public void infect()
     {
-        infected = true;
+        if(alive && !infected) {
+            infected = true;
+            field.getInfectedIndex().add(this);
+        }
     }
 
     /**
@@ -125,6 +236,24 @@ public abstract class Animal
      */
     public abstract void spreadDisease();        
 
+    /**
+     * If the animal is infected, see whether it dies of disease.
+     * @return true if the animal died of disease.
+     */
+    public abstract boolean checkDeath();
+
+    /**
+     * Let the disease of this animal take its course while it acts:
+     * spread it, which may kill the animal. Nothing happens if the
+     * simulator handles disease for all animals at once.
+     */
+    protected void actOnDisease()
+    {
+        if(!field.getInfectedIndex().isSpreadInBulk()) {
+            spreadDisease();
+        }
+    }
+
     /**
      * Check whether the animal is alive or not.
      * @return true if the animal is still alive.
@@ -142,6 +271,9 @@ public abstract class Animal
     {
         alive = false;
         infected = false;
+        if(infectedSlot >= 0) {
+            field.getInfectedIndex().remove(this);
+        }
         //Remove from location
         if(location != null) {
             field.clear(location);
@@ -0,0 +1,452 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lets all the animals of a field act at once, on the field as it was
+ * at the start of the step, so that what happens does not depend on the
+ * order in which they act.
+ *
+ * A step has five passes. First each animal grows older and hungrier,
+ * and sees whether it dies of that or of disease. Then each animal that
+ * lives decides what it intends to do: which food next to it to eat,
+ * which free locations to have young in and which to move to. In both
+ * passes an animal changes only itself and its own slot, and draws from
+ * its own stream of random numbers, made from the step and the location
+ * it starts in, so animals age and decide on any thread. Each location
+ * an animal wants is claimed with a random priority from its stream; the
+ * highest claim on a location wins, whatever order the claims are made
+ * in. Animals that eat animals claim their food as they decide. Then
+ * each animal whose own location was claimed finds out that it is
+ * eaten, and the rest claim the plants and free locations they want, so
+ * that an animal that is eaten takes no location from another. (No
+ * animal eats an animal that eats animals, so an animal's claim on its
+ * food never has to be withdrawn.) Then each animal finds out which of
+ * its claims it won. Both passes may also run on any thread. Last, on
+ * one thread, disease spreads, the animals that die are removed, and
+ * the rest eat, have young and move as they won. An animal that loses
+ * the location it wanted to move to stays where it is; one that had
+ * nowhere to go dies of overcrowding.
+ *
+ * With the LEGACY algorithm every stream draws from the one generator,
+ * so the animals must decide in order on one thread.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class AnimalIntents
+{
+    // The claim on a location that nobody wants.
+    private static final long UNCLAIMED = -1;
+    // The most young an animal can have in one step: one per adjacent location.
+    private static final int MAX_YOUNG = 8;
+    // The flags of a slot. An animal dies of age, hunger or disease,
+    // spreads its disease, or has no free location left to move to; and
+    // is eaten, eats the food it wanted, or moves where it wanted.
+    private static final int DIES = 1;
+    private static final int SPREADS = 2;
+    private static final int CROWDED = 4;
+    private static final int EATEN = 8;
+    private static final int EATS = 16;
+    private static final int MOVES = 32;
+
+    // The field the animals act in, and its size.
+    private final Field field;
+    private final int depth;
+    private final int width;
+    // The highest claim on each location, row by row.
+    private final AtomicLongArray claims;
+    // The stream the animals' streams are made from.
+    private final RandomStream source;
+
+    // The animals acting in this step, and whether it is night.
+    private List<Animal> animals;
+    private boolean night;
+    // A number shared by the streams of this step.
+    private long key;
+    // Whether disease is spread for all animals at once.
+    private boolean spreadInBulk;
+
+    // The slot of each animal: its stream, its claim, the location it
+    // starts in (-1 if it is dead), its flags, the locations of its food
+    // and where it moves (-1 if none), and the locations of its young,
+    // with a bit set in youngWon for each it won.
+    private RandomStream[] randoms = new RandomStream[0];
+    private long[] priorities = new long[0];
+    private int[] starts = new int[0];
+    private int[] flags = new int[0];
+    private int[] foods = new int[0];
+    private int[] moves = new int[0];
+    private byte[] youngCounts = new byte[0];
+    private byte[] youngWon = new byte[0];
+    private int[] youngCells = new int[0];
+
+    /**
+     * Create the intents for the animals of a field.
+     * @param field The field.
+     * @param source The stream to make the streams of the animals from;
+     *               nothing is drawn from it.
+     */
+    public AnimalIntents(Field field, RandomStream source)
+    {
+        this.field = field;
+        this.source = source;
+        depth = field.getDepth();
+        width = field.getWidth();
+        claims = new AtomicLongArray(depth * width);
+        for(int cell = 0; cell < depth * width; cell++) {
+            claims.set(cell, UNCLAIMED);
+        }
+    }
+
+    /**
+     * Start a step.
+     * @param animals The animals of the field, living or dead.
+     * @param key A number that differs from step to step, from which the
+     *            streams of the animals are made.
+     * @param night Whether it is night.
+     */
+    public void start(List<Animal> animals, long key, boolean night)
+    {
+        this.animals = animals;
+        this.key = key;
+        this.night = night;
+        spreadInBulk = field.getInfectedIndex().isSpreadInBulk();
+        int count = animals.size();
+        if(starts.length < count) {
+            int capacity = Math.max(count, starts.length * 3 / 2);
+            randoms = new RandomStream[capacity];
+            priorities = new long[capacity];
+            starts = new int[capacity];
+            flags = new int[capacity];
+            foods = new int[capacity];
+            moves = new int[capacity];
+            youngCounts = new byte[capacity];
+            youngWon = new byte[capacity];
+            youngCells = new int[capacity * MAX_YOUNG];
+        }
+    }
+
+    /**
+     * Let some animals grow older and hungrier, and see whether they die
+     * of it or of disease. Animals may age on several threads at once.
+     * @param start The index of the first animal.
+     * @param end One past the index of the last.
+     */
+    public void age(int start, int end)
+    {
+        for(int i = start; i < end; i++) {
+            age(i);
+        }
+    }
+
+    /**
+     * Let some animals decide what they intend to do, and claim the
+     * animals they want to eat. Animals may decide on several threads at
+     * once, once all have aged.
+     * @param start The index of the first animal.
+     * @param end One past the index of the last.
+     */
+    public void decide(int start, int end)
+    {
+        byte[] codes = field.getSpeciesCodes();
+        for(int i = start; i < end; i++) {
+            if(starts[i] >= 0 && (flags[i] & DIES) == 0) {
+                decide(i, codes);
+            }
+        }
+    }
+
+    /**
+     * Let some animals find out whether they are eaten, and let those
+     * that are not claim the plants and free locations they want. Animals
+     * may do so on several threads at once, once all have decided.
+     * @param start The index of the first animal.
+     * @param end One past the index of the last.
+     */
+    public void claimFree(int start, int end)
+    {
+        for(int i = start; i < end; i++) {
+            if(starts[i] < 0 || (flags[i] & DIES) != 0) {
+                continue;
+            }
+            // Only animals that eat it claim a location that is occupied.
+            if(claims.get(starts[i]) != UNCLAIMED) {
+                flags[i] |= EATEN;
+                continue;
+            }
+            long priority = priorities[i];
+            if(foods[i] >= 0 && animals.get(i).getFood() == Species.PLANT) {
+                claim(foods[i], priority);
+            }
+            for(int b = 0; b < youngCounts[i]; b++) {
+                claim(youngCells[i * MAX_YOUNG + b], priority);
+            }
+            if(moves[i] >= 0) {
+                claim(moves[i], priority);
+            }
+        }
+    }
+
+    /**
+     * Find out which claims some animals won. Animals may do so on
+     * several threads at once, once all have claimed free locations.
+     * @param start The index of the first animal.
+     * @param end One past the index of the last.
+     */
+    public void resolve(int start, int end)
+    {
+        for(int i = start; i < end; i++) {
+            if(starts[i] < 0 || (flags[i] & (DIES | EATEN)) != 0) {
+                continue;
+            }
+            long priority = priorities[i];
+            if(foods[i] >= 0 && claims.get(foods[i]) == priority) {
+                flags[i] |= EATS;
+            }
+            if(moves[i] >= 0 && claims.get(moves[i]) == priority) {
+                flags[i] |= MOVES;
+            }
+            int won = 0;
+            for(int b = 0; b < youngCounts[i]; b++) {
+                if(claims.get(youngCells[i * MAX_YOUNG + b]) == priority) {
+                    won |= 1 << b;
+                }
+            }
+            youngWon[i] = (byte) won;
+        }
+    }
+
+    /**
+     * Carry out what the animals won, on one thread, once all have
+     * resolved their claims. Dead animals are left in the list.
+     * @param newAnimals A list to receive newly born animals.
+     */
+    public void carryOut(List<Animal> newAnimals)
+    {
+        int count = animals.size();
+        // Disease spreads to the animals next to the infected ones where
+        // they were, before any dies or moves.
+        for(int i = 0; i < count; i++) {
+            if((flags[i] & SPREADS) != 0) {
+                spread(animals.get(i), starts[i]);
+            }
+        }
+        // The dead are cleared, so they can be neither eaten nor infected.
+        for(int i = 0; i < count; i++) {
+            if((flags[i] & DIES) != 0) {
+                animals.get(i).setDead();
+            }
+        }
+        for(int i = 0; i < count; i++) {
+            if(starts[i] >= 0 && (flags[i] & (DIES | EATEN)) == 0) {
+                act(i, newAnimals);
+            }
+        }
+        // Clear the claims for the next step.
+        for(int i = 0; i < count; i++) {
+            if(starts[i] >= 0) {
+                unclaim(foods[i]);
+                unclaim(moves[i]);
+                for(int b = 0; b < youngCounts[i]; b++) {
+                    unclaim(youngCells[i * MAX_YOUNG + b]);
+                }
+            }
+        }
+        animals = null;
+    }
+
+    /**
+     * Let one animal grow older and hungrier.
+     * @param i The index of the animal.
+     */
+    private void age(int i)
+    {
+        Animal animal = animals.get(i);
+        flags[i] = 0;
+        foods[i] = -1;
+        moves[i] = -1;
+        youngCounts[i] = 0;
+        priorities[i] = UNCLAIMED;
+        if(!animal.isAlive()) {
+            starts[i] = -1;
+            return;
+        }
+        Location location = animal.getLocation();
+        int start = location.getRow() * width + location.getCol();
+        starts[i] = start;
+        RandomStream random = source.split(key, start);
+        randoms[i] = random;
+
+        int age = animal.getAge() + 1;
+        int foodLevel = animal.getFoodLevel() - 1;
+        animal.restoreState(age, foodLevel);
+        if(age > animal.getMaxAge() || foodLevel <= 0) {
+            flags[i] = DIES;
+            return;
+        }
+        if(animal.getInfected() && !spreadInBulk) {
+            if(random.nextDouble() <= animal.getDiseaseDeathProbability()) {
+                flags[i] = DIES;
+                return;
+            }
+            flags[i] = SPREADS;
+        }
+    }
+
+    /**
+     * Let one animal that lives decide what it intends to do.
+     * @param i The index of the animal.
+     * @param codes The species code of every location, row by row.
+     */
+    private void decide(int i, byte[] codes)
+    {
+        Animal animal = animals.get(i);
+        if(!animal.isAwake(night)) {
+            return;
+        }
+        Location location = animal.getLocation();
+        int start = starts[i];
+        RandomStream random = randoms[i];
+
+        // The low half of the claim is the location, so no two are equal.
+        long priority = (random.nextLong() >>> 33) << 32 | start;
+        priorities[i] = priority;
+        List<Location> adjacent = field.adjacentLocations(location, random);
+        List<Location> free = new ArrayList<>(adjacent.size());
+        for(Location next : adjacent) {
+            if(codes[cellOf(next)] == Species.EMPTY_CODE) {
+                free.add(next);
+            }
+        }
+        int young = Math.min(animal.countYoung(random, adjacent, free.size()), free.size());
+        for(int b = 0; b < young; b++) {
+            youngCells[i * MAX_YOUNG + b] = cellOf(free.get(b));
+        }
+        youngCounts[i] = (byte) young;
+        free = free.subList(young, free.size());
+
+        Location move;
+        if(animal.isHunting(night)) {
+            int food = animal.getFood().getCode();
+            for(Location next : adjacent) {
+                if(codes[cellOf(next)] == food) {
+                    foods[i] = cellOf(next);
+                    if(animal.getFood() != Species.PLANT) {
+                        // Plants are claimed once the eaten are known.
+                        claim(foods[i], priority);
+                    }
+                    break;
+                }
+            }
+            move = field.nearestTo(free, animal.getFood());
+        }
+        else {
+            move = free.isEmpty() ? null : free.get(0);
+        }
+        if(move != null) {
+            moves[i] = cellOf(move);
+        }
+        else {
+            flags[i] |= CROWDED;
+        }
+    }
+
+    /**
+     * Carry out what one animal won: have young, eat and move.
+     * @param i The index of the animal.
+     * @param newAnimals A list to receive newly born animals.
+     */
+    private void act(int i, List<Animal> newAnimals)
+    {
+        Animal animal = animals.get(i);
+        for(int b = 0; b < youngCounts[i]; b++) {
+            if((youngWon[i] & 1 << b) != 0) {
+                Species species = animal.getYoungSpecies(randoms[i]);
+                Location location = locationOf(youngCells[i * MAX_YOUNG + b]);
+                newAnimals.add((Animal) species.create(false, field, location));
+            }
+        }
+        boolean moved = false;
+        if((flags[i] & EATS) != 0) {
+            // The food may have died of other causes.
+            Location location = locationOf(foods[i]);
+            Object food = field.getObjectAt(location);
+            if(food != null) {
+                animal.eat(food);
+                if(field.getObjectAt(location) == null) {
+                    // It is eaten up, so the animal takes its place.
+                    animal.setLocation(location);
+                    moved = true;
+                }
+            }
+        }
+        if(!moved && (flags[i] & MOVES) != 0) {
+            animal.setLocation(locationOf(moves[i]));
+            moved = true;
+        }
+        if(!moved && (flags[i] & CROWDED) != 0) {
+            // Overcrowding.
+            animal.setDead();
+        }
+    }
+
+    /**
+     * Spread the disease of an animal to the animals next to it that can
+     * catch it.
+     * @param animal The infected animal.
+     * @param start The location of the animal.
+     */
+    private void spread(Animal animal, int start)
+    {
+        int row = start / width;
+        int col = start % width;
+        for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, depth - 1); r++) {
+            for(int c = Math.max(col - 1, 0); c <= Math.min(col + 1, width - 1); c++) {
+                Object other = field.getObjectAt(r, c);
+                if(other != animal && other instanceof Animal && animal.canInfect((Animal) other)) {
+                    ((Animal) other).infect();
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim a location, keeping the highest claim.
+     * @param cell The location, as row * width + col.
+     * @param priority The claim.
+     */
+    private void claim(int cell, long priority)
+    {
+        claims.accumulateAndGet(cell, priority, Math::max);
+    }
+
+    /**
+     * Withdraw every claim on a location.
+     * @param cell The location, as row * width + col, or -1 for none.
+     */
+    private void unclaim(int cell)
+    {
+        if(cell >= 0) {
+            claims.set(cell, UNCLAIMED);
+        }
+    }
+
+    /**
+     * @param location A location of the field.
+     * @return Its index, row * width + col.
+     */
+    private int cellOf(Location location)
+    {
+        return location.getRow() * width + location.getCol();
+    }
+
+    /**
+     * @param cell The index of a location, row * width + col.
+     * @return The location.
+     */
+    private Location locationOf(int cell)
+    {
+        return new Location(cell / width, cell % width);
+    }
+}
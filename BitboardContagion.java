@@ -0,0 +1,189 @@
+import java.util.Arrays;
+
+/**
+ * A disease phase that handles every infected animal at once, as an
+ * alternative to each animal spreading its own disease as it acts.
+ *
+ * First every animal infected at the start of the phase rolls for death
+ * from disease, in order of location so that a run does not depend on
+ * the order in which animals were infected (which is not kept by a
+ * checkpoint). Then, for each group of species that infect each other,
+ * the locations of the surviving infected animals are set in a bitboard,
+ * 64 locations to a word. The board is dilated to the eight neighbours
+ * of each location with shifts and ORs, a row at a time, and every
+ * healthy animal of the group found under the dilated board is infected.
+ *
+ * The rule is the same as when animals spread disease themselves: an
+ * infected animal that survives infects its live neighbours of the same
+ * kind. But here all animals are infected at once from the state at the
+ * start of the phase, rather than one after another as they move, so the
+ * disease spreads at most one location per step.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class BitboardContagion
+{
+    // Marks every species rather than one group.
+    private static final int ALL = -1;
+
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // The number of words covering one row.
+    private final int wordsPerRow;
+    // The bits of the last word of a row that lie inside the field.
+    private final long lastWordMask;
+    // The infected locations of the group being spread, row by row.
+    private final long[] infected;
+    // The infected locations widened by one column either way, row by row.
+    private final long[] widened;
+    // The first and last rows of the locations set in the infected board.
+    private int firstRow;
+    private int lastRow;
+
+    /**
+     * Create the disease phase for a field of the given size.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public BitboardContagion(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        wordsPerRow = (width + 63) >>> 6;
+        lastWordMask = width % 64 == 0 ? -1L : (1L << (width % 64)) - 1;
+        infected = new long[depth * wordsPerRow];
+        widened = new long[depth * wordsPerRow];
+    }
+
+    /**
+     * Run the disease phase: disease deaths, then contagion.
+     * @param field The field.
+     */
+    public void step(Field field)
+    {
+        if(mark(field.getInfectedIndex(), ALL)) {
+            for(int row = firstRow; row <= lastRow; row++) {
+                int base = row * wordsPerRow;
+                for(int w = 0; w < wordsPerRow; w++) {
+                    long bits = infected[base + w];
+                    while(bits != 0) {
+                        int col = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        ((Animal) field.getObjectAt(row, col)).checkDeath();
+                    }
+                }
+            }
+            Arrays.fill(infected, firstRow * wordsPerRow, (lastRow + 1) * wordsPerRow, 0);
+        }
+        for(Species species : Species.values()) {
+            if(groupOf(species) == species.ordinal()) {
+                spread(field, species.ordinal());
+            }
+        }
+    }
+
+    /**
+     * Infect every healthy animal of a group next to an infected one.
+     * @param field The field.
+     * @param group The group, as the ordinal of its first species.
+     */
+    private void spread(Field field, int group)
+    {
+        if(!mark(field.getInfectedIndex(), group)) {
+            return;
+        }
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            widen(row);
+        }
+        byte[] codes = field.getSpeciesCodes();
+        int top = Math.max(0, firstRow - 1);
+        int bottom = Math.min(depth - 1, lastRow + 1);
+        for(int row = top; row <= bottom; row++) {
+            int base = row * wordsPerRow;
+            for(int w = 0; w < wordsPerRow; w++) {
+                long near = widened[base + w];
+                if(row > firstRow) {
+                    near |= widened[base - wordsPerRow + w];
+                }
+                if(row < lastRow) {
+                    near |= widened[base + wordsPerRow + w];
+                }
+                long candidates = near & ~infected[base + w];
+                while(candidates != 0) {
+                    int col = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    int code = codes[row * width + col];
+                    if(code != Species.EMPTY_CODE && code != Species.UNKNOWN_CODE
+                       && groupOf(Species.fromCode(code)) == group) {
+                        ((Animal) field.getObjectAt(row, col)).infect();
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(infected, firstRow * wordsPerRow, (lastRow + 1) * wordsPerRow, 0);
+        Arrays.fill(widened, firstRow * wordsPerRow, (lastRow + 1) * wordsPerRow, 0);
+    }
+
+    /**
+     * Set the locations of the infected animals of a group in the
+     * infected board, and the first and last rows holding any of them.
+     * @param index The infected animals.
+     * @param group The group, as the ordinal of its first species, or ALL.
+     * @return true if any location was set.
+     */
+    private boolean mark(InfectedIndex index, int group)
+    {
+        firstRow = depth;
+        lastRow = -1;
+        for(Species species : Species.values()) {
+            if(group != ALL && groupOf(species) != group) {
+                continue;
+            }
+            for(int i = 0; i < index.getCount(species); i++) {
+                Location location = index.get(species, i).getLocation();
+                int row = location.getRow();
+                int col = location.getCol();
+                infected[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+                firstRow = Math.min(firstRow, row);
+                lastRow = Math.max(lastRow, row);
+            }
+        }
+        return lastRow >= 0;
+    }
+
+    /**
+     * Set a row of the widened board to the row of the infected board
+     * with each location also marking its left and right neighbours.
+     * @param row The row.
+     */
+    private void widen(int row)
+    {
+        int base = row * wordsPerRow;
+        for(int w = 0; w < wordsPerRow; w++) {
+            long bits = infected[base + w];
+            long before = w > 0 ? infected[base + w - 1] : 0;
+            long after = w + 1 < wordsPerRow ? infected[base + w + 1] : 0;
+            long wide = bits | (bits << 1) | (before >>> 63) | (bits >>> 1) | (after << 63);
+            widened[base + w] = w + 1 == wordsPerRow ? wide & lastWordMask : wide;
+        }
+    }
+
+    /**
+     * Return the group of species that infect each other to which a
+     * species belongs: male and female elephants infect each other, and
+     * every other species only itself.
+     * @param species The species.
+     * @return The ordinal of the first species of its group.
+     */
+    private static int groupOf(Species species)
+    {
+        if(species == Species.FEMALE_ELEPHANT) {
+            return Species.MALE_ELEPHANT.ordinal();
+        }
+        return species.ordinal();
+    }
+}
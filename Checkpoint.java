@@ -0,0 +1,450 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * The complete state of a simulation between two steps: the size of the
+ * field, the settings that affect later steps, the step number, the
+ * weather for the next step, the state of the random number generators,
+ * and every animal and plant in the order the simulator keeps them.
+ *
+ * The organisms are held in columns: species code, flags, location,
+ * age, and food level (animals) or size (plants). A checkpoint is taken
+ * on the simulation thread, which only copies these columns. Writing it
+ * to a file can then happen on any thread. In the file each column is
+ * stored whole, so a checkpoint is read back with a few bulk reads of a
+ * memory-mapped file.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class Checkpoint
+{
+    // Marks a file as a checkpoint ("ECOK").
+    private static final int MAGIC = 0x45434f4b;
+    // The version of the file layout. Version 1 had no options; versions
+    // 1 and 2 had the state of a single generator, of the LEGACY algorithm;
+    // up to version 3 the size of the regions started at bit 8; up to
+    // version 4 there was no density, which was the standard one.
+    private static final int VERSION = 5;
+    // The length of the file header, in bytes, without the random state.
+    private static final int HEADER_SIZE = 5 * 4 + 1 + 5 * 8 + 8 + 4 + 1 + 4 + 2 * 4;
+    // The options of the simulation, as bits; the vision radius is held
+    // in the bits from VISION_SHIFT up to INTENT_MOVEMENT, and the size of
+    // the regions of regional weather from bit REGION_SHIFT up.
+    private static final int BITBOARD_CONTAGION = 1;
+    private static final int VISION_SHIFT = 1;
+    private static final int INTENT_MOVEMENT = 1 << 8;
+    private static final int REGION_SHIFT = 9;
+    // The flags of each organism.
+    static final int ALIVE = 1;
+    static final int INFECTED = 2;
+    // The location of an organism that is not in the field.
+    static final int NOWHERE = -1;
+
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // The step number, and the weather for the next step.
+    private final int step;
+    private final Weather weather;
+    // The algorithm and state of the random number generators.
+    private final Randomizer.Algorithm randomAlgorithm;
+    private final long[] randomState;
+    // The settings that affect later steps.
+    private final double snowChance;
+    private final double windChance;
+    private final double rainChance;
+    private final double diseaseProbability;
+    private final double density;
+    private final long seed;
+    private final int options;
+    // The number of animals; they come before the plants in the columns.
+    private final int animalCount;
+    // The columns, one entry per organism.
+    private final byte[] codes;
+    private final byte[] flags;
+    private final int[] cells;
+    private final int[] ages;
+    private final int[] values;
+
+    /**
+     * Take a checkpoint of a simulation.
+     * @param config The settings of the simulation.
+     * @param step The number of completed steps.
+     * @param weather The weather for the next step.
+     * @param animals The animals, in order.
+     * @param plants The plants, in order.
+     * @param randomizer The random number generators of the simulation.
+     */
+    public Checkpoint(SimulationConfig config, int step, Weather weather,
+                      List<Animal> animals, List<Plant> plants, Randomizer randomizer)
+    {
+        depth = config.getDepth();
+        width = config.getWidth();
+        this.step = step;
+        this.weather = weather;
+        randomAlgorithm = randomizer.getAlgorithm();
+        randomState = randomizer.getState();
+        snowChance = config.getSnowChance();
+        windChance = config.getWindChance();
+        rainChance = config.getRainChance();
+        diseaseProbability = config.getDiseaseProbability();
+        density = config.getDensity();
+        seed = config.getSeed();
+        options = (config.isBitboardContagion() ? BITBOARD_CONTAGION : 0)
+                  | config.getVisionRadius() << VISION_SHIFT
+                  | (config.isIntentMovement() ? INTENT_MOVEMENT : 0)
+                  | config.getRegionSize() << REGION_SHIFT;
+
+        animalCount = animals.size();
+        int count = animalCount + plants.size();
+        codes = new byte[count];
+        flags = new byte[count];
+        cells = new int[count];
+        ages = new int[count];
+        values = new int[count];
+        for(int i = 0; i < animalCount; i++) {
+            Animal animal = animals.get(i);
+            codes[i] = (byte) animal.getSpecies().getCode();
+            flags[i] = (byte) ((animal.isAlive() ? ALIVE : 0) | (animal.getInfected() ? INFECTED : 0));
+            cells[i] = cellOf(animal.getLocation());
+            ages[i] = animal.getAge();
+            values[i] = animal.getFoodLevel();
+        }
+        for(int i = animalCount; i < count; i++) {
+            Plant plant = plants.get(i - animalCount);
+            codes[i] = (byte) Species.PLANT.getCode();
+            flags[i] = (byte) (plant.isAlive() ? ALIVE : 0);
+            cells[i] = cellOf(plant.getLocation());
+            ages[i] = plant.getAge();
+            values[i] = plant.getSize();
+        }
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not a checkpoint.
+     */
+    public Checkpoint(File file) throws IOException
+    {
+        MappedByteBuffer data;
+        try(RandomAccessFile input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel()) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(data.limit() < 8 || data.getInt() != MAGIC) {
+            throw new IOException(file + " is not a checkpoint");
+        }
+        int version = data.getInt();
+        if(version < 1 || version > VERSION) {
+            throw new IOException(file + " has unsupported version " + version);
+        }
+        int count;
+        try {
+            depth = data.getInt();
+            width = data.getInt();
+            step = data.getInt();
+            weather = Weather.values()[data.get()];
+            long legacyState = version < 3 ? data.getLong() : 0;
+            snowChance = data.getDouble();
+            windChance = data.getDouble();
+            rainChance = data.getDouble();
+            diseaseProbability = data.getDouble();
+            density = version < 5 ? 1.0 : data.getDouble();
+            seed = data.getLong();
+            int stored = version == 1 ? 0 : data.getInt();
+            options = version < 4 ? (stored & 0xff) | (stored >>> 8) << REGION_SHIFT : stored;
+            if(version < 3) {
+                randomAlgorithm = Randomizer.Algorithm.LEGACY;
+                randomState = new long[] { legacyState };
+            }
+            else {
+                randomAlgorithm = Randomizer.Algorithm.values()[data.get()];
+                randomState = new long[data.getInt()];
+                for(int i = 0; i < randomState.length; i++) {
+                    randomState[i] = data.getLong();
+                }
+            }
+            animalCount = data.getInt();
+            count = animalCount + data.getInt();
+        }
+        catch(BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException(file + " is truncated");
+        }
+        if(data.remaining() != (long) count * (3 * 4 + 2)) {
+            throw new IOException(file + " is truncated");
+        }
+
+        cells = new int[count];
+        ages = new int[count];
+        values = new int[count];
+        codes = new byte[count];
+        flags = new byte[count];
+        readInts(data, cells);
+        readInts(data, ages);
+        readInts(data, values);
+        data.get(codes);
+        data.get(flags);
+    }
+
+    /**
+     * Write the checkpoint to a file. It is written to a temporary file
+     * first, which then replaces the given file, so an earlier checkpoint
+     * in the same file is not lost if writing fails part way.
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException
+    {
+        File temporary = new File(file.getPath() + ".tmp");
+        try(RandomAccessFile output = new RandomAccessFile(temporary, "rw");
+            FileChannel channel = output.getChannel()) {
+            output.setLength(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 8 * randomState.length);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(depth);
+            header.putInt(width);
+            header.putInt(step);
+            header.put((byte) weather.ordinal());
+            header.putDouble(snowChance);
+            header.putDouble(windChance);
+            header.putDouble(rainChance);
+            header.putDouble(diseaseProbability);
+            header.putDouble(density);
+            header.putLong(seed);
+            header.putInt(options);
+            header.put((byte) randomAlgorithm.ordinal());
+            header.putInt(randomState.length);
+            for(long state : randomState) {
+                header.putLong(state);
+            }
+            header.putInt(animalCount);
+            header.putInt(codes.length - animalCount);
+            header.flip();
+            writeFully(channel, header);
+            writeInts(channel, cells);
+            writeInts(channel, ages);
+            writeInts(channel, values);
+            writeFully(channel, ByteBuffer.wrap(codes));
+            writeFully(channel, ByteBuffer.wrap(flags));
+            channel.force(false);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Make settings that continue the checkpointed simulation.
+     * @param threads The number of threads to run it with.
+     * @return The settings.
+     */
+    public SimulationConfig toConfig(int threads)
+    {
+        SimulationConfig config = new SimulationConfig();
+        config.setSize(depth, width);
+        config.setWeatherChances(snowChance, windChance, rainChance);
+        config.setDiseaseProbability(diseaseProbability);
+        config.setDensity(density);
+        config.setSeed(seed);
+        config.setBitboardContagion((options & BITBOARD_CONTAGION) != 0);
+        config.setVisionRadius((options & INTENT_MOVEMENT - 1) >>> VISION_SHIFT);
+        config.setIntentMovement((options & INTENT_MOVEMENT) != 0);
+        config.setRegionalWeather(options >>> REGION_SHIFT);
+        config.setRandomAlgorithm(randomAlgorithm);
+        config.setThreads(threads);
+        return config;
+    }
+
+    /**
+     * @return The depth of the field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * @return The number of completed steps.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The weather for the next step.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * @return The algorithm of the random number generators.
+     */
+    public Randomizer.Algorithm getRandomAlgorithm()
+    {
+        return randomAlgorithm;
+    }
+
+    /**
+     * @return The state of the random number generators, as returned by
+     *         Randomizer.getState of the simulation.
+     */
+    public long[] getRandomState()
+    {
+        return randomState.clone();
+    }
+
+    /**
+     * @return The number of organisms, animals first.
+     */
+    public int getCount()
+    {
+        return codes.length;
+    }
+
+    /**
+     * @return The number of animals.
+     */
+    public int getAnimalCount()
+    {
+        return animalCount;
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Its species.
+     */
+    public Species getSpecies(int i)
+    {
+        return Species.fromCode(codes[i]);
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return The code of its species.
+     */
+    int getCode(int i)
+    {
+        return codes[i];
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Its location as row * width + col, or NOWHERE.
+     */
+    int getCell(int i)
+    {
+        return cells[i];
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Whether it is alive.
+     */
+    public boolean isAlive(int i)
+    {
+        return (flags[i] & ALIVE) != 0;
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Whether it is infected.
+     */
+    public boolean isInfected(int i)
+    {
+        return (flags[i] & INFECTED) != 0;
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Its location, or null if it is not in the field.
+     */
+    public Location getLocation(int i)
+    {
+        int cell = cells[i];
+        return cell == NOWHERE ? null : new Location(cell / width, cell % width);
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Its age.
+     */
+    public int getAge(int i)
+    {
+        return ages[i];
+    }
+
+    /**
+     * @param i The index of an organism.
+     * @return Its food level if it is an animal, or its size if it is a plant.
+     */
+    public int getValue(int i)
+    {
+        return values[i];
+    }
+
+    /**
+     * @param location A location, or null.
+     * @return Its index in row order, or NOWHERE.
+     */
+    private int cellOf(Location location)
+    {
+        return location == null ? NOWHERE : location.getRow() * width + location.getCol();
+    }
+
+    /**
+     * Read a column of ints in one bulk read.
+     * @param data The buffer, positioned at the column.
+     * @param column The array to fill.
+     */
+    private static void readInts(ByteBuffer data, int[] column)
+    {
+        data.asIntBuffer().get(column);
+        data.position(data.position() + column.length * 4);
+    }
+
+    /**
+     * Write a column of ints.
+     * @param channel The channel to write to.
+     * @param column The column.
+     * @throws IOException If it cannot be written.
+     */
+    private static void writeInts(FileChannel channel, int[] column) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(column.length * 4);
+        buffer.asIntBuffer().put(column);
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Write the whole of a buffer.
+     * @param channel The channel to write to.
+     * @param buffer The buffer.
+     * @throws IOException If it cannot be written.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -1,5 +1,3 @@
-import java.awt.Color;
-
 /**
  * Provide a counter for a participant in the simulation.
  * This includes an identifying string and a count of how
@@ -50,6 +48,15 @@ public class Counter
         count++;
     }
     
+    /**
+     * Increase the current count by the given amount.
+     * @param amount The amount to add.
+     */
+    public void increment(int amount)
+    {
+        count += amount;
+    }
+    
     /**
      * Reset the current count to zero.
      */
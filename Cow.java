@@ -20,8 +20,6 @@ public class Cow extends Animal
     private static final double BREEDING_PROBABILITY = 0.16;
     // The maximum number of births.
     private static final int MAX_LITTER_SIZE = 4;
-    // A shared random number generator to control breeding.
-    private static final Random rand = Randomizer.getRandom();
     // The size of plants a cow can eat per step.
     private static final int FOOD_CAPACITY = 5;
     // The food value of a single plant. In effect, this is the
@@ -48,14 +46,30 @@ public class Cow extends Animal
     {
         super(field, location);
         if(randomAge) {
-            age = rand.nextInt(MAX_AGE);
-            foodLevel = rand.nextInt(PLANT_FOOD_VALUE);
+            age = rand().nextInt(MAX_AGE);
+            foodLevel = rand().nextInt(PLANT_FOOD_VALUE);
         }else {
             age = 0;
             foodLevel = PLANT_FOOD_VALUE;
         }
     }
 
+    /**
+     * Create a cow with a random age and food level, drawn from the
+     * given generator rather than the cows' own, as when the field is
+     * populated row by row in parallel.
+     *
+     * @param random The generator to draw the age and food level from.
+     * @param field The field currently occupied.
+     * @param location The location within the field.
+     */
+    public Cow(Random random, Field field, Location location)
+    {
+        super(field, location);
+        age = random.nextInt(MAX_AGE);
+        foodLevel = random.nextInt(PLANT_FOOD_VALUE);
+    }
+
     /**
      * Increase the age.
      * This could result in the cow's death.
@@ -89,7 +103,7 @@ public class Cow extends Animal
         incrementHunger();
         if (isAlive()){
             if(getInfected()){
-                spreadDisease();
+                actOnDisease();
             }
         }
     }
@@ -110,8 +124,7 @@ public class Cow extends Animal
             if(animal instanceof Plant) {
                 Plant plant = (Plant) animal;
                 if(plant.isAlive()) { 
-                    plant.reduceSize(FOOD_CAPACITY);
-                    foodLevel = PLANT_FOOD_VALUE;
+                    eat(plant);
                     if(plant.isAlive()){
                         return null;
                     }
@@ -133,7 +146,7 @@ public class Cow extends Animal
         // Get a list of adjacent free locations.
         Field field = getField();
         List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        int births = breed();
+        int births = breed(rand());
         for(int b = 0; b < births && free.size() > 0; b++) {
             Location loc = free.remove(0);
             Cow young = new Cow(false, field, loc);
@@ -144,13 +157,14 @@ public class Cow extends Animal
     /**
      * Generate a number representing the number of births,
      * if it can breed.
+     * @param random The generator to draw from.
      * @return The number of births (may be zero).
      */
-    private int breed()
+    private int breed(Random random)
     {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed() && random.nextDouble() <= BREEDING_PROBABILITY) {
+            births = random.nextInt(MAX_LITTER_SIZE) + 1;
         }
         return births;
     }
@@ -198,7 +212,7 @@ public class Cow extends Animal
      */
     public boolean checkDeath()
     {
-        if( rand.nextDouble() <= DISEASE_DEATH_PROBABILITY){
+        if( rand().nextDouble() <= DISEASE_DEATH_PROBABILITY){
             setDead();
             return true;
         }
@@ -209,7 +223,129 @@ public class Cow extends Animal
      * @return The chance the cow has of surviving in snow.
      */
     public double calculateSnowSurvivalProbability()
+    {
+        return snowSurvivalProbability(age);
+    }
+
+    /**
+     * @param age The age of a cow.
+     * @return The chance a cow of that age has of surviving in snow.
+     */
+    public static double snowSurvivalProbability(int age)
     {
         return 0.5 + (age*age*1.6)/(MAX_AGE*MAX_AGE);
     }
+
+    /**
+     * @return The traits of cows that the aggregate model of their
+     *         population works from.
+     */
+    public static LifeHistory lifeHistory()
+    {
+        LifeHistory traits = new LifeHistory(BREEDING_AGE, MAX_AGE, BREEDING_PROBABILITY,
+                                             MAX_LITTER_SIZE);
+        traits.setFood(Species.PLANT, PLANT_FOOD_VALUE, FOOD_CAPACITY);
+        // Cows sleep at night, one step in four.
+        traits.setShares(0.75, 1);
+        return traits;
+    }
+
+    /**
+     * @return The species of the cow.
+     */
+    public Species getSpecies()
+    {
+        return Species.COW;
+    }
+
+    /**
+     * @return The species the cow eats.
+     */
+    public Species getFood()
+    {
+        return Species.PLANT;
+    }
+
+    /**
+     * Eat some of a plant, which dies if it is eaten up.
+     * @param food A live plant.
+     */
+    protected void eat(Object food)
+    {
+        ((Plant) food).reduceSize(FOOD_CAPACITY);
+        foodLevel = PLANT_FOOD_VALUE;
+    }
+
+    /**
+     * Work out how many young the cow has at this step.
+     * @param random The generator to draw from.
+     * @param adjacent The locations adjacent to the cow.
+     * @param free How many of them are free.
+     * @return The number of births (may be zero).
+     */
+    protected int countYoung(Random random, List<Location> adjacent, int free)
+    {
+        return breed(random);
+    }
+
+    /**
+     * Cows sleep at night.
+     * @param night Whether it is night.
+     * @return Whether the cow is awake.
+     */
+    protected boolean isAwake(boolean night)
+    {
+        return !night;
+    }
+
+    /**
+     * @return The age to which a cow can live.
+     */
+    protected int getMaxAge()
+    {
+        return MAX_AGE;
+    }
+
+    /**
+     * @return The chance of an infected cow dying of disease at each step.
+     */
+    protected double getDiseaseDeathProbability()
+    {
+        return DISEASE_DEATH_PROBABILITY;
+    }
+
+    /**
+     * @return The age of the cow, in steps.
+     */
+    public int getAge()
+    {
+        return age;
+    }
+
+    /**
+     * @return How many more steps the cow can go without eating.
+     */
+    public int getFoodLevel()
+    {
+        return foodLevel;
+    }
+
+    /**
+     * Set the age and food level of the cow.
+     * @param age The age of the cow.
+     * @param foodLevel The food level of the cow.
+     */
+    protected void restoreState(int age, int foodLevel)
+    {
+        this.age = age;
+        this.foodLevel = foodLevel;
+    }
+
+    /**
+     * @return The random number generator of the cows of the field.
+     */
+    private Random rand()
+    {
+        return getField().getRandomizer().getRandom(Randomizer.Stream.COW);
+    }
 }
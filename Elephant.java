@@ -22,8 +22,6 @@ public abstract class Elephant extends Animal
     protected static final double BREEDING_PROBABILITY = 0.9;
     // The maximum number of births.
     protected static final int MAX_LITTER_SIZE = 4;
-    // A shared random number generator to control breeding.
-    protected static final Random rand = Randomizer.getRandom();
     // The food value of a single plant. In effect, this is the
     // number of steps an elephant can go before it has to eat again.
     protected static final int PLANT_FOOD_VALUE = 10;
@@ -50,14 +48,30 @@ public abstract class Elephant extends Animal
         super( field, location);
         age = 0;
         if(randomAge) {
-            age = rand.nextInt(MAX_AGE);
-            foodLevel = rand.nextInt(PLANT_FOOD_VALUE);
+            age = rand().nextInt(MAX_AGE);
+            foodLevel = rand().nextInt(PLANT_FOOD_VALUE);
         }else {
             age = 0;
             foodLevel = PLANT_FOOD_VALUE;
         }
     }
 
+    /**
+     * Create an elephant with a random age and food level, drawn from the
+     * given generator rather than the elephants' own, as when the field is
+     * populated row by row in parallel.
+     *
+     * @param random The generator to draw the age and food level from.
+     * @param field The field currently occupied.
+     * @param location The location within the field.
+     */
+    public Elephant(Random random, Field field, Location location)
+    {
+        super(field, location);
+        age = random.nextInt(MAX_AGE);
+        foodLevel = random.nextInt(PLANT_FOOD_VALUE);
+    }
+
     /**
      * Increase the age.
      * This could result in the elephant's death.
@@ -97,8 +111,7 @@ public abstract class Elephant extends Animal
             if(animal instanceof Plant) {
                 Plant plant = (Plant) animal;
                 if(plant.isAlive()) { 
-                    plant.reduceSize(FOOD_CAPACITY);
-                    foodLevel = PLANT_FOOD_VALUE;
+                    eat(plant);
                     if(plant.isAlive()){
                         return null;
                     }
@@ -143,7 +156,7 @@ public abstract class Elephant extends Animal
      */
     public boolean checkDeath()
     {
-        if( rand.nextDouble() <= DISEASE_DEATH_PROBABILITY){
+        if( rand().nextDouble() <= DISEASE_DEATH_PROBABILITY){
             setDead();
             return true;
         }
@@ -154,13 +167,101 @@ public abstract class Elephant extends Animal
      * @return The chance the elephant has of surviving in snow.
      */
     public double calculateSnowSurvivalProbability()
+    {
+        return snowSurvivalProbability(age);
+    }
+
+    /**
+     * @param age The age of an elephant.
+     * @return The chance an elephant of that age has of surviving in snow.
+     */
+    public static double snowSurvivalProbability(int age)
     {
         return 0.5 + (age*age*1.6)/(MAX_AGE*MAX_AGE);
     }
 
+    /**
+     * @return The species the elephant eats.
+     */
+    public Species getFood()
+    {
+        return Species.PLANT;
+    }
+
+    /**
+     * Eat some of a plant, which dies if it is eaten up.
+     * @param food A live plant.
+     */
+    protected void eat(Object food)
+    {
+        ((Plant) food).reduceSize(FOOD_CAPACITY);
+        foodLevel = PLANT_FOOD_VALUE;
+    }
+
+    /**
+     * Elephants catch disease from elephants of either sex.
+     * @param other An animal next to this one.
+     * @return Whether it is an elephant.
+     */
+    protected boolean canInfect(Animal other)
+    {
+        return other instanceof Elephant;
+    }
+
+    /**
+     * @return The age to which an elephant can live.
+     */
+    protected int getMaxAge()
+    {
+        return MAX_AGE;
+    }
+
+    /**
+     * @return The chance of an infected elephant dying of disease at each step.
+     */
+    protected double getDiseaseDeathProbability()
+    {
+        return DISEASE_DEATH_PROBABILITY;
+    }
+
     /**
      * Give birth to new elephants.
      * @param newAnimals A list to receive newly born animals
      */
     public abstract void giveBirth(List <Animal> newElephants);
+
+    /**
+     * @return The age of the elephant, in steps.
+     */
+    public int getAge()
+    {
+        return age;
+    }
+
+    /**
+     * @return How many more steps the elephant can go without eating.
+     */
+    public int getFoodLevel()
+    {
+        return foodLevel;
+    }
+
+    /**
+     * Set the age and food level of the elephant.
+     * @param age The age of the elephant.
+     * @param foodLevel The food level of the elephant.
+     */
+    protected void restoreState(int age, int foodLevel)
+    {
+        this.age = age;
+        this.foodLevel = foodLevel;
+    }
+
+    /**
+     * @return The random number generator of the elephants of the field.
+     */
+    protected Random rand()
+    {
+        return getField().getRandomizer().getRandom(Randomizer.Stream.ELEPHANT);
+    }
 }
@@ -0,0 +1,192 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A file written by EntityExporter, opened for reading. The file is
+ * memory-mapped and read one batch at a time; a column of a batch is
+ * only decoded when it is asked for. The layout is described in
+ * EntityExporter.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class EntityExportFile
+{
+    // The contents of the file.
+    private final MappedByteBuffer data;
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // The file offset of the next batch.
+    private int next;
+    // The step and number of organisms of the current batch.
+    private int step;
+    private int count;
+    // The file offset of each column of the current batch, or -1.
+    private final int[] columnStarts;
+
+    /**
+     * Open an entity export. No batch is current until nextBatch is called.
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not an entity export.
+     */
+    public EntityExportFile(File file) throws IOException
+    {
+        try(RandomAccessFile input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel()) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(data.limit() < EntityExporter.HEADER_SIZE || data.getInt(0) != EntityExporter.MAGIC) {
+            throw new IOException(file + " is not an entity export");
+        }
+        int version = data.getInt(4);
+        if(version != EntityExporter.VERSION) {
+            throw new IOException(file + " has unsupported version " + version);
+        }
+        depth = data.getInt(8);
+        width = data.getInt(12);
+        next = EntityExporter.HEADER_SIZE;
+        columnStarts = new int[EntityExporter.Column.values().length];
+    }
+
+    /**
+     * @return The depth of the field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Move to the next batch, if there is a complete one.
+     * @return true if there is a next batch.
+     */
+    public boolean nextBatch()
+    {
+        if(next + 4 > data.limit() || (long) next + 4 + data.getInt(next) > data.limit()) {
+            return false;
+        }
+        int end = next + 4 + data.getInt(next);
+        step = data.getInt(next + 4);
+        count = data.getInt(next + 8);
+        int columns = data.get(next + 12);
+        Arrays.fill(columnStarts, -1);
+        int position = next + 13;
+        for(int i = 0; i < columns; i++) {
+            int column = data.get(position);
+            if(column < columnStarts.length) {
+                columnStarts[column] = position;
+            }
+            position += 6 + data.getInt(position + 2);
+        }
+        next = end;
+        return true;
+    }
+
+    /**
+     * @return The step of the current batch.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The number of organisms in the current batch.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Decode a column of the current batch.
+     * @param column The column.
+     * @return Its values, one per organism.
+     * @throws IllegalStateException If the batch has no such column.
+     */
+    public int[] getColumn(EntityExporter.Column column)
+    {
+        int start = columnStarts[column.ordinal()];
+        if(start < 0) {
+            throw new IllegalStateException("The batch has no " + column + " column.");
+        }
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(start + 6);
+        int[] values = new int[count];
+        switch(data.get(start + 1)) {
+            case EntityExporter.RLE:
+                int runs = readVarint(buffer);
+                for(int run = 0, i = 0; run < runs; run++) {
+                    int value = unzigzag(readVarint(buffer));
+                    int length = readVarint(buffer);
+                    Arrays.fill(values, i, i + length, value);
+                    i += length;
+                }
+                break;
+            case EntityExporter.DICTIONARY:
+                int[] dictionary = new int[readVarint(buffer)];
+                for(int d = 0; d < dictionary.length; d++) {
+                    dictionary[d] = unzigzag(readVarint(buffer));
+                }
+                int indexWidth = buffer.get();
+                for(int i = 0; i < count; i++) {
+                    int index = buffer.get() & 0xff;
+                    if(indexWidth == 2) {
+                        index = index << 8 | (buffer.get() & 0xff);
+                    }
+                    values[i] = dictionary[index];
+                }
+                break;
+            default:
+                for(int i = 0; i < count; i++) {
+                    values[i] = unzigzag(readVarint(buffer));
+                }
+                break;
+        }
+        return values;
+    }
+
+    /**
+     * @param value A zigzag encoded value.
+     * @return The value it encodes.
+     */
+    private static int unzigzag(int value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Read an unsigned variable-length integer, seven bits per byte.
+     * @param buffer The buffer to read from.
+     * @return The value.
+     */
+    private static int readVarint(ByteBuffer buffer)
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+}
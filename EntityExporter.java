@@ -0,0 +1,478 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Export the state of every live organism, every so many steps, to a
+ * compact columnar file for analysis outside the simulator.
+ *
+ * At each exported step the simulation thread takes a Checkpoint, which
+ * only copies the state of the organisms into arrays. A background thread
+ * turns it into columns, encodes each column and writes them through a
+ * file channel. The simulation waits only if that thread is still busy
+ * with earlier steps.
+ *
+ * The file starts with a header of four ints: MAGIC, VERSION, the depth
+ * and the width of the field. Each exported step is then a batch:
+ *
+ *   int   length of the rest of the batch in bytes
+ *   int   step
+ *   int   number of organisms, n
+ *   byte  number of columns
+ *   then for each column, in the order of Column:
+ *     byte  column (its ordinal)
+ *     byte  encoding: RLE, DICTIONARY or PLAIN
+ *     int   length of the encoded column in bytes
+ *     the encoded column
+ *
+ * All ints are big-endian. Values are stored zigzag encoded (0, -1, 1,
+ * -2 ... become 0, 1, 2, 3 ...) as variable-length integers of seven
+ * bits per byte, low bits first, with the top bit set on every byte but
+ * the last. The encodings are:
+ *
+ *   RLE         the number of runs, then for each run its value and
+ *               its length (not zigzag encoded).
+ *   DICTIONARY  the number of distinct values, the distinct values in
+ *               ascending order, a byte giving the width of each index
+ *               (1 or 2), then n indices into the values, big-endian.
+ *   PLAIN       n values.
+ *
+ * Each column is given whichever of these suits it: RLE when it has few
+ * runs, otherwise a dictionary when its values span a small range, and
+ * plain values only when neither applies.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class EntityExporter
+{
+    /**
+     * The columns of each batch. FOOD_LEVEL is zero for plants, and
+     * PLANT_SIZE is zero for animals. INFECTED is one or zero.
+     */
+    public enum Column
+    {
+        SPECIES, ROW, COL, AGE, FOOD_LEVEL, INFECTED, PLANT_SIZE
+    }
+
+    // Marks a file as an entity export ("ECOE").
+    static final int MAGIC = 0x45434f45;
+    // The version of the file layout.
+    static final int VERSION = 1;
+    // The length of the file header, in bytes.
+    static final int HEADER_SIZE = 4 * 4;
+    // The encodings of a column.
+    static final int RLE = 0;
+    static final int DICTIONARY = 1;
+    static final int PLAIN = 2;
+    // The largest range of values a dictionary may cover.
+    private static final int MAX_DICTIONARY_RANGE = 1 << 16;
+    // The number of checkpoints that can wait to be written.
+    private static final int QUEUE_CAPACITY = 2;
+    // A marker placed on the queue to ask the writer to finish.
+    private static final Object END = new Object();
+
+    // Export one step in this many.
+    private final int interval;
+    // The checkpoints waiting to be written.
+    private final BlockingQueue<Object> queue;
+    // The file being written.
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    // The background thread that encodes and writes the batches.
+    private final Thread writer;
+    // The first failure met by the writer, if any.
+    private volatile IOException failure;
+
+    // The values of the column being encoded, and the marks of the values
+    // it holds when a dictionary is made (writer thread only).
+    private int[] values;
+    private int[] dictionaryIndex;
+    // The encoded form of each column, kept from batch to batch (writer thread only).
+    private final ColumnBuffer[] columnBuffers;
+
+    /**
+     * Create an exporter that writes to the given file, replacing anything
+     * already in it.
+     * @param file The file to write.
+     * @param interval Export one step in this many. Must be at least one.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @throws IOException If the file cannot be created.
+     */
+    public EntityExporter(File file, int interval, int depth, int width) throws IOException
+    {
+        if(interval < 1) {
+            throw new IllegalArgumentException("The interval must be at least one.");
+        }
+        this.interval = interval;
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        channel = this.file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(depth);
+        header.putInt(width);
+        header.flip();
+        while(header.hasRemaining()) {
+            channel.write(header);
+        }
+        values = new int[0];
+        dictionaryIndex = new int[MAX_DICTIONARY_RANGE];
+        columnBuffers = new ColumnBuffer[Column.values().length];
+        for(int i = 0; i < columnBuffers.length; i++) {
+            columnBuffers[i] = new ColumnBuffer();
+        }
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        writer = new Thread(this::writeBatches, "entity-exporter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @param step A step number.
+     * @return Whether that step is one to export.
+     */
+    public boolean isExportStep(int step)
+    {
+        return step % interval == 0;
+    }
+
+    /**
+     * Export the live organisms of a checkpoint. This only waits if the
+     * writer has fallen behind.
+     * @param checkpoint The checkpoint.
+     */
+    public void export(Checkpoint checkpoint)
+    {
+        try {
+            queue.put(checkpoint);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write everything exported so far and close the file.
+     * @throws IOException If the export could not be written.
+     */
+    public void close() throws IOException
+    {
+        try {
+            queue.put(END);
+            writer.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The body of the writer thread: encode and write each checkpoint as
+     * it arrives. After a failure the checkpoints are discarded, so that
+     * export never blocks for good.
+     */
+    private void writeBatches()
+    {
+        try {
+            while(true) {
+                Object next = queue.take();
+                if(next == END) {
+                    return;
+                }
+                if(failure == null) {
+                    try {
+                        writeBatch((Checkpoint) next);
+                    }
+                    catch(IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        catch(InterruptedException e) {
+            // Stop writing.
+        }
+    }
+
+    /**
+     * Encode and write the live organisms of one checkpoint.
+     * @param checkpoint The checkpoint.
+     * @throws IOException If the batch cannot be written.
+     */
+    private void writeBatch(Checkpoint checkpoint) throws IOException
+    {
+        // Find the live organisms that are in the field.
+        int total = checkpoint.getCount();
+        int[] live = new int[total];
+        int count = 0;
+        for(int i = 0; i < total; i++) {
+            if(checkpoint.isAlive(i) && checkpoint.getCell(i) != Checkpoint.NOWHERE) {
+                live[count++] = i;
+            }
+        }
+        if(values.length < count) {
+            values = new int[count];
+        }
+
+        Column[] columns = Column.values();
+        ByteBuffer[] buffers = new ByteBuffer[1 + columns.length];
+        int length = 4 + 4 + 1;
+        for(Column column : columns) {
+            fillColumn(checkpoint, column, live, count);
+            ByteBuffer encoded = encodeColumn(column, count);
+            buffers[1 + column.ordinal()] = encoded;
+            length += encoded.remaining();
+        }
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 + 4 + 1);
+        header.putInt(length);
+        header.putInt(checkpoint.getStep());
+        header.putInt(count);
+        header.put((byte) columns.length);
+        header.flip();
+        buffers[0] = header;
+
+        long remaining = 4 + length;
+        while(remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    /**
+     * Put the values of one column into values.
+     * @param checkpoint The checkpoint.
+     * @param column The column.
+     * @param live The indices of the live organisms in the checkpoint.
+     * @param count The number of live organisms.
+     */
+    private void fillColumn(Checkpoint checkpoint, Column column, int[] live, int count)
+    {
+        int width = checkpoint.getWidth();
+        int animals = checkpoint.getAnimalCount();
+        // One loop per column, so that each loop stays simple.
+        switch(column) {
+            case SPECIES:
+                for(int j = 0; j < count; j++) {
+                    values[j] = checkpoint.getCode(live[j]);
+                }
+                break;
+            case ROW:
+                for(int j = 0; j < count; j++) {
+                    values[j] = checkpoint.getCell(live[j]) / width;
+                }
+                break;
+            case COL:
+                for(int j = 0; j < count; j++) {
+                    values[j] = checkpoint.getCell(live[j]) % width;
+                }
+                break;
+            case AGE:
+                for(int j = 0; j < count; j++) {
+                    values[j] = checkpoint.getAge(live[j]);
+                }
+                break;
+            case FOOD_LEVEL:
+                for(int j = 0; j < count; j++) {
+                    values[j] = live[j] < animals ? checkpoint.getValue(live[j]) : 0;
+                }
+                break;
+            case INFECTED:
+                for(int j = 0; j < count; j++) {
+                    values[j] = checkpoint.isInfected(live[j]) ? 1 : 0;
+                }
+                break;
+            default:
+                for(int j = 0; j < count; j++) {
+                    values[j] = live[j] < animals ? 0 : checkpoint.getValue(live[j]);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Encode the first count entries of values in whichever encoding
+     * suits them.
+     * @param column The column, for the header.
+     * @param count The number of values.
+     * @return The column header and the encoded column.
+     */
+    private ByteBuffer encodeColumn(Column column, int count)
+    {
+        int runs = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for(int i = 0; i < count; i++) {
+            int value = values[i];
+            if(i == 0 || value != values[i - 1]) {
+                runs++;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        ColumnBuffer out = columnBuffers[column.ordinal()];
+        out.clear(count);
+        int encoding;
+        if(runs * 4 <= count) {
+            encoding = RLE;
+            out.putVarint(runs);
+            int start = 0;
+            for(int i = 1; i <= count; i++) {
+                if(i == count || values[i] != values[start]) {
+                    out.putVarint(zigzag(values[start]));
+                    out.putVarint(i - start);
+                    start = i;
+                }
+            }
+        }
+        else if((long) max - min < MAX_DICTIONARY_RANGE) {
+            encoding = DICTIONARY;
+            // Mark the values present, then number them in ascending order.
+            int range = max - min + 1;
+            Arrays.fill(dictionaryIndex, 0, range, -1);
+            for(int i = 0; i < count; i++) {
+                dictionaryIndex[values[i] - min] = 0;
+            }
+            int size = 0;
+            for(int v = 0; v < range; v++) {
+                if(dictionaryIndex[v] == 0) {
+                    dictionaryIndex[v] = size++;
+                }
+            }
+            out.putVarint(size);
+            for(int v = 0; v < range; v++) {
+                if(dictionaryIndex[v] >= 0) {
+                    out.putVarint(zigzag(v + min));
+                }
+            }
+            int indexWidth = size <= 256 ? 1 : 2;
+            out.put(indexWidth);
+            out.ensureSpace(count * indexWidth);
+            byte[] bytes = out.bytes;
+            int at = out.length;
+            if(indexWidth == 1) {
+                for(int i = 0; i < count; i++) {
+                    bytes[at++] = (byte) dictionaryIndex[values[i] - min];
+                }
+            }
+            else {
+                for(int i = 0; i < count; i++) {
+                    int index = dictionaryIndex[values[i] - min];
+                    bytes[at++] = (byte) (index >>> 8);
+                    bytes[at++] = (byte) index;
+                }
+            }
+            out.length = at;
+        }
+        else {
+            encoding = PLAIN;
+            for(int i = 0; i < count; i++) {
+                out.putVarint(zigzag(values[i]));
+            }
+        }
+        return out.finish(column, encoding);
+    }
+
+    /**
+     * @param value A value.
+     * @return The value zigzag encoded, so small negative values stay small.
+     */
+    private static int zigzag(int value)
+    {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * A growing buffer holding one encoded column, after room for its
+     * header.
+     */
+    private static class ColumnBuffer
+    {
+        // The length of a column header: column, encoding and length.
+        private static final int COLUMN_HEADER_SIZE = 1 + 1 + 4;
+
+        // The bytes, and how many are in use.
+        private byte[] bytes;
+        private int length;
+
+        /**
+         * Create an empty buffer.
+         */
+        private ColumnBuffer()
+        {
+            bytes = new byte[COLUMN_HEADER_SIZE + 16];
+            length = COLUMN_HEADER_SIZE;
+        }
+
+        /**
+         * Empty the buffer, ready to encode a column.
+         * @param count The number of values to be encoded.
+         */
+        private void clear(int count)
+        {
+            length = COLUMN_HEADER_SIZE;
+            ensureSpace(count);
+        }
+
+        /**
+         * Append a byte.
+         * @param value The byte, in the low eight bits.
+         */
+        private void put(int value)
+        {
+            ensureSpace(1);
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         * Append an unsigned variable-length integer, seven bits per byte.
+         * @param value The value, treated as unsigned.
+         */
+        private void putVarint(int value)
+        {
+            ensureSpace(5);
+            while((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         * Make sure there is room for more bytes.
+         * @param extra The number of bytes needed.
+         */
+        private void ensureSpace(int extra)
+        {
+            if(length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        /**
+         * Fill in the header of the column.
+         * @param column The column.
+         * @param encoding The encoding used.
+         * @return The header and the encoded column.
+         */
+        private ByteBuffer finish(Column column, int encoding)
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            buffer.put(0, (byte) column.ordinal());
+            buffer.put(1, (byte) encoding);
+            buffer.putInt(2, length - COLUMN_HEADER_SIZE);
+            return buffer;
+        }
+    }
+}
@@ -11,9 +11,6 @@ import java.util.Iterator;
 public class FemaleElephant extends Elephant
 {
 
-    // A shared random number generator to control breeding.
-    private static final Random rand = Randomizer.getRandom();
-
     /**
      * Create a new female elephant. A elephant may be created with age
      * zero (a new born) or with a random age.
@@ -27,6 +24,19 @@ public class FemaleElephant extends Elephant
         super(randomAge,field, location);
     }
 
+    /**
+     * Create a new female elephant with a random age and food level, drawn
+     * from the given generator.
+     *
+     * @param random The generator to draw the age and food level from.
+     * @param field The field currently occupied.
+     * @param location The location within the field.
+     */
+    public FemaleElephant(Random random, Field field, Location location)
+    {
+        super(random, field, location);
+    }
+
     /**
      * Check whether or not this elephant is to give birth at this step.
      * New births will be made into free adjacent locations.
@@ -38,12 +48,12 @@ public class FemaleElephant extends Elephant
         // Get a list of adjacent free locations.
         Field field = getField();
         List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        int births = breed();
+        int births = breed(rand(), field.adjacentLocations(getLocation()));
 
         if( free.size() > 4){               // Prevent overcrowding
             for(int b = 0; b < births && free.size() > 0; b++) {
                 Location loc = free.remove(0);        
-                int genderDecider = rand.nextInt(2);
+                int genderDecider = rand().nextInt(2);
                 if (genderDecider == 0){
                     FemaleElephant young = new FemaleElephant (false, field, loc);
                     newelephant.add(young);
@@ -59,24 +69,27 @@ public class FemaleElephant extends Elephant
     /**
      * Generate a number representing the number of births,
      * if it can breed.
+     * @param random The generator to draw from.
+     * @param adjacent The locations adjacent to the elephant.
      * @return The number of births (may be zero).
      */
-    private int breed()
+    private int breed(Random random, List<Location> adjacent)
     {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= Elephant.BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed(adjacent) && random.nextDouble() <= Elephant.BREEDING_PROBABILITY) {
+            births = random.nextInt(MAX_LITTER_SIZE) + 1;
         }
         return births;
     }
 
     /**
      * A elephant can breed if it has reached the breeding age.
+     * @param adjacent The locations adjacent to the elephant.
      * @return true if the elephant can breed, false otherwise.
      */
-    private boolean canBreed()
+    private boolean canBreed(List<Location> adjacent)
     {
-        if(findBreedingPartner()){
+        if(findBreedingPartner(adjacent)){
             return age >= BREEDING_AGE;
         }
         return false;
@@ -85,12 +98,12 @@ public class FemaleElephant extends Elephant
     /**
      * Look for a mature male elephant adjacent to the current location.
      * Necessary for breeding.
+     * @param adjacent The locations adjacent to the elephant.
      * @return True if a male was found.
      */
-    private boolean findBreedingPartner()
+    private boolean findBreedingPartner(List<Location> adjacent)
     {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
         Iterator<Location> it = adjacent.iterator();
         while(it.hasNext()) {
             Location where = it.next();
@@ -109,4 +122,50 @@ public class FemaleElephant extends Elephant
         }
         return false;
     }
+
+    /**
+     * @return The species of the elephant.
+     */
+    public Species getSpecies()
+    {
+        return Species.FEMALE_ELEPHANT;
+    }
+
+    /**
+     * Work out how many young the elephant has at this step. As in
+     * giveBirth, there must be more than four free locations around it.
+     * @param random The generator to draw from.
+     * @param adjacent The locations adjacent to the elephant.
+     * @param free How many of them are free.
+     * @return The number of births (may be zero).
+     */
+    protected int countYoung(Random random, List<Location> adjacent, int free)
+    {
+        return free > 4 ? breed(random, adjacent) : 0;
+    }
+
+    /**
+     * Young elephants are equally likely to be male or female.
+     * @param random The generator to draw from.
+     * @return The species of a young elephant.
+     */
+    protected Species getYoungSpecies(Random random)
+    {
+        return random.nextInt(2) == 0 ? Species.FEMALE_ELEPHANT : Species.MALE_ELEPHANT;
+    }
+
+    /**
+     * @return The traits of female elephants that the aggregate model of their
+     *         population works from.
+     */
+    public static LifeHistory lifeHistory()
+    {
+        LifeHistory traits = new LifeHistory(BREEDING_AGE, MAX_AGE, BREEDING_PROBABILITY,
+                                             MAX_LITTER_SIZE);
+        traits.setFood(Species.PLANT, PLANT_FOOD_VALUE, FOOD_CAPACITY);
+        traits.setMate(Species.MALE_ELEPHANT);
+        // Young are born only if more than four adjacent locations are free.
+        traits.setRoomToBreed(5);
+        return traits;
+    }
 }
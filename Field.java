@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -13,26 +14,81 @@ import java.util.Random;
  */
 public class Field
 {
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // The random number generators of the simulation, and the one for
+    // providing random locations.
+    private final Randomizer randomizer;
+    private final Random rand;
     
     // The depth and width of the field.
     private int depth, width;
     // Storage for the animals.
     private Object[][] field;
+    // The species code of each location's occupant, row by row.
+    private byte[] codes;
+    // The number of locations holding each species code.
+    private int[] codeCounts;
+    // One bit per location, set once its species code has changed
+    // since the changes were last taken.
+    private long[] changedBits;
+    // The indices of the changed locations, in the order they first changed.
+    private int[] changedCells;
+    // The number of entries in use in changedCells.
+    private int changedCount;
+    // Whether every location is to be treated as changed.
+    private boolean everythingChanged;
+    // Whether the field is being loaded, so that codes are recorded
+    // without being counted; see startLoading.
+    private boolean loading;
+    // The live infected animals in the field.
+    private final InfectedIndex infected;
+    // How far each location is from the nearest organism of each species,
+    // by ordinal, where animals can see that far; null where they cannot.
+    private final PreyDistanceField[] preyDistances = new PreyDistanceField[Species.count()];
+    // The counts of organisms in any rectangle, or null if they are not kept.
+    private SummedAreaTables spatialCounts;
 
     /**
-     * Represent a field of the given dimensions.
+     * Represent a field of the given dimensions, with random number
+     * generators of the default seed.
      * @param depth The depth of the field.
      * @param width The width of the field.
      */
     public Field(int depth, int width)
     {
+        this(depth, width, new Randomizer());
+    }
+
+    /**
+     * Represent a field of the given dimensions.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param randomizer The random number generators of the simulation,
+     *                   which the organisms in the field draw from.
+     */
+    public Field(int depth, int width, Randomizer randomizer)
+    {
+        this.randomizer = randomizer;
+        rand = randomizer.getRandom(Randomizer.Stream.FIELD);
         this.depth = depth;
         this.width = width;
         field = new Object[depth][width];
+        codes = new byte[depth * width];
+        codeCounts = new int[Species.UNKNOWN_CODE + 1];
+        codeCounts[Species.EMPTY_CODE] = depth * width;
+        changedBits = new long[(depth * width + 63) >>> 6];
+        changedCells = new int[64];
+        everythingChanged = true;
+        infected = new InfectedIndex();
     }
     
+    /**
+     * @return The random number generators of the simulation.
+     */
+    public Randomizer getRandomizer()
+    {
+        return randomizer;
+    }
+
     /**
      * Empty the field.
      */
@@ -43,8 +99,39 @@ public class Field
                 field[row][col] = null;
             }
         }
+        Arrays.fill(codes, (byte) Species.EMPTY_CODE);
+        Arrays.fill(codeCounts, 0);
+        codeCounts[Species.EMPTY_CODE] = depth * width;
+        markEverythingChanged();
+        infected.clear();
     }
     
+    /**
+     * Start loading the field in bulk, e.g. when it is populated. Until
+     * finishLoading is called, organisms may be placed in different
+     * locations from several threads at once, and the counts of each
+     * species are not kept up to date.
+     */
+    public void startLoading()
+    {
+        loading = true;
+    }
+
+    /**
+     * Finish loading the field: count the species once, and treat every
+     * location as changed. Call it on the thread that called startLoading,
+     * once the loading threads are done.
+     */
+    public void finishLoading()
+    {
+        loading = false;
+        Arrays.fill(codeCounts, 0);
+        for(byte code : codes) {
+            codeCounts[code]++;
+        }
+        markEverythingChanged();
+    }
+
     /**
      * Clear the given location.
      * @param location The location to clear.
@@ -52,6 +139,7 @@ public class Field
     public void clear(Location location)
     {
         field[location.getRow()][location.getCol()] = null;
+        setCode(location.getRow(), location.getCol(), Species.EMPTY_CODE);
     }
     
     /**
@@ -77,6 +165,7 @@ public class Field
     public void place(Object animal, Location location)
     {
         field[location.getRow()][location.getCol()] = animal;
+        setCode(location.getRow(), location.getCol(), Species.codeOf(animal));
     }
     
     /**
@@ -151,6 +240,142 @@ public class Field
         }
     }
 
+    /**
+     * Try to find a free location adjacent to the given one that is as
+     * near as can be to the nearest food of the given species. If no food
+     * can be seen, or animals cannot see beyond the adjacent locations,
+     * this is any free adjacent location, as freeAdjacentLocation finds.
+     * @param location The location from which to generate an adjacency.
+     * @param food The species sought.
+     * @return A valid location within the grid area, or null if all
+     *         adjacent locations are full.
+     */
+    public Location freeAdjacentLocationTowards(Location location, Species food)
+    {
+        return nearestTo(getFreeAdjacentLocations(location), food);
+    }
+
+    /**
+     * Pick the location that is as near as can be to the nearest food of
+     * the given species, out of some locations in a random order. Ties
+     * go to the first; if no food can be seen, or animals cannot see
+     * beyond the adjacent locations, that is the first location.
+     * @param locations The locations to pick from.
+     * @param food The species sought.
+     * @return The location picked, or null if there are none.
+     */
+    public Location nearestTo(List<Location> locations, Species food)
+    {
+        PreyDistanceField distances = preyDistances[food.ordinal()];
+        if(distances == null) {
+            return locations.isEmpty() ? null : locations.get(0);
+        }
+        Location nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for(Location next : locations) {
+            int distance = distances.getDistance(next.getRow(), next.getCol());
+            if(distance < nearestDistance) {
+                nearest = next;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Let animals see food of a species beyond the adjacent locations.
+     * The distances are kept up to date by whoever set them.
+     * @param distances The distance of each location from the nearest
+     *                  food of the species.
+     */
+    public void setPreyDistances(PreyDistanceField distances)
+    {
+        preyDistances[distances.getPrey().ordinal()] = distances;
+    }
+
+    /**
+     * Keep counts of the organisms in any rectangle, so that they can be
+     * queried with countInRectangle and the like. The counts are kept up
+     * to date by whoever set them.
+     * @param counts The counts, or null to stop keeping them.
+     */
+    public void setSpatialCounts(SummedAreaTables counts)
+    {
+        spatialCounts = counts;
+    }
+
+    /**
+     * Return the number of organisms of a species in a rectangle, as
+     * counted at the end of the last step. The parts of the rectangle
+     * outside the field are empty.
+     * @param species The species to count.
+     * @param top The first row of the rectangle.
+     * @param left The first column.
+     * @param bottom The last row.
+     * @param right The last column.
+     * @return The number of organisms of the species in the rectangle.
+     */
+    public int countInRectangle(Species species, int top, int left, int bottom, int right)
+    {
+        return getSpatialCounts().count(species, top, left, bottom, right);
+    }
+
+    /**
+     * Return the number of organisms of a species within some steps of
+     * a location, i.e. in the square around it, as counted at the end of
+     * the last step.
+     * @param species The species to count.
+     * @param location The centre of the square.
+     * @param radius The number of steps.
+     * @return The number of organisms of the species in the square.
+     */
+    public int countNear(Species species, Location location, int radius)
+    {
+        int row = location.getRow();
+        int col = location.getCol();
+        return countInRectangle(species, row - radius, col - radius, row + radius, col + radius);
+    }
+
+    /**
+     * Return the number of live infected animals in a rectangle, as
+     * counted at the end of the last step. The parts of the rectangle
+     * outside the field are empty.
+     * @param top The first row of the rectangle.
+     * @param left The first column.
+     * @param bottom The last row.
+     * @param right The last column.
+     * @return The number of infected animals in the rectangle.
+     */
+    public int countInfectedInRectangle(int top, int left, int bottom, int right)
+    {
+        return getSpatialCounts().countInfected(top, left, bottom, right);
+    }
+
+    /**
+     * Return the number of live infected animals within some steps of a
+     * location, as counted at the end of the last step.
+     * @param location The centre of the square.
+     * @param radius The number of steps.
+     * @return The number of infected animals in the square.
+     */
+    public int countInfectedNear(Location location, int radius)
+    {
+        int row = location.getRow();
+        int col = location.getCol();
+        return countInfectedInRectangle(row - radius, col - radius, row + radius, col + radius);
+    }
+
+    /**
+     * @return The counts of organisms in any rectangle.
+     */
+    private SummedAreaTables getSpatialCounts()
+    {
+        if(spatialCounts == null) {
+            throw new IllegalStateException("Spatial counts are not being kept.");
+        }
+        return spatialCounts;
+    }
+
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
@@ -159,6 +384,19 @@ public class Field
      * @return A list of locations adjacent to that given.
      */
     public List<Location> adjacentLocations(Location location)
+    {
+        return adjacentLocations(location, rand);
+    }
+
+    /**
+     * Return a list of locations adjacent to the given one, shuffled with
+     * the given generator rather than the field's own, so that it can be
+     * called from several threads at once.
+     * @param location The location from which to generate adjacencies.
+     * @param random The generator to shuffle the list with.
+     * @return A list of locations adjacent to that given.
+     */
+    public List<Location> adjacentLocations(Location location, Random random)
     {
         assert location != null : "Null location passed to adjacentLocations";
         // The list of locations to be returned.
@@ -181,11 +419,111 @@ public class Field
             
             // Shuffle the list. Several other methods rely on the list
             // being in a random order.
-            Collections.shuffle(locations, rand);
+            Collections.shuffle(locations, random);
         }
         return locations;
     }
 
+    /**
+     * Return the number of organisms of the given species in the field.
+     * This is kept up to date as organisms are placed and cleared.
+     * @param species The species to count.
+     * @return The number of locations holding that species.
+     */
+    public int getCount(Species species)
+    {
+        return codeCounts[species.getCode()];
+    }
+
+    /**
+     * Return the live infected animals in the field. Animals add and
+     * remove themselves as they are infected and die.
+     * @return The index of infected animals.
+     */
+    public InfectedIndex getInfectedIndex()
+    {
+        return infected;
+    }
+
+    /**
+     * Return the species code of every location, row by row, so that
+     * location (row, col) is at index row * width + col. The array is the
+     * field's own storage and must not be modified.
+     * @return The species codes of the field.
+     */
+    public byte[] getSpeciesCodes()
+    {
+        return codes;
+    }
+
+    /**
+     * Check whether every location must be treated as changed since the
+     * changes were last taken, e.g. because the field was emptied. In that
+     * case takeChanges does not list the individual locations.
+     * @return true if every location has changed.
+     */
+    public boolean isEverythingChanged()
+    {
+        return everythingChanged;
+    }
+
+    /**
+     * Return the locations whose species code has changed since this
+     * method was last called, and start recording afresh. Each location
+     * appears at most once, as an index of the form row * width + col.
+     * @return The indices of the changed locations.
+     */
+    public int[] takeChanges()
+    {
+        int[] changes = Arrays.copyOf(changedCells, changedCount);
+        for(int i = 0; i < changedCount; i++) {
+            int index = changedCells[i];
+            changedBits[index >>> 6] &= ~(1L << index);
+        }
+        changedCount = 0;
+        everythingChanged = false;
+        return changes;
+    }
+
+    /**
+     * Treat every location as changed, and stop listing them individually
+     * until the changes are next taken.
+     */
+    private void markEverythingChanged()
+    {
+        Arrays.fill(changedBits, 0);
+        changedCount = 0;
+        everythingChanged = true;
+    }
+
+    /**
+     * Record the species code of a location's new occupant.
+     * @param row The row of the location.
+     * @param col The column of the location.
+     * @param code The species code of the new occupant.
+     */
+    private void setCode(int row, int col, int code)
+    {
+        int index = row * width + col;
+        if(loading) {
+            codes[index] = (byte) code;
+            return;
+        }
+        int oldCode = codes[index];
+        if(oldCode != code) {
+            codeCounts[oldCode]--;
+            codeCounts[code]++;
+            codes[index] = (byte) code;
+            if(!everythingChanged && (changedBits[index >>> 6] & (1L << index)) == 0) {
+                changedBits[index >>> 6] |= 1L << index;
+                if(changedCount == changedCells.length) {
+                    changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+                }
+                changedCells[changedCount++] = index;
+            }
+        }
+    }
+
     /**
      * Return the depth of the field.
      * @return The depth of the field.
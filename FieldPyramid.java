@@ -0,0 +1,200 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * A pyramid of downsampled images of a field, used to display fields
+ * that are too big to show one pixel per location. Level 1 has one pixel
+ * per 2x2 block of locations, level 2 one pixel per 4x4 block, and so on
+ * until the whole field fits in a single pixel. Each pixel shows the
+ * dominant species of its block, faded towards the empty color by the
+ * fraction of the block that is empty.
+ *
+ * The pyramid keeps a count of each species code in every block, so a
+ * change to one location is applied in time proportional to the number
+ * of levels rather than by rebuilding the images.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class FieldPyramid
+{
+    // The number of distinct species codes, including empty and unknown.
+    private static final int CODES = Species.UNKNOWN_CODE + 1;
+
+    // The depth and width of the field, in locations.
+    private int depth, width;
+    // The number of levels above the field itself.
+    private int levels;
+    // The width and depth, in blocks, of each level. Index 0 is the field.
+    private int[] levelWidths, levelDepths;
+    // For each level, the count of each code in each block, block by block.
+    private int[][] counts;
+    // For each level, the image showing it and the image's pixels.
+    private BufferedImage[] images;
+    private int[][] pixels;
+    // The RGB value used for each species code.
+    private int[] palette;
+
+    /**
+     * Create a pyramid for a field of the given size. The pyramid is
+     * empty until it is rebuilt.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public FieldPyramid(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        levels = 0;
+        while((depth - 1) >> levels > 0 || (width - 1) >> levels > 0) {
+            levels++;
+        }
+        levelWidths = new int[levels + 1];
+        levelDepths = new int[levels + 1];
+        counts = new int[levels + 1][];
+        images = new BufferedImage[levels + 1];
+        pixels = new int[levels + 1][];
+        levelWidths[0] = width;
+        levelDepths[0] = depth;
+        for(int level = 1; level <= levels; level++) {
+            levelWidths[level] = (levelWidths[level - 1] + 1) / 2;
+            levelDepths[level] = (levelDepths[level - 1] + 1) / 2;
+            int blocks = levelWidths[level] * levelDepths[level];
+            counts[level] = new int[blocks * CODES];
+            images[level] = new BufferedImage(levelWidths[level], levelDepths[level],
+                                              BufferedImage.TYPE_INT_RGB);
+            pixels[level] = ((DataBufferInt) images[level].getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    /**
+     * @return The number of downsampled levels above the field.
+     */
+    public int getLevels()
+    {
+        return levels;
+    }
+
+    /**
+     * Return the image for one level of the pyramid.
+     * @param level The level, from 1 to getLevels().
+     * @return An image with one pixel per block of 2^level by 2^level locations.
+     */
+    public BufferedImage getImage(int level)
+    {
+        return images[level];
+    }
+
+    /**
+     * Recompute every level from the species codes of the whole field.
+     * @param codes The species code of each location, row by row.
+     * @param palette The RGB value to use for each species code.
+     */
+    public void rebuild(byte[] codes, int[] palette)
+    {
+        this.palette = palette.clone();
+        if(levels == 0) {
+            return;
+        }
+        // Level 1 is counted directly from the field.
+        int[] first = counts[1];
+        Arrays.fill(first, 0);
+        int firstWidth = levelWidths[1];
+        for(int row = 0; row < depth; row++) {
+            int blockBase = (row >> 1) * firstWidth;
+            int rowBase = row * width;
+            for(int col = 0; col < width; col++) {
+                first[(blockBase + (col >> 1)) * CODES + codes[rowBase + col]]++;
+            }
+        }
+        // Each higher level sums the four blocks below it.
+        for(int level = 2; level <= levels; level++) {
+            int[] above = counts[level];
+            int[] below = counts[level - 1];
+            Arrays.fill(above, 0);
+            int aboveWidth = levelWidths[level];
+            int belowWidth = levelWidths[level - 1];
+            for(int row = 0; row < levelDepths[level - 1]; row++) {
+                for(int col = 0; col < belowWidth; col++) {
+                    int from = (row * belowWidth + col) * CODES;
+                    int to = ((row >> 1) * aboveWidth + (col >> 1)) * CODES;
+                    for(int code = 0; code < CODES; code++) {
+                        above[to + code] += below[from + code];
+                    }
+                }
+            }
+        }
+        for(int level = 1; level <= levels; level++) {
+            int[] levelPixels = pixels[level];
+            for(int block = 0; block < levelPixels.length; block++) {
+                levelPixels[block] = blockColor(counts[level], block);
+            }
+        }
+    }
+
+    /**
+     * Record that the species code of one location has changed.
+     * @param index The index of the location, row * width + col.
+     * @param oldCode The location's previous species code.
+     * @param newCode The location's new species code.
+     */
+    public void update(int index, int oldCode, int newCode)
+    {
+        int row = index / width;
+        int col = index - row * width;
+        for(int level = 1; level <= levels; level++) {
+            int block = (row >> level) * levelWidths[level] + (col >> level);
+            int[] levelCounts = counts[level];
+            levelCounts[block * CODES + oldCode]--;
+            levelCounts[block * CODES + newCode]++;
+            pixels[level][block] = blockColor(levelCounts, block);
+        }
+    }
+
+    /**
+     * Work out the color of a block from its code counts.
+     * @param levelCounts The code counts of the block's level.
+     * @param block The index of the block within its level.
+     * @return The RGB value for the block.
+     */
+    private int blockColor(int[] levelCounts, int block)
+    {
+        int base = block * CODES;
+        int dominant = Species.EMPTY_CODE;
+        int dominantCount = 0;
+        int occupied = 0;
+        for(int code = 1; code < CODES; code++) {
+            int count = levelCounts[base + code];
+            occupied += count;
+            if(count > dominantCount) {
+                dominant = code;
+                dominantCount = count;
+            }
+        }
+        int empty = palette[Species.EMPTY_CODE];
+        if(occupied == 0) {
+            return empty;
+        }
+        // Fade the dominant color towards the empty color by density.
+        int total = occupied + levelCounts[base + Species.EMPTY_CODE];
+        int color = palette[dominant];
+        int red = mix((empty >> 16) & 0xff, (color >> 16) & 0xff, occupied, total);
+        int green = mix((empty >> 8) & 0xff, (color >> 8) & 0xff, occupied, total);
+        int blue = mix(empty & 0xff, color & 0xff, occupied, total);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Mix two color components in proportion.
+     * @param from The component when the proportion is zero.
+     * @param to The component when the proportion is one.
+     * @param part The numerator of the proportion.
+     * @param whole The denominator of the proportion.
+     * @return The mixed component.
+     */
+    private static int mix(int from, int to, int part, int whole)
+    {
+        return from + (to - from) * part / whole;
+    }
+}
@@ -1,4 +1,3 @@
-import java.awt.Color;
 import java.util.HashMap;
 
 /**
@@ -106,21 +105,25 @@ public class FieldStats
     }
     
     /**
-     * Generate counts of the number of foxes and rabbits.
-     * These are not kept up to date as foxes and rabbits
-     * are placed in the field, but only when a request
-     * is made for the information.
+     * Generate counts of the number of each species.
+     * The field keeps a running count of each species as
+     * organisms are placed and cleared, so this only needs
+     * to copy those counts rather than scan every location.
      * @param field The field to generate the stats for.
      */
     private void generateCounts(Field field)
     {
         reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    incrementCount(animal.getClass());
+        for(Species species : Species.values()) {
+            int count = field.getCount(species);
+            if(count > 0) {
+                Class<?> speciesClass = species.getOrganismClass();
+                Counter counter = counters.get(speciesClass);
+                if(counter == null) {
+                    counter = new Counter(speciesClass.getName());
+                    counters.put(speciesClass, counter);
                 }
+                counter.increment(count);
             }
         }
         countsValid = true;
@@ -24,8 +24,6 @@ public class Fox extends Animal
     // The food value of a single rabbit. In effect, this is the
     // number of steps a fox can go before it has to eat again.
     private static final int RABBIT_FOOD_VALUE = 13;
-    // A shared random number generator to control breeding.
-    private static final Random rand = Randomizer.getRandom();
     // The chance of an infected fox dying of disease at each step.
     private static final double DISEASE_DEATH_PROBABILITY = 0.37;
     // Individual characteristics (instance fields).
@@ -46,8 +44,8 @@ public class Fox extends Animal
     {
         super(field, location);
         if(randomAge) {
-            age = rand.nextInt(MAX_AGE);
-            foodLevel = rand.nextInt(RABBIT_FOOD_VALUE);
+            age = rand().nextInt(MAX_AGE);
+            foodLevel = rand().nextInt(RABBIT_FOOD_VALUE);
         }
         else {
             age = 0;
@@ -55,6 +53,22 @@ public class Fox extends Animal
         }
     }
 
+    /**
+     * Create a fox with a random age and food level, drawn from the
+     * given generator rather than the foxes' own, as when the field is
+     * populated row by row in parallel.
+     *
+     * @param random The generator to draw the age and food level from.
+     * @param field The field currently occupied.
+     * @param location The location within the field.
+     */
+    public Fox(Random random, Field field, Location location)
+    {
+        super(field, location);
+        age = random.nextInt(MAX_AGE);
+        foodLevel = random.nextInt(RABBIT_FOOD_VALUE);
+    }
+
     /**
      * Increase the age. This could result in the fox's death.
      */
@@ -86,7 +100,7 @@ public class Fox extends Animal
         incrementHunger();
         if (isAlive()){
             if(getInfected()){
-                spreadDisease();    // Can die of disease
+                actOnDisease();    // Can die of disease
             }
         }
         
@@ -120,8 +134,7 @@ public class Fox extends Animal
             if(animal instanceof Rabbit) {
                 Rabbit rabbit = (Rabbit) animal;
                 if(rabbit.isAlive()) { 
-                    rabbit.setDead();
-                    foodLevel = RABBIT_FOOD_VALUE;
+                    eat(rabbit);
                     return where;
                 }
             }
@@ -140,7 +153,7 @@ public class Fox extends Animal
         // Get a list of adjacent free locations.
         Field field = getField();
         List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        int births = breed();
+        int births = breed(rand());
         for(int b = 0; b < births && free.size() > 0; b++) {
             Location loc = free.remove(0);
             Fox young = new Fox(false, field, loc);
@@ -151,13 +164,14 @@ public class Fox extends Animal
     /**
      * Generate a number representing the number of births,
      * if it can breed.
+     * @param random The generator to draw from.
      * @return The number of births (may be zero).
      */
-    private int breed()
+    private int breed(Random random)
     {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed() && random.nextDouble() <= BREEDING_PROBABILITY) {
+            births = random.nextInt(MAX_LITTER_SIZE) + 1;
         }
         return births;
     }
@@ -205,7 +219,7 @@ public class Fox extends Animal
      */
     public boolean checkDeath()
     {
-        if( rand.nextDouble() <= DISEASE_DEATH_PROBABILITY){
+        if( rand().nextDouble() <= DISEASE_DEATH_PROBABILITY){
             setDead();
             return true;
         }
@@ -216,7 +230,129 @@ public class Fox extends Animal
      * @return The chance the fox has of surviving in snow.
      */
     public double calculateSnowSurvivalProbability()
+    {
+        return snowSurvivalProbability(age);
+    }
+
+    /**
+     * @param age The age of a fox.
+     * @return The chance a fox of that age has of surviving in snow.
+     */
+    public static double snowSurvivalProbability(int age)
     {
         return 0.85;
     }
+
+    /**
+     * @return The traits of foxes that the aggregate model of their
+     *         population works from.
+     */
+    public static LifeHistory lifeHistory()
+    {
+        LifeHistory traits = new LifeHistory(BREEDING_AGE, MAX_AGE, BREEDING_PROBABILITY,
+                                             MAX_LITTER_SIZE);
+        traits.setFood(Species.RABBIT, RABBIT_FOOD_VALUE, 0);
+        // Foxes hunt only at night, one step in four.
+        traits.setShares(1, 0.25);
+        return traits;
+    }
+
+    /**
+     * @return The species of the fox.
+     */
+    public Species getSpecies()
+    {
+        return Species.FOX;
+    }
+
+    /**
+     * @return The species the fox eats.
+     */
+    public Species getFood()
+    {
+        return Species.RABBIT;
+    }
+
+    /**
+     * Eat a rabbit.
+     * @param food A live rabbit.
+     */
+    protected void eat(Object food)
+    {
+        ((Rabbit) food).setDead();
+        foodLevel = RABBIT_FOOD_VALUE;
+    }
+
+    /**
+     * Work out how many young the fox has at this step.
+     * @param random The generator to draw from.
+     * @param adjacent The locations adjacent to the fox.
+     * @param free How many of them are free.
+     * @return The number of births (may be zero).
+     */
+    protected int countYoung(Random random, List<Location> adjacent, int free)
+    {
+        return breed(random);
+    }
+
+    /**
+     * Foxes hunt only at night.
+     * @param night Whether it is night.
+     * @return Whether the fox looks for food.
+     */
+    protected boolean isHunting(boolean night)
+    {
+        return night;
+    }
+
+    /**
+     * @return The age to which a fox can live.
+     */
+    protected int getMaxAge()
+    {
+        return MAX_AGE;
+    }
+
+    /**
+     * @return The chance of an infected fox dying of disease at each step.
+     */
+    protected double getDiseaseDeathProbability()
+    {
+        return DISEASE_DEATH_PROBABILITY;
+    }
+
+    /**
+     * @return The age of the fox, in steps.
+     */
+    public int getAge()
+    {
+        return age;
+    }
+
+    /**
+     * @return How many more steps the fox can go without eating.
+     */
+    public int getFoodLevel()
+    {
+        return foodLevel;
+    }
+
+    /**
+     * Set the age and food level of the fox.
+     * @param age The age of the fox.
+     * @param foodLevel The food level of the fox.
+     */
+    protected void restoreState(int age, int foodLevel)
+    {
+        this.age = age;
+        this.foodLevel = foodLevel;
+    }
+
+    /**
+     * @return The random number generator of the foxes of the field.
+     */
+    private Random rand()
+    {
+        return getField().getRandomizer().getRandom(Randomizer.Stream.FOX);
+    }
 }
@@ -0,0 +1,306 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.imageio.ImageIO;
+
+/**
+ * Export pictures of the field, one every so many steps, as numbered
+ * image files from which a video can be made. No window is needed.
+ *
+ * A fixed set of frame buffers is shared between the simulation thread
+ * and a pool of encoder threads. For each exported step the simulation
+ * thread only copies the species codes of the field into a free buffer
+ * and queues it. The encoder threads turn the codes into pixels, encode
+ * them, write the file, and hand the buffer back. The simulation waits
+ * only if every buffer is still queued or being encoded.
+ *
+ * Frames are numbered from zero in the order they are exported, as
+ * frame_000000.png, frame_000001.png and so on. Raw frames
+ * (frame_000000.rgb ...) hold three bytes (red, green, blue) per pixel,
+ * row by row, and can be turned into a video with, for example,
+ * ffmpeg -f rawvideo -pix_fmt rgb24 -s WIDTHxHEIGHT -i - after
+ * concatenating them.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class FrameExporter
+{
+    /**
+     * The file formats frames can be written in.
+     */
+    public enum Format
+    {
+        PNG("png"), RAW("rgb");
+
+        // The extension of the frame files.
+        private final String extension;
+
+        /**
+         * @param extension The extension of the frame files.
+         */
+        private Format(String extension)
+        {
+            this.extension = extension;
+        }
+    }
+
+    // The number of frames that can wait to be encoded.
+    private static final int QUEUE_CAPACITY = 8;
+    // A marker placed on the queue to ask an encoder to finish.
+    private static final Frame END = new Frame(0, 0);
+
+    // Where the frames are written, and how.
+    private final File directory;
+    private final Format format;
+    // Export one step in this many.
+    private final int interval;
+    // The size of the field, and the number of pixels per location.
+    private final int depth;
+    private final int width;
+    private final int scale;
+    // The RGB value of each species code.
+    private final int[] palette;
+
+    // The number of steps offered so far, and the number of frames queued.
+    private long steps;
+    private int frames;
+    // The total time the simulation has waited for a free buffer, in nanoseconds.
+    private long waitTime;
+
+    // The buffers not in use, and the frames waiting to be encoded.
+    private final BlockingQueue<Frame> free;
+    private final BlockingQueue<Frame> queue;
+    // The encoder threads.
+    private final Thread[] encoders;
+    // The first failure met by an encoder, if any.
+    private volatile IOException failure;
+
+    /**
+     * Start an exporter.
+     * @param directory The directory to write the frames to. It is
+     *                  created if necessary.
+     * @param format The format of the frame files.
+     * @param interval Export one step in this many. Must be at least one.
+     * @param scale The number of pixels along each side of a location.
+     *              Must be at least one.
+     * @param encoders The number of encoder threads. Must be at least one.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param palette The RGB value of each species code.
+     * @throws IOException If the directory cannot be created.
+     */
+    public FrameExporter(File directory, Format format, int interval, int scale, int encoders,
+                         int depth, int width, int[] palette) throws IOException
+    {
+        if(interval < 1 || scale < 1 || encoders < 1) {
+            throw new IllegalArgumentException("The interval, scale and number of encoders must be at least one.");
+        }
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.format = format;
+        this.interval = interval;
+        this.scale = scale;
+        this.depth = depth;
+        this.width = width;
+        this.palette = palette.clone();
+
+        free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + encoders);
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY + encoders);
+        for(int i = 0; i < QUEUE_CAPACITY + encoders; i++) {
+            free.add(new Frame(depth, width));
+        }
+        this.encoders = new Thread[encoders];
+        for(int i = 0; i < encoders; i++) {
+            this.encoders[i] = new Thread(this::encodeFrames, "frame-encoder-" + i);
+            this.encoders[i].setDaemon(true);
+            this.encoders[i].start();
+        }
+    }
+
+    /**
+     * Offer the state of the field after a step. It is exported if it is
+     * one of the steps to export. This only waits if no frame buffer is free.
+     * @param codes The species code of every location.
+     */
+    public void exportStep(byte[] codes)
+    {
+        if(steps++ % interval != 0) {
+            return;
+        }
+        try {
+            Frame frame = free.poll();
+            if(frame == null) {
+                long started = System.nanoTime();
+                frame = free.take();
+                waitTime += System.nanoTime() - started;
+            }
+            System.arraycopy(codes, 0, frame.codes, 0, codes.length);
+            frame.number = frames++;
+            queue.put(frame);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of frames exported so far.
+     */
+    public int getFrameCount()
+    {
+        return frames;
+    }
+
+    /**
+     * @return The total time the simulation has waited for the encoders,
+     *         in nanoseconds.
+     */
+    public long getWaitTime()
+    {
+        return waitTime;
+    }
+
+    /**
+     * Wait until every exported frame has been written, and stop the
+     * encoder threads.
+     * @throws IOException If a frame could not be written.
+     */
+    public void close() throws IOException
+    {
+        try {
+            for(int i = 0; i < encoders.length; i++) {
+                queue.put(END);
+            }
+            for(Thread encoder : encoders) {
+                encoder.join();
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The body of an encoder thread: encode and write each frame as it
+     * arrives, then free its buffer. After a failure the frames are
+     * discarded, so that the simulation never waits for good.
+     */
+    private void encodeFrames()
+    {
+        BufferedImage image = new BufferedImage(width * scale, depth * scale,
+                                                BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        byte[] rgb = format == Format.RAW ? new byte[pixels.length * 3] : null;
+        try {
+            while(true) {
+                Frame frame = queue.take();
+                if(frame == END) {
+                    return;
+                }
+                try {
+                    if(failure == null) {
+                        render(frame.codes, pixels);
+                        File file = new File(directory, String.format("frame_%06d.%s", frame.number,
+                                                                      format.extension));
+                        if(format == Format.PNG) {
+                            ImageIO.write(image, "png", file);
+                        }
+                        else {
+                            writeRaw(pixels, rgb, file);
+                        }
+                    }
+                }
+                catch(IOException e) {
+                    failure = e;
+                }
+                finally {
+                    free.put(frame);
+                }
+            }
+        }
+        catch(InterruptedException e) {
+            // Stop encoding.
+        }
+    }
+
+    /**
+     * Turn species codes into pixels, each location becoming a square of
+     * scale by scale pixels.
+     * @param codes The species code of every location.
+     * @param pixels The pixels to fill, row by row.
+     */
+    private void render(byte[] codes, int[] pixels)
+    {
+        int rowPixels = width * scale;
+        for(int row = 0; row < depth; row++) {
+            int start = row * scale * rowPixels;
+            int pixel = start;
+            for(int col = 0; col < width; col++) {
+                int color = palette[codes[row * width + col]];
+                for(int i = 0; i < scale; i++) {
+                    pixels[pixel++] = color;
+                }
+            }
+            for(int i = 1; i < scale; i++) {
+                System.arraycopy(pixels, start, pixels, start + i * rowPixels, rowPixels);
+            }
+        }
+    }
+
+    /**
+     * Write pixels as raw RGB bytes.
+     * @param pixels The pixels.
+     * @param rgb A buffer of three bytes per pixel.
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeRaw(int[] pixels, byte[] rgb, File file) throws IOException
+    {
+        for(int i = 0, j = 0; i < pixels.length; i++) {
+            int pixel = pixels[i];
+            rgb[j++] = (byte) (pixel >> 16);
+            rgb[j++] = (byte) (pixel >> 8);
+            rgb[j++] = (byte) pixel;
+        }
+        try(RandomAccessFile output = new RandomAccessFile(file, "rw");
+            FileChannel channel = output.getChannel()) {
+            output.setLength(0);
+            ByteBuffer buffer = ByteBuffer.wrap(rgb);
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * A buffer holding the species codes of one exported step.
+     */
+    private static class Frame
+    {
+        // The species code of every location.
+        private final byte[] codes;
+        // The number of the frame.
+        private int number;
+
+        /**
+         * @param depth The depth of the field.
+         * @param width The width of the field.
+         */
+        private Frame(int depth, int width)
+        {
+            codes = new byte[depth * width];
+        }
+    }
+}
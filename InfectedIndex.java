@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * The live infected animals of a field, kept per species. Animals are
+ * added when they are infected and removed when they die, each in
+ * constant time: every member remembers its slot, and a removed member's
+ * slot is filled by the last member of its species. This gives the
+ * infected animals, and how many there are, without looking at the
+ * healthy ones.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class InfectedIndex
+{
+    // The infected animals of each species, by species ordinal.
+    private final Animal[][] members;
+    // The number of infected animals of each species.
+    private final int[] sizes;
+    // Whether disease is spread for all animals at once, rather than by
+    // each animal as it acts.
+    private boolean spreadInBulk;
+
+    /**
+     * Create an empty index.
+     */
+    public InfectedIndex()
+    {
+        members = new Animal[Species.count()][16];
+        sizes = new int[Species.count()];
+    }
+
+    /**
+     * Add a newly infected animal.
+     * @param animal The animal. It must not already be in the index.
+     */
+    void add(Animal animal)
+    {
+        int species = animal.getSpecies().ordinal();
+        int size = sizes[species];
+        if(size == members[species].length) {
+            members[species] = Arrays.copyOf(members[species], size * 2);
+        }
+        members[species][size] = animal;
+        animal.infectedSlot = size;
+        sizes[species] = size + 1;
+    }
+
+    /**
+     * Remove an animal that has died.
+     * @param animal The animal. It must be in the index, i.e. have a slot.
+     */
+    void remove(Animal animal)
+    {
+        int species = animal.getSpecies().ordinal();
+        int last = --sizes[species];
+        Animal moved = members[species][last];
+        members[species][animal.infectedSlot] = moved;
+        moved.infectedSlot = animal.infectedSlot;
+        members[species][last] = null;
+        animal.infectedSlot = -1;
+    }
+
+    /**
+     * Remove every animal.
+     */
+    public void clear()
+    {
+        for(int species = 0; species < members.length; species++) {
+            for(int i = 0; i < sizes[species]; i++) {
+                members[species][i].infectedSlot = -1;
+            }
+            Arrays.fill(members[species], 0, sizes[species], null);
+            sizes[species] = 0;
+        }
+    }
+
+    /**
+     * Set whether disease is spread for all animals at once, e.g. by
+     * BitboardContagion, so that animals do not spread it as they act.
+     * @param inBulk true to spread disease in bulk.
+     */
+    public void setSpreadInBulk(boolean inBulk)
+    {
+        spreadInBulk = inBulk;
+    }
+
+    /**
+     * @return Whether disease is spread for all animals at once.
+     */
+    public boolean isSpreadInBulk()
+    {
+        return spreadInBulk;
+    }
+
+    /**
+     * @param species A species.
+     * @return The number of its live infected animals.
+     */
+    public int getCount(Species species)
+    {
+        return sizes[species.ordinal()];
+    }
+
+    /**
+     * Return one of the live infected animals of a species.
+     * @param species The species.
+     * @param i The index of the animal, from 0 to one less than getCount.
+     *          The order changes as animals are added and removed.
+     * @return The animal.
+     */
+    public Animal get(Species species, int i)
+    {
+        return members[species.ordinal()][i];
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds, with buckets whose width grows
+ * with the value so that every recorded value is kept to within about
+ * 1.5%. Values below 128ns are kept exactly. Recording a value is a few
+ * arithmetic operations and an array increment, so it is cheap enough to
+ * do on every step.
+ *
+ * The histogram is meant to be written by one thread. Other threads may
+ * read it while it is being written, but will see a slightly stale view.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class LatencyHistogram
+{
+    // Values are grouped by the position of their highest set bit, and
+    // each group is split into 2^(SUB_BITS - 1) buckets.
+    private static final int SUB_BITS = 7;
+    private static final int SUB_HALF = 1 << (SUB_BITS - 1);
+    // Enough buckets for any non-negative long.
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_HALF + SUB_HALF;
+
+    // The number of values recorded in each bucket.
+    private final long[] counts;
+    // The number of values recorded, their sum and the largest of them.
+    private long total;
+    private long sum;
+    private long max;
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        counts = new long[BUCKETS];
+    }
+
+    /**
+     * Record a duration.
+     * @param nanos The duration, in nanoseconds. Negative values count as zero.
+     */
+    public void record(long nanos)
+    {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        total++;
+        sum += value;
+        if(value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset()
+    {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long getCount()
+    {
+        return total;
+    }
+
+    /**
+     * @return The largest value recorded, or zero if there are none.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * @return The mean of the values recorded, or zero if there are none.
+     */
+    public double getMean()
+    {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Return the value below which the given percentage of the recorded
+     * values lie, to within the precision of the buckets.
+     * @param percentile The percentage, from 0 to 100.
+     * @return The value at that percentile, or zero if there are none.
+     */
+    public long getPercentile(double percentile)
+    {
+        if(total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if(seen >= rank) {
+                return Math.min(max, highestValueIn(bucket));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return A one-line summary of the median, 99th percentile and
+     *         maximum, in microseconds.
+     */
+    public String toString()
+    {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                             total, getMean() / 1000.0, getPercentile(50) / 1000.0,
+                             getPercentile(99) / 1000.0, max / 1000.0);
+    }
+
+    /**
+     * Find the bucket that holds a value.
+     * @param value A non-negative value.
+     * @return The index of its bucket.
+     */
+    private static int bucketOf(long value)
+    {
+        int highestBit = 63 - Long.numberOfLeadingZeros(value | 1);
+        if(highestBit < SUB_BITS) {
+            return (int) value;
+        }
+        int shift = highestBit - SUB_BITS + 1;
+        return shift * SUB_HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Find the largest value that falls in a bucket.
+     * @param bucket The index of the bucket.
+     * @return The largest value it can hold.
+     */
+    private static long highestValueIn(int bucket)
+    {
+        if(bucket < 2 * SUB_HALF) {
+            return bucket;
+        }
+        int shift = bucket / SUB_HALF - 1;
+        long lowest = (long) (bucket - shift * SUB_HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
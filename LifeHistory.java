@@ -0,0 +1,211 @@
+/**
+ * The traits of a species that its population depends on: when and how
+ * often its organisms breed, how long they live, what they eat and how
+ * long a meal lasts them. The aggregate model of AggregateWorld works out
+ * the births and deaths of whole populations from these, rather than
+ * following each organism.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class LifeHistory
+{
+    // The age at which an organism can start to breed.
+    private final int breedingAge;
+    // The age to which an organism can live.
+    private final int maxAge;
+    // The likelihood of an organism breeding at a step.
+    private final double breedingProbability;
+    // The maximum number of young at a birth.
+    private final int maxLitterSize;
+    // The species eaten, or null for none, the number of steps a meal
+    // lasts, and how much of a plant is eaten at a meal; 0 if the food
+    // is eaten whole.
+    private Species food;
+    private int foodValue;
+    private int bite;
+    // The share of steps on which an organism is awake, and so moves,
+    // eats and breeds, and the share of those on which it looks for food.
+    private double awakeShare;
+    private double feedingShare;
+    // The species an adult of which must be adjacent for an organism to
+    // breed, and which half of the young belong to, or null for none.
+    private Species mate;
+    // The number of free adjacent locations an organism needs to breed.
+    private int roomToBreed;
+    // How much a plant grows at each step.
+    private int growthRate;
+
+    /**
+     * Create the traits of a species that eats nothing and is always
+     * awake.
+     * @param breedingAge The age at which an organism can start to breed.
+     * @param maxAge The age to which an organism can live.
+     * @param breedingProbability The likelihood of breeding at a step.
+     * @param maxLitterSize The maximum number of young at a birth.
+     */
+    public LifeHistory(int breedingAge, int maxAge, double breedingProbability, int maxLitterSize)
+    {
+        this.breedingAge = breedingAge;
+        this.maxAge = maxAge;
+        this.breedingProbability = breedingProbability;
+        this.maxLitterSize = maxLitterSize;
+        awakeShare = 1;
+        feedingShare = 1;
+        roomToBreed = 1;
+    }
+
+    /**
+     * Set what the organisms eat.
+     * @param food The species eaten.
+     * @param foodValue The number of steps a meal lasts.
+     * @param bite How much of a plant is eaten at a meal, or 0 if the
+     *             food is eaten whole.
+     */
+    public void setFood(Species food, int foodValue, int bite)
+    {
+        this.food = food;
+        this.foodValue = foodValue;
+        this.bite = bite;
+    }
+
+    /**
+     * Set how often the organisms are active.
+     * @param awake The share of steps on which they move, eat and breed.
+     * @param feeding The share of those on which they look for food.
+     */
+    public void setShares(double awake, double feeding)
+    {
+        awakeShare = awake;
+        feedingShare = feeding;
+    }
+
+    /**
+     * Set the species an adult of which must be adjacent for an organism
+     * to breed. Half of the young then belong to that species.
+     * @param mate The species.
+     */
+    public void setMate(Species mate)
+    {
+        this.mate = mate;
+    }
+
+    /**
+     * Set how many free locations an organism needs next to it to breed,
+     * if more than the one it needs to put its young in.
+     * @param free The number of free adjacent locations.
+     */
+    public void setRoomToBreed(int free)
+    {
+        roomToBreed = free;
+    }
+
+    /**
+     * Set how much a plant grows at each step.
+     * @param growthRate The increase in size.
+     */
+    public void setGrowthRate(int growthRate)
+    {
+        this.growthRate = growthRate;
+    }
+
+    /**
+     * @return The age at which an organism can start to breed.
+     */
+    public int getBreedingAge()
+    {
+        return breedingAge;
+    }
+
+    /**
+     * @return The likelihood of an organism breeding at a step.
+     */
+    public double getBreedingProbability()
+    {
+        return breedingProbability;
+    }
+
+    /**
+     * @return The maximum number of young at a birth.
+     */
+    public int getMaxLitterSize()
+    {
+        return maxLitterSize;
+    }
+
+    /**
+     * @return The age to which an organism can live.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @return The species eaten, or null if the organisms eat nothing.
+     */
+    public Species getFood()
+    {
+        return food;
+    }
+
+    /**
+     * @return The number of steps a meal lasts.
+     */
+    public int getFoodValue()
+    {
+        return foodValue;
+    }
+
+    /**
+     * @return How much of a plant is eaten at a meal, or 0 if the food
+     *         is eaten whole.
+     */
+    public int getBite()
+    {
+        return bite;
+    }
+
+    /**
+     * @return The share of steps on which the organisms move, eat and breed.
+     */
+    public double getAwakeShare()
+    {
+        return awakeShare;
+    }
+
+    /**
+     * @return The share of steps on which the organisms look for food.
+     */
+    public double getFeedingShare()
+    {
+        return awakeShare * feedingShare;
+    }
+
+    /**
+     * @return The species an adult of which must be adjacent for an
+     *         organism to breed, or null for none.
+     */
+    public Species getMate()
+    {
+        return mate;
+    }
+
+    /**
+     * @return The number of free adjacent locations an organism needs to
+     *         breed.
+     */
+    public int getRoomToBreed()
+    {
+        return roomToBreed;
+    }
+
+    /**
+     * @return The mean size of a plant, when their ages are spread evenly
+     *         up to the maximum age.
+     */
+    public double getMeanSize()
+    {
+        return 1 + growthRate * maxAge / 2.0;
+    }
+}
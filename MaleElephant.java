@@ -23,6 +23,19 @@ public class MaleElephant extends Elephant
         super(randomAge,field, location);
     }
 
+    /**
+     * Create a new male elephant with a random age and food level, drawn
+     * from the given generator.
+     *
+     * @param random The generator to draw the age and food level from.
+     * @param field The field currently occupied.
+     * @param location The location within the field.
+     */
+    public MaleElephant(Random random, Field field, Location location)
+    {
+        super(random, field, location);
+    }
+
     /**
      * The male elephant doesn't give birth.
      */
@@ -39,5 +52,36 @@ public class MaleElephant extends Elephant
     {
         return age >= BREEDING_AGE;
     }
-    
+
+    /**
+     * @return The species of the elephant.
+     */
+    public Species getSpecies()
+    {
+        return Species.MALE_ELEPHANT;
+    }
+
+    /**
+     * The male elephant doesn't give birth.
+     * @param random The generator to draw from.
+     * @param adjacent The locations adjacent to the elephant.
+     * @param free How many of them are free.
+     * @return No births.
+     */
+    protected int countYoung(Random random, List<Location> adjacent, int free)
+    {
+        return 0;
+    }
+
+    /**
+     * @return The traits of male elephants that the aggregate model of their
+     *         population works from.
+     */
+    public static LifeHistory lifeHistory()
+    {
+        // Males do not bear young themselves.
+        LifeHistory traits = new LifeHistory(BREEDING_AGE, MAX_AGE, 0, 0);
+        traits.setFood(Species.PLANT, PLANT_FOOD_VALUE, FOOD_CAPACITY);
+        return traits;
+    }
 }
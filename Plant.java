@@ -20,8 +20,6 @@ public class Plant
     private static final double BREEDING_PROBABILITY = 0.09;
     // The maximum number of births.
     private static final int MAX_LITTER_SIZE = 4;
-    // A shared random number generator to control breeding.
-    private static final Random rand = Randomizer.getRandom();
     // The amount the plant increases in size per step.
     private static final int GROWTH_RATE = 3;
     // Individual characteristics (instance fields).
@@ -174,8 +172,8 @@ public class Plant
     private int breed()
     {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed() && rand().nextDouble() <= BREEDING_PROBABILITY) {
+            births = rand().nextInt(MAX_LITTER_SIZE) + 1;
         }
         return births;
     }
@@ -193,6 +191,26 @@ public class Plant
     {
         return size;
     }
+
+    /**
+     * @return The age of the plant, in steps.
+     */
+    public int getAge()
+    {
+        return age;
+    }
+
+    /**
+     * Set the age and size of the plant, e.g. when restoring it from a
+     * checkpoint.
+     * @param age The age of the plant.
+     * @param size The size of the plant.
+     */
+    public void restoreState(int age, int size)
+    {
+        this.age = age;
+        this.size = size;
+    }
     
     /**
      * Reduce the size of the plant by an amount. This may cause the plant to die.
@@ -213,7 +231,7 @@ public class Plant
      */
     public double calculateWindSurvivalProbability()
     {
-        return 0.7 + size/20;
+        return windSurvivalProbability(size);
     }
     
     /**
@@ -221,7 +239,45 @@ public class Plant
      * @return The chance of surviving one step in snowy conditions.
      */
     public double calculateSnowSurvivalProbability()
+    {
+        return snowSurvivalProbability(size);
+    }
+
+    /**
+     * @param size The size of a plant.
+     * @return The chance a plant of that size has of surviving one step in wind.
+     */
+    public static double windSurvivalProbability(int size)
+    {
+        return 0.7 + size/20;
+    }
+
+    /**
+     * @param size The size of a plant.
+     * @return The chance a plant of that size has of surviving one step in snow.
+     */
+    public static double snowSurvivalProbability(int size)
     {
         return 0.7 + size/50;
     }
+
+    /**
+     * @return The traits of plants that the aggregate model of their
+     *         population works from.
+     */
+    public static LifeHistory lifeHistory()
+    {
+        LifeHistory traits = new LifeHistory(BREEDING_AGE, MAX_AGE, BREEDING_PROBABILITY,
+                                             MAX_LITTER_SIZE);
+        traits.setGrowthRate(GROWTH_RATE);
+        return traits;
+    }
+
+    /**
+     * @return The random number generator of the plants of the field.
+     */
+    private Random rand()
+    {
+        return getField().getRandomizer().getRandom(Randomizer.Stream.PLANT);
+    }
 }
@@ -0,0 +1,322 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record the population of every step of a simulation to a compact file.
+ *
+ * The simulation thread only hands each snapshot to a queue. A background
+ * thread groups the snapshots into blocks of up to BLOCK_STEPS steps and
+ * writes each block in columns: the steps, the weather and time of day,
+ * then the count and infected count of each species. Numeric columns are
+ * stored as differences from the previous step, as variable-length
+ * integers, with runs of zero differences collapsed. The blocks are
+ * written into a memory-mapped file, which is grown a chunk at a time.
+ *
+ * The file can be read back with PopulationRecording.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class PopulationRecorder
+{
+    // The maximum number of steps in one block.
+    private static final int BLOCK_STEPS = 4096;
+    // The number of snapshots that can wait to be written.
+    private static final int QUEUE_CAPACITY = 16384;
+    // How much of the file is mapped at a time, in bytes.
+    private static final int CHUNK_SIZE = 1 << 22;
+    // How long a partial block may wait before being written, in milliseconds.
+    private static final long FLUSH_INTERVAL = 1000;
+    // A marker placed on the queue to ask the writer to finish.
+    private static final PopulationSnapshot END = new PopulationSnapshot(
+        0, new int[0], new int[0], Weather.SUNNY, false, 0);
+
+    // The snapshots waiting to be written.
+    private final BlockingQueue<PopulationSnapshot> queue;
+    // The file being written.
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    // The background thread that encodes and writes the blocks.
+    private final Thread writer;
+    // The first failure met by the writer, if any.
+    private volatile IOException failure;
+
+    // The snapshots of the block being collected (writer thread only).
+    private final PopulationSnapshot[] block;
+    private int blockSize;
+    // The encoded form of a block (writer thread only).
+    private byte[] encoded;
+    private int encodedLength;
+    // The mapped part of the file, and the file offset it starts at.
+    private MappedByteBuffer mapped;
+    private long mappedStart;
+    // The file offset at which the next block will be written.
+    private long position;
+
+    /**
+     * Create a recorder that writes to the given file, replacing anything
+     * already in it.
+     * @param file The file to record to.
+     * @throws IOException If the file cannot be created.
+     */
+    public PopulationRecorder(File file) throws IOException
+    {
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        channel = this.file.getChannel();
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        block = new PopulationSnapshot[BLOCK_STEPS];
+        encoded = new byte[1 << 16];
+
+        ByteBuffer header = ByteBuffer.allocate(PopulationRecording.HEADER_SIZE);
+        header.putInt(PopulationRecording.MAGIC);
+        header.putInt(PopulationRecording.VERSION);
+        header.putInt(Species.count());
+        header.flip();
+        channel.write(header, 0);
+        position = PopulationRecording.HEADER_SIZE;
+
+        writer = new Thread(this::writeBlocks, "population-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue a snapshot to be recorded. This only waits if the writer has
+     * fallen a long way behind.
+     * @param snapshot The snapshot to record.
+     */
+    public void record(PopulationSnapshot snapshot)
+    {
+        try {
+            queue.put(snapshot);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write everything queued so far and close the file.
+     * @throws IOException If the recording could not be written.
+     */
+    public void close() throws IOException
+    {
+        record(END);
+        try {
+            writer.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if(mapped != null) {
+                mapped.force();
+                mapped = null;
+            }
+            // Drop the unused end of the last chunk. Some platforms do not
+            // allow this while the file is mapped; the reader stops at the
+            // first empty block, so the padding is harmless if it stays.
+            try {
+                channel.truncate(position);
+            }
+            catch(IOException e) {
+                // Leave the padding in place.
+            }
+        }
+        finally {
+            file.close();
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The body of the writer thread: collect snapshots into blocks and
+     * write each block when it is full, when no snapshot has arrived for
+     * a while, or when asked to finish.
+     */
+    private void writeBlocks()
+    {
+        try {
+            while(true) {
+                PopulationSnapshot snapshot = queue.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                if(snapshot == END) {
+                    flush();
+                    return;
+                }
+                if(snapshot == null) {
+                    flush();
+                }
+                else {
+                    block[blockSize++] = snapshot;
+                    if(blockSize == BLOCK_STEPS) {
+                        flush();
+                    }
+                }
+            }
+        }
+        catch(InterruptedException e) {
+            // Stop writing.
+        }
+    }
+
+    /**
+     * Write the collected snapshots, if any, and start a new block.
+     * After a failure the snapshots are discarded, so that the queue
+     * keeps draining and record never blocks for good.
+     */
+    private void flush()
+    {
+        if(blockSize == 0) {
+            return;
+        }
+        try {
+            if(failure == null) {
+                writeBlock();
+            }
+        }
+        catch(IOException e) {
+            failure = e;
+        }
+        finally {
+            Arrays.fill(block, 0, blockSize, null);
+            blockSize = 0;
+        }
+    }
+
+    /**
+     * Encode the collected snapshots as one block and write it.
+     * @throws IOException If the file cannot be extended.
+     */
+    private void writeBlock() throws IOException
+    {
+        encodedLength = 0;
+        int count = blockSize;
+        int[] residuals = new int[count];
+
+        // The steps, usually one apart, so stored as the gap minus one.
+        for(int i = 0; i < count; i++) {
+            int previous = i == 0 ? 0 : block[i - 1].getStep() + 1;
+            residuals[i] = block[i].getStep() - previous;
+        }
+        writeResiduals(residuals, count);
+
+        // The weather and time of day, one byte per step.
+        ensureEncodedSpace(count);
+        for(int i = 0; i < count; i++) {
+            PopulationSnapshot snapshot = block[i];
+            encoded[encodedLength++] = (byte) (snapshot.getWeather().ordinal() << 1
+                                               | (snapshot.isNight() ? 1 : 0));
+        }
+
+        // The counts, then the infected counts, of each species.
+        for(Species species : Species.values()) {
+            for(int i = 0; i < count; i++) {
+                int previous = i == 0 ? 0 : block[i - 1].getCount(species);
+                residuals[i] = block[i].getCount(species) - previous;
+            }
+            writeResiduals(residuals, count);
+        }
+        for(Species species : Species.values()) {
+            for(int i = 0; i < count; i++) {
+                int previous = i == 0 ? 0 : block[i - 1].getInfectedCount(species);
+                residuals[i] = block[i].getInfectedCount(species) - previous;
+            }
+            writeResiduals(residuals, count);
+        }
+
+        // Each block is preceded by its length, step count and first step,
+        // so that a reader can skip blocks without decoding them.
+        int total = 12 + encodedLength;
+        MappedByteBuffer buffer = map(total);
+        buffer.putInt(encodedLength);
+        buffer.putInt(count);
+        buffer.putInt(block[0].getStep());
+        buffer.put(encoded, 0, encodedLength);
+        position += total;
+    }
+
+    /**
+     * Encode a column of differences. A zero difference is written as a
+     * zero followed by the length of the run of zeros it starts; any other
+     * difference is written as its zig-zag encoding, which is never zero.
+     * @param residuals The differences.
+     * @param count The number of differences to write.
+     */
+    private void writeResiduals(int[] residuals, int count)
+    {
+        int i = 0;
+        while(i < count) {
+            if(residuals[i] == 0) {
+                int run = 1;
+                while(i + run < count && residuals[i + run] == 0) {
+                    run++;
+                }
+                writeVarint(0);
+                writeVarint(run - 1);
+                i += run;
+            }
+            else {
+                int value = residuals[i];
+                writeVarint((value << 1) ^ (value >> 31));
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Write an unsigned variable-length integer, seven bits per byte.
+     * @param value The value, treated as unsigned.
+     */
+    private void writeVarint(int value)
+    {
+        ensureEncodedSpace(5);
+        while((value & ~0x7f) != 0) {
+            encoded[encodedLength++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        encoded[encodedLength++] = (byte) value;
+    }
+
+    /**
+     * Make sure the encoding buffer has room for more bytes.
+     * @param extra The number of bytes needed.
+     */
+    private void ensureEncodedSpace(int extra)
+    {
+        if(encodedLength + extra > encoded.length) {
+            encoded = Arrays.copyOf(encoded, Math.max(encoded.length * 2, encodedLength + extra));
+        }
+    }
+
+    /**
+     * Return a mapped buffer positioned at the end of the recording, with
+     * room for at least the given number of bytes.
+     * @param length The number of bytes to be written.
+     * @return The mapped buffer.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private MappedByteBuffer map(int length) throws IOException
+    {
+        if(mapped == null || position + length > mappedStart + mapped.capacity()) {
+            if(mapped != null) {
+                mapped.force();
+            }
+            mappedStart = position;
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, mappedStart,
+                                 Math.max(CHUNK_SIZE, length));
+        }
+        mapped.position((int) (position - mappedStart));
+        return mapped;
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read a file of population snapshots written by a PopulationRecorder.
+ * The file is memory-mapped and decoded one block at a time while it is
+ * scanned, so recordings of any length can be read.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class PopulationRecording
+{
+    // Marks a file as a population recording ("ECOP").
+    static final int MAGIC = 0x45434f50;
+    // The version of the file layout.
+    static final int VERSION = 1;
+    // The length of the file header, in bytes.
+    static final int HEADER_SIZE = 12;
+
+    // The mapped contents of the file.
+    private final MappedByteBuffer data;
+    // The number of species counted in each step.
+    private final int speciesCount;
+
+    /**
+     * Open a recording for reading.
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not a recording.
+     */
+    public PopulationRecording(File file) throws IOException
+    {
+        try(RandomAccessFile input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel()) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a population recording");
+        }
+        if(data.getInt(4) != VERSION) {
+            throw new IOException(file + " has unsupported version " + data.getInt(4));
+        }
+        speciesCount = data.getInt(8);
+        if(speciesCount != Species.count()) {
+            throw new IOException(file + " records " + speciesCount + " species, not "
+                                  + Species.count());
+        }
+    }
+
+    /**
+     * Pass every recorded snapshot, in order, to the given action.
+     * Recorded snapshots do not include step durations.
+     * @param action What to do with each snapshot.
+     */
+    public void scan(Consumer<PopulationSnapshot> action)
+    {
+        scan(Integer.MIN_VALUE, Integer.MAX_VALUE, action);
+    }
+
+    /**
+     * Pass the recorded snapshots of a range of steps, in order, to the
+     * given action. Blocks that lie wholly outside the range are skipped
+     * without being decoded.
+     * @param fromStep The first step wanted.
+     * @param toStep The last step wanted.
+     * @param action What to do with each snapshot.
+     */
+    public void scan(int fromStep, int toStep, Consumer<PopulationSnapshot> action)
+    {
+        ByteBuffer buffer = data.duplicate();
+        int offset = HEADER_SIZE;
+        while(offset + 12 <= buffer.limit()) {
+            int length = buffer.getInt(offset);
+            int count = buffer.getInt(offset + 4);
+            int firstStep = buffer.getInt(offset + 8);
+            if(count == 0 || offset + 12 + length > buffer.limit()) {
+                break;      // The unused end of the last mapped chunk.
+            }
+            if(firstStep > toStep) {
+                break;
+            }
+            buffer.position(offset + 12);
+            buffer.limit(offset + 12 + length);
+            decodeBlock(buffer, count, fromStep, toStep, action);
+            buffer.limit(buffer.capacity());
+            offset += 12 + length;
+        }
+    }
+
+    /**
+     * Read every recorded snapshot into a list.
+     * @return The recorded snapshots, in order.
+     */
+    public List<PopulationSnapshot> readAll()
+    {
+        List<PopulationSnapshot> snapshots = new ArrayList<>();
+        scan(snapshots::add);
+        return snapshots;
+    }
+
+    /**
+     * Decode one block and pass on the snapshots within the step range.
+     * @param buffer The block's columns, positioned at the first.
+     * @param count The number of steps in the block.
+     * @param fromStep The first step wanted.
+     * @param toStep The last step wanted.
+     * @param action What to do with each snapshot.
+     */
+    private void decodeBlock(ByteBuffer buffer, int count, int fromStep, int toStep,
+                             Consumer<PopulationSnapshot> action)
+    {
+        int[] steps = readResiduals(buffer, count);
+        for(int i = 0; i < count; i++) {
+            steps[i] += i == 0 ? 0 : steps[i - 1] + 1;
+        }
+        if(steps[count - 1] < fromStep) {
+            return;
+        }
+        byte[] conditions = new byte[count];
+        buffer.get(conditions);
+        int[][] counts = new int[speciesCount][];
+        int[][] infected = new int[speciesCount][];
+        for(int s = 0; s < speciesCount; s++) {
+            counts[s] = readTotals(buffer, count);
+        }
+        for(int s = 0; s < speciesCount; s++) {
+            infected[s] = readTotals(buffer, count);
+        }
+
+        Weather[] weathers = Weather.values();
+        int[] stepCounts = new int[speciesCount];
+        int[] stepInfected = new int[speciesCount];
+        for(int i = 0; i < count; i++) {
+            if(steps[i] < fromStep || steps[i] > toStep) {
+                continue;
+            }
+            for(int s = 0; s < speciesCount; s++) {
+                stepCounts[s] = counts[s][i];
+                stepInfected[s] = infected[s][i];
+            }
+            action.accept(new PopulationSnapshot(steps[i], stepCounts, stepInfected,
+                                                 weathers[conditions[i] >> 1],
+                                                 (conditions[i] & 1) != 0, 0));
+        }
+    }
+
+    /**
+     * Read a column of differences and turn it back into running totals.
+     * @param buffer The buffer to read from.
+     * @param count The number of values in the column.
+     * @return The values.
+     */
+    private static int[] readTotals(ByteBuffer buffer, int count)
+    {
+        int[] values = readResiduals(buffer, count);
+        for(int i = 1; i < count; i++) {
+            values[i] += values[i - 1];
+        }
+        return values;
+    }
+
+    /**
+     * Read a column of differences written by PopulationRecorder.
+     * @param buffer The buffer to read from.
+     * @param count The number of differences in the column.
+     * @return The differences.
+     */
+    private static int[] readResiduals(ByteBuffer buffer, int count)
+    {
+        int[] residuals = new int[count];
+        int i = 0;
+        while(i < count) {
+            int value = readVarint(buffer);
+            if(value == 0) {
+                // A run of zeros; the array already holds them.
+                i += readVarint(buffer) + 1;
+            }
+            else {
+                residuals[i++] = (value >>> 1) ^ -(value & 1);
+            }
+        }
+        return residuals;
+    }
+
+    /**
+     * Read an unsigned variable-length integer, seven bits per byte.
+     * @param buffer The buffer to read from.
+     * @return The value.
+     */
+    private static int readVarint(ByteBuffer buffer)
+    {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while(b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * An immutable record of the population at the end of one step of the
+ * simulation. Snapshots are published by the simulator after every step
+ * and can be read freely from any thread.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public final class PopulationSnapshot
+{
+    // The step that this snapshot describes.
+    private final int step;
+    // The number of live organisms of each species, indexed by ordinal.
+    private final int[] counts;
+    // The number of infected organisms of each species, indexed by ordinal.
+    private final int[] infectedCounts;
+    // The weather conditions the step was simulated under.
+    private final Weather weather;
+    // Whether the step was simulated at night.
+    private final boolean night;
+    // How long the step took to simulate, in nanoseconds.
+    private final long stepDuration;
+
+    /**
+     * Create a snapshot. The arrays are copied, so the caller may reuse them.
+     * @param step The step that this snapshot describes.
+     * @param counts Live organisms of each species, indexed by ordinal.
+     * @param infectedCounts Infected organisms of each species, indexed by ordinal.
+     * @param weather The weather the step was simulated under.
+     * @param night Whether the step was simulated at night.
+     * @param stepDuration How long the step took, in nanoseconds.
+     */
+    public PopulationSnapshot(int step, int[] counts, int[] infectedCounts,
+                              Weather weather, boolean night, long stepDuration)
+    {
+        this.step = step;
+        this.counts = counts.clone();
+        this.infectedCounts = infectedCounts.clone();
+        this.weather = weather;
+        this.night = night;
+        this.stepDuration = stepDuration;
+    }
+
+    /**
+     * @return The step that this snapshot describes.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @param species The species to count.
+     * @return The number of live organisms of that species.
+     */
+    public int getCount(Species species)
+    {
+        return counts[species.ordinal()];
+    }
+
+    /**
+     * @param species The species to count.
+     * @return The number of infected organisms of that species.
+     */
+    public int getInfectedCount(Species species)
+    {
+        return infectedCounts[species.ordinal()];
+    }
+
+    /**
+     * @return The total number of live organisms of all species.
+     */
+    public int getTotalCount()
+    {
+        int total = 0;
+        for(int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return The weather the step was simulated under. For the snapshot
+     *         of the initial state this is the weather of the first step.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * @return true if the step was simulated at night. For the snapshot
+     *         of the initial state this refers to the first step.
+     */
+    public boolean isNight()
+    {
+        return night;
+    }
+
+    /**
+     * @return How long the step took to simulate, in nanoseconds.
+     */
+    public long getStepDuration()
+    {
+        return stepDuration;
+    }
+
+    /**
+     * @return A one-line description of the snapshot.
+     */
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Step ").append(step).append(": ");
+        for(int i = 0; i < counts.length; i++) {
+            builder.append(Species.fromOrdinal(i).getName());
+            builder.append(' ').append(counts[i]);
+            if(infectedCounts[i] > 0) {
+                builder.append(" (").append(infectedCounts[i]).append(" infected)");
+            }
+            builder.append(", ");
+        }
+        builder.append(weather.toString().toLowerCase());
+        builder.append(night ? " night" : " day");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+/**
+ * How far each location of the field is from the nearest organism of one
+ * species, so that the animals that eat it can head for it from beyond
+ * the adjacent locations without searching around themselves.
+ *
+ * The distance is counted in steps of an animal, which may move to any
+ * of the eight adjacent locations, so it is the larger of the distances
+ * in rows and in columns. Distances beyond the radius of sight are not
+ * told apart. The field is worked out once per step, row by row, for all
+ * the animals that eat the species: first the distance along each row,
+ * then, for each row, the nearest of those in the rows within sight.
+ * Both passes handle each row on its own, so the rows of each can be
+ * split among threads.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class PreyDistanceField
+{
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // How far animals can see.
+    private final int radius;
+    // The species whose distance is kept.
+    private final Species prey;
+    // The distance of each location from the nearest prey in its row,
+    // and from the nearest prey in all, row by row; radius + 1 where
+    // there is none within sight.
+    private final byte[] alongRows;
+    private final byte[] distances;
+
+    /**
+     * Create the distances for a field, all out of sight until updated.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param radius How far animals can see, from 1 to
+     *               SimulationConfig.MAX_VISION_RADIUS.
+     * @param prey The species whose distance is kept.
+     */
+    public PreyDistanceField(int depth, int width, int radius, Species prey)
+    {
+        if(radius < 1 || radius > SimulationConfig.MAX_VISION_RADIUS) {
+            throw new IllegalArgumentException("The radius is out of range: " + radius);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.radius = radius;
+        this.prey = prey;
+        alongRows = new byte[depth * width];
+        distances = new byte[depth * width];
+        Arrays.fill(distances, (byte) (radius + 1));
+    }
+
+    /**
+     * Work out the distance along each of some rows to the nearest prey
+     * in the row. Every row must be scanned before any is spread.
+     * @param codes The species code of every location, row by row.
+     * @param start The first row.
+     * @param end One past the last row.
+     */
+    public void scanRows(byte[] codes, int start, int end)
+    {
+        int outOfSight = radius + 1;
+        byte code = (byte) prey.getCode();
+        for(int row = start; row < end; row++) {
+            int base = row * width;
+            // Keep the column of the last prey seen from the left, then
+            // from the right.
+            int last = -outOfSight;
+            for(int col = 0; col < width; col++) {
+                last = codes[base + col] == code ? col : last;
+                alongRows[base + col] = (byte) Math.min(col - last, outOfSight);
+            }
+            last = width + outOfSight;
+            for(int col = width - 1; col >= 0; col--) {
+                last = codes[base + col] == code ? col : last;
+                alongRows[base + col] = (byte) Math.min(Math.min(last - col, outOfSight),
+                                                        alongRows[base + col]);
+            }
+        }
+    }
+
+    /**
+     * Work out the distance from each location of some rows to the
+     * nearest prey, from the distances along the rows within sight.
+     * @param start The first row.
+     * @param end One past the last row.
+     */
+    public void spreadRows(int start, int end)
+    {
+        for(int row = start; row < end; row++) {
+            int base = row * width;
+            int farthest = 0;
+            for(int col = 0; col < width; col++) {
+                distances[base + col] = alongRows[base + col];
+                farthest = Math.max(farthest, alongRows[base + col]);
+            }
+            // Prey k rows away is at least k steps away, so once every
+            // location is no farther than k there is nothing nearer.
+            for(int k = 1; k <= radius && k < farthest; k++) {
+                int above = row - k;
+                int below = row + k;
+                if(above < 0 && below >= depth) {
+                    break;
+                }
+                int aboveBase = (above >= 0 ? above : below) * width;
+                int belowBase = (below < depth ? below : above) * width;
+                farthest = 0;
+                for(int col = 0; col < width; col++) {
+                    int nearer = Math.min(alongRows[aboveBase + col], alongRows[belowBase + col]);
+                    int distance = Math.min(distances[base + col], Math.max(k, nearer));
+                    distances[base + col] = (byte) distance;
+                    farthest = Math.max(farthest, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return how far a location is from the nearest prey, as it was when
+     * the distances were last worked out.
+     * @param row The row of the location.
+     * @param col The column of the location.
+     * @return The number of steps to the nearest prey, or more than the
+     *         radius if there is none within sight.
+     */
+    public int getDistance(int row, int col)
+    {
+        return distances[row * width + col];
+    }
+
+    /**
+     * @return How far animals can see.
+     */
+    public int getRadius()
+    {
+        return radius;
+    }
+
+    /**
+     * @return The species whose distance is kept.
+     */
+    public Species getPrey()
+    {
+        return prey;
+    }
+}
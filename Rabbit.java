@@ -21,8 +21,6 @@ public class Rabbit extends Animal
     private static final double BREEDING_PROBABILITY = 0.37;
     // The maximum number of births.
     private static final int MAX_LITTER_SIZE = 4;
-    // A shared random number generator to control breeding.
-    private static final Random rand = Randomizer.getRandom();
     // The size of plants a rabbit can eat per step.
     private static final int FOOD_CAPACITY = 1;
     // The food value of a single plant. In effect, this is the
@@ -49,13 +47,29 @@ public class Rabbit extends Animal
         super(field, location);
         age = 0;
         if(randomAge) {
-            age = rand.nextInt(MAX_AGE);
-            foodLevel = rand.nextInt(PLANT_FOOD_VALUE);
+            age = rand().nextInt(MAX_AGE);
+            foodLevel = rand().nextInt(PLANT_FOOD_VALUE);
         }else {
             age = 0;
             foodLevel = PLANT_FOOD_VALUE;
         }
     }
+
+    /**
+     * Create a rabbit with a random age and food level, drawn from the
+     * given generator rather than the rabbits' own, as when the field is
+     * populated row by row in parallel.
+     *
+     * @param random The generator to draw the age and food level from.
+     * @param field The field currently occupied.
+     * @param location The location within the field.
+     */
+    public Rabbit(Random random, Field field, Location location)
+    {
+        super(field, location);
+        age = random.nextInt(MAX_AGE);
+        foodLevel = random.nextInt(PLANT_FOOD_VALUE);
+    }
     
     /**
      * Increase the age.
@@ -96,8 +110,7 @@ public class Rabbit extends Animal
             if(animal instanceof Plant) {
                 Plant plant = (Plant) animal;
                 if(plant.isAlive()) { 
-                    plant.reduceSize(FOOD_CAPACITY);
-                    foodLevel = PLANT_FOOD_VALUE;
+                    eat(plant);
                     if(plant.isAlive()){
                         return null;
                     }
@@ -119,7 +132,7 @@ public class Rabbit extends Animal
         // Get a list of adjacent free locations.
         Field field = getField();
         List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        int births = breed();
+        int births = breed(rand());
         for(int b = 0; b < births && free.size() > 0; b++) {
             Location loc = free.remove(0);
             Rabbit young = new Rabbit(false, field, loc);
@@ -130,13 +143,14 @@ public class Rabbit extends Animal
     /**
      * Generate a number representing the number of births,
      * if it can breed.
+     * @param random The generator to draw from.
      * @return The number of births (may be zero).
      */
-    private int breed()
+    private int breed(Random random)
     {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed() && random.nextDouble() <= BREEDING_PROBABILITY) {
+            births = random.nextInt(MAX_LITTER_SIZE) + 1;
         }
         return births;
     }
@@ -186,7 +200,7 @@ public class Rabbit extends Animal
      */
     public boolean checkDeath()
     {
-        if( rand.nextDouble() <= DISEASE_DEATH_PROBABILITY){
+        if( rand().nextDouble() <= DISEASE_DEATH_PROBABILITY){
             setDead();
             return true;
         }
@@ -198,7 +212,117 @@ public class Rabbit extends Animal
      */
     
     public double calculateSnowSurvivalProbability()
+    {
+        return snowSurvivalProbability(age);
+    }
+
+    /**
+     * @param age The age of a rabbit.
+     * @return The chance a rabbit of that age has of surviving in snow.
+     */
+    public static double snowSurvivalProbability(int age)
     {
         return 0.9;
     }
+
+    /**
+     * @return The traits of rabbits that the aggregate model of their
+     *         population works from.
+     */
+    public static LifeHistory lifeHistory()
+    {
+        LifeHistory traits = new LifeHistory(BREEDING_AGE, MAX_AGE, BREEDING_PROBABILITY,
+                                             MAX_LITTER_SIZE);
+        traits.setFood(Species.PLANT, PLANT_FOOD_VALUE, FOOD_CAPACITY);
+        return traits;
+    }
+
+    /**
+     * @return The species of the rabbit.
+     */
+    public Species getSpecies()
+    {
+        return Species.RABBIT;
+    }
+
+    /**
+     * @return The species the rabbit eats.
+     */
+    public Species getFood()
+    {
+        return Species.PLANT;
+    }
+
+    /**
+     * Eat some of a plant, which dies if it is eaten up.
+     * @param food A live plant.
+     */
+    protected void eat(Object food)
+    {
+        ((Plant) food).reduceSize(FOOD_CAPACITY);
+        foodLevel = PLANT_FOOD_VALUE;
+    }
+
+    /**
+     * Work out how many young the rabbit has at this step.
+     * @param random The generator to draw from.
+     * @param adjacent The locations adjacent to the rabbit.
+     * @param free How many of them are free.
+     * @return The number of births (may be zero).
+     */
+    protected int countYoung(Random random, List<Location> adjacent, int free)
+    {
+        return breed(random);
+    }
+
+    /**
+     * @return The age to which a rabbit can live.
+     */
+    protected int getMaxAge()
+    {
+        return MAX_AGE;
+    }
+
+    /**
+     * @return The chance of an infected rabbit dying of disease at each step.
+     */
+    protected double getDiseaseDeathProbability()
+    {
+        return DISEASE_DEATH_PROBABILITY;
+    }
+
+    /**
+     * @return The age of the rabbit, in steps.
+     */
+    public int getAge()
+    {
+        return age;
+    }
+
+    /**
+     * @return How many more steps the rabbit can go without eating.
+     */
+    public int getFoodLevel()
+    {
+        return foodLevel;
+    }
+
+    /**
+     * Set the age and food level of the rabbit.
+     * @param age The age of the rabbit.
+     * @param foodLevel The food level of the rabbit.
+     */
+    protected void restoreState(int age, int foodLevel)
+    {
+        this.age = age;
+        this.foodLevel = foodLevel;
+    }
+
+    /**
+     * @return The random number generator of the rabbits of the field.
+     */
+    private Random rand()
+    {
+        return getField().getRandomizer().getRandom(Randomizer.Stream.RABBIT);
+    }
 }
@@ -0,0 +1,277 @@
+import java.util.Random;
+
+/**
+ * One stream of random numbers of the simulation, such as the one for
+ * the weather or the one for foxes. Streams are made by Randomizer,
+ * which seeds each one differently from the seed of the simulation, so
+ * that the draws of one part of the simulation do not shift those of
+ * another.
+ *
+ * A stream generates its numbers with one of the algorithms of
+ * Randomizer.Algorithm, keeping the state in its own fields. It is not
+ * safe to share between threads; split gives an independent stream for
+ * another thread. With the LEGACY algorithm every stream draws from the
+ * one generator of earlier versions, so the simulation draws the same
+ * numbers as before.
+ *
+ * A stream is a java.util.Random, and so a java.util.random.RandomGenerator,
+ * so it can be used wherever those are.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class RandomStream extends Random
+{
+    private static final long serialVersionUID = 1L;
+
+    // The number of longs of state of a stream.
+    static final int STATE_SIZE = 4;
+    // The multiplier of the linear congruential part of L64X128MixRandom.
+    private static final long LCG_MULTIPLIER = 0xd1342543de82ef95L;
+    // The increment of the SplitMix64 generator that expands seeds.
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // The algorithm, or null while the superclass is being constructed.
+    private Randomizer.Algorithm algorithm;
+    // The generator all draws come from, with the LEGACY algorithm.
+    private RestorableRandom shared;
+    // The state: s0 and s1 for XOROSHIRO128PP; for L64X128MIX, the
+    // increment and state of the congruential part in s2 and s3, and the
+    // state of the xoroshiro part in s0 and s1.
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * Create a stream. It must be seeded with seed before use.
+     */
+    RandomStream()
+    {
+        super(0);
+    }
+
+    /**
+     * Start the stream again with a seed.
+     * @param algorithm The algorithm to generate numbers with.
+     * @param seed The seed.
+     * @param shared The generator to draw from with the LEGACY algorithm.
+     */
+    void seed(Randomizer.Algorithm algorithm, long seed, RestorableRandom shared)
+    {
+        this.algorithm = algorithm;
+        this.shared = algorithm == Randomizer.Algorithm.LEGACY ? shared : null;
+        // Expand the seed with SplitMix64, as the generators of the JDK do.
+        long x = seed;
+        s0 = mix(x += GOLDEN_GAMMA);
+        s1 = mix(x += GOLDEN_GAMMA);
+        s2 = mix(x += GOLDEN_GAMMA) | 1;
+        s3 = mix(x += GOLDEN_GAMMA);
+        if(s0 == 0 && s1 == 0) {
+            // The xoroshiro state must not be all zero.
+            s0 = GOLDEN_GAMMA;
+        }
+    }
+
+    /**
+     * Make a new stream whose numbers are independent of this one's,
+     * e.g. for another thread. This draws one number from this stream.
+     * With the LEGACY algorithm the new stream draws from the same
+     * generator as this one.
+     * @return The new stream.
+     */
+    public RandomStream split()
+    {
+        RandomStream stream = new RandomStream();
+        stream.seed(algorithm, nextLong(), shared);
+        return stream;
+    }
+
+    /**
+     * Make the stream of one of many pieces of work, such as the rows of
+     * a field filled in parallel. The stream depends only on the
+     * algorithm of this stream, the key and the index, so the streams of
+     * the pieces can be made in any order and on any thread and still
+     * draw the same numbers. This draws nothing from this stream; draw
+     * the key from it so that each piece of work gets new streams. With
+     * the LEGACY algorithm the new stream draws from the same generator
+     * as this one.
+     * @param key A number shared by the streams of the pieces of work.
+     * @param index The index of the piece of work.
+     * @return The stream of that piece of work.
+     */
+    public RandomStream split(long key, long index)
+    {
+        RandomStream stream = new RandomStream();
+        stream.seed(algorithm, mix(key ^ mix(index + GOLDEN_GAMMA)), shared);
+        return stream;
+    }
+
+    /**
+     * @return The algorithm the stream generates numbers with.
+     */
+    public Randomizer.Algorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * Copy the state of the stream.
+     * @param state Where to put it, STATE_SIZE longs.
+     * @param offset The index of the first.
+     */
+    void getState(long[] state, int offset)
+    {
+        state[offset] = s0;
+        state[offset + 1] = s1;
+        state[offset + 2] = s2;
+        state[offset + 3] = s3;
+    }
+
+    /**
+     * Set the state of the stream, as copied by getState.
+     * @param state The state, STATE_SIZE longs.
+     * @param offset The index of the first.
+     */
+    void setState(long[] state, int offset)
+    {
+        s0 = state[offset];
+        s1 = state[offset + 1];
+        s2 = state[offset + 2];
+        s3 = state[offset + 3];
+    }
+
+    /**
+     * Reseed the stream with its current algorithm. java.util.Random
+     * calls this while it is constructed, before there is an algorithm;
+     * that call is ignored.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed)
+    {
+        if(algorithm != null) {
+            seed(algorithm, seed, shared);
+        }
+    }
+
+    /**
+     * @return The next 64 random bits.
+     */
+    public long nextLong()
+    {
+        if(shared != null) {
+            return shared.nextLong();
+        }
+        if(algorithm == Randomizer.Algorithm.XOROSHIRO128PP) {
+            long q0 = s0;
+            long q1 = s1;
+            long result = Long.rotateLeft(q0 + q1, 17) + q0;
+            q1 ^= q0;
+            s0 = Long.rotateLeft(q0, 49) ^ q1 ^ (q1 << 21);
+            s1 = Long.rotateLeft(q1, 28);
+            return result;
+        }
+        else {
+            long result = mixLea(s3 + s0);
+            s3 = LCG_MULTIPLIER * s3 + s2;
+            long q0 = s0;
+            long q1 = s1;
+            q1 ^= q0;
+            s0 = Long.rotateLeft(q0, 24) ^ q1 ^ (q1 << 16);
+            s1 = Long.rotateLeft(q1, 37);
+            return result;
+        }
+    }
+
+    /**
+     * @param bits The number of random bits wanted, up to 32.
+     * @return The random bits.
+     */
+    protected int next(int bits)
+    {
+        if(shared != null) {
+            return shared.next(bits);
+        }
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * @return A random number from 0 (inclusive) to 1 (exclusive).
+     */
+    public double nextDouble()
+    {
+        if(shared != null) {
+            return shared.nextDouble();
+        }
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return A random int.
+     */
+    public int nextInt()
+    {
+        if(shared != null) {
+            return shared.nextInt();
+        }
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Return a random int below a bound, every value equally likely.
+     * @param bound The bound. Must be positive.
+     * @return A random number from 0 (inclusive) to bound (exclusive).
+     */
+    public int nextInt(int bound)
+    {
+        if(shared != null) {
+            return shared.nextInt(bound);
+        }
+        if(bound <= 0) {
+            throw new IllegalArgumentException("The bound must be positive.");
+        }
+        // Scale 32 random bits to the bound, rejecting the few values
+        // that would make some results more likely than others.
+        long product = (nextLong() >>> 32) * bound;
+        if(Integer.compareUnsigned((int) product, bound) < 0) {
+            long threshold = (1L << 32) % bound;
+            while((product & 0xffffffffL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * @return A random boolean.
+     */
+    public boolean nextBoolean()
+    {
+        if(shared != null) {
+            return shared.nextBoolean();
+        }
+        return nextLong() < 0;
+    }
+
+    /**
+     * @param z A number.
+     * @return The number mixed by the finalizer of SplitMix64.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param z A number.
+     * @return The number mixed by the lea64 mixer of the LXM generators.
+     */
+    private static long mixLea(long z)
+    {
+        z = (z ^ (z >>> 32)) * 0xdaba0b6eb09322e3L;
+        z = (z ^ (z >>> 32)) * 0xdaba0b6eb09322e3L;
+        return z ^ (z >>> 32);
+    }
+}
@@ -1,52 +1,168 @@
-import java.util.Random;
-
 /**
- * Provide control over the randomization of the simulation. By using the shared, fixed-seed 
- * randomizer, repeated runs will perform exactly the same (which helps with testing). Set 
- * 'useShared' to false to get different random behaviour every time.
- * 
+ * Provide control over the randomization of a simulation. Each simulation
+ * owns a randomizer, seeded from its settings, so repeated runs will perform
+ * exactly the same (which helps with testing), and simulations in the same
+ * program do not disturb each other. Use a different seed to get different
+ * random behaviour.
+ *
+ * Each part of the simulation draws from its own stream (see Stream),
+ * all seeded from the one seed, so that a change to how one part draws
+ * numbers leaves the numbers of the other parts alone. The streams
+ * generate their numbers with one of several algorithms (see Algorithm).
+ * Their state can be saved and restored, so that a simulation can be
+ * checkpointed.
+ *
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
 public class Randomizer
 {
+    /**
+     * The algorithms the streams can generate numbers with.
+     */
+    public enum Algorithm
+    {
+        // The generator of java.util.Random, one shared by every stream,
+        // which draws the same numbers as earlier versions did.
+        LEGACY,
+        // xoroshiro128++: two longs of state, one short step per number.
+        XOROSHIRO128PP,
+        // L64X128MixRandom of the JDK: a 64-bit congruential generator
+        // combined with xoroshiro128 and mixed; a little slower, but with
+        // better statistical quality.
+        L64X128MIX;
+    }
+
+    /**
+     * The streams of random numbers: one per part of the simulation,
+     * and one per species for the draws of its organisms.
+     */
+    public enum Stream
+    {
+        WEATHER, POPULATE, DISEASE, FIELD,
+        FOX, RABBIT, EAGLE, COW, ELEPHANT, PLANT,
+        // Draws of code that does not name a stream.
+        OTHER;
+    }
+
     // The default seed for control of randomization.
-    private static final int SEED = 1111;
-    // A shared Random object, if required.
-    private static final Random rand = new Random(SEED);
-    // Determine whether a shared random generator is to be provided.
-    private static final boolean useShared = true;
+    public static final int DEFAULT_SEED = 1111;
+    // The default algorithm of the streams.
+    public static final Algorithm DEFAULT_ALGORITHM = Algorithm.XOROSHIRO128PP;
+
+    // The generator of the LEGACY algorithm. Its state can be saved and
+    // restored, so that a simulation can be checkpointed.
+    private final RestorableRandom rand = new RestorableRandom(DEFAULT_SEED);
+    // The streams, by ordinal.
+    private final RandomStream[] streams = new RandomStream[Stream.values().length];
+    // The algorithm the streams use.
+    private Algorithm algorithm;
 
     /**
-     * Constructor for objects of class Randomizer
+     * Create the streams of a simulation with the default seed and
+     * algorithm.
      */
     public Randomizer()
     {
+        this(DEFAULT_SEED, DEFAULT_ALGORITHM);
+    }
+
+    /**
+     * Create the streams of a simulation with the given seed and
+     * algorithm.
+     * @param seed The seed.
+     * @param algorithm The algorithm for the streams to use.
+     */
+    public Randomizer(long seed, Algorithm algorithm)
+    {
+        for(int i = 0; i < streams.length; i++) {
+            streams[i] = new RandomStream();
+        }
+        reset(seed, algorithm);
+    }
+
+    /**
+     * Provide the random generator of a part of the simulation.
+     * @param stream The part of the simulation.
+     * @return Its stream of random numbers.
+     */
+    public RandomStream getRandom(Stream stream)
+    {
+        return streams[stream.ordinal()];
     }
 
     /**
-     * Provide a random generator.
-     * @return A random object.
+     * Make the stream of one of many pieces of work of a part of the
+     * simulation; see RandomStream.split(long, long).
+     * @param stream The part of the simulation.
+     * @param key A number shared by the streams of the pieces of work.
+     * @param index The index of the piece of work.
+     * @return The stream of that piece of work.
      */
-    public static Random getRandom()
+    public RandomStream split(Stream stream, long key, long index)
     {
-        if(useShared) {
-            return rand;
+        return streams[stream.ordinal()].split(key, index);
+    }
+
+    /**
+     * Reset the randomization with the given seed and algorithm. Each
+     * stream is seeded differently from the seed.
+     * @param seed The seed to start again from.
+     * @param algorithm The algorithm for the streams to use.
+     */
+    public void reset(long seed, Algorithm algorithm)
+    {
+        this.algorithm = algorithm;
+        rand.setSeed(seed);
+        for(Stream stream : Stream.values()) {
+            streams[stream.ordinal()].seed(algorithm,
+                                           seed ^ 0x5851f42d4c957f2dL * (stream.ordinal() + 1),
+                                           rand);
         }
-        else {
-            return new Random();
+    }
+
+    /**
+     * @return The algorithm the streams use.
+     */
+    public Algorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * Return the state of the streams, so that it can be restored later
+     * with setState.
+     * @return The state of the streams.
+     */
+    public long[] getState()
+    {
+        if(algorithm == Algorithm.LEGACY) {
+            return new long[] { rand.getState() };
+        }
+        long[] state = new long[streams.length * RandomStream.STATE_SIZE];
+        for(int i = 0; i < streams.length; i++) {
+            streams[i].getState(state, i * RandomStream.STATE_SIZE);
         }
+        return state;
     }
-    
+
     /**
-     * Reset the randomization.
-     * This will have no effect if randomization is not through
-     * a shared Random generator.
+     * Restore the streams to a state returned by getState, so that they
+     * produce the same numbers again from there. The streams must use
+     * the algorithm they used when the state was taken.
+     * @param state The state to restore.
      */
-    public static void reset()
+    public void setState(long[] state)
     {
-        if(useShared) {
-            rand.setSeed(SEED);
+        if(algorithm == Algorithm.LEGACY) {
+            rand.setState(state[0]);
+            return;
+        }
+        if(state.length != streams.length * RandomStream.STATE_SIZE) {
+            throw new IllegalArgumentException("The state is not of " + algorithm + " streams.");
+        }
+        for(int i = 0; i < streams.length; i++) {
+            streams[i].setState(state, i * RandomStream.STATE_SIZE);
         }
     }
 }
@@ -0,0 +1,385 @@
+import java.util.Arrays;
+
+/**
+ * Weather that differs from place to place. The field is divided into
+ * square regions, and each region has an intensity of rain, wind and
+ * snow between 0 and 1. Each intensity is a smooth noise pattern whose
+ * fronts drift across the field at their own speed and slowly change
+ * shape, so that a region's weather persists for a while and spreads to
+ * its neighbours.
+ *
+ * The weather of a region is chosen from its intensities the way
+ * Weather.randomWeightedWeather chooses the weather of the whole field:
+ * snow if the snow intensity is high enough, otherwise wind, otherwise
+ * rain, otherwise sun. The thresholds are set so that, over the field
+ * and over time, each kind of weather covers about the share of regions
+ * given by its chance.
+ *
+ * The intensities depend only on the seed, the region and the step, so
+ * the weather of any step can be computed without the steps before it,
+ * and a checkpoint need not hold it. They are computed row by row over
+ * plain float arrays, with the interpolation weights of each column
+ * worked out once per step.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class RegionalWeather
+{
+    // The weather conditions, by ordinal.
+    private static final Weather[] CONDITIONS = Weather.values();
+    // The layers of intensity.
+    private static final int RAIN = 0;
+    private static final int WIND = 1;
+    private static final int SNOW = 2;
+    private static final int LAYERS = 3;
+    // The distance between the points of a noise pattern, in regions.
+    private static final int FRONT_SIZE = 8;
+    // The number of steps over which a pattern changes shape.
+    private static final int FRONT_PERIOD = 40;
+    // How far the fronts of each layer drift each step, in regions.
+    private static final double[] DRIFT_ROWS = { 0.20, -0.10, 0.08 };
+    private static final double[] DRIFT_COLS = { 0.35, 0.80, 0.15 };
+    // The number of noise values sampled to set the thresholds.
+    private static final int SAMPLES = 1 << 14;
+
+    // The number of locations along each side of a region.
+    private final int regionSize;
+    // The number of regions down and across the field.
+    private final int rows;
+    private final int cols;
+    // The seed of the noise.
+    private final long seed;
+    // The intensity above which a region has snow, wind or rain.
+    private final float[] thresholds;
+
+    // The intensity of each layer in each region, row by row.
+    private final float[][] intensities;
+    // The weather of each region, as the ordinal of the condition.
+    private final byte[] conditions;
+    // The number of regions with each condition.
+    private final int[] coverage;
+    // The step the weather was last computed for, or -1.
+    private int step;
+
+    // Work space: the noise pattern along the two pattern rows around a
+    // region row, already blended over time; for each pattern column, the
+    // region column where the regions lying to its right end; and for
+    // each region column, the weight of the pattern column to its right.
+    private final float[] above;
+    private final float[] below;
+    private final int[] spanEnds;
+    private final float[] toRight;
+
+    /**
+     * Create the weather of a field.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param regionSize The number of locations along each side of a
+     *                   region. Must be at least one.
+     * @param seed The seed of the noise.
+     * @param snow The chance of snow.
+     * @param wind The chance of wind, if it is not snowing.
+     * @param rain The chance of rain, if it is neither snowing nor windy.
+     */
+    public RegionalWeather(int depth, int width, int regionSize, long seed,
+                           double snow, double wind, double rain)
+    {
+        if(regionSize < 1) {
+            throw new IllegalArgumentException("The region size must be at least one.");
+        }
+        this.regionSize = regionSize;
+        this.seed = seed;
+        rows = (depth + regionSize - 1) / regionSize;
+        cols = (width + regionSize - 1) / regionSize;
+        intensities = new float[LAYERS][rows * cols];
+        conditions = new byte[rows * cols];
+        coverage = new int[CONDITIONS.length];
+        step = -1;
+        above = new float[cols / FRONT_SIZE + 3];
+        below = new float[above.length];
+        spanEnds = new int[above.length];
+        toRight = new float[cols];
+
+        thresholds = new float[LAYERS];
+        thresholds[RAIN] = threshold(rain);
+        thresholds[WIND] = threshold(wind);
+        thresholds[SNOW] = threshold(snow);
+    }
+
+    /**
+     * Compute the weather of a step, unless it is already computed.
+     * @param step The step.
+     */
+    public void update(int step)
+    {
+        if(step == this.step) {
+            return;
+        }
+        this.step = step;
+        for(int layer = 0; layer < LAYERS; layer++) {
+            fillLayer(layer, step);
+        }
+
+        // Later choices override earlier ones, so that snow wins over wind
+        // and wind over rain, without branches.
+        Arrays.fill(coverage, 0);
+        float[] rain = intensities[RAIN];
+        float[] wind = intensities[WIND];
+        float[] snow = intensities[SNOW];
+        float rainThreshold = thresholds[RAIN];
+        float windThreshold = thresholds[WIND];
+        float snowThreshold = thresholds[SNOW];
+        int raining = Weather.RAINING.ordinal();
+        int sunny = Weather.SUNNY.ordinal();
+        int windy = Weather.WINDY.ordinal();
+        int snowing = Weather.SNOWING.ordinal();
+        for(int i = 0; i < conditions.length; i++) {
+            int condition = rain[i] > rainThreshold ? raining : sunny;
+            condition = wind[i] > windThreshold ? windy : condition;
+            condition = snow[i] > snowThreshold ? snowing : condition;
+            conditions[i] = (byte) condition;
+            coverage[condition]++;
+        }
+    }
+
+    /**
+     * @return The step the weather was last computed for, or -1.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Return the weather at a location.
+     * @param location The location.
+     * @return The weather of its region.
+     */
+    public Weather getWeather(Location location)
+    {
+        return CONDITIONS[conditions[(location.getRow() / regionSize) * cols
+                                     + location.getCol() / regionSize]];
+    }
+
+    /**
+     * @param condition A weather condition.
+     * @return The number of regions with that weather.
+     */
+    public int getCoverage(Weather condition)
+    {
+        return coverage[condition.ordinal()];
+    }
+
+    /**
+     * @return The weather of the most regions.
+     */
+    public Weather getPrevailingWeather()
+    {
+        Weather prevailing = Weather.SUNNY;
+        for(Weather condition : CONDITIONS) {
+            if(coverage[condition.ordinal()] > coverage[prevailing.ordinal()]) {
+                prevailing = condition;
+            }
+        }
+        return prevailing;
+    }
+
+    /**
+     * Return the intensity of rain, wind or snow in a region.
+     * @param condition RAINING, WINDY or SNOWING.
+     * @param row The row of the region.
+     * @param col The column of the region.
+     * @return The intensity, from 0 to 1.
+     */
+    public float getIntensity(Weather condition, int row, int col)
+    {
+        switch(condition) {
+            case RAINING: return intensities[RAIN][row * cols + col];
+            case WINDY: return intensities[WIND][row * cols + col];
+            case SNOWING: return intensities[SNOW][row * cols + col];
+            default: return 0;
+        }
+    }
+
+    /**
+     * @return The number of locations along each side of a region.
+     */
+    public int getRegionSize()
+    {
+        return regionSize;
+    }
+
+    /**
+     * @return The number of regions down the field.
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * @return The number of regions across the field.
+     */
+    public int getCols()
+    {
+        return cols;
+    }
+
+    /**
+     * Fill one layer of intensity for a step. The noise pattern has a
+     * random value at every FRONT_SIZE-th region down and across, and at
+     * every FRONT_PERIOD-th step; values in between are interpolated
+     * smoothly. The pattern is shifted by the drift of the layer.
+     * @param layer The layer.
+     * @param step The step.
+     */
+    private void fillLayer(int layer, int step)
+    {
+        float[] values = intensities[layer];
+        double shiftRows = DRIFT_ROWS[layer] * step;
+        double shiftCols = DRIFT_COLS[layer] * step;
+        long period = step / FRONT_PERIOD;
+        float blend = smooth((float) (step % FRONT_PERIOD) / FRONT_PERIOD);
+
+        // The same pattern columns serve every row.
+        long firstCol = (long) Math.floor(shiftCols / FRONT_SIZE);
+        int spans = 0;
+        for(int col = 0; col < cols; col++) {
+            double x = (col + shiftCols) / FRONT_SIZE;
+            long patternCol = (long) Math.floor(x);
+            while(spans <= patternCol - firstCol) {
+                spanEnds[spans++] = col;
+            }
+            spanEnds[spans - 1] = col + 1;
+            toRight[col] = smooth((float) (x - patternCol));
+        }
+
+        long filledRow = Long.MIN_VALUE;
+        for(int row = 0; row < rows; row++) {
+            double y = (row + shiftRows) / FRONT_SIZE;
+            long patternRow = (long) Math.floor(y);
+            if(patternRow != filledRow) {
+                fillPatternRow(above, layer, patternRow, firstCol, period, blend);
+                fillPatternRow(below, layer, patternRow + 1, firstCol, period, blend);
+                filledRow = patternRow;
+            }
+            // Between two pattern columns the value is linear in the
+            // weight of the right one, so each region takes one multiply-add.
+            float down = smooth((float) (y - patternRow));
+            int base = row * cols;
+            int col = 0;
+            for(int i = 0; i < spans; i++) {
+                float leftValue = above[i] + (below[i] - above[i]) * down;
+                float rightValue = above[i + 1] + (below[i + 1] - above[i + 1]) * down;
+                float slope = rightValue - leftValue;
+                for(int end = spanEnds[i]; col < end; col++) {
+                    values[base + col] = leftValue + slope * toRight[col];
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill the values of one row of a noise pattern, blended between two
+     * periods.
+     * @param line The values to fill.
+     * @param layer The layer.
+     * @param patternRow The row of the pattern.
+     * @param firstCol The pattern column of the first value.
+     * @param period The earlier period.
+     * @param blend The weight of the later period.
+     */
+    private void fillPatternRow(float[] line, int layer, long patternRow, long firstCol,
+                                long period, float blend)
+    {
+        for(int i = 0; i < line.length; i++) {
+            float now = noise(layer, patternRow, firstCol + i, period);
+            float next = noise(layer, patternRow, firstCol + i, period + 1);
+            line[i] = now + (next - now) * blend;
+        }
+    }
+
+    /**
+     * Return the value of a noise pattern at one of its points.
+     * @param layer The layer.
+     * @param row The pattern row.
+     * @param col The pattern column.
+     * @param period The period.
+     * @return A value from 0 (inclusive) to 1 (exclusive).
+     */
+    private float noise(int layer, long row, long col, long period)
+    {
+        long h = seed + layer * 0x9e3779b97f4a7c15L;
+        h = mix(h ^ row * 0xbf58476d1ce4e5b9L);
+        h = mix(h ^ col * 0x94d049bb133111ebL);
+        h = mix(h ^ period * 0xd6e8feb86659fd93L);
+        return (h >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * Return the intensity above which the given share of regions lies,
+     * found from a sample of the noise.
+     * @param chance The share.
+     * @return The threshold.
+     */
+    private float threshold(double chance)
+    {
+        if(chance <= 0) {
+            return Float.POSITIVE_INFINITY;
+        }
+        if(chance >= 1) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        float[] sample = new float[SAMPLES];
+        float[] corners = new float[8];
+        for(int i = 0; i < SAMPLES; i++) {
+            // Points spread over the pattern and over time.
+            long h = mix(seed ^ i * 0x9e3779b97f4a7c15L);
+            float row = smooth((h & 0xffff) * 0x1.0p-16f);
+            float col = smooth((h >>> 16 & 0xffff) * 0x1.0p-16f);
+            float time = smooth((h >>> 32 & 0xffff) * 0x1.0p-16f);
+            for(int c = 0; c < 8; c++) {
+                corners[c] = noise(LAYERS, 2L * i + (c & 1), c >> 1 & 1, c >> 2);
+            }
+            float top = lerp(lerp(corners[0], corners[4], time), lerp(corners[2], corners[6], time), col);
+            float bottom = lerp(lerp(corners[1], corners[5], time), lerp(corners[3], corners[7], time), col);
+            sample[i] = lerp(top, bottom, row);
+        }
+        Arrays.sort(sample);
+        return sample[(int) ((1 - chance) * SAMPLES)];
+    }
+
+    /**
+     * @param from The value at weight 0.
+     * @param to The value at weight 1.
+     * @param weight The weight.
+     * @return The value in between.
+     */
+    private static float lerp(float from, float to, float weight)
+    {
+        return from + (to - from) * weight;
+    }
+
+    /**
+     * Ease a weight so that the noise has no creases at its points.
+     * @param t A weight from 0 to 1.
+     * @return The eased weight.
+     */
+    private static float smooth(float t)
+    {
+        return t * t * (3 - 2 * t);
+    }
+
+    /**
+     * Scramble the bits of a number.
+     * @param h The number.
+     * @return The scrambled number.
+     */
+    private static long mix(long h)
+    {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
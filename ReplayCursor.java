@@ -0,0 +1,223 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A position in a replay, holding the field as it was at one frame. The
+ * cursor moves one frame forwards or backwards by applying that frame's
+ * changes, and jumps to any frame by decoding the keyframe before it and
+ * applying the changes in between. It keeps a count of each species, and
+ * of its infected members, as it goes.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class ReplayCursor
+{
+    // The replay being played.
+    private final ReplayFile replay;
+    // The index of the current frame.
+    private int frame;
+    // The value of every location: species code, plus INFECTED.
+    private final byte[] values;
+    // The species code of every location.
+    private final byte[] codes;
+    // The number of locations holding each value.
+    private final int[] valueCounts;
+    // The locations changed since the changes were last taken, or null
+    // if all of them may have.
+    private int[] changed;
+    private int changedCount;
+
+    /**
+     * Create a cursor at the first frame of a replay.
+     * @param replay The replay.
+     */
+    public ReplayCursor(ReplayFile replay)
+    {
+        this.replay = replay;
+        values = new byte[replay.getDepth() * replay.getWidth()];
+        codes = new byte[values.length];
+        valueCounts = new int[2 * ReplayFile.INFECTED];
+        readKeyframe(0);
+    }
+
+    /**
+     * Jump to a frame.
+     * @param target The index of the frame, from 0 to one less than the
+     *               number of frames.
+     */
+    public void seek(int target)
+    {
+        if(target < 0 || target >= replay.getFrameCount()) {
+            throw new IndexOutOfBoundsException("No frame " + target);
+        }
+        // Step on from here if that is no further than from the keyframe.
+        int keyframe = target - target % replay.getKeyframeInterval();
+        if(target < frame || frame < keyframe) {
+            readKeyframe(keyframe);
+        }
+        while(frame < target) {
+            applyChanges(frame + 1, true);
+            frame++;
+        }
+    }
+
+    /**
+     * Move to the next frame, if there is one.
+     * @return true if the cursor moved.
+     */
+    public boolean stepForward()
+    {
+        if(frame + 1 >= replay.getFrameCount()) {
+            return false;
+        }
+        applyChanges(frame + 1, true);
+        frame++;
+        return true;
+    }
+
+    /**
+     * Move to the previous frame, if there is one.
+     * @return true if the cursor moved.
+     */
+    public boolean stepBackward()
+    {
+        if(frame == 0) {
+            return false;
+        }
+        applyChanges(frame, false);
+        frame--;
+        return true;
+    }
+
+    /**
+     * @return The index of the current frame.
+     */
+    public int getFrame()
+    {
+        return frame;
+    }
+
+    /**
+     * @return The step of the simulation the current frame shows.
+     */
+    public int getStep()
+    {
+        return replay.getStep(frame);
+    }
+
+    /**
+     * @return The replay being played.
+     */
+    public ReplayFile getReplay()
+    {
+        return replay;
+    }
+
+    /**
+     * Return the species code of every location in the current frame, in
+     * the form of Field.getSpeciesCodes. The array is updated in place as
+     * the cursor moves.
+     * @return The species codes.
+     */
+    public byte[] getSpeciesCodes()
+    {
+        return codes;
+    }
+
+    /**
+     * Return the locations whose species code changed since this method
+     * was last called, and start collecting afresh. A location may be
+     * listed more than once.
+     * @return The indices of the changed locations, or null if any of
+     *         them may have changed.
+     */
+    public int[] takeChanges()
+    {
+        if(changed == null) {
+            changed = new int[256];
+            changedCount = 0;
+            return null;
+        }
+        int[] taken = Arrays.copyOf(changed, changedCount);
+        changedCount = 0;
+        return taken;
+    }
+
+    /**
+     * @param species A species.
+     * @return The number of its organisms in the current frame.
+     */
+    public int getCount(Species species)
+    {
+        return valueCounts[species.getCode()] + valueCounts[species.getCode() | ReplayFile.INFECTED];
+    }
+
+    /**
+     * @param species A species.
+     * @return The number of its infected organisms in the current frame.
+     */
+    public int getInfectedCount(Species species)
+    {
+        return valueCounts[species.getCode() | ReplayFile.INFECTED];
+    }
+
+    /**
+     * Replace the field with the keyframe at the given frame. Every
+     * location is then treated as changed.
+     * @param keyframe The index of a keyframe.
+     */
+    private void readKeyframe(int keyframe)
+    {
+        ByteBuffer data = replay.frameData(keyframe);
+        // Skip the changes; the keyframe follows them.
+        int count = ReplayFile.readVarint(data);
+        for(int i = 0; i < count; i++) {
+            ReplayFile.readVarint(data);
+            data.position(data.position() + 2);
+        }
+        Arrays.fill(valueCounts, 0);
+        int cell = 0;
+        while(cell < values.length) {
+            byte value = data.get();
+            int run = ReplayFile.readVarint(data);
+            Arrays.fill(values, cell, cell + run, value);
+            Arrays.fill(codes, cell, cell + run, (byte) (value & ~ReplayFile.INFECTED));
+            valueCounts[value] += run;
+            cell += run;
+        }
+        frame = keyframe;
+        changed = null;
+    }
+
+    /**
+     * Apply the changes a frame made to the one before it.
+     * @param changesFrame The frame whose changes to apply.
+     * @param forwards true to move to that frame, false to move back from it.
+     */
+    private void applyChanges(int changesFrame, boolean forwards)
+    {
+        ByteBuffer data = replay.frameData(changesFrame);
+        int count = ReplayFile.readVarint(data);
+        int cell = 0;
+        for(int i = 0; i < count; i++) {
+            cell += ReplayFile.readVarint(data);
+            byte oldValue = data.get();
+            byte newValue = data.get();
+            byte value = forwards ? newValue : oldValue;
+            valueCounts[values[cell]]--;
+            valueCounts[value]++;
+            values[cell] = value;
+            byte code = (byte) (value & ~ReplayFile.INFECTED);
+            if(codes[cell] != code) {
+                codes[cell] = code;
+                if(changed != null) {
+                    if(changedCount == changed.length) {
+                        changed = Arrays.copyOf(changed, changedCount * 2);
+                    }
+                    changed[changedCount++] = cell;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A replay written by ReplayRecorder, opened for reading. The file is
+ * memory-mapped, and the index at its end says where each frame starts,
+ * so any frame can be reached without reading those before it. A file
+ * whose recording was never closed has no index; its frames are then
+ * found by reading through them once, up to the last complete frame.
+ *
+ * The frames are played with a ReplayCursor. A replay file, like the
+ * cursors on it, is meant to be used by one thread at a time.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class ReplayFile
+{
+    // Marks a file as a replay ("ECOR").
+    static final int MAGIC = 0x45434f52;
+    // The version of the file layout.
+    static final int VERSION = 1;
+    // The length of the file header, in bytes.
+    static final int HEADER_SIZE = 5 * 4;
+    // The length of the start of each frame: its length, step, flags, and
+    // length before compression.
+    static final int FRAME_HEADER_SIZE = 4 + 4 + 1 + 4;
+    // The length of the footer that locates the index, in bytes.
+    static final int FOOTER_SIZE = 8 + 2 * 4;
+    // Added to a location's species code when its occupant is infected.
+    static final int INFECTED = 0x10;
+    // The flag of a frame that holds the whole field.
+    static final int KEYFRAME = 1;
+
+    // The contents of the file.
+    private final MappedByteBuffer data;
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // The number of frames from one keyframe to the next.
+    private final int keyframeInterval;
+    // The file offset of each frame.
+    private final long[] offsets;
+    // Decompresses the frames.
+    private final Inflater inflater;
+
+    /**
+     * Open a replay file.
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not a replay.
+     */
+    public ReplayFile(File file) throws IOException
+    {
+        try(RandomAccessFile input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel()) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a replay");
+        }
+        int version = data.getInt(4);
+        if(version != VERSION) {
+            throw new IOException(file + " has unsupported version " + version);
+        }
+        depth = data.getInt(8);
+        width = data.getInt(12);
+        keyframeInterval = data.getInt(16);
+        inflater = new Inflater();
+
+        long[] indexed = readIndex();
+        offsets = indexed != null ? indexed : scanFrames();
+        if(offsets.length == 0) {
+            throw new IOException(file + " holds no frames");
+        }
+    }
+
+    /**
+     * @return The depth of the recorded field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the recorded field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * @return The number of frames from one keyframe to the next.
+     */
+    public int getKeyframeInterval()
+    {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return The number of frames in the file.
+     */
+    public int getFrameCount()
+    {
+        return offsets.length;
+    }
+
+    /**
+     * @param frame The index of a frame.
+     * @return The step of the simulation the frame shows.
+     */
+    public int getStep(int frame)
+    {
+        return data.getInt((int) offsets[frame] + 4);
+    }
+
+    /**
+     * Return the contents of a frame: its changes, then the whole field
+     * if it is a keyframe.
+     * @param frame The index of a frame.
+     * @return A buffer positioned at the count of changes.
+     * @throws IllegalStateException If the frame is corrupt.
+     */
+    ByteBuffer frameData(int frame)
+    {
+        int start = (int) offsets[frame];
+        ByteBuffer input = data.duplicate();
+        input.limit(start + 4 + data.getInt(start));
+        input.position(start + FRAME_HEADER_SIZE);
+        byte[] contents = new byte[data.getInt(start + 9)];
+        inflater.reset();
+        inflater.setInput(input);
+        try {
+            int length = 0;
+            while(length < contents.length) {
+                int inflated = inflater.inflate(contents, length, contents.length - length);
+                if(inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("frame ends early");
+                }
+                length += inflated;
+            }
+        }
+        catch(DataFormatException e) {
+            throw new IllegalStateException("Frame " + frame + " is corrupt: " + e.getMessage());
+        }
+        return ByteBuffer.wrap(contents);
+    }
+
+    /**
+     * Read the index written when the recording was closed.
+     * @return The frame offsets, or null if there is no valid index.
+     */
+    private long[] readIndex()
+    {
+        int limit = data.limit();
+        if(limit < HEADER_SIZE + FOOTER_SIZE || data.getInt(limit - 4) != MAGIC) {
+            return null;
+        }
+        long indexStart = data.getLong(limit - FOOTER_SIZE);
+        int count = data.getInt(limit - 8);
+        if(indexStart < HEADER_SIZE || count < 0
+           || indexStart + (long) count * 8 != limit - FOOTER_SIZE) {
+            return null;
+        }
+        long[] index = new long[count];
+        ByteBuffer buffer = data.duplicate();
+        buffer.position((int) indexStart);
+        buffer.asLongBuffer().get(index);
+        return index;
+    }
+
+    /**
+     * Find the frames by reading through them, stopping at the first one
+     * that is incomplete.
+     * @return The frame offsets.
+     */
+    private long[] scanFrames()
+    {
+        long[] found = new long[1024];
+        int count = 0;
+        int position = HEADER_SIZE;
+        while(position + FRAME_HEADER_SIZE <= data.limit()) {
+            int length = data.getInt(position);
+            if(length < FRAME_HEADER_SIZE - 4 || (long) position + 4 + length > data.limit()) {
+                break;
+            }
+            if(count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = position;
+            position += 4 + length;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Read an unsigned variable-length integer, seven bits per byte.
+     * @param buffer The buffer to read from.
+     * @return The value.
+     */
+    static int readVarint(ByteBuffer buffer)
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+}
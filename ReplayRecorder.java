@@ -0,0 +1,401 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Record what every location of the field holds at every step, so that a
+ * run can be replayed, forwards or backwards, without simulating it again.
+ *
+ * Each recorded step is a frame. A location's value in a frame is its
+ * species code, with INFECTED added if its occupant is infected. Every
+ * frame stores the locations whose value changed since the previous
+ * frame, with their old and new values, so a player can step backwards as
+ * easily as forwards. Every KEYFRAME_INTERVAL frames the whole frame is
+ * stored as well, so a player can jump to any frame by reading one
+ * keyframe and fewer than that many changes. An index of where each
+ * frame starts is written at the end of the file when it is closed.
+ *
+ * The frames are encoded on the simulation thread, which only has to
+ * look at the locations that changed. A background thread compresses
+ * them, since in a busy field nearly half the locations change each
+ * step, and writes them to the file. The file can be read back with
+ * ReplayFile.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class ReplayRecorder
+{
+    // The number of encoded frames that can wait to be written.
+    private static final int QUEUE_CAPACITY = 1024;
+    // A marker placed on the queue to ask the writer to finish.
+    private static final byte[] END = new byte[0];
+
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // The number of frames from one keyframe to the next.
+    private final int keyframeInterval;
+    // The number of frames recorded so far.
+    private int frames;
+    // The value of every location in the last recorded frame.
+    private final byte[] values;
+    // The locations that held an infected organism in the last frame.
+    private int[] infectedCells;
+
+    // The locations looked at in the current frame, with their values in
+    // the previous frame, and one bit per location marking them.
+    private int[] touched;
+    private byte[] touchedValues;
+    private int touchedCount;
+    private final long[] touchedBits;
+    // The frame being encoded.
+    private byte[] encoded;
+    private int encodedLength;
+
+    // The encoded frames waiting to be written.
+    private final BlockingQueue<byte[]> queue;
+    // The file being written.
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    // The background thread that writes the frames.
+    private final Thread writer;
+    // The first failure met by the writer, if any.
+    private volatile IOException failure;
+    // The file offset of each frame written (writer thread only).
+    private long[] offsets;
+    private int offsetCount;
+    // Compresses the frames, and the buffer it compresses into (writer thread only).
+    private final Deflater deflater;
+    private byte[] compressed;
+
+    /**
+     * Start recording to the given file, replacing anything in it. The
+     * current state of the field is recorded as the first frame.
+     * @param file The file to record to.
+     * @param keyframeInterval The number of frames from one keyframe to
+     *                         the next. Must be at least one.
+     * @param step The current step of the simulation.
+     * @param field The field.
+     * @param infectedCells The locations, as row * width + col, that hold
+     *                      an infected organism.
+     * @throws IOException If the file cannot be created.
+     */
+    public ReplayRecorder(File file, int keyframeInterval, int step, Field field,
+                          int[] infectedCells) throws IOException
+    {
+        if(keyframeInterval < 1) {
+            throw new IllegalArgumentException("The keyframe interval must be at least one.");
+        }
+        depth = field.getDepth();
+        width = field.getWidth();
+        this.keyframeInterval = keyframeInterval;
+        values = new byte[depth * width];
+        this.infectedCells = new int[0];
+        touched = new int[64];
+        touchedValues = new byte[64];
+        touchedBits = new long[(values.length + 63) >>> 6];
+        encoded = new byte[1 << 12];
+        offsets = new long[1024];
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        compressed = new byte[1 << 12];
+
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        channel = this.file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(ReplayFile.HEADER_SIZE);
+        header.putInt(ReplayFile.MAGIC);
+        header.putInt(ReplayFile.VERSION);
+        header.putInt(depth);
+        header.putInt(width);
+        header.putInt(keyframeInterval);
+        header.flip();
+        while(header.hasRemaining()) {
+            channel.write(header);
+        }
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        writer = new Thread(this::writeFrames, "replay-recorder");
+        writer.setDaemon(true);
+        writer.start();
+
+        recordStep(step, field.getSpeciesCodes(), null, infectedCells);
+    }
+
+    /**
+     * Record the next frame. This only waits if the writer has fallen a
+     * long way behind.
+     * @param step The step of the simulation the frame shows.
+     * @param codes The species code of every location.
+     * @param changes The locations whose species code changed since the
+     *                last frame, or null if any of them may have.
+     * @param infected The locations that hold an infected organism.
+     */
+    public void recordStep(int step, byte[] codes, int[] changes, int[] infected)
+    {
+        touchedCount = 0;
+        if(changes == null) {
+            for(int cell = 0; cell < values.length; cell++) {
+                touch(cell);
+                values[cell] = codes[cell];
+            }
+        }
+        else {
+            for(int cell : changes) {
+                touch(cell);
+                values[cell] = codes[cell];
+            }
+        }
+        for(int cell : infectedCells) {
+            touch(cell);
+            values[cell] &= ~ReplayFile.INFECTED;
+        }
+        for(int cell : infected) {
+            touch(cell);
+            values[cell] |= ReplayFile.INFECTED;
+        }
+        infectedCells = infected;
+
+        // Keep the locations whose value really changed, in order.
+        long[] entries = new long[touchedCount];
+        int count = 0;
+        for(int i = 0; i < touchedCount; i++) {
+            int cell = touched[i];
+            touchedBits[cell >>> 6] &= ~(1L << cell);
+            int oldValue = touchedValues[i] & 0xff;
+            int newValue = values[cell] & 0xff;
+            if(oldValue != newValue) {
+                entries[count++] = (long) cell << 16 | oldValue << 8 | newValue;
+            }
+        }
+        if(frames == 0) {
+            // There is nothing before the first frame to change from.
+            count = 0;
+        }
+        Arrays.sort(entries, 0, count);
+
+        boolean keyframe = frames % keyframeInterval == 0;
+        encodedLength = 0;
+        putInt(step);
+        ensureSpace(1);
+        encoded[encodedLength++] = (byte) (keyframe ? ReplayFile.KEYFRAME : 0);
+        writeVarint(count);
+        int previousCell = 0;
+        for(int i = 0; i < count; i++) {
+            int cell = (int) (entries[i] >>> 16);
+            writeVarint(cell - previousCell);
+            previousCell = cell;
+            ensureSpace(2);
+            encoded[encodedLength++] = (byte) (entries[i] >>> 8);
+            encoded[encodedLength++] = (byte) entries[i];
+        }
+        if(keyframe) {
+            // The whole frame, as runs of equal values.
+            int cell = 0;
+            while(cell < values.length) {
+                byte value = values[cell];
+                int run = 1;
+                while(cell + run < values.length && values[cell + run] == value) {
+                    run++;
+                }
+                ensureSpace(1);
+                encoded[encodedLength++] = value;
+                writeVarint(run);
+                cell += run;
+            }
+        }
+        frames++;
+
+        try {
+            queue.put(Arrays.copyOf(encoded, encodedLength));
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of frames recorded so far.
+     */
+    public int getFrameCount()
+    {
+        return frames;
+    }
+
+    /**
+     * Write everything recorded so far, followed by the index, and close
+     * the file.
+     * @throws IOException If the recording could not be written.
+     */
+    public void close() throws IOException
+    {
+        try {
+            queue.put(END);
+            writer.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if(failure == null) {
+                writeIndex();
+            }
+        }
+        finally {
+            file.close();
+            deflater.end();
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Note a location as looked at in this frame, remembering its value
+     * in the previous frame the first time.
+     * @param cell The location, as row * width + col.
+     */
+    private void touch(int cell)
+    {
+        long bit = 1L << cell;
+        if((touchedBits[cell >>> 6] & bit) == 0) {
+            touchedBits[cell >>> 6] |= bit;
+            if(touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+                touchedValues = Arrays.copyOf(touchedValues, touchedCount * 2);
+            }
+            touched[touchedCount] = cell;
+            touchedValues[touchedCount++] = values[cell];
+        }
+    }
+
+    /**
+     * The body of the writer thread: compress and write each frame as it
+     * arrives, and note where it starts. After a failure the frames are
+     * discarded, so that recordStep never blocks for good.
+     */
+    private void writeFrames()
+    {
+        long position = ReplayFile.HEADER_SIZE;
+        try {
+            while(true) {
+                byte[] frame = queue.take();
+                if(frame == END) {
+                    return;
+                }
+                if(failure != null) {
+                    continue;
+                }
+                try {
+                    if(offsetCount == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsetCount * 2);
+                    }
+                    offsets[offsetCount++] = position;
+                    int length = compress(frame);
+                    ByteBuffer header = ByteBuffer.allocate(ReplayFile.FRAME_HEADER_SIZE);
+                    header.putInt(ReplayFile.FRAME_HEADER_SIZE - 4 + length);
+                    header.put(frame, 0, 5);
+                    header.putInt(frame.length - 5);
+                    header.flip();
+                    ByteBuffer body = ByteBuffer.wrap(compressed, 0, length);
+                    while(header.hasRemaining()) {
+                        position += channel.write(header, position);
+                    }
+                    while(body.hasRemaining()) {
+                        position += channel.write(body, position);
+                    }
+                }
+                catch(IOException e) {
+                    failure = e;
+                }
+            }
+        }
+        catch(InterruptedException e) {
+            // Stop writing.
+        }
+    }
+
+    /**
+     * Compress the contents of an encoded frame, after its step and flags.
+     * @param frame The encoded frame.
+     * @return The number of compressed bytes, at the start of compressed.
+     */
+    private int compress(byte[] frame)
+    {
+        deflater.reset();
+        deflater.setInput(frame, 5, frame.length - 5);
+        deflater.finish();
+        int length = 0;
+        while(!deflater.finished()) {
+            if(length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    /**
+     * Write the index of frame offsets and the footer that locates it.
+     * @throws IOException If they cannot be written.
+     */
+    private void writeIndex() throws IOException
+    {
+        long position = channel.size();
+        ByteBuffer index = ByteBuffer.allocate(offsetCount * 8 + ReplayFile.FOOTER_SIZE);
+        for(int i = 0; i < offsetCount; i++) {
+            index.putLong(offsets[i]);
+        }
+        index.putLong(position);
+        index.putInt(offsetCount);
+        index.putInt(ReplayFile.MAGIC);
+        index.flip();
+        while(index.hasRemaining()) {
+            position += channel.write(index, position);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Append an int to the frame being encoded.
+     * @param value The value.
+     */
+    private void putInt(int value)
+    {
+        ensureSpace(4);
+        encoded[encodedLength++] = (byte) (value >>> 24);
+        encoded[encodedLength++] = (byte) (value >>> 16);
+        encoded[encodedLength++] = (byte) (value >>> 8);
+        encoded[encodedLength++] = (byte) value;
+    }
+
+    /**
+     * Append an unsigned variable-length integer, seven bits per byte.
+     * @param value The value, treated as unsigned.
+     */
+    private void writeVarint(int value)
+    {
+        ensureSpace(5);
+        while((value & ~0x7f) != 0) {
+            encoded[encodedLength++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        encoded[encodedLength++] = (byte) value;
+    }
+
+    /**
+     * Make sure the encoding buffer has room for more bytes.
+     * @param extra The number of bytes needed.
+     */
+    private void ensureSpace(int extra)
+    {
+        if(encodedLength + extra > encoded.length) {
+            encoded = Arrays.copyOf(encoded, Math.max(encoded.length * 2, encodedLength + extra));
+        }
+    }
+}
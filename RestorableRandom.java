@@ -0,0 +1,74 @@
+import java.util.Random;
+
+/**
+ * A random number generator that produces exactly the same numbers as
+ * java.util.Random from the same seed, but whose state can be read and
+ * set. This lets a checkpoint capture the generator, so that a resumed
+ * simulation draws the same numbers as one that never stopped.
+ *
+ * Unlike java.util.Random it is not safe to share between threads. The
+ * state of nextGaussian is not captured.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class RestorableRandom extends Random
+{
+    private static final long serialVersionUID = 1L;
+
+    // The constants of the linear congruential generator of java.util.Random.
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // The 48 bits of state. This is set by setSeed, which the superclass
+    // constructor calls, so it must not have an initializer.
+    private long state;
+
+    /**
+     * Create a generator with the given seed.
+     * @param seed The seed.
+     */
+    public RestorableRandom(long seed)
+    {
+        super(seed);
+    }
+
+    /**
+     * Set the seed, as java.util.Random does.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed)
+    {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * @return The current state of the generator.
+     */
+    public long getState()
+    {
+        return state;
+    }
+
+    /**
+     * Set the state of the generator, as returned by getState.
+     * @param state The state to continue from.
+     */
+    public void setState(long state)
+    {
+        this.state = state & MASK;
+    }
+
+    /**
+     * Generate the next random bits, as java.util.Random does.
+     * @param bits The number of random bits wanted.
+     * @return The random bits.
+     */
+    protected int next(int bits)
+    {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+}
@@ -0,0 +1,426 @@
+/**
+ * The settings of a simulation run: the size of the field, how densely
+ * it is populated, how likely each kind of weather is, how often disease
+ * breaks out, how far animals can see, whether they act on intents, the world
+ * the field may be one region of, the seed and
+ * algorithm of the random number generators, and how many threads work on each step. A new configuration holds the settings of
+ * the standard simulation, using every available processor.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class SimulationConfig
+{
+    // The default depth of the grid.
+    public static final int DEFAULT_DEPTH = 200;
+    // The default width for the grid.
+    public static final int DEFAULT_WIDTH = 250;
+    // The default chances of snow, wind and rain, checked in that order.
+    public static final double DEFAULT_SNOW_CHANCE = 0.05;
+    public static final double DEFAULT_WIND_CHANCE = 0.18;
+    public static final double DEFAULT_RAIN_CHANCE = 0.34;
+    // The default probability that some animal catches a disease each step.
+    public static final double DEFAULT_DISEASE_PROBABILITY = 0.07;
+    // The farthest animals can be set to see.
+    public static final int MAX_VISION_RADIUS = 100;
+
+    // The size of the field.
+    private int depth;
+    private int width;
+    // The factor by which each species' creation coefficient is scaled.
+    private double density;
+    // The chances of snow, wind and rain; see Weather.randomWeightedWeather.
+    private double snowChance;
+    private double windChance;
+    private double rainChance;
+    // The probability that some animal catches a disease each step.
+    private double diseaseProbability;
+    // Whether disease spreads through bitboards rather than animal by animal.
+    private boolean bitboardContagion;
+    // The size of the regions of regional weather, or 0 for one weather
+    // over the whole field.
+    private int regionSize;
+    // How many steps away animals can see their food, or 0 if they see
+    // only the adjacent locations.
+    private int visionRadius;
+    // Whether all animals act at once on intents, rather than in turn.
+    private boolean intentMovement;
+    // The size of the world the field is a region of, the size of the
+    // blocks the rest of it is counted in, and where the field lies in
+    // it; a block size of 0 if the field is the whole world.
+    private int worldDepth;
+    private int worldWidth;
+    private int blockSize;
+    private int fieldTop;
+    private int fieldLeft;
+    // The seed of the random number generators, and their algorithm.
+    private long seed;
+    private Randomizer.Algorithm randomAlgorithm;
+    // The number of threads that work on each step.
+    private int threads;
+
+    /**
+     * Create a configuration with the standard settings.
+     */
+    public SimulationConfig()
+    {
+        depth = DEFAULT_DEPTH;
+        width = DEFAULT_WIDTH;
+        density = 1.0;
+        snowChance = DEFAULT_SNOW_CHANCE;
+        windChance = DEFAULT_WIND_CHANCE;
+        rainChance = DEFAULT_RAIN_CHANCE;
+        diseaseProbability = DEFAULT_DISEASE_PROBABILITY;
+        seed = Randomizer.DEFAULT_SEED;
+        randomAlgorithm = Randomizer.DEFAULT_ALGORITHM;
+        threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Set the size of the field.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     */
+    public void setSize(int depth, int width)
+    {
+        if(depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("The dimensions must be greater than zero.");
+        }
+        this.depth = depth;
+        this.width = width;
+    }
+
+    /**
+     * @return The depth of the field.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return The width of the field.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Set how densely the field is populated, as a multiple of the
+     * standard creation coefficient of every species.
+     * @param density The multiple; 1.0 is the standard density.
+     */
+    public void setDensity(double density)
+    {
+        if(density < 0) {
+            throw new IllegalArgumentException("The density must not be negative.");
+        }
+        this.density = density;
+    }
+
+    /**
+     * @return The multiple of the standard creation coefficients.
+     */
+    public double getDensity()
+    {
+        return density;
+    }
+
+    /**
+     * Set the chances of each kind of weather. Snow is checked first, then
+     * wind, then rain, each with its own chance; otherwise it is sunny.
+     * @param snow The chance of snow.
+     * @param wind The chance of wind, if it is not snowing.
+     * @param rain The chance of rain, if it is neither snowing nor windy.
+     */
+    public void setWeatherChances(double snow, double wind, double rain)
+    {
+        snowChance = snow;
+        windChance = wind;
+        rainChance = rain;
+    }
+
+    /**
+     * @return The chance of snow.
+     */
+    public double getSnowChance()
+    {
+        return snowChance;
+    }
+
+    /**
+     * @return The chance of wind, if it is not snowing.
+     */
+    public double getWindChance()
+    {
+        return windChance;
+    }
+
+    /**
+     * @return The chance of rain, if it is neither snowing nor windy.
+     */
+    public double getRainChance()
+    {
+        return rainChance;
+    }
+
+    /**
+     * Set the probability that some animal catches a disease each step.
+     * @param probability The probability, from 0 to 1.
+     */
+    public void setDiseaseProbability(double probability)
+    {
+        diseaseProbability = probability;
+    }
+
+    /**
+     * @return The probability that some animal catches a disease each step.
+     */
+    public double getDiseaseProbability()
+    {
+        return diseaseProbability;
+    }
+
+    /**
+     * Set whether disease spreads for all animals at once through
+     * bitboards (see BitboardContagion), rather than from each infected
+     * animal as it acts. The rule is the same, but the disease spreads
+     * at most one location per step, so runs differ.
+     * @param on true to use bitboards.
+     */
+    public void setBitboardContagion(boolean on)
+    {
+        bitboardContagion = on;
+    }
+
+    /**
+     * @return Whether disease spreads through bitboards.
+     */
+    public boolean isBitboardContagion()
+    {
+        return bitboardContagion;
+    }
+
+    /**
+     * Set whether the weather differs from region to region (see
+     * RegionalWeather), rather than being the same over the whole field.
+     * The weather chances then give the share of regions with each kind
+     * of weather, and fronts of weather drift across the field.
+     * @param regionSize The number of locations along each side of a
+     *                   region, or 0 for the same weather everywhere.
+     */
+    public void setRegionalWeather(int regionSize)
+    {
+        if(regionSize < 0) {
+            throw new IllegalArgumentException("The region size must not be negative.");
+        }
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * @return The size of the regions of regional weather, or 0 if the
+     *         weather is the same over the whole field.
+     */
+    public int getRegionSize()
+    {
+        return regionSize;
+    }
+
+    /**
+     * Set how far animals can see their food (see PreyDistanceField).
+     * An animal that finds no food next to it then moves towards the
+     * nearest food it can see, rather than at random.
+     * @param radius The number of steps away animals can see, up to
+     *               MAX_VISION_RADIUS, or 0 for only the adjacent
+     *               locations, as food is eaten.
+     */
+    public void setVisionRadius(int radius)
+    {
+        if(radius < 0 || radius > MAX_VISION_RADIUS) {
+            throw new IllegalArgumentException("The vision radius must be from 0 to "
+                                               + MAX_VISION_RADIUS + ".");
+        }
+        visionRadius = radius;
+    }
+
+    /**
+     * @return How many steps away animals can see their food, or 0 if
+     *         they see only the adjacent locations.
+     */
+    public int getVisionRadius()
+    {
+        return visionRadius;
+    }
+
+    /**
+     * Set whether all animals act at once, on the field as it was at the
+     * start of each step (see AnimalIntents), rather than in turn on the
+     * field as those before them left it. Where several animals want the
+     * same location, one wins at random, so what happens does not depend
+     * on the order of the animals, and the animals decide in parallel.
+     * The rules are the same otherwise, but runs differ.
+     * @param on true to act on intents.
+     */
+    public void setIntentMovement(boolean on)
+    {
+        intentMovement = on;
+    }
+
+    /**
+     * @return Whether all animals act at once on intents.
+     */
+    public boolean isIntentMovement()
+    {
+        return intentMovement;
+    }
+
+    /**
+     * Make the field one region of a larger world (see AggregateWorld),
+     * the rest of which is kept only as the number of organisms of each
+     * species in square blocks, evolving under a model of the populations,
+     * so that a far larger world can be simulated at a far lower cost.
+     * Animals cross between the field and the blocks around it. The sizes
+     * of the world and of the field, and where the field lies, must be
+     * multiples of the block size.
+     * @param depth The depth of the world.
+     * @param width The width of the world.
+     * @param blockSize The number of locations along each side of a
+     *                  block, or 0 for no world beyond the field.
+     * @param top The row of the world at which the field starts.
+     * @param left The column of the world at which the field starts.
+     */
+    public void setWorld(int depth, int width, int blockSize, int top, int left)
+    {
+        if(blockSize < 0) {
+            throw new IllegalArgumentException("The block size must not be negative.");
+        }
+        if(blockSize > 0 && (depth <= 0 || width <= 0)) {
+            throw new IllegalArgumentException("The dimensions must be greater than zero.");
+        }
+        worldDepth = depth;
+        worldWidth = width;
+        this.blockSize = blockSize;
+        fieldTop = top;
+        fieldLeft = left;
+    }
+
+    /**
+     * @return The depth of the world the field is a region of.
+     */
+    public int getWorldDepth()
+    {
+        return worldDepth;
+    }
+
+    /**
+     * @return The width of the world the field is a region of.
+     */
+    public int getWorldWidth()
+    {
+        return worldWidth;
+    }
+
+    /**
+     * @return The number of locations along each side of a block of the
+     *         world, or 0 if the field is the whole world.
+     */
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * @return The row of the world at which the field starts.
+     */
+    public int getFieldTop()
+    {
+        return fieldTop;
+    }
+
+    /**
+     * @return The column of the world at which the field starts.
+     */
+    public int getFieldLeft()
+    {
+        return fieldLeft;
+    }
+
+    /**
+     * Set the seed of the random number generator, so that runs with the
+     * same configuration behave the same.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * @return The seed of the random number generator.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Set the algorithm of the random number generators. Runs with the
+     * same seed but different algorithms differ; LEGACY draws the same
+     * numbers as earlier versions of the simulation.
+     * @param algorithm The algorithm.
+     */
+    public void setRandomAlgorithm(Randomizer.Algorithm algorithm)
+    {
+        if(algorithm == null) {
+            throw new IllegalArgumentException("There must be an algorithm.");
+        }
+        randomAlgorithm = algorithm;
+    }
+
+    /**
+     * @return The algorithm of the random number generators.
+     */
+    public Randomizer.Algorithm getRandomAlgorithm()
+    {
+        return randomAlgorithm;
+    }
+
+    /**
+     * Set the number of threads that work on each step. The parts of a
+     * step that run in parallel give the same results however many
+     * threads there are.
+     * @param threads The number of threads. Must be at least one.
+     */
+    public void setThreads(int threads)
+    {
+        if(threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * @return The number of threads that work on each step.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * @return A one-line description of the settings.
+     */
+    public String toString()
+    {
+        return String.format("%dx%d%s density=%.2f snow=%.2f wind=%.2f rain=%.2f%s disease=%.2f%s%s%s seed=%d random=%s threads=%d",
+                             depth, width,
+                             blockSize > 0 ? String.format(" world=%dx%d blocks=%d at=%d,%d", worldDepth,
+                                                           worldWidth, blockSize, fieldTop, fieldLeft) : "",
+                             density, snowChance, windChance, rainChance,
+                             regionSize > 0 ? " regions=" + regionSize : "",
+                             diseaseProbability, bitboardContagion ? " bitboard" : "",
+                             visionRadius > 0 ? " vision=" + visionRadius : "",
+                             intentMovement ? " intents" : "", seed, randomAlgorithm.toString().toLowerCase(), threads);
+    }
+}
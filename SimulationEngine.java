@@ -0,0 +1,1309 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The model of a predator-prey simulation, based on a rectangular field
+ * containing various animals and some plants, and the stepping of it.
+ * An engine runs without a display: nothing in it needs a window, so it
+ * can be embedded in other programs and started in a moment. Anything
+ * that follows the simulation, such as a view of it, registers as a
+ * StepListener and is told after every step.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class SimulationEngine
+{
+    // Constants representing configuration information for the simulation.
+    // The coefficient that a fox will be created in any given grid position.
+    private static final double FOX_CREATION_COEFFICIENT = 0.06;
+    // The coefficient that a rabbit will be created in any given grid position.
+    private static final double RABBIT_CREATION_COEFFICIENT = 0.11;  
+    // The coefficient that an eagle will be created in any given grid position.
+    private static final double EAGLE_CREATION_COEFFICIENT = 0.05;
+    // The coefficient that a cow will be created in any given grid position.
+    private static final double COW_CREATION_COEFFICIENT = 0.07;
+    // The coefficient that an elephant will be created in any given grid position.
+    // This is split evenly between male and female elephants.
+    private static final double ELEPHANT_CREATION_COEFFICIENT = 0.1;
+    // The coefficient that a plant will be created in any given grid position.
+    private static final double PLANT_CREATION_COEFFICIENT = 0.15;
+    // The settings of this simulation.
+    private final SimulationConfig config;
+    // The random number generators of this simulation, seeded from its
+    // settings, and those for populating the field, for outbreaks of
+    // disease and for the weather.
+    private final Randomizer randomizer;
+    private final RandomStream populateRand;
+    private final Random diseaseRand;
+    private final Random weatherRand;
+    // The threads that run the parallel parts of each step.
+    private final WorkerPool workers;
+    // List of animals in the field.
+    private List<Animal> animals;
+    // The current state of the field.
+    private Field field;
+    // Spreads disease for all animals at once, or null if each animal
+    // spreads its own.
+    private BitboardContagion contagion;
+    // The number of completed steps of the simulation.
+    private int step;
+    // The statistics used to check viability.
+    private final FieldStats stats = new FieldStats();
+    // Those told of every step.
+    private final List<StepListener> listeners = new ArrayList<>();
+    // Publishes the steps to subscribers, once it is asked for.
+    private StepPublisher publisher;
+    // List of plants in the field.
+    private List<Plant> plants;
+    // The weather conditions for the next step; with regional weather,
+    // those of the most regions.
+    private Weather currentWeather;
+    // The weather of each region, or null if the weather is the same
+    // over the whole field.
+    private RegionalWeather regions;
+    // How far each location is from the nearest food of each kind, if
+    // animals can see beyond the adjacent locations; otherwise null.
+    private PreyDistanceField[] preyDistances;
+    // The counts of organisms in any rectangle, if they are kept.
+    private SummedAreaTables spatialCounts;
+    // Lets all animals act at once, if they act on intents; otherwise null.
+    private AnimalIntents intents;
+    // The world the field is a region of, kept as counts per block, or
+    // null if the field is the whole world.
+    private AggregateWorld world;
+    // Kills organisms in wind and snow.
+    private final WeatherMortality mortality;
+    // The most recently published population snapshot, readable from any thread.
+    private final AtomicReference<PopulationSnapshot> latestSnapshot = new AtomicReference<>();
+    // Where the population of every step is recorded, if anywhere.
+    private PopulationRecorder recorder;
+    // Where the contents of the field at every step are recorded, if anywhere.
+    private ReplayRecorder replay;
+    // Writes pictures of the field for a video, if any are wanted.
+    private FrameExporter frames;
+    // Writes the state of every organism for analysis, if it is wanted.
+    private EntityExporter entities;
+    // Times each step and its phases, if profiling is on.
+    private StepProfiler profiler;
+    // Completes when the most recently requested checkpoint is written.
+    private CompletableFuture<Void> lastCheckpoint = CompletableFuture.completedFuture(null);
+
+    /**
+     * Create a simulation with the given settings, populated at random.
+     * @param config The settings of the simulation.
+     */
+    public SimulationEngine(SimulationConfig config)
+    {
+        this(config, null);
+    }
+
+    /**
+     * Continue a simulation from a checkpoint written by saveCheckpoint.
+     * It carries on exactly as the checkpointed simulation would have.
+     * @param file The checkpoint file.
+     * @param threads The number of threads to run it with.
+     * @return The resumed simulation.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    public static SimulationEngine resume(File file, int threads) throws IOException
+    {
+        Checkpoint checkpoint = new Checkpoint(file);
+        return new SimulationEngine(checkpoint.toConfig(threads), checkpoint);
+    }
+
+    /**
+     * Create a simulation with the given settings, either populated at
+     * random or restored from a checkpoint.
+     * @param config The settings of the simulation.
+     * @param checkpoint The checkpoint to restore, or null to start afresh.
+     */
+    protected SimulationEngine(SimulationConfig config, Checkpoint checkpoint)
+    {
+        this.config = config;
+        int depth = config.getDepth();
+        int width = config.getWidth();
+        randomizer = new Randomizer(config.getSeed(), config.getRandomAlgorithm());
+        populateRand = randomizer.getRandom(Randomizer.Stream.POPULATE);
+        diseaseRand = randomizer.getRandom(Randomizer.Stream.DISEASE);
+        weatherRand = randomizer.getRandom(Randomizer.Stream.WEATHER);
+        mortality = new WeatherMortality(weatherRand);
+        workers = new WorkerPool(config.getThreads());
+
+        animals = new ArrayList<>();
+        plants = new ArrayList<>();
+        field = new Field(depth, width, randomizer);
+        if(config.isBitboardContagion()) {
+            contagion = new BitboardContagion(depth, width);
+            field.getInfectedIndex().setSpreadInBulk(true);
+        }
+
+        if(config.getVisionRadius() > 0) {
+            // The species that animals eat.
+            Species[] foods = { Species.RABBIT, Species.PLANT };
+            preyDistances = new PreyDistanceField[foods.length];
+            for(int i = 0; i < foods.length; i++) {
+                preyDistances[i] = new PreyDistanceField(depth, width, config.getVisionRadius(),
+                                                         foods[i]);
+                field.setPreyDistances(preyDistances[i]);
+            }
+        }
+
+        if(config.isIntentMovement()) {
+            intents = new AnimalIntents(field, randomizer.getRandom(Randomizer.Stream.FIELD));
+        }
+
+        if(config.getBlockSize() > 0) {
+            world = new AggregateWorld(config, populateRand);
+        }
+
+        if(config.getRegionSize() > 0) {
+            regions = new RegionalWeather(depth, width, config.getRegionSize(), config.getSeed(),
+                                          config.getSnowChance(), config.getWindChance(),
+                                          config.getRainChance());
+        }
+
+        // Randomises weather in accordance with their probabilties.
+        currentWeather = nextWeather();
+
+        if(checkpoint == null) {
+            // Setup a valid starting point.
+            reset();
+        }
+        else {
+            restore(checkpoint);
+        }
+    }
+
+    /**
+     * Run the simulation from its current state for the given number of
+     * steps.
+     * @param numSteps The number of steps to run for.
+     */
+    public void step(int numSteps)
+    {
+        for(int i = 0; i < numSteps; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Determine whether the simulation is still viable.
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable()
+    {
+        stats.reset();
+        return stats.isViable(field);
+    }
+
+    /**
+     * @return The number of completed steps of the simulation.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The settings of this simulation. They must not be changed.
+     */
+    public SimulationConfig getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * @return The field as at the end of the last step. It must not be
+     *         changed, and should only be read between steps.
+     */
+    public Field getField()
+    {
+        return field;
+    }
+
+    /**
+     * @return The weather of the next step; with regional weather, that
+     *         of the most regions.
+     */
+    public Weather getWeather()
+    {
+        return currentWeather;
+    }
+
+    /**
+     * Register a listener to be told after every step, and whenever the
+     * state of the simulation is replaced, e.g. by reset. Listeners are
+     * told in the order they were added, on the thread that steps the
+     * simulation, which waits for them.
+     * @param listener The listener.
+     */
+    public void addStepListener(StepListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Return the publisher of a StepUpdate for every step, to which any
+     * number of subscribers can subscribe, each with its own buffer and
+     * its own choice of what to do when it falls behind. The publisher is
+     * made, and starts listening, the first time it is asked for.
+     * @return The publisher of the steps.
+     */
+    public StepPublisher getStepPublisher()
+    {
+        if(publisher == null) {
+            publisher = new StepPublisher();
+            addStepListener(publisher);
+        }
+        return publisher;
+    }
+
+    /**
+     * Stop telling a listener of the steps.
+     * @param listener The listener.
+     */
+    public void removeStepListener(StepListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Tell every listener that the state of the simulation has changed.
+     * @param changes The locations that changed, as returned by
+     *                takeFieldChanges.
+     */
+    private void notifyListeners(int[] changes)
+    {
+        for(StepListener listener : listeners) {
+            listener.stepped(this, changes);
+        }
+    }
+
+    /**
+     * Run the simulation from its current state for a single step.
+     * Iterate over the whole field updating the state of each
+     * organism, then tell the step listeners.
+     */
+    public void step()
+    {
+        long startTime = System.nanoTime();
+        Weather stepWeather = currentWeather;
+        boolean stepAtNight = isNight();
+        if(profiler != null) {
+            profiler.startStep(step, stepWeather, stepAtNight);
+        }
+
+        // Run the effects of weather conditions.
+        startPhase(StepPhase.WEATHER);
+        processWeather();
+        endPhase(StepPhase.WEATHER);
+
+        // See if an animal becomes infected, and spread disease if that
+        // is done for all animals at once.
+        startPhase(StepPhase.DISEASE);
+        checkDisease();
+        if(contagion != null) {
+            contagion.step(field);
+        }
+        endPhase(StepPhase.DISEASE);
+
+        // Let animals see how far they are from food.
+        if(preyDistances != null) {
+            startPhase(StepPhase.VISION);
+            updatePreyDistances();
+            endPhase(StepPhase.VISION);
+        }
+
+        // Provide space for newborn animals.
+        List<Animal> newAnimals = new ArrayList<>();
+        // Provide space for new plants.
+        List<Plant> newPlants = new ArrayList<>();
+        
+        // Let all animals act.
+        startPhase(StepPhase.ANIMALS);
+        if(intents != null) {
+            actOnIntents(newAnimals);
+        }
+        else {
+            for(Iterator<Animal> it = animals.iterator(); it.hasNext(); ) {
+                Animal animal = it.next();
+                if (isNight()){
+                    animal.nightAct(newAnimals);
+                }
+                else{
+                    animal.dayAct(newAnimals);
+                }
+                if(! animal.isAlive()) {
+                    it.remove();
+                }
+            }
+        }
+        endPhase(StepPhase.ANIMALS);
+
+        // Let all plants act.
+        startPhase(StepPhase.PLANTS);
+        for(Iterator<Plant> it = plants.iterator(); it.hasNext(); ) {
+            Plant plant = it.next();
+            plant.act(newPlants);
+            if(! plant.isAlive()) {
+                it.remove();
+            }
+        }
+        endPhase(StepPhase.PLANTS);
+
+        // Add the newly born organisms to the main lists.
+        startPhase(StepPhase.MERGE);
+        animals.addAll(newAnimals);
+        plants.addAll(newPlants);
+        endPhase(StepPhase.MERGE);
+
+        // Let the world around the field live, and animals cross its edge.
+        if(world != null) {
+            startPhase(StepPhase.WORLD);
+            stepWorld(stepWeather);
+            endPhase(StepPhase.WORLD);
+        }
+
+        startPhase(StepPhase.STATS);
+        step++;
+        
+        // Randomise the weather again for the next step.
+        currentWeather = nextWeather();
+
+        publishSnapshot(stepWeather, stepAtNight, System.nanoTime() - startTime);
+        if(spatialCounts != null) {
+            updateSpatialCounts();
+        }
+        int[] changes = takeFieldChanges();
+        if(entities != null && entities.isExportStep(step)) {
+            entities.export(new Checkpoint(config, step, currentWeather, animals, plants, randomizer));
+        }
+        endPhase(StepPhase.STATS);
+
+        if(!listeners.isEmpty() || frames != null) {
+            startPhase(StepPhase.RENDER);
+            if(frames != null) {
+                frames.exportStep(field.getSpeciesCodes());
+            }
+            notifyListeners(changes);
+            endPhase(StepPhase.RENDER);
+        }
+
+        if(profiler != null) {
+            profiler.endStep(animals.size(), plants.size());
+        }
+    }
+
+    /**
+     * Turn timing of each step and its phases on or off. Turning it on
+     * starts with empty histograms.
+     * @param on true to time steps, false to stop.
+     */
+    public void setProfiling(boolean on)
+    {
+        profiler = on ? new StepProfiler() : null;
+    }
+
+    /**
+     * @return The profiler timing the steps, or null if profiling is off.
+     */
+    public StepProfiler getProfiler()
+    {
+        return profiler;
+    }
+
+    /**
+     * Turn the counting of organisms in rectangles of the field on or
+     * off. While it is on, summed-area tables are built at the end of
+     * every step, so that the number of organisms of a species, or of
+     * infected animals, in any rectangle is found in constant time, by
+     * behaviours through the Field and by analysis through
+     * getSpatialCounts. Turning it on counts the field as it is.
+     * @param on true to keep the counts, false to stop.
+     */
+    public void setSpatialCounts(boolean on)
+    {
+        if(on && spatialCounts == null) {
+            spatialCounts = new SummedAreaTables(field.getDepth(), field.getWidth());
+            updateSpatialCounts();
+        }
+        else if(!on) {
+            spatialCounts = null;
+        }
+        field.setSpatialCounts(spatialCounts);
+    }
+
+    /**
+     * @return The counts of organisms in rectangles of the field as at
+     *         the end of the last step, or null if they are not kept.
+     */
+    public SummedAreaTables getSpatialCounts()
+    {
+        return spatialCounts;
+    }
+
+    /**
+     * Stop the worker threads of this simulation, and complete the
+     * subscriptions to its steps. It can still be run afterwards, but on
+     * one thread and without publishing the steps.
+     */
+    public void shutdown()
+    {
+        workers.shutdown();
+        if(publisher != null) {
+            publisher.close();
+            removeStepListener(publisher);
+            publisher = null;
+        }
+    }
+
+    /**
+     * Do some work for every index in a range on the worker threads,
+     * and note the time it took if profiling.
+     * @param start The first index.
+     * @param end One past the last index.
+     * @param action The work to do on each chunk of the range.
+     */
+    private void forRange(int start, int end, WorkerPool.RangeAction action)
+    {
+        forRange(start, end, WorkerPool.MIN_CHUNK, action);
+    }
+
+    /**
+     * Do some work for every index in a range on the worker threads,
+     * handing no thread fewer than the given number of indices, and note
+     * the time it took if profiling.
+     * @param start The first index.
+     * @param end One past the last index.
+     * @param minChunk The fewest indices worth handing to another thread.
+     * @param action The work to do on each chunk of the range.
+     */
+    private void forRange(int start, int end, int minChunk, WorkerPool.RangeAction action)
+    {
+        if(profiler == null) {
+            workers.forRange(start, end, minChunk, action);
+        }
+        else {
+            long started = System.nanoTime();
+            workers.forRange(start, end, minChunk, action);
+            profiler.addParallelTime(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Note the start of a phase of the step, if profiling.
+     * @param phase The phase that is starting.
+     */
+    private void startPhase(StepPhase phase)
+    {
+        if(profiler != null) {
+            profiler.startPhase(phase);
+        }
+    }
+
+    /**
+     * Note the end of a phase of the step, if profiling.
+     * @param phase The phase that has finished.
+     */
+    private void endPhase(StepPhase phase)
+    {
+        if(profiler != null) {
+            profiler.endPhase(phase);
+        }
+    }
+
+    /**
+     * Reset the simulation to a starting position.
+     */
+    public void reset()
+    {
+        step = 0;
+        animals.clear();
+        plants.clear();
+        populate();
+        if(world != null) {
+            populateWorld();
+        }
+        publishSnapshot(currentWeather, isNight(), 0);
+        if(spatialCounts != null) {
+            updateSpatialCounts();
+        }
+        int[] changes = takeFieldChanges();
+
+        // Tell the listeners of the starting state.
+        notifyListeners(changes);
+    }
+
+    /**
+     * Move the field to another region of the world it is part of, e.g.
+     * to where there is something to look at closely. The organisms of
+     * the field are counted into the blocks it leaves, and those counted
+     * in the blocks it comes to are created: the young newborn, the
+     * adults at random ages.
+     * @param top The row of the world at which the field is to start; a
+     *            multiple of the block size.
+     * @param left The column of the world at which the field is to start;
+     *             a multiple of the block size.
+     */
+    public void moveField(int top, int left)
+    {
+        if(world == null) {
+            throw new IllegalStateException("The field is the whole world.");
+        }
+        world.moveField(top, left, field, animals, plants, populateRand);
+        publishSnapshot(currentWeather, isNight(), 0);
+        if(spatialCounts != null) {
+            updateSpatialCounts();
+        }
+        notifyListeners(takeFieldChanges());
+    }
+
+    /**
+     * @return The world the field is a region of, or null if the field is
+     *         the whole world.
+     */
+    public AggregateWorld getWorld()
+    {
+        return world;
+    }
+
+    /**
+     * Return the population snapshot of the most recently completed step.
+     * This may be called from any thread while the simulation is running;
+     * it never blocks and never delays the simulation.
+     * @return The latest snapshot.
+     */
+    public PopulationSnapshot getLatestSnapshot()
+    {
+        return latestSnapshot.get();
+    }
+
+    /**
+     * Start recording the population of every step to a file, beginning
+     * with the current state. Any recording already in progress is stopped.
+     * @param file The file to record to. It is overwritten.
+     * @throws IOException If the file cannot be created.
+     */
+    public void startRecording(File file) throws IOException
+    {
+        stopRecording();
+        recorder = new PopulationRecorder(file);
+        recorder.record(latestSnapshot.get());
+    }
+
+    /**
+     * Stop recording the population, and wait until everything recorded
+     * so far has been written.
+     * @throws IOException If the recording could not be written.
+     */
+    public void stopRecording() throws IOException
+    {
+        if(recorder != null) {
+            PopulationRecorder finished = recorder;
+            recorder = null;
+            finished.close();
+        }
+    }
+
+    /**
+     * Start recording the contents of the field at every step to a replay
+     * file, beginning with the current state, so that the run can be
+     * played back later with showReplay. Any replay recording already in
+     * progress is stopped.
+     * @param file The file to record to. It is overwritten.
+     * @param keyframeInterval The number of steps from one copy of the
+     *                         whole field to the next. Longer intervals
+     *                         make smaller files but slower seeking.
+     * @throws IOException If the file cannot be created.
+     */
+    public void startReplayRecording(File file, int keyframeInterval) throws IOException
+    {
+        stopReplayRecording();
+        replay = new ReplayRecorder(file, keyframeInterval, step, field, infectedCells());
+    }
+
+    /**
+     * Stop recording the replay, and wait until it has been written.
+     * @throws IOException If the replay could not be written.
+     */
+    public void stopReplayRecording() throws IOException
+    {
+        if(replay != null) {
+            ReplayRecorder finished = replay;
+            replay = null;
+            finished.close();
+        }
+    }
+
+    /**
+     * Start exporting pictures of the field, beginning with the current
+     * state, from which a video can be made. Encoding happens on other
+     * threads; the simulation only waits if they fall behind. Any export
+     * already in progress is stopped.
+     * @param directory The directory to write the frame files to.
+     * @param format The format of the frame files.
+     * @param interval Export one step in this many.
+     * @param scale The number of pixels along each side of a location.
+     * @throws IOException If the directory cannot be created.
+     */
+    public void startFrameExport(File directory, FrameExporter.Format format, int interval,
+                                 int scale) throws IOException
+    {
+        stopFrameExport();
+        frames = new FrameExporter(directory, format, interval, scale, config.getThreads(),
+                                   field.getDepth(), field.getWidth(), Species.palette());
+        frames.exportStep(field.getSpeciesCodes());
+    }
+
+    /**
+     * Stop exporting pictures, and wait until those exported so far have
+     * been written.
+     * @throws IOException If a frame could not be written.
+     */
+    public void stopFrameExport() throws IOException
+    {
+        if(frames != null) {
+            FrameExporter finished = frames;
+            frames = null;
+            finished.close();
+        }
+    }
+
+    /**
+     * Start exporting the state of every live organism, beginning with
+     * the current state and then every so many steps, to a columnar file
+     * for analysis. The state is copied at each exported step and written
+     * in the background. Any export already in progress is stopped.
+     * @param file The file to write. It is overwritten.
+     * @param interval Export one step in this many.
+     * @throws IOException If the file cannot be created.
+     */
+    public void startEntityExport(File file, int interval) throws IOException
+    {
+        stopEntityExport();
+        entities = new EntityExporter(file, interval, field.getDepth(), field.getWidth());
+        entities.export(new Checkpoint(config, step, currentWeather, animals, plants, randomizer));
+    }
+
+    /**
+     * Stop exporting the state of the organisms, and wait until everything
+     * exported so far has been written.
+     * @throws IOException If the export could not be written.
+     */
+    public void stopEntityExport() throws IOException
+    {
+        if(entities != null) {
+            EntityExporter finished = entities;
+            entities = null;
+            finished.close();
+        }
+    }
+
+    /**
+     * Take the locations of the field that changed since this was last
+     * called, and record them in the replay if one is being recorded.
+     * This is done once per step even without a view, so that the list
+     * of changes kept by the field does not grow.
+     * @return The indices of the changed locations, or null if every
+     *         location may have changed.
+     */
+    private int[] takeFieldChanges()
+    {
+        boolean everything = field.isEverythingChanged();
+        int[] changes = field.takeChanges();
+        if(everything) {
+            changes = null;
+        }
+        if(replay != null) {
+            replay.recordStep(step, field.getSpeciesCodes(), changes, infectedCells());
+        }
+        return changes;
+    }
+
+    /**
+     * @return The locations, as row * width + col, of the live infected
+     *         animals.
+     */
+    private int[] infectedCells()
+    {
+        InfectedIndex infected = field.getInfectedIndex();
+        int width = field.getWidth();
+        int count = 0;
+        for(Species species : Species.values()) {
+            count += infected.getCount(species);
+        }
+        int[] cells = new int[count];
+        int i = 0;
+        for(Species species : Species.values()) {
+            for(int j = 0; j < infected.getCount(species); j++) {
+                Location location = infected.get(species, j).getLocation();
+                cells[i++] = location.getRow() * width + location.getCol();
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Save the complete state of the simulation to a file, so that it can
+     * be resumed later with resume. The state is copied before this
+     * returns, but the file is written in the background, so the
+     * simulation can carry on at once. Checkpoints are written in the
+     * order they are requested. A simulation whose field is a region of
+     * a larger world cannot be checkpointed.
+     * @param file The file to write. It is replaced once the checkpoint
+     *             has been written in full.
+     * @return A future that completes when the file has been written, or
+     *         completes exceptionally if it could not be.
+     */
+    public CompletableFuture<Void> saveCheckpoint(File file)
+    {
+        if(world != null) {
+            throw new IllegalStateException("The world around the field cannot be checkpointed.");
+        }
+        Checkpoint checkpoint = new Checkpoint(config, step, currentWeather, animals, plants, randomizer);
+        CompletableFuture<Void> previous = lastCheckpoint;
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        Thread writer = new Thread(() -> {
+            previous.handle((result, failure) -> null).join();
+            try {
+                checkpoint.write(file);
+                written.complete(null);
+            }
+            catch(IOException e) {
+                written.completeExceptionally(e);
+            }
+        }, "checkpoint-writer");
+        writer.start();
+        lastCheckpoint = written;
+        return written;
+    }
+
+    /**
+     * Replace the state of the simulation with that of a checkpoint.
+     * @param checkpoint The checkpoint to restore.
+     */
+    private void restore(Checkpoint checkpoint)
+    {
+        step = checkpoint.getStep();
+        currentWeather = checkpoint.getWeather();
+        animals.clear();
+        plants.clear();
+        field.clear();
+
+        // Organisms that are no longer in the field are created first, and
+        // then removed from it, so they cannot displace those that are.
+        int count = checkpoint.getCount();
+        Object[] organisms = new Object[count];
+        Location anywhere = new Location(0, 0);
+        for(int i = 0; i < count; i++) {
+            if(checkpoint.getLocation(i) == null) {
+                organisms[i] = restoreOrganism(checkpoint, i, anywhere);
+            }
+        }
+        for(int i = 0; i < count; i++) {
+            Location location = checkpoint.getLocation(i);
+            if(location != null) {
+                organisms[i] = restoreOrganism(checkpoint, i, location);
+            }
+        }
+        for(int i = 0; i < count; i++) {
+            if(i < checkpoint.getAnimalCount()) {
+                animals.add((Animal) organisms[i]);
+            }
+            else {
+                plants.add((Plant) organisms[i]);
+            }
+        }
+        randomizer.setState(checkpoint.getRandomState());
+        publishSnapshot(currentWeather, isNight(), 0);
+        notifyListeners(takeFieldChanges());
+    }
+
+    /**
+     * Recreate one organism of a checkpoint.
+     * @param checkpoint The checkpoint.
+     * @param i The index of the organism in the checkpoint.
+     * @param location Where to create it.
+     * @return The organism.
+     */
+    private Object restoreOrganism(Checkpoint checkpoint, int i, Location location)
+    {
+        Object organism = checkpoint.getSpecies(i).create(false, field, location);
+        if(organism instanceof Animal) {
+            Animal animal = (Animal) organism;
+            if(!checkpoint.isAlive(i)) {
+                animal.setDead();
+            }
+            animal.restoreState(checkpoint.getAge(i), checkpoint.getValue(i));
+            if(checkpoint.isInfected(i)) {
+                animal.infect();
+            }
+        }
+        else {
+            Plant plant = (Plant) organism;
+            if(!checkpoint.isAlive(i)) {
+                plant.setDead();
+            }
+            plant.restoreState(checkpoint.getAge(i), checkpoint.getValue(i));
+        }
+        return organism;
+    }
+
+    /**
+     * Count the live organisms of each species, take the infected counts
+     * from the field's index, and publish the result as the latest snapshot.
+     * @param weather The weather the step was simulated under.
+     * @param night Whether the step was simulated at night.
+     * @param stepDuration How long the step took, in nanoseconds.
+     */
+    private void publishSnapshot(Weather weather, boolean night, long stepDuration)
+    {
+        int[] counts = new int[Species.count()];
+        int[] infectedCounts = new int[Species.count()];
+        for(Species species : Species.values()) {
+            infectedCounts[species.ordinal()] = field.getInfectedIndex().getCount(species);
+        }
+        // Each chunk of animals is counted separately, then added in.
+        forRange(0, animals.size(), (start, end) -> {
+            int[] chunkCounts = new int[counts.length];
+            for(int i = start; i < end; i++) {
+                Animal animal = animals.get(i);
+                if(animal.isAlive()) {
+                    chunkCounts[animal.getSpecies().ordinal()]++;
+                }
+            }
+            synchronized(counts) {
+                for(int s = 0; s < counts.length; s++) {
+                    counts[s] += chunkCounts[s];
+                }
+            }
+        });
+        forRange(0, plants.size(), (start, end) -> {
+            int alive = 0;
+            for(int i = start; i < end; i++) {
+                if(plants.get(i).isAlive()) {
+                    alive++;
+                }
+            }
+            synchronized(counts) {
+                counts[Species.PLANT.ordinal()] += alive;
+            }
+        });
+        PopulationSnapshot snapshot = new PopulationSnapshot(step, counts, infectedCounts,
+                                                             weather, night, stepDuration);
+        latestSnapshot.set(snapshot);
+        if(recorder != null) {
+            recorder.record(snapshot);
+        }
+    }
+
+    /**
+     * Randomly populate the field with organisms. Each location is
+     * filled with one draw from a table of the chances of each occupant,
+     * the rows in parallel, each with its own stream of random numbers,
+     * so the field is the same for a seed however many threads fill it.
+     * With the LEGACY algorithm the field is filled as earlier versions
+     * filled it.
+     */
+    private void populate()
+    {
+        if(populateRand.getAlgorithm() == Randomizer.Algorithm.LEGACY) {
+            populateInOrder();
+            return;
+        }
+        field.clear();
+        AliasTable occupants = occupantTable(config.getDensity());
+        int empty = Species.count();
+        int depth = field.getDepth();
+        int width = field.getWidth();
+        long key = populateRand.nextLong();
+        field.startLoading();
+        forRange(0, depth, WorkerPool.MIN_CHUNK / width + 1, (start, end) -> {
+            for(int row = start; row < end; row++) {
+                RandomStream rand = randomizer.split(Randomizer.Stream.POPULATE, key, row);
+                for(int col = 0; col < width; col++) {
+                    int occupant = occupants.sample(rand);
+                    if(occupant == empty) {
+                        continue;
+                    }
+                    // The organisms place themselves in the field.
+                    Species.fromOrdinal(occupant).create(rand, field, new Location(row, col));
+                }
+            }
+        });
+        field.finishLoading();
+
+        // List the organisms in the order of their locations.
+        byte[] codes = field.getSpeciesCodes();
+        for(int index = 0; index < codes.length; index++) {
+            if(codes[index] != Species.EMPTY_CODE) {
+                Object occupant = field.getObjectAt(index / width, index % width);
+                if(occupant instanceof Plant) {
+                    plants.add((Plant) occupant);
+                }
+                else {
+                    animals.add((Animal) occupant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Work out the chance of each occupant of a location when the field
+     * is populated. They are the chances of the checks of populateInOrder:
+     * a fox with its coefficient, otherwise a rabbit with its own, and so
+     * on, with elephants equally likely to be male or female.
+     * @param density The multiple of the creation coefficients.
+     * @return The table to draw an occupant from: the ordinal of its
+     *         species, or Species.count() to leave the location empty.
+     */
+    private static AliasTable occupantTable(double density)
+    {
+        return new AliasTable(occupantWeights(density));
+    }
+
+    /**
+     * Work out the weight of each occupant of a location when the field
+     * is populated, as for occupantTable.
+     * @param density The multiple of the creation coefficients.
+     * @return The weight of each species, by ordinal, followed by that of
+     *         an empty location.
+     */
+    private static double[] occupantWeights(double density)
+    {
+        Species[] order = { Species.FOX, Species.RABBIT, Species.EAGLE, Species.COW,
+                            Species.PLANT, Species.MALE_ELEPHANT };
+        double[] coefficients = { FOX_CREATION_COEFFICIENT, RABBIT_CREATION_COEFFICIENT,
+                                  EAGLE_CREATION_COEFFICIENT, COW_CREATION_COEFFICIENT,
+                                  PLANT_CREATION_COEFFICIENT, ELEPHANT_CREATION_COEFFICIENT };
+        double[] weights = new double[Species.count() + 1];
+        double remaining = 1;
+        for(int i = 0; i < order.length; i++) {
+            double chance = remaining * Math.min(1, coefficients[i] * density);
+            weights[order[i].ordinal()] = chance;
+            remaining -= chance;
+        }
+        weights[Species.FEMALE_ELEPHANT.ordinal()] = weights[Species.MALE_ELEPHANT.ordinal()] / 2;
+        weights[Species.MALE_ELEPHANT.ordinal()] /= 2;
+        weights[Species.count()] = remaining;
+        return weights;
+    }
+
+    /**
+     * Populate the world around the field, block by block, with the same
+     * chances as the field, the rows of blocks on the worker threads.
+     */
+    private void populateWorld()
+    {
+        double[] weights = occupantWeights(config.getDensity());
+        long key = populateRand.nextLong();
+        int rows = world.getBlockRows();
+        if(config.getRandomAlgorithm() == Randomizer.Algorithm.LEGACY) {
+            // The rows' streams share one generator.
+            world.populate(weights, key, 0, rows);
+        }
+        else {
+            forRange(0, rows, WorkerPool.MIN_CHUNK / world.getBlockCols() + 1,
+                     (start, end) -> world.populate(weights, key, start, end));
+        }
+    }
+
+    /**
+     * Let the world around the field live through one step, the rows of
+     * blocks on the worker threads, and then let animals cross between
+     * the field and the blocks around it.
+     * @param weather The weather of the step.
+     */
+    private void stepWorld(Weather weather)
+    {
+        long key = populateRand.nextLong();
+        int rows = world.getBlockRows();
+        if(config.getRandomAlgorithm() == Randomizer.Algorithm.LEGACY) {
+            world.step(key, weather, 0, rows);
+            world.migrate(0, rows);
+        }
+        else {
+            int chunk = WorkerPool.MIN_CHUNK / world.getBlockCols() + 1;
+            forRange(0, rows, chunk, (start, end) -> world.step(key, weather, start, end));
+            forRange(0, rows, chunk, (start, end) -> world.migrate(start, end));
+        }
+        world.exchange(field, animals, populateRand);
+        animals.removeIf(animal -> !animal.isAlive());
+    }
+
+    /**
+     * Randomly populate the field with organisms, location by location,
+     * with a series of checks for each.
+     */
+    private void populateInOrder()
+    { 
+        field.clear();
+        double density = config.getDensity();
+        for(int row = 0; row < field.getDepth(); row++) {
+            for(int col = 0; col < field.getWidth(); col++) {
+                if(populateRand.nextDouble() <= FOX_CREATION_COEFFICIENT * density) {
+                    Location location = new Location(row, col);
+                    Fox fox = new Fox(true, field, location);
+                    animals.add(fox);
+                }
+                else if(populateRand.nextDouble() <= RABBIT_CREATION_COEFFICIENT * density) {
+                    Location location = new Location(row, col);
+                    Rabbit rabbit = new Rabbit(true, field, location);
+                    animals.add(rabbit);
+                }
+                else if(populateRand.nextDouble() <= EAGLE_CREATION_COEFFICIENT * density) {
+                    Location location = new Location(row, col);
+                    Eagles eagle = new Eagles(true, field, location);
+                    animals.add(eagle);
+                }
+                else if(populateRand.nextDouble() <= COW_CREATION_COEFFICIENT * density) {
+                    Location location = new Location(row, col);
+                    Cow cow = new Cow(true, field, location);
+                    animals.add(cow);
+                }
+                else if(populateRand.nextDouble() <= PLANT_CREATION_COEFFICIENT * density) {
+                    Location location = new Location(row, col);
+                    Plant plant = new Plant( field, location);
+                    plants.add(plant);
+                }
+                else if(populateRand.nextDouble() <= ELEPHANT_CREATION_COEFFICIENT * density) {
+                    Location location = new Location(row, col);
+                    int genderDecider = populateRand.nextInt(2);
+                    if (genderDecider == 0){
+                        FemaleElephant elephant = new FemaleElephant (true, field, location);
+                        animals.add(elephant);
+                    }
+                    else{
+                        MaleElephant elephant = new MaleElephant(true, field, location);
+                        animals.add(elephant);
+                    }
+
+                }
+                // else leave the location empty.
+            }
+        }
+    }
+
+    /**
+     * Let all animals act at once on the field as it was at the start of
+     * the step (see AnimalIntents): they age, decide, claim and resolve
+     * their claims on the worker threads, and then carry them out in turn.
+     * @param newAnimals A list to receive newly born animals.
+     */
+    private void actOnIntents(List<Animal> newAnimals)
+    {
+        int count = animals.size();
+        intents.start(animals, config.getSeed() * 0x9e3779b97f4a7c15L + step, isNight());
+        if(config.getRandomAlgorithm() == Randomizer.Algorithm.LEGACY) {
+            // The animals' streams share one generator.
+            intents.age(0, count);
+            intents.decide(0, count);
+            intents.claimFree(0, count);
+            intents.resolve(0, count);
+        }
+        else {
+            forRange(0, count, intents::age);
+            forRange(0, count, intents::decide);
+            forRange(0, count, intents::claimFree);
+            forRange(0, count, intents::resolve);
+        }
+        intents.carryOut(newAnimals);
+        animals.removeIf(animal -> !animal.isAlive());
+    }
+
+    /**
+     * Work out how far each location is from the nearest food of each
+     * kind, the rows on the worker threads.
+     */
+    private void updatePreyDistances()
+    {
+        byte[] codes = field.getSpeciesCodes();
+        int depth = field.getDepth();
+        int rows = WorkerPool.MIN_CHUNK / field.getWidth() + 1;
+        for(PreyDistanceField distances : preyDistances) {
+            forRange(0, depth, rows, (start, end) -> distances.scanRows(codes, start, end));
+            forRange(0, depth, rows, (start, end) -> distances.spreadRows(start, end));
+        }
+    }
+
+    /**
+     * Build the counts of organisms in rectangles of the field, the rows
+     * and then the columns on the worker threads.
+     */
+    private void updateSpatialCounts()
+    {
+        byte[] codes = field.getSpeciesCodes();
+        int depth = field.getDepth();
+        int width = field.getWidth();
+        spatialCounts.markInfected(field.getInfectedIndex());
+        forRange(0, depth, WorkerPool.MIN_CHUNK / width + 1,
+                 (start, end) -> spatialCounts.sumRows(codes, start, end));
+        forRange(0, width, WorkerPool.MIN_CHUNK / depth + 1,
+                 (start, end) -> spatialCounts.sumColumns(start, end));
+    }
+
+    /**
+     * Process the effect of the current weather condition.
+     */
+    private void processWeather()
+    {
+        if(regions != null) {
+            regionalWeather();
+            return;
+        }
+        switch(currentWeather){
+            case RAINING: raining();
+            break;
+            case SUNNY: sunny();
+            break;
+            case WINDY: windy();
+            break;
+            case SNOWING: snowing();
+            break;
+        }
+    }
+
+    /**
+     * Actions to take when raining.
+     */
+    private void raining()
+    {
+        // Plants grow more.
+        growPlants();
+        // Eagles struggle to find food in rain.
+        for (Animal animal : animals){
+            if( animal instanceof Eagles){
+                animal.incrementHunger();
+            }
+        }
+    }
+
+    /**
+     * Actions to take when sunny.
+     */
+    private void sunny()
+    {
+        // Plants grow more when its sunny.
+        growPlants();
+    }
+
+    /**
+     * Grow every plant, on the worker threads.
+     */
+    private void growPlants()
+    {
+        forRange(0, plants.size(), (start, end) -> {
+            for(int i = start; i < end; i++) {
+                plants.get(i).grow();
+            }
+        });
+    }
+
+    /**
+     * Actions to take when windy.
+     */
+    private void windy()
+    {
+        // Wind can destroy plants.
+        mortality.windOnPlants(plants, null);
+    }
+
+    /**
+     * Actions to take when snowing.
+     */
+    private void snowing()
+    {
+        // Plants and animals can be killed by snow. 
+        mortality.snowOnPlants(plants, null);
+        mortality.snowOnAnimals(animals, null);
+    }
+
+    /**
+     * Apply the weather of each region to the organisms in it, with the
+     * same effects as the weather of the whole field has.
+     */
+    private void regionalWeather()
+    {
+        regions.update(step);
+        // Plants grow more in rain and sun.
+        forRange(0, plants.size(), (start, end) -> {
+            for(int i = start; i < end; i++) {
+                Plant plant = plants.get(i);
+                Location location = plant.getLocation();
+                if(location != null) {
+                    Weather weather = regions.getWeather(location);
+                    if(weather == Weather.RAINING || weather == Weather.SUNNY) {
+                        plant.grow();
+                    }
+                }
+            }
+        });
+        // Wind and snow can destroy plants, and snow can kill animals.
+        mortality.windOnPlants(plants, regions);
+        mortality.snowOnPlants(plants, regions);
+        mortality.snowOnAnimals(animals, regions);
+        // Eagles struggle to find food in rain.
+        for(Animal animal : animals) {
+            Location location = animal.getLocation();
+            if(animal instanceof Eagles && location != null
+               && regions.getWeather(location) == Weather.RAINING) {
+                animal.incrementHunger();
+            }
+        }
+    }
+
+    /**
+     * Infect a random animal at the disease probability rate.
+     */
+    private void checkDisease()
+    {
+        if(diseaseRand.nextDouble() <= config.getDiseaseProbability() && !animals.isEmpty()){
+            findRandomAnimal().infect();
+        }
+    }
+
+    /**
+     * Randomise the weather with the configured chances. With regional
+     * weather, work out the weather of each region for the next step
+     * instead, and return the weather of the most regions.
+     * @return A random weather condition.
+     */
+    private Weather nextWeather()
+    {
+        if(regions != null) {
+            regions.update(step);
+            return regions.getPrevailingWeather();
+        }
+        return Weather.randomWeightedWeather(weatherRand, config.getSnowChance(), config.getWindChance(),
+                                             config.getRainChance());
+    }
+
+    /**
+     * Find a random animal in the field.
+     *  @return A random animal in the field.
+     */
+    private Animal findRandomAnimal()
+    {
+        return animals.get(diseaseRand.nextInt(animals.size()));
+    }
+    
+    /**
+     * Check if the next step is at night. Night occurs every four steps,
+     * first occurring on the fourth step.
+     * @return True if it is night.
+     */
+    public boolean isNight()
+    {
+        if((step % 4 ) == 3){
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering one whole step of the simulation.
+ * The event's duration is the time the step took, including rendering.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+@Name("ecosystem.SimulationStep")
+@Label("Simulation Step")
+@Category("Ecosystem Simulator")
+@Description("One whole simulation step")
+public class SimulationStepEvent extends Event
+{
+    @Label("Step")
+    int step;
+
+    @Label("Weather")
+    String weather;
+
+    @Label("Night")
+    boolean night;
+
+    @Label("Animals")
+    int animals;
+
+    @Label("Plants")
+    int plants;
+}
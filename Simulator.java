@@ -1,59 +1,27 @@
-import java.util.Random;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.File;
+import java.io.IOException;
 import java.awt.Color;
 
 /**
  * A simple predator-prey simulator, based on a rectangular field
- * containing various animals and some plants.
+ * containing various animals and some plants, shown in a window as it
+ * runs. The simulation itself is a SimulationEngine; this adds the
+ * optional view, as one of its step listeners.
  * 
  * @author Daniel Ratiu and Michael Jacob
- * @version 22/02/2018
+ * @version 19/10/2026
  */
-public class Simulator
+public class Simulator extends SimulationEngine
 {
-    // Constants representing configuration information for the simulation.
-    // The default depth of the grid.
-    private static final int DEFAULT_DEPTH = 200;
-    // The default width for the grid.
-    private static final int DEFAULT_WIDTH = 250;
-    // The coefficient that a fox will be created in any given grid position.
-    private static final double FOX_CREATION_COEFFICIENT = 0.06;
-    // The coefficient that a rabbit will be created in any given grid position.
-    private static final double RABBIT_CREATION_COEFFICIENT = 0.11;  
-    // The coefficient that an eagle will be created in any given grid position.
-    private static final double EAGLE_CREATION_COEFFICIENT = 0.05;
-    // The coefficient that a cow will be created in any given grid position.
-    private static final double COW_CREATION_COEFFICIENT = 0.07;
-    // The coefficient that an elephant will be created in any given grid position.
-    // This is split evenly between male and female elephants.
-    private static final double ELEPHANT_CREATION_COEFFICIENT = 0.1;
-    // The coefficient that a plant will be created in any given grid position.
-    private static final double PLANT_CREATION_COEFFICIENT = 0.15;
-    // A shared random number generator.
-    private static final Random rand = Randomizer.getRandom();
-    // The probability that some animal will catch a disease on each step.
-    private static final double DISEASE_PROBABILITY = 0.07;
-    // List of animals in the field.
-    private List<Animal> animals;
-    // The current state of the field.
-    private Field field;
-    // The number of completed steps of the simulation.
-    private int step;
-    // A graphical view of the simulation.
+    // A graphical view of the simulation, or null if it runs without one.
     private SimulatorView view;
-    // List of plants in the field.
-    private List<Plant> plants;
-    // The weather conditions for the next step.
-    private Weather currentWeather;
 
     /**
      * Construct a simulation field with default size.
      */
     public Simulator()
     {
-        this(DEFAULT_DEPTH, DEFAULT_WIDTH);
+        this(new SimulationConfig(), true);
     }
 
     /**
@@ -63,297 +31,124 @@ public class Simulator
      */
     public Simulator(int depth, int width)
     {
-        if(width <= 0 || depth <= 0) {
-            System.out.println("The dimensions must be greater than zero.");
-            System.out.println("Using default values.");
-            depth = DEFAULT_DEPTH;
-            width = DEFAULT_WIDTH;
-        }
-
-        animals = new ArrayList<>();
-        plants = new ArrayList<>();
-        field = new Field(depth, width);
-
-        // Randomises weather in accordance with their probabilties.
-        currentWeather = Weather.randomWeightedWeather();
-
-        // Create a view of the state of each location in the field.
-        view = new SimulatorView(depth, width);
-        view.setColor(Rabbit.class, Color.ORANGE);
-        view.setColor(Fox.class, Color.BLUE);
-        view.setColor(Cow.class, Color.BLACK);
-        view.setColor(MaleElephant.class, Color.MAGENTA);
-        view.setColor(FemaleElephant.class, Color.MAGENTA);
-        view.setColor(Eagles.class, Color.RED);
-        view.setColor(Plant.class, Color.GREEN);
-        // Setup a valid starting point.
-        reset();
+        this(sizedConfig(depth, width), true);
     }
 
     /**
-     * Run the simulation from its current state for a reasonably long period,
-     * (4000 steps).
+     * Create a simulation with the given settings, with or without a view.
+     * A simulation without a view can run without a display, e.g. for
+     * benchmarking, and does not pause between steps.
+     * @param config The settings of the simulation.
+     * @param showView Whether to show the simulation in a window.
      */
-    public void runLongSimulation()
+    public Simulator(SimulationConfig config, boolean showView)
     {
-        simulate(4000);
+        this(config, showView, null);
     }
 
     /**
-     * Run the simulation from its current state for the given number of steps.
-     * Stop before the given number of steps if it ceases to be viable.
-     * @param numSteps The number of steps to run for.
+     * Continue a simulation from a checkpoint written by saveCheckpoint.
+     * It carries on exactly as the checkpointed simulation would have.
+     * @param file The checkpoint file.
+     * @param threads The number of threads to run it with.
+     * @param showView Whether to show the simulation in a window.
+     * @return The resumed simulation.
+     * @throws IOException If the checkpoint cannot be read.
      */
-    public void simulate(int numSteps)
+    public static Simulator resume(File file, int threads, boolean showView) throws IOException
     {
-        for(int step = 1; step <= numSteps && view.isViable(field); step++) {
-            simulateOneStep();
-            delay(60);   // uncomment this to run more slowly
-        }
+        Checkpoint checkpoint = new Checkpoint(file);
+        return new Simulator(checkpoint.toConfig(threads), showView, checkpoint);
     }
 
     /**
-     * Run the simulation from its current state for a single step.
-     * Iterate over the whole field updating the state of each
-     * organism.
+     * Create a simulation with the given settings, either populated at
+     * random or restored from a checkpoint, and show it if asked to.
+     * @param config The settings of the simulation.
+     * @param showView Whether to show the simulation in a window.
+     * @param checkpoint The checkpoint to restore, or null to start afresh.
      */
-    public void simulateOneStep()
+    private Simulator(SimulationConfig config, boolean showView, Checkpoint checkpoint)
     {
-                
-        // Run the effects of weather conditions.
-        processWeather();
-
-        // See if an animal becomes infected.
-        checkDisease();
-
-        // Provide space for newborn animals.
-        List<Animal> newAnimals = new ArrayList<>();
-        // Provide space for new plants.
-        List<Plant> newPlants = new ArrayList<>();
-        
-        // Let all animals act.
-        for(Iterator<Animal> it = animals.iterator(); it.hasNext(); ) {
-            Animal animal = it.next();
-            if (isNight()){
-                animal.nightAct(newAnimals);
-            }
-            else{
-                animal.dayAct(newAnimals);
-            }
-            if(! animal.isAlive()) {
-                it.remove();
+        super(config, checkpoint);
+        if(showView) {
+            // Create a view of the state of each location in the field.
+            view = new SimulatorView(config.getDepth(), config.getWidth());
+            for(Species species : Species.values()) {
+                view.setColor(species.getOrganismClass(), new Color(species.getRGB()));
             }
+            addStepListener(view);
+            // Show the starting state.
+            view.stepped(this, null);
         }
-        // Let all plants act.
-        for(Iterator<Plant> it = plants.iterator(); it.hasNext(); ) {
-            Plant plant = it.next();
-            plant.act(newPlants);
-            if(! plant.isAlive()) {
-                it.remove();
-            }
-        }
-
-        
-        // Add the newly born organisms to the main lists.
-        animals.addAll(newAnimals);
-        plants.addAll(newPlants);
-        
-        step++;
-        
-        // Randomise the weather again for the next step.
-        currentWeather = Weather.randomWeightedWeather();
-        
-        showInfo();
-        view.showStatus(step, field);
     }
 
     /**
-     * Reset the simulation to a starting position.
+     * Make the settings for a field of the given size, falling back to the
+     * default size if it is invalid.
+     * @param depth Depth of the field.
+     * @param width Width of the field.
+     * @return The settings.
      */
-    public void reset()
+    private static SimulationConfig sizedConfig(int depth, int width)
     {
-        step = 0;
-        animals.clear();
-        plants.clear();
-        populate();
-
-        // Show the starting state in the view.
-        view.showStatus(step, field);
-        showInfo();
-    }
-
-    /**
-     * Randomly populate the field with organisms.
-     */
-    private void populate()
-    { 
-        field.clear();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                if(rand.nextDouble() <= FOX_CREATION_COEFFICIENT) {
-                    Location location = new Location(row, col);
-                    Fox fox = new Fox(true, field, location);
-                    animals.add(fox);
-                }
-                else if(rand.nextDouble() <= RABBIT_CREATION_COEFFICIENT) {
-                    Location location = new Location(row, col);
-                    Rabbit rabbit = new Rabbit(true, field, location);
-                    animals.add(rabbit);
-                }
-                else if(rand.nextDouble() <= EAGLE_CREATION_COEFFICIENT) {
-                    Location location = new Location(row, col);
-                    Eagles eagle = new Eagles(true, field, location);
-                    animals.add(eagle);
-                }
-                else if(rand.nextDouble() <= COW_CREATION_COEFFICIENT) {
-                    Location location = new Location(row, col);
-                    Cow cow = new Cow(true, field, location);
-                    animals.add(cow);
-                }
-                else if(rand.nextDouble() <= PLANT_CREATION_COEFFICIENT) {
-                    Location location = new Location(row, col);
-                    Plant plant = new Plant( field, location);
-                    plants.add(plant);
-                }
-                else if(rand.nextDouble() <= ELEPHANT_CREATION_COEFFICIENT) {
-                    Location location = new Location(row, col);
-                    int genderDecider = rand.nextInt(2);
-                    if (genderDecider == 0){
-                        FemaleElephant elephant = new FemaleElephant (true, field, location);
-                        animals.add(elephant);
-                    }
-                    else{
-                        MaleElephant elephant = new MaleElephant(true, field, location);
-                        animals.add(elephant);
-                    }
-
-                }
-                // else leave the location empty.
-            }
-        }
-    }
-
-    /**
-     * Process the effect of the current weather condition.
-     */
-    private void processWeather()
-    {
-        switch(currentWeather){
-            case RAINING: raining();
-            break;
-            case SUNNY: sunny();
-            break;
-            case WINDY: windy();
-            break;
-            case SNOWING: snowing();
-            break;
-        }
-    }
-
-    /**
-     * Actions to take when raining.
-     */
-    private void raining()
-    {
-        // Plants grow more.
-        for (Plant plant : plants){
-            plant.grow();
+        SimulationConfig config = new SimulationConfig();
+        if(width <= 0 || depth <= 0) {
+            System.out.println("The dimensions must be greater than zero.");
+            System.out.println("Using default values.");
         }
-        // Eagles struggle to find food in rain.
-        for (Animal animal : animals){
-            if( animal instanceof Eagles){
-                animal.incrementHunger();
-            }
+        else {
+            config.setSize(depth, width);
         }
+        return config;
     }
 
     /**
-     * Actions to take when sunny.
-     */
-    private void sunny()
-    {
-        // Plants grow more when its sunny.
-        for (Plant plant : plants){
-            plant.grow();
-        }
-    }
-
-    /**
-     * Actions to take when windy.
+     * Run the simulation from its current state for a reasonably long period,
+     * (4000 steps).
      */
-    private void windy()
+    public void runLongSimulation()
     {
-        // Wind can destroy plants.
-        for (Plant plant : plants){
-            if(rand.nextDouble() > plant.calculateWindSurvivalProbability()) {
-                plant.setDead();
-            }
-        }
+        simulate(4000);
     }
 
     /**
-     * Actions to take when snowing.
+     * Run the simulation from its current state for the given number of steps.
+     * Stop before the given number of steps if it ceases to be viable.
+     * @param numSteps The number of steps to run for.
      */
-    private void snowing()
+    public void simulate(int numSteps)
     {
-        // Plants and animals can be killed by snow. 
-        for (Plant plant : plants){
-            if(rand.nextDouble() > plant.calculateSnowSurvivalProbability()) {
-                plant.setDead();
-            }
-        }
-        for (Animal animal: animals){
-            if(rand.nextDouble() > animal.calculateSnowSurvivalProbability()) {
-                animal.setDead();
+        for(int step = 1; step <= numSteps && isViable(); step++) {
+            simulateOneStep();
+            if(view != null) {
+                delay(60);   // uncomment this to run more slowly
             }
         }
     }
 
     /**
-     * Infect a random animal at the disease probability rate.
+     * Run the simulation from its current state for a single step.
+     * Iterate over the whole field updating the state of each
+     * organism.
      */
-    private void checkDisease()
+    public void simulateOneStep()
     {
-        if(rand.nextDouble() <= DISEASE_PROBABILITY){
-            findRandomAnimal().infect();
-        }
+        step();
     }
 
     /**
-     * Find a random animal in the field.
-     *  @return A random animal in the field.
+     * Play a replay file in the view, in place of the simulation. The
+     * simulation should not be run while the replay is shown.
+     * @param file The replay file.
+     * @throws IOException If the file cannot be read.
      */
-    private Animal findRandomAnimal()
+    public void showReplay(File file) throws IOException
     {
-        return animals.get(rand.nextInt(animals.size()));
-    }
-    
-    /**
-     * Check if it is night. Night occurs every four steps, first ocurring on the fourth step.
-     * @return True if it is night.
-     */
-
-    private boolean isNight()
-    {
-        if((step % 4 ) == 3){
-            return true;
-        }
-        return false;
-    }
-    
-    /**
-     * Show time of day and weather information for the next step to be executed.
-     */
-    private void showInfo(){
-        String dayNight = "Time: ";
-        if (isNight()){
-            dayNight += "night";
-        }
-        else{
-            dayNight += "day";
+        if(view == null) {
+            throw new IllegalStateException("The simulation has no view to show a replay in.");
         }
-        String weatherString = "Weather: " + currentWeather.toString().toLowerCase();
-        view.setInfoText(dayNight + "   " + weatherString);
+        view.playReplay(new ReplayFile(file));
     }
 
     /**
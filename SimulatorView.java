@@ -1,6 +1,9 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -9,29 +12,50 @@ import java.util.Map;
  * The view displays a colored rectangle for each location 
  * representing its contents. It uses a default background color.
  * Colors for each type of species can be defined using the
- * setColor method.
+ * setColor method. As a StepListener of a SimulationEngine, it shows
+ * the state of the simulation after every step.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
-public class SimulatorView extends JFrame
+public class SimulatorView extends JFrame implements StepListener
 {
     // Colors used for empty locations.
-    private static final Color EMPTY_COLOR = Color.white;
+    static final Color EMPTY_COLOR = new Color(Species.EMPTY_RGB);
 
     // Color used for objects that have no defined color.
-    private static final Color UNKNOWN_COLOR = Color.gray;
+    static final Color UNKNOWN_COLOR = new Color(Species.UNKNOWN_RGB);
+
+    // How often a playing replay moves on, in milliseconds.
+    private static final int REPLAY_TICK = 30;
 
     private final String STEP_PREFIX = "Step: ";
     private final String POPULATION_PREFIX = "Population: ";
     private JLabel stepLabel, population, infoLabel;
+    private JPanel statusPane;
     private FieldView fieldView;
 
     // A map for storing colors for participants in the simulation
     private Map<Class, Color> colors;
+    // The RGB value used for each species code, rebuilt when a color is set.
+    private int[] palette;
     // A statistics object computing and storing simulation information
     private FieldStats stats;
 
+    // The replay being shown, or null if none is.
+    private ReplayCursor replayCursor;
+    // The controls of the replay, made when the first replay is shown.
+    private JSlider replaySlider;
+    private JSpinner replaySpeed;
+    private Timer replayTimer;
+    // The direction the replay plays in: 1 forwards, -1 backwards, 0 paused.
+    private int replayDirection;
+    // The part of a frame that is due but not yet shown, and when it was worked out.
+    private double replayDue;
+    private long lastReplayTick;
+    // Set while the slider is moved to follow the replay, not by the user.
+    private boolean followingReplay;
+
     /**
      * Create a view of the given width and height.
      * @param height The simulation's height.
@@ -41,6 +65,8 @@ public class SimulatorView extends JFrame
     {
         stats = new FieldStats();
         colors = new LinkedHashMap<>();
+        palette = new int[Species.UNKNOWN_CODE + 1];
+        updatePalette();
 
         setTitle("Fox and Rabbit Simulation");
         stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
@@ -58,7 +84,9 @@ public class SimulatorView extends JFrame
         infoPane.add(infoLabel, BorderLayout.CENTER);
         contents.add(infoPane, BorderLayout.NORTH);
         contents.add(fieldView, BorderLayout.CENTER);
-        contents.add(population, BorderLayout.SOUTH);
+        statusPane = new JPanel(new BorderLayout());
+        statusPane.add(population, BorderLayout.CENTER);
+        contents.add(statusPane, BorderLayout.SOUTH);
         pack();
         setVisible(true);
     }
@@ -71,6 +99,7 @@ public class SimulatorView extends JFrame
     public void setColor(Class animalClass, Color color)
     {
         colors.put(animalClass, color);
+        updatePalette();
     }
 
     /**
@@ -96,12 +125,47 @@ public class SimulatorView extends JFrame
         }
     }
 
+    /**
+     * Recompute the RGB value used for each species code from the
+     * current color settings.
+     */
+    private void updatePalette()
+    {
+        palette[Species.EMPTY_CODE] = EMPTY_COLOR.getRGB();
+        palette[Species.UNKNOWN_CODE] = UNKNOWN_COLOR.getRGB();
+        for(Species species : Species.values()) {
+            palette[species.getCode()] = getColor(species.getOrganismClass()).getRGB();
+        }
+        if(fieldView != null) {
+            fieldView.discardPyramid();
+        }
+    }
+
+    /**
+     * Show the state of a simulation, with the time of day and the
+     * weather of the next step to be executed.
+     * @param engine The simulation.
+     * @param changes The locations that changed since it was last shown,
+     *                or null if the whole field must be redrawn.
+     */
+    public void stepped(SimulationEngine engine, int[] changes)
+    {
+        String dayNight = "Time: " + (engine.isNight() ? "night" : "day");
+        String weatherString = "Weather: " + (engine.getConfig().getRegionSize() > 0 ? "mostly " : "")
+                               + engine.getWeather().toString().toLowerCase();
+        setInfoText(dayNight + "   " + weatherString);
+        showStatus(engine.getStep(), engine.getField(), changes);
+    }
+
     /**
      * Show the current status of the field.
      * @param step Which iteration step it is.
      * @param field The field whose status is to be displayed.
+     * @param changes The locations that changed since the field was last
+     *                shown, as returned by field.takeChanges, or null if
+     *                the whole field must be redrawn.
      */
-    public void showStatus(int step, Field field)
+    public void showStatus(int step, Field field, int[] changes)
     {
         if(!isVisible()) {
             setVisible(true);
@@ -110,24 +174,199 @@ public class SimulatorView extends JFrame
         stepLabel.setText(STEP_PREFIX + step);
         stats.reset();
 
-        fieldView.preparePaint();
+        // Redraw only the locations that changed since the last step,
+        // unless the whole field has been replaced.
+        showCodes(field.getSpeciesCodes(), changes);
 
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    stats.incrementCount(animal.getClass());
-                    fieldView.drawMark(col, row, getColor(animal.getClass()));
-                }
-                else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
+        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
+    }
+
+    /**
+     * Redraw the given locations, or the whole field.
+     * @param codes The species code of each location, row by row.
+     * @param changes The indices of the locations to redraw, or null to
+     *                redraw them all.
+     */
+    private void showCodes(byte[] codes, int[] changes)
+    {
+        if(changes == null) {
+            fieldView.drawField(codes);
+            fieldView.repaint();
+        }
+        else {
+            fieldView.drawCells(codes, changes);
+        }
+    }
+
+    /**
+     * Show a replay recorded by ReplayRecorder, starting paused at its
+     * first frame. Controls appear below the field to play it forwards or
+     * backwards at a chosen number of steps per second, to step through
+     * it one frame at a time, and to jump to any frame with the slider.
+     * Nothing is simulated: each frame is read from the file.
+     * @param replay The replay. It must be of a field the size of this view.
+     */
+    public void playReplay(ReplayFile replay)
+    {
+        if(replay.getDepth() != fieldView.gridHeight || replay.getWidth() != fieldView.gridWidth) {
+            throw new IllegalArgumentException("The replay is of a field of a different size.");
+        }
+        if(replaySlider == null) {
+            makeReplayControls();
+        }
+        setReplayDirection(0);
+        replayCursor = new ReplayCursor(replay);
+        replaySlider.setMaximum(replay.getFrameCount() - 1);
+        if(!isVisible()) {
+            setVisible(true);
+        }
+        showReplayFrame();
+    }
+
+    /**
+     * Make the controls of the replay and add them below the field.
+     */
+    private void makeReplayControls()
+    {
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        addReplayButton(buttons, "<<", "Play backwards", e -> setReplayDirection(-1));
+        addReplayButton(buttons, "<", "Step back", e -> stepReplay(-1));
+        addReplayButton(buttons, "||", "Pause", e -> setReplayDirection(0));
+        addReplayButton(buttons, ">", "Step forwards", e -> stepReplay(1));
+        addReplayButton(buttons, ">>", "Play forwards", e -> setReplayDirection(1));
+        replaySpeed = new JSpinner(new SpinnerNumberModel(10, 1, 10000, 1));
+        buttons.add(replaySpeed);
+        buttons.add(new JLabel("steps/s"));
+
+        replaySlider = new JSlider(0, 0, 0);
+        replaySlider.addChangeListener(e -> {
+            if(!followingReplay && replayCursor != null) {
+                moveReplay(replaySlider.getValue());
+            }
+        });
+        replayTimer = new Timer(REPLAY_TICK, e -> advanceReplay());
+
+        JPanel replayPane = new JPanel(new BorderLayout());
+        replayPane.add(buttons, BorderLayout.WEST);
+        replayPane.add(replaySlider, BorderLayout.CENTER);
+        statusPane.add(replayPane, BorderLayout.SOUTH);
+        pack();
+    }
+
+    /**
+     * Add a button to the replay controls.
+     * @param buttons The panel to add it to.
+     * @param text The text of the button.
+     * @param tip The tooltip of the button.
+     * @param action What the button does.
+     */
+    private void addReplayButton(JPanel buttons, String text, String tip, ActionListener action)
+    {
+        JButton button = new JButton(text);
+        button.setToolTipText(tip);
+        button.addActionListener(action);
+        buttons.add(button);
+    }
+
+    /**
+     * Start playing the replay in a direction, or pause it.
+     * @param direction 1 to play forwards, -1 backwards, 0 to pause.
+     */
+    private void setReplayDirection(int direction)
+    {
+        replayDirection = direction;
+        replayDue = 0;
+        lastReplayTick = System.nanoTime();
+        if(direction == 0) {
+            replayTimer.stop();
+        }
+        else {
+            replayTimer.start();
+        }
+    }
+
+    /**
+     * Pause the replay and move it by one frame.
+     * @param direction 1 to move forwards, -1 backwards.
+     */
+    private void stepReplay(int direction)
+    {
+        setReplayDirection(0);
+        moveReplay(replayCursor.getFrame() + direction);
+    }
+
+    /**
+     * Move the playing replay on by as many frames as are due at the
+     * chosen speed, pausing at either end.
+     */
+    private void advanceReplay()
+    {
+        long now = System.nanoTime();
+        double speed = ((Number) replaySpeed.getValue()).doubleValue();
+        replayDue += (now - lastReplayTick) / 1e9 * speed;
+        lastReplayTick = now;
+        int frames = (int) replayDue;
+        if(frames == 0) {
+            return;
+        }
+        replayDue -= frames;
+        int last = replayCursor.getReplay().getFrameCount() - 1;
+        int target = Math.max(0, Math.min(last, replayCursor.getFrame() + replayDirection * frames));
+        moveReplay(target);
+        if(target == 0 || target == last) {
+            setReplayDirection(0);
+        }
+    }
+
+    /**
+     * Move the replay to a frame and show it. Frames a little way back
+     * are reached by undoing the changes of those in between; others by
+     * seeking, which starts from the nearest keyframe if that is closer.
+     * @param target The index of the frame.
+     */
+    private void moveReplay(int target)
+    {
+        int last = replayCursor.getReplay().getFrameCount() - 1;
+        target = Math.max(0, Math.min(last, target));
+        int frame = replayCursor.getFrame();
+        if(target < frame && frame - target < replayCursor.getReplay().getKeyframeInterval()) {
+            while(replayCursor.getFrame() > target) {
+                replayCursor.stepBackward();
+            }
+        }
+        else {
+            replayCursor.seek(target);
+        }
+        showReplayFrame();
+    }
+
+    /**
+     * Show the current frame of the replay, with its population.
+     */
+    private void showReplayFrame()
+    {
+        ReplayFile replay = replayCursor.getReplay();
+        showCodes(replayCursor.getSpeciesCodes(), replayCursor.takeChanges());
+        stepLabel.setText(STEP_PREFIX + replayCursor.getStep() + " (replay frame "
+                          + (replayCursor.getFrame() + 1) + " of " + replay.getFrameCount() + ")");
+
+        StringBuilder details = new StringBuilder();
+        for(Species species : Species.values()) {
+            int count = replayCursor.getCount(species);
+            if(count > 0) {
+                details.append(species.getOrganismClass().getName()).append(": ").append(count);
+                int infected = replayCursor.getInfectedCount(species);
+                if(infected > 0) {
+                    details.append(" (").append(infected).append(" infected)");
                 }
+                details.append(' ');
             }
         }
-        stats.countFinished();
+        population.setText(POPULATION_PREFIX + details);
 
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
-        fieldView.repaint();
+        followingReplay = true;
+        replaySlider.setValue(replayCursor.getFrame());
+        followingReplay = false;
     }
 
     /**
@@ -150,12 +389,40 @@ public class SimulatorView extends JFrame
     private class FieldView extends JPanel
     {
         private final int GRID_VIEW_SCALING_FACTOR = 6;
+        // The largest size the view asks for, in pixels.
+        private final int MAX_PREFERRED_WIDTH = 1000;
+        private final int MAX_PREFERRED_HEIGHT = 750;
+        // The most pixels per location that the view can be zoomed in to.
+        private final double MAX_ZOOM = 48;
+        // How much one notch of the mouse wheel zooms in or out.
+        private final double ZOOM_STEP = 1.25;
+        // The width and height, in locations, of the tiles that changed
+        // locations are grouped into for repainting.
+        private final int TILE_SIZE = 16;
 
         private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        // An image with one pixel per grid location.
+        private BufferedImage fieldImage;
+        // The image's pixels, row by row, written directly when drawing.
+        private int[] pixels;
+        // The species code each location was last drawn with.
+        private byte[] shownCodes;
+        // Downsampled images for zoomed-out display, created when first needed.
+        private FieldPyramid pyramid;
+        // The number of tile columns and rows covering the grid.
+        private int tileColumns, tileRows;
+        // Which tiles hold a location drawn since the last repaint request.
+        private boolean[] dirtyTiles;
+
+        // The number of pixels per location.
+        private double zoom;
+        // The grid position, in locations, shown at the top-left corner.
+        private double originX, originY;
+        // Whether the whole grid is fitted to the view, rather than
+        // zoomed and panned by the user.
+        private boolean fitted;
+        // Where the mouse was last pressed or dragged, while panning.
+        private Point dragPoint;
 
         /**
          * Create a new FieldView component.
@@ -164,7 +431,18 @@ public class SimulatorView extends JFrame
         {
             gridHeight = height;
             gridWidth = width;
-            size = new Dimension(0, 0);
+            fieldImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) fieldImage.getRaster().getDataBuffer()).getData();
+            shownCodes = new byte[width * height];
+            tileColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+            tileRows = (height + TILE_SIZE - 1) / TILE_SIZE;
+            dirtyTiles = new boolean[tileColumns * tileRows];
+
+            zoom = Math.min(GRID_VIEW_SCALING_FACTOR,
+                            Math.min((double) MAX_PREFERRED_WIDTH / width,
+                                     (double) MAX_PREFERRED_HEIGHT / height));
+            fitted = true;
+            addListeners();
         }
 
         /**
@@ -172,57 +450,282 @@ public class SimulatorView extends JFrame
          */
         public Dimension getPreferredSize()
         {
-            return new Dimension(gridWidth * GRID_VIEW_SCALING_FACTOR,
-                gridHeight * GRID_VIEW_SCALING_FACTOR);
+            return new Dimension((int) Math.ceil(gridWidth * zoom),
+                                 (int) Math.ceil(gridHeight * zoom));
         }
 
         /**
-         * Prepare for a new round of painting. Since the component
-         * may be resized, compute the scaling factor again.
+         * Let the user zoom with the mouse wheel, pan by dragging, and
+         * fit the whole grid to the view again by double-clicking.
          */
-        public void preparePaint()
+        private void addListeners()
         {
-            if(! size.equals(getSize())) {  // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if(xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
+            MouseAdapter mouse = new MouseAdapter() {
+                public void mousePressed(MouseEvent e)
+                {
+                    dragPoint = e.getPoint();
+                    if(e.getClickCount() == 2) {
+                        fitToView();
+                    }
                 }
-                yScale = size.height / gridHeight;
-                if(yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
+
+                public void mouseDragged(MouseEvent e)
+                {
+                    if(dragPoint != null) {
+                        originX -= (e.getX() - dragPoint.x) / zoom;
+                        originY -= (e.getY() - dragPoint.y) / zoom;
+                        dragPoint = e.getPoint();
+                        fitted = false;
+                        clampOrigin();
+                        repaint();
+                    }
+                }
+
+                public void mouseWheelMoved(MouseWheelEvent e)
+                {
+                    double newZoom = zoom * Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation());
+                    newZoom = Math.max(minimumZoom(), Math.min(MAX_ZOOM, newZoom));
+                    // Keep the location under the mouse pointer where it is.
+                    double cellX = originX + e.getX() / zoom;
+                    double cellY = originY + e.getY() / zoom;
+                    zoom = newZoom;
+                    originX = cellX - e.getX() / zoom;
+                    originY = cellY - e.getY() / zoom;
+                    fitted = false;
+                    clampOrigin();
+                    repaint();
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+            addMouseWheelListener(mouse);
+            addComponentListener(new ComponentAdapter() {
+                public void componentResized(ComponentEvent e)
+                {
+                    if(fitted) {
+                        fitToView();
+                    }
+                    else {
+                        clampOrigin();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Zoom so that the whole grid fits the view, using a whole number
+         * of pixels per location whenever a location is at least a pixel.
+         */
+        private void fitToView()
+        {
+            Dimension size = getSize();
+            if(size.width > 0 && size.height > 0) {
+                zoom = Math.min((double) size.width / gridWidth,
+                                (double) size.height / gridHeight);
+                if(zoom >= 1) {
+                    zoom = Math.min(MAX_ZOOM, Math.floor(zoom));
                 }
             }
+            fitted = true;
+            clampOrigin();
+            repaint();
         }
 
         /**
-         * Paint on grid location on this field in a given color.
+         * @return The smallest zoom allowed: a quarter of the size at
+         *         which the whole grid would fit the view.
          */
-        public void drawMark(int x, int y, Color color)
+        private double minimumZoom()
         {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
+            Dimension size = getSize();
+            double fit = Math.min((double) size.width / gridWidth,
+                                  (double) size.height / gridHeight);
+            return Math.min(1, fit) / 4;
         }
 
         /**
-         * The field view component needs to be redisplayed. Copy the
-         * internal image to screen.
+         * Keep the grid in view. If the grid is smaller than the view
+         * along an axis it is centred along that axis.
          */
-        public void paintComponent(Graphics g)
+        private void clampOrigin()
+        {
+            Dimension size = getSize();
+            originX = clampAxis(originX, size.width / zoom, gridWidth);
+            originY = clampAxis(originY, size.height / zoom, gridHeight);
+        }
+
+        /**
+         * Keep one axis of the view within the grid.
+         * @param origin The first location shown along the axis.
+         * @param visible The number of locations the view can show.
+         * @param extent The number of locations in the grid.
+         * @return The adjusted origin.
+         */
+        private double clampAxis(double origin, double visible, int extent)
+        {
+            if(visible >= extent) {
+                return (extent - visible) / 2;
+            }
+            return Math.max(0, Math.min(extent - visible, origin));
+        }
+
+        /**
+         * Forget the downsampled images, e.g. because the colors changed.
+         */
+        public synchronized void discardPyramid()
+        {
+            pyramid = null;
+        }
+
+        /**
+         * Draw every grid location into the field image, using the
+         * palette color of the species code found there.
+         * @param codes The species code of each location, row by row.
+         */
+        public synchronized void drawField(byte[] codes)
         {
-            if(fieldImage != null) {
-                Dimension currentSize = getSize();
-                if(size.equals(currentSize)) {
-                    g.drawImage(fieldImage, 0, 0, null);
+            int[] colors = palette;
+            for(int i = 0; i < codes.length; i++) {
+                pixels[i] = colors[codes[i]];
+            }
+            System.arraycopy(codes, 0, shownCodes, 0, codes.length);
+            if(pyramid != null) {
+                pyramid.rebuild(shownCodes, palette);
+            }
+        }
+
+        /**
+         * Draw the given grid locations into the field image and ask for
+         * the parts of the screen covering them to be repainted. Changed
+         * locations are grouped into tiles, and runs of neighbouring dirty
+         * tiles along a row are coalesced into a single rectangle.
+         * @param codes The species code of each location, row by row.
+         * @param changed The indices of the locations to draw.
+         */
+        public synchronized void drawCells(byte[] codes, int[] changed)
+        {
+            int[] colors = palette;
+            int dirtyCount = 0;
+            for(int index : changed) {
+                int code = codes[index];
+                pixels[index] = colors[code];
+                if(pyramid != null) {
+                    pyramid.update(index, shownCodes[index], code);
                 }
-                else {
-                    // Rescale the previous image.
-                    g.drawImage(fieldImage, 0, 0, currentSize.width, currentSize.height, null);
+                shownCodes[index] = (byte) code;
+                int row = index / gridWidth;
+                int col = index - row * gridWidth;
+                int tile = (row / TILE_SIZE) * tileColumns + col / TILE_SIZE;
+                if(!dirtyTiles[tile]) {
+                    dirtyTiles[tile] = true;
+                    dirtyCount++;
                 }
             }
+            if(dirtyCount == 0) {
+                return;
+            }
+            if(dirtyCount * 4 > dirtyTiles.length) {
+                // Most of the field has changed: one full repaint is cheaper.
+                Arrays.fill(dirtyTiles, false);
+                repaint();
+                return;
+            }
+            for(int tileRow = 0; tileRow < tileRows; tileRow++) {
+                int base = tileRow * tileColumns;
+                int tileCol = 0;
+                while(tileCol < tileColumns) {
+                    if(!dirtyTiles[base + tileCol]) {
+                        tileCol++;
+                        continue;
+                    }
+                    int start = tileCol;
+                    while(tileCol < tileColumns && dirtyTiles[base + tileCol]) {
+                        dirtyTiles[base + tileCol] = false;
+                        tileCol++;
+                    }
+                    repaintCells(tileRow * TILE_SIZE, start * TILE_SIZE,
+                                 TILE_SIZE, (tileCol - start) * TILE_SIZE);
+                }
+            }
+        }
+
+        /**
+         * Ask for the part of the screen showing a block of grid locations
+         * to be repainted. The mapping matches the one used by paintComponent.
+         * @param row The first row of the block.
+         * @param col The first column of the block.
+         * @param rows The number of rows in the block.
+         * @param cols The number of columns in the block.
+         */
+        private void repaintCells(int row, int col, int rows, int cols)
+        {
+            int left = (int) Math.floor((col - originX) * zoom);
+            int top = (int) Math.floor((row - originY) * zoom);
+            int right = (int) Math.ceil((col + cols - originX) * zoom);
+            int bottom = (int) Math.ceil((row + rows - originY) * zoom);
+            repaint(left, top, right - left, bottom - top);
+        }
+
+        /**
+         * Return the pyramid of downsampled images, building it from the
+         * locations as last drawn if it does not exist yet.
+         * @return The pyramid.
+         */
+        private synchronized FieldPyramid getPyramid()
+        {
+            if(pyramid == null) {
+                pyramid = new FieldPyramid(gridHeight, gridWidth);
+                pyramid.rebuild(shownCodes, palette);
+            }
+            return pyramid;
+        }
+
+        /**
+         * The field view component needs to be redisplayed. Copy the
+         * visible part of the field image to screen. When zoomed out so
+         * far that a location is smaller than a pixel, copy from the
+         * level of the pyramid whose blocks are at least a pixel instead.
+         */
+        public void paintComponent(Graphics g)
+        {
+            super.paintComponent(g);
+            if(zoom >= 1) {
+                paintImage(g, fieldImage, 1);
+            }
+            else {
+                FieldPyramid levels = getPyramid();
+                int level = (int) Math.ceil(Math.log(1 / zoom) / Math.log(2) - 1e-9);
+                level = Math.max(1, Math.min(levels.getLevels(), level));
+                paintImage(g, levels.getImage(level), 1 << level);
+            }
+        }
+
+        /**
+         * Copy the visible part of an image of the grid to screen.
+         * @param g The graphics context to draw with.
+         * @param image An image with one pixel per block of locations.
+         * @param blockSize The width and height of each block, in locations.
+         */
+        private void paintImage(Graphics g, BufferedImage image, int blockSize)
+        {
+            Dimension size = getSize();
+            int firstCol = Math.max(0, (int) Math.floor(originX));
+            int firstRow = Math.max(0, (int) Math.floor(originY));
+            int lastCol = Math.min(gridWidth, (int) Math.ceil(originX + size.width / zoom));
+            int lastRow = Math.min(gridHeight, (int) Math.ceil(originY + size.height / zoom));
+            if(firstCol >= lastCol || firstRow >= lastRow) {
+                return;
+            }
+            int blockLeft = firstCol / blockSize;
+            int blockTop = firstRow / blockSize;
+            int blockRight = Math.min(image.getWidth(), (lastCol + blockSize - 1) / blockSize);
+            int blockBottom = Math.min(image.getHeight(), (lastRow + blockSize - 1) / blockSize);
+            g.drawImage(image,
+                        (int) Math.floor((blockLeft * blockSize - originX) * zoom),
+                        (int) Math.floor((blockTop * blockSize - originY) * zoom),
+                        (int) Math.ceil((blockRight * blockSize - originX) * zoom),
+                        (int) Math.ceil((blockBottom * blockSize - originY) * zoom),
+                        blockLeft, blockTop, blockRight, blockBottom, null);
         }
     }
 }
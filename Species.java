@@ -0,0 +1,231 @@
+import java.util.Random;
+
+/**
+ * The kinds of organism that can occupy the field. Each species has a
+ * small integer code so that per-species data can be kept in plain
+ * arrays rather than looked up by class, and a color its organisms are
+ * shown in.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public enum Species
+{
+    FOX(Fox.class, 0xFF0000FF), RABBIT(Rabbit.class, 0xFFFFC800),
+    EAGLE(Eagles.class, 0xFFFF0000), COW(Cow.class, 0xFF000000),
+    MALE_ELEPHANT(MaleElephant.class, 0xFFFF00FF), FEMALE_ELEPHANT(FemaleElephant.class, 0xFFFF00FF),
+    PLANT(Plant.class, 0xFF00FF00);
+
+    // The code of an empty location.
+    public static final int EMPTY_CODE = 0;
+    // The code of a location holding an object that is not an organism.
+    public static final int UNKNOWN_CODE = 8;
+    // The colors, as ARGB values, of empty locations and of objects that
+    // are not organisms.
+    public static final int EMPTY_RGB = 0xFFFFFFFF;
+    public static final int UNKNOWN_RGB = 0xFF808080;
+    // A cached copy of values(), which otherwise clones on every call.
+    private static final Species[] ALL = values();
+
+    // The class of the organisms of this species.
+    private final Class<?> organismClass;
+    // The color its organisms are shown in, as an ARGB value.
+    private final int rgb;
+
+    /**
+     * Create a species.
+     * @param organismClass The class of the organisms of this species.
+     * @param rgb The color its organisms are shown in, as an ARGB value.
+     */
+    private Species(Class<?> organismClass, int rgb)
+    {
+        this.organismClass = organismClass;
+        this.rgb = rgb;
+    }
+
+    /**
+     * @return The number of species.
+     */
+    public static int count()
+    {
+        return ALL.length;
+    }
+
+    /**
+     * Return the species with the given ordinal.
+     * @param ordinal The ordinal of the species.
+     * @return The species with that ordinal.
+     */
+    public static Species fromOrdinal(int ordinal)
+    {
+        return ALL[ordinal];
+    }
+
+    /**
+     * Return the species with the given code.
+     * @param code A species code, neither empty nor unknown.
+     * @return The species with that code.
+     */
+    public static Species fromCode(int code)
+    {
+        return ALL[code - 1];
+    }
+
+    /**
+     * Find the species whose organisms have the given class.
+     * @param organismClass The class to look for.
+     * @return The species, or null if no species uses that class.
+     */
+    public static Species forClass(Class<?> organismClass)
+    {
+        for(Species species : ALL) {
+            if(species.organismClass == organismClass) {
+                return species;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The ARGB value to show each species code in, indexed by
+     *         code, for pictures of the field.
+     */
+    public static int[] palette()
+    {
+        int[] palette = new int[UNKNOWN_CODE + 1];
+        palette[EMPTY_CODE] = EMPTY_RGB;
+        palette[UNKNOWN_CODE] = UNKNOWN_RGB;
+        for(Species species : ALL) {
+            palette[species.getCode()] = species.rgb;
+        }
+        return palette;
+    }
+
+    /**
+     * Find the code describing an object found in the field.
+     * @param occupant The object, or null for an empty location.
+     * @return The code of the occupant's species, EMPTY_CODE or UNKNOWN_CODE.
+     */
+    public static int codeOf(Object occupant)
+    {
+        if(occupant == null) {
+            return EMPTY_CODE;
+        }
+        Species species = of(occupant);
+        if(species == null) {
+            return UNKNOWN_CODE;
+        }
+        return species.getCode();
+    }
+
+    /**
+     * Find the species of an object found in the field.
+     * @param organism An animal or plant.
+     * @return The species of the organism, or null if it is neither.
+     */
+    public static Species of(Object organism)
+    {
+        if(organism instanceof Animal) {
+            return ((Animal) organism).getSpecies();
+        }
+        else if(organism instanceof Plant) {
+            return Species.PLANT;
+        }
+        return null;
+    }
+
+    /**
+     * Return the code used for this species in per-location arrays.
+     * Codes start at one so that zero can mean an empty location.
+     * @return The species code.
+     */
+    public int getCode()
+    {
+        return ordinal() + 1;
+    }
+
+    /**
+     * @return The class of the organisms of this species.
+     */
+    public Class<?> getOrganismClass()
+    {
+        return organismClass;
+    }
+
+    /**
+     * @return The color its organisms are shown in, as an ARGB value.
+     */
+    public int getRGB()
+    {
+        return rgb;
+    }
+
+    /**
+     * Create an organism of this species and place it in the field.
+     * @param randomAge If true, the organism has a random age and hunger
+     *                  level; otherwise it is newborn. Plants are always
+     *                  newborn.
+     * @param field The field to place it in.
+     * @param location Where to place it.
+     * @return The new organism.
+     */
+    public Object create(boolean randomAge, Field field, Location location)
+    {
+        switch(this) {
+            case FOX: return new Fox(randomAge, field, location);
+            case RABBIT: return new Rabbit(randomAge, field, location);
+            case EAGLE: return new Eagles(randomAge, field, location);
+            case COW: return new Cow(randomAge, field, location);
+            case MALE_ELEPHANT: return new MaleElephant(randomAge, field, location);
+            case FEMALE_ELEPHANT: return new FemaleElephant(randomAge, field, location);
+            default: return new Plant(field, location);
+        }
+    }
+
+    /**
+     * Create an organism of this species with a random age and hunger
+     * level drawn from the given generator, and place it in the field.
+     * Plants are always newborn.
+     * @param random The generator to draw the age and hunger level from.
+     * @param field The field to place it in.
+     * @param location Where to place it.
+     * @return The new organism.
+     */
+    public Object create(Random random, Field field, Location location)
+    {
+        switch(this) {
+            case FOX: return new Fox(random, field, location);
+            case RABBIT: return new Rabbit(random, field, location);
+            case EAGLE: return new Eagles(random, field, location);
+            case COW: return new Cow(random, field, location);
+            case MALE_ELEPHANT: return new MaleElephant(random, field, location);
+            case FEMALE_ELEPHANT: return new FemaleElephant(random, field, location);
+            default: return new Plant(field, location);
+        }
+    }
+
+    /**
+     * @return The traits that the population of this species depends on.
+     */
+    public LifeHistory getLifeHistory()
+    {
+        switch(this) {
+            case FOX: return Fox.lifeHistory();
+            case RABBIT: return Rabbit.lifeHistory();
+            case EAGLE: return Eagles.lifeHistory();
+            case COW: return Cow.lifeHistory();
+            case MALE_ELEPHANT: return MaleElephant.lifeHistory();
+            case FEMALE_ELEPHANT: return FemaleElephant.lifeHistory();
+            default: return Plant.lifeHistory();
+        }
+    }
+
+    /**
+     * @return A short readable name, e.g. "Male elephant".
+     */
+    public String getName()
+    {
+        String name = name().replace('_', ' ').toLowerCase();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Something that follows a simulation, such as a view of it, and is told
+ * by the SimulationEngine after every step and whenever the state of the
+ * simulation is replaced: when it is reset or restored, or the field is
+ * moved to another region of the world.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public interface StepListener
+{
+    /**
+     * Called on the thread that steps the simulation, which waits until
+     * this returns, so the engine can be read but must not be changed.
+     * @param engine The simulation.
+     * @param changes The indices, as row * width + col, of the locations
+     *                that changed since the listeners were last told, or
+     *                null if every location may have changed.
+     */
+    void stepped(SimulationEngine engine, int[] changes);
+}
@@ -0,0 +1,29 @@
+/**
+ * The phases that one step of the simulation is divided into, in the
+ * order in which they run.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public enum StepPhase
+{
+    // Apply the effects of the current weather.
+    WEATHER,
+    // Possibly infect a random animal.
+    DISEASE,
+    // Work out how far animals are from the food they can see.
+    VISION,
+    // Let every animal act.
+    ANIMALS,
+    // Let every plant act.
+    PLANTS,
+    // Add the newborn organisms to the main lists.
+    MERGE,
+    // Evolve the counts of the world around the field, and let animals
+    // cross the edge of the field.
+    WORLD,
+    // Advance the step counter, forecast the weather and publish statistics.
+    STATS,
+    // Export frames and tell the step listeners, such as the view.
+    RENDER;
+}
@@ -0,0 +1,28 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering one phase of one step of the
+ * simulation. The event's duration is the time the phase took.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+@Name("ecosystem.StepPhase")
+@Label("Step Phase")
+@Category("Ecosystem Simulator")
+@Description("One phase of one simulation step")
+public class StepPhaseEvent extends Event
+{
+    @Label("Phase")
+    String phase;
+
+    @Label("Step")
+    int step;
+
+    @Label("Weather")
+    String weather;
+}
@@ -0,0 +1,224 @@
+import jdk.jfr.EventType;
+
+/**
+ * Time each phase of every step of the simulation. Durations are kept in
+ * latency histograms, per phase, for whole steps, and for whole steps
+ * under each kind of weather. When a Java Flight Recorder recording is
+ * running, each phase and step is also emitted as a StepPhaseEvent or
+ * SimulationStepEvent.
+ *
+ * The time spent in work that is spread over the worker threads is also
+ * kept, per step, so that the share of each step that runs on one thread
+ * can be found.
+ *
+ * A simulator without a profiler does not time anything, so the only
+ * cost of profiling being off is a null check per phase.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class StepProfiler
+{
+    // The JFR event types, checked once per step to avoid creating
+    // events that would not be recorded.
+    private static final EventType PHASE_EVENT = EventType.getEventType(StepPhaseEvent.class);
+    private static final EventType STEP_EVENT = EventType.getEventType(SimulationStepEvent.class);
+
+    // The durations of each phase, indexed by ordinal.
+    private final LatencyHistogram[] phaseLatencies;
+    // The durations of whole steps.
+    private final LatencyHistogram stepLatency;
+    // The durations of whole steps under each weather, indexed by ordinal.
+    private final LatencyHistogram[] weatherLatencies;
+    // The time per step spent in parallel work.
+    private final LatencyHistogram parallelLatency;
+
+    // The step being timed, and its weather.
+    private int step;
+    private Weather weather;
+    private boolean night;
+    // When the step and the current phase started.
+    private long stepStart;
+    private long phaseStart;
+    // The time spent in parallel work so far in this step.
+    private long stepParallel;
+    // The JFR events in progress, if JFR is recording them.
+    private SimulationStepEvent stepEvent;
+    private StepPhaseEvent phaseEvent;
+    private boolean phaseEventsEnabled;
+
+    /**
+     * Create a profiler with empty histograms.
+     */
+    public StepProfiler()
+    {
+        phaseLatencies = new LatencyHistogram[StepPhase.values().length];
+        for(int i = 0; i < phaseLatencies.length; i++) {
+            phaseLatencies[i] = new LatencyHistogram();
+        }
+        stepLatency = new LatencyHistogram();
+        weatherLatencies = new LatencyHistogram[Weather.values().length];
+        for(int i = 0; i < weatherLatencies.length; i++) {
+            weatherLatencies[i] = new LatencyHistogram();
+        }
+        parallelLatency = new LatencyHistogram();
+    }
+
+    /**
+     * Start timing a step.
+     * @param step The number of the step.
+     * @param weather The weather the step is simulated under.
+     * @param night Whether the step is at night.
+     */
+    public void startStep(int step, Weather weather, boolean night)
+    {
+        this.step = step;
+        this.weather = weather;
+        this.night = night;
+        phaseEventsEnabled = PHASE_EVENT.isEnabled();
+        if(STEP_EVENT.isEnabled()) {
+            stepEvent = new SimulationStepEvent();
+            stepEvent.begin();
+        }
+        stepParallel = 0;
+        stepStart = System.nanoTime();
+    }
+
+    /**
+     * Start timing a phase of the current step.
+     * @param phase The phase that is starting.
+     */
+    public void startPhase(StepPhase phase)
+    {
+        if(phaseEventsEnabled) {
+            phaseEvent = new StepPhaseEvent();
+            phaseEvent.begin();
+        }
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Finish timing a phase of the current step.
+     * @param phase The phase that has finished.
+     */
+    public void endPhase(StepPhase phase)
+    {
+        phaseLatencies[phase.ordinal()].record(System.nanoTime() - phaseStart);
+        if(phaseEvent != null) {
+            phaseEvent.end();
+            if(phaseEvent.shouldCommit()) {
+                phaseEvent.phase = phase.name();
+                phaseEvent.step = step;
+                phaseEvent.weather = weather.name();
+                phaseEvent.commit();
+            }
+            phaseEvent = null;
+        }
+    }
+
+    /**
+     * Note time spent in work spread over the worker threads.
+     * @param nanos The time from starting the work to its finishing on
+     *              every thread, in nanoseconds.
+     */
+    public void addParallelTime(long nanos)
+    {
+        stepParallel += nanos;
+    }
+
+    /**
+     * Finish timing the current step.
+     * @param animals The number of animals after the step.
+     * @param plants The number of plants after the step.
+     */
+    public void endStep(int animals, int plants)
+    {
+        long elapsed = System.nanoTime() - stepStart;
+        stepLatency.record(elapsed);
+        weatherLatencies[weather.ordinal()].record(elapsed);
+        parallelLatency.record(stepParallel);
+        if(stepEvent != null) {
+            stepEvent.end();
+            if(stepEvent.shouldCommit()) {
+                stepEvent.step = step;
+                stepEvent.weather = weather.name();
+                stepEvent.night = night;
+                stepEvent.animals = animals;
+                stepEvent.plants = plants;
+                stepEvent.commit();
+            }
+            stepEvent = null;
+        }
+    }
+
+    /**
+     * @param phase A phase of the step.
+     * @return The histogram of that phase's durations.
+     */
+    public LatencyHistogram getPhaseLatency(StepPhase phase)
+    {
+        return phaseLatencies[phase.ordinal()];
+    }
+
+    /**
+     * @return The histogram of whole step durations.
+     */
+    public LatencyHistogram getStepLatency()
+    {
+        return stepLatency;
+    }
+
+    /**
+     * @param weather A weather condition.
+     * @return The histogram of the durations of steps under that weather.
+     */
+    public LatencyHistogram getWeatherLatency(Weather weather)
+    {
+        return weatherLatencies[weather.ordinal()];
+    }
+
+    /**
+     * @return The histogram of the time per step spent in parallel work.
+     */
+    public LatencyHistogram getParallelLatency()
+    {
+        return parallelLatency;
+    }
+
+    /**
+     * Forget all the durations recorded so far.
+     */
+    public void reset()
+    {
+        for(LatencyHistogram histogram : phaseLatencies) {
+            histogram.reset();
+        }
+        for(LatencyHistogram histogram : weatherLatencies) {
+            histogram.reset();
+        }
+        stepLatency.reset();
+        parallelLatency.reset();
+    }
+
+    /**
+     * @return A report of the step, phase and weather latencies, one per line.
+     */
+    public String report()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-10s %s%n", "step", stepLatency));
+        for(StepPhase phase : StepPhase.values()) {
+            builder.append(String.format("  %-8s %s%n", phase.name().toLowerCase(),
+                                         phaseLatencies[phase.ordinal()]));
+        }
+        builder.append(String.format("%-10s %s%n", "parallel", parallelLatency));
+        for(Weather condition : Weather.values()) {
+            LatencyHistogram histogram = weatherLatencies[condition.ordinal()];
+            if(histogram.getCount() > 0) {
+                builder.append(String.format("%-10s %s%n", condition.name().toLowerCase(),
+                                             histogram));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,359 @@
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Publishes a StepUpdate for every step of a simulation to any number of
+ * subscribers, such as a recorder, a live chart or an alerting rule.
+ *
+ * Each subscriber has its own buffer and its own thread, which hands it
+ * the updates as it requests them, so a slow subscriber holds up neither
+ * the others nor the simulation. What happens when its buffer is full is
+ * up to the subscriber: it can make the simulation wait (BLOCK), drop its
+ * oldest update (DROP_OLDEST), or only ever be handed the latest one
+ * (LATEST). The changes to the field in dropped updates are carried into
+ * the next, so that frames still add up.
+ *
+ * The publisher is a StepListener of the engine it publishes, and builds
+ * the updates on the engine's thread, between steps.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class StepPublisher implements Flow.Publisher<StepUpdate>, StepListener
+{
+    /**
+     * What a subscriber wants done with an update when its buffer is full.
+     */
+    public enum Backpressure
+    {
+        // Make the simulation wait until there is room.
+        BLOCK,
+        // Drop the oldest buffered update.
+        DROP_OLDEST,
+        // Keep only the latest update, whatever the buffer size.
+        LATEST
+    }
+
+    // The subscriptions still open, in the order they were made.
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // The number of subscriptions made, used to name their threads.
+    private int subscribed;
+    // Set once the publisher is closed.
+    private volatile boolean closed;
+
+    /**
+     * Subscribe to the step summaries, without frames, dropping the
+     * oldest when more than Flow.defaultBufferSize() are waiting.
+     * @param subscriber The subscriber.
+     */
+    public void subscribe(Flow.Subscriber<? super StepUpdate> subscriber)
+    {
+        subscribe(subscriber, Backpressure.DROP_OLDEST, Flow.defaultBufferSize(), false);
+    }
+
+    /**
+     * Subscribe to the steps. The subscriber's first frame, if it wants
+     * frames, is a keyframe.
+     * @param subscriber The subscriber.
+     * @param policy What to do with an update when the buffer is full.
+     * @param capacity The number of updates that can wait to be handed
+     *                 to the subscriber. Must be at least one.
+     * @param frames Whether the updates are to carry the changes to the
+     *               field.
+     */
+    public synchronized void subscribe(Flow.Subscriber<? super StepUpdate> subscriber,
+                                       Backpressure policy, int capacity, boolean frames)
+    {
+        if(subscriber == null || policy == null) {
+            throw new NullPointerException();
+        }
+        if(capacity < 1) {
+            throw new IllegalArgumentException("The buffer must hold at least one update.");
+        }
+        Subscription subscription = new Subscription(subscriber, policy, capacity, frames,
+                                                     "step-subscriber-" + subscribed++);
+        boolean duplicate = false;
+        for(Subscription existing : subscriptions) {
+            duplicate |= existing.subscriber == subscriber;
+        }
+        if(duplicate) {
+            subscription.fail(new IllegalStateException("Already subscribed."));
+        }
+        else if(closed) {
+            subscription.close();
+        }
+        else {
+            subscriptions.add(subscription);
+        }
+        subscription.start();
+    }
+
+    /**
+     * @return The number of open subscriptions.
+     */
+    public int getSubscriberCount()
+    {
+        return subscriptions.size();
+    }
+
+    /**
+     * Hand the update of a step to every subscriber.
+     * @param engine The simulation.
+     * @param changes The locations that changed, or null if every
+     *                location may have.
+     */
+    public void stepped(SimulationEngine engine, int[] changes)
+    {
+        if(subscriptions.isEmpty()) {
+            return;
+        }
+        PopulationSnapshot snapshot = engine.getLatestSnapshot();
+        byte[] fieldCodes = engine.getField().getSpeciesCodes();
+        // Each kind of update is built at most once, and shared.
+        StepUpdate summary = null;
+        StepUpdate delta = null;
+        StepUpdate keyframe = null;
+        for(Subscription subscription : subscriptions) {
+            StepUpdate update;
+            if(!subscription.frames) {
+                if(summary == null) {
+                    summary = StepUpdate.summary(snapshot);
+                }
+                update = summary;
+            }
+            else if(changes == null || subscription.needsKeyframe) {
+                if(keyframe == null) {
+                    keyframe = StepUpdate.keyframe(snapshot, fieldCodes);
+                }
+                update = keyframe;
+                subscription.needsKeyframe = false;
+            }
+            else {
+                if(delta == null) {
+                    delta = StepUpdate.delta(snapshot, fieldCodes, changes);
+                }
+                update = delta;
+            }
+            if(!subscription.offer(update)) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Stop publishing. Each subscriber is handed the updates already in
+     * its buffer as it requests them, and is then told it is complete.
+     */
+    public synchronized void close()
+    {
+        closed = true;
+        for(Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * The link between the publisher and one subscriber: a buffer of the
+     * updates waiting to be handed over, and the thread that hands them
+     * over as the subscriber requests them. The buffer and the state are
+     * guarded by the subscription's lock.
+     */
+    private static class Subscription implements Flow.Subscription
+    {
+        // The subscriber, and what it asked for.
+        private final Flow.Subscriber<? super StepUpdate> subscriber;
+        private final Backpressure policy;
+        private final int capacity;
+        private final boolean frames;
+        // Whether the next frame must be a keyframe (publisher's thread).
+        private boolean needsKeyframe;
+        // The updates waiting to be handed over, oldest first.
+        private final ArrayDeque<StepUpdate> buffer = new ArrayDeque<>();
+        // The number of updates requested and not yet handed over.
+        private long demand;
+        // Set when the subscriber cancels, or no more may be signalled.
+        private boolean cancelled;
+        // Set when no more updates will be offered.
+        private boolean closed;
+        // The failure to signal instead of any updates, if any.
+        private Throwable failure;
+        // The thread that signals the subscriber.
+        private final Thread deliverer;
+
+        /**
+         * Create a subscription, without starting to signal it.
+         * @param subscriber The subscriber.
+         * @param policy What to do with an update when the buffer is full.
+         * @param capacity The number of updates that can wait.
+         * @param frames Whether the updates carry frames.
+         * @param name The name of the thread that signals the subscriber.
+         */
+        Subscription(Flow.Subscriber<? super StepUpdate> subscriber, Backpressure policy,
+                     int capacity, boolean frames, String name)
+        {
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.capacity = policy == Backpressure.LATEST ? 1 : capacity;
+            this.frames = frames;
+            needsKeyframe = frames;
+            deliverer = new Thread(this::deliver, name);
+            deliverer.setDaemon(true);
+        }
+
+        /**
+         * Start signalling the subscriber, beginning with onSubscribe.
+         */
+        void start()
+        {
+            deliverer.start();
+        }
+
+        /**
+         * Add an update to the buffer. If the buffer is full, either wait
+         * for room or drop the oldest update, carrying its changes into
+         * the next. A publisher interrupted while waiting stops waiting
+         * and adds the update over the capacity, so that nothing is lost,
+         * and is left interrupted.
+         * @param update The update.
+         * @return false if the subscription is over and can be forgotten.
+         */
+        synchronized boolean offer(StepUpdate update)
+        {
+            boolean interrupted = false;
+            if(policy == Backpressure.BLOCK) {
+                while(buffer.size() >= capacity && !cancelled && !interrupted) {
+                    try {
+                        wait();
+                    }
+                    catch(InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if(interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if(cancelled) {
+                return false;
+            }
+            if(buffer.size() >= capacity && policy != Backpressure.BLOCK) {
+                StepUpdate oldest = buffer.pollFirst();
+                StepUpdate next = buffer.pollFirst();
+                if(next == null) {
+                    update = update.after(oldest);
+                }
+                else {
+                    buffer.addFirst(next.after(oldest));
+                }
+            }
+            buffer.addLast(update);
+            notifyAll();
+            return true;
+        }
+
+        /**
+         * Let the subscriber be handed what is buffered, and then be told
+         * it is complete.
+         */
+        synchronized void close()
+        {
+            closed = true;
+            notifyAll();
+        }
+
+        /**
+         * Signal a failure to the subscriber instead of any updates.
+         * @param e The failure.
+         */
+        synchronized void fail(Throwable e)
+        {
+            failure = e;
+            buffer.clear();
+            closed = true;
+            notifyAll();
+        }
+
+        /**
+         * Ask for more updates.
+         * @param n The number of updates. Must be greater than zero.
+         */
+        public synchronized void request(long n)
+        {
+            if(n <= 0) {
+                fail(new IllegalArgumentException("The number requested must be greater than zero."));
+                return;
+            }
+            demand += n;
+            if(demand < 0) {
+                // Overflow: treat as unbounded.
+                demand = Long.MAX_VALUE;
+            }
+            notifyAll();
+        }
+
+        /**
+         * Stop handing over updates, and drop those buffered.
+         */
+        public synchronized void cancel()
+        {
+            cancelled = true;
+            buffer.clear();
+            notifyAll();
+        }
+
+        /**
+         * The body of the deliverer thread: hand over each update once
+         * it is buffered and requested, never holding the lock while the
+         * subscriber is called.
+         */
+        private void deliver()
+        {
+            try {
+                subscriber.onSubscribe(this);
+                while(true) {
+                    StepUpdate update;
+                    Throwable error;
+                    synchronized(this) {
+                        while(!cancelled && failure == null && (buffer.isEmpty() || demand == 0)
+                              && !(closed && buffer.isEmpty())) {
+                            wait();
+                        }
+                        if(cancelled) {
+                            return;
+                        }
+                        error = failure;
+                        update = error == null ? buffer.pollFirst() : null;
+                        if(update == null) {
+                            // Failed, or closed with nothing left.
+                            cancelled = true;
+                        }
+                        else {
+                            demand--;
+                        }
+                        // Wake a publisher waiting for room.
+                        notifyAll();
+                    }
+                    if(error != null) {
+                        subscriber.onError(error);
+                        return;
+                    }
+                    if(update == null) {
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(update);
+                }
+            }
+            catch(InterruptedException e) {
+                cancel();
+            }
+            catch(RuntimeException e) {
+                // A subscriber that fails is not signalled again.
+                cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * An immutable summary of one step of a simulation, as published by a
+ * StepPublisher: the population snapshot of the step and, for subscribers
+ * that asked for them, the changes to the field.
+ *
+ * The changes come as a frame: either a keyframe, holding the species
+ * code of every location, or a delta, holding the codes of just the
+ * locations that changed since the subscriber's previous update. Applying
+ * the frames of the updates in order to a copy of the field's codes keeps
+ * the copy up to date, even when updates are dropped: the changes of a
+ * dropped update are carried into the next one.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public final class StepUpdate
+{
+    // The population at the end of the step.
+    private final PopulationSnapshot snapshot;
+    // The number of updates dropped just before this one.
+    private final int skipped;
+    // The changed locations, as row * width + col in ascending order, or
+    // null for a keyframe or when there is no frame.
+    private final int[] cells;
+    // The species codes of the changed locations, or of every location
+    // for a keyframe; null when there is no frame.
+    private final byte[] codes;
+
+    /**
+     * Create an update.
+     * @param snapshot The population at the end of the step.
+     * @param skipped The number of updates dropped just before this one.
+     * @param cells The changed locations in ascending order, or null.
+     * @param codes The codes of the changed locations, of every location,
+     *              or null.
+     */
+    private StepUpdate(PopulationSnapshot snapshot, int skipped, int[] cells, byte[] codes)
+    {
+        this.snapshot = snapshot;
+        this.skipped = skipped;
+        this.cells = cells;
+        this.codes = codes;
+    }
+
+    /**
+     * Create an update without a frame.
+     * @param snapshot The population at the end of the step.
+     * @return The update.
+     */
+    static StepUpdate summary(PopulationSnapshot snapshot)
+    {
+        return new StepUpdate(snapshot, 0, null, null);
+    }
+
+    /**
+     * Create an update with a keyframe.
+     * @param snapshot The population at the end of the step.
+     * @param fieldCodes The species code of every location, row by row.
+     *                   They are copied.
+     * @return The update.
+     */
+    static StepUpdate keyframe(PopulationSnapshot snapshot, byte[] fieldCodes)
+    {
+        return new StepUpdate(snapshot, 0, null, fieldCodes.clone());
+    }
+
+    /**
+     * Create an update with the changes to the field as a delta.
+     * @param snapshot The population at the end of the step.
+     * @param fieldCodes The species code of every location, row by row.
+     * @param changes The locations that changed, in any order.
+     * @return The update.
+     */
+    static StepUpdate delta(PopulationSnapshot snapshot, byte[] fieldCodes, int[] changes)
+    {
+        int[] cells = changes.clone();
+        Arrays.sort(cells);
+        byte[] codes = new byte[cells.length];
+        for(int i = 0; i < cells.length; i++) {
+            codes[i] = fieldCodes[cells[i]];
+        }
+        return new StepUpdate(snapshot, 0, cells, codes);
+    }
+
+    /**
+     * Combine this update with the one before it, which is being dropped:
+     * the result has the snapshot of this update and a frame with the
+     * changes of both.
+     * @param earlier The update just before this one.
+     * @return The combined update.
+     */
+    StepUpdate after(StepUpdate earlier)
+    {
+        int dropped = skipped + earlier.skipped + 1;
+        if(codes == null || isKeyframe()) {
+            return new StepUpdate(snapshot, dropped, cells, codes);
+        }
+        if(earlier.isKeyframe()) {
+            byte[] all = earlier.codes.clone();
+            apply(all);
+            return new StepUpdate(snapshot, dropped, null, all);
+        }
+
+        // Merge the two sorted deltas, taking this update's code where
+        // both changed a location.
+        int[] mergedCells = new int[cells.length + earlier.cells.length];
+        byte[] mergedCodes = new byte[mergedCells.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while(i < cells.length || j < earlier.cells.length) {
+            if(j == earlier.cells.length || (i < cells.length && cells[i] <= earlier.cells[j])) {
+                if(j < earlier.cells.length && cells[i] == earlier.cells[j]) {
+                    j++;
+                }
+                mergedCells[n] = cells[i];
+                mergedCodes[n++] = codes[i++];
+            }
+            else {
+                mergedCells[n] = earlier.cells[j];
+                mergedCodes[n++] = earlier.codes[j++];
+            }
+        }
+        return new StepUpdate(snapshot, dropped, Arrays.copyOf(mergedCells, n),
+                              Arrays.copyOf(mergedCodes, n));
+    }
+
+    /**
+     * @return The population at the end of the step.
+     */
+    public PopulationSnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * @return The step that this update describes.
+     */
+    public int getStep()
+    {
+        return snapshot.getStep();
+    }
+
+    /**
+     * @return The number of updates dropped just before this one, because
+     *         the subscriber fell behind.
+     */
+    public int getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * @return Whether this update carries the changes to the field.
+     */
+    public boolean hasFrame()
+    {
+        return codes != null;
+    }
+
+    /**
+     * @return Whether the frame holds the code of every location, rather
+     *         than of those that changed.
+     */
+    public boolean isKeyframe()
+    {
+        return codes != null && cells == null;
+    }
+
+    /**
+     * @return The number of locations in the frame.
+     */
+    public int getFrameSize()
+    {
+        return codes == null ? 0 : codes.length;
+    }
+
+    /**
+     * Bring a copy of the field's codes up to date with the frame.
+     * @param fieldCodes The species code of every location, row by row,
+     *                   as of the previous update; a keyframe needs only
+     *                   an array of the right length.
+     */
+    public void apply(byte[] fieldCodes)
+    {
+        if(codes == null) {
+            throw new IllegalStateException("The update has no frame.");
+        }
+        if(cells == null) {
+            System.arraycopy(codes, 0, fieldCodes, 0, codes.length);
+        }
+        else {
+            for(int i = 0; i < cells.length; i++) {
+                fieldCodes[cells[i]] = codes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * Counts of the organisms of each species, and of infected animals, in
+ * any rectangle of the field, each in constant time.
+ *
+ * For each species there is a summed-area table: an entry for every
+ * location holding the number of organisms of the species above and to
+ * the left of it, the location included. The number in a rectangle is
+ * then found from the entries at its four corners. The tables are built
+ * once per step, with prefix sums first along the rows and then down the
+ * columns; each pass splits into rows or columns that can be summed on
+ * separate threads. Counts are of the field as it was when the tables
+ * were last built.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class SummedAreaTables
+{
+    // The size of the field.
+    private final int depth;
+    private final int width;
+    // The length of a row of a table: a column of zeros comes first, so
+    // that rectangles at the left edge need no special case, as does a
+    // row of zeros.
+    private final int stride;
+    // The table of each species, by ordinal, and of infected animals.
+    // The entry for location (row, col) is at (row + 1) * stride + col + 1.
+    private final int[][] species;
+    private final int[] infected;
+
+    /**
+     * Create the tables for a field, with nothing counted until built.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public SummedAreaTables(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        stride = width + 1;
+        species = new int[Species.count()][(depth + 1) * stride];
+        infected = new int[(depth + 1) * stride];
+    }
+
+    /**
+     * Start building the tables by marking the location of every live
+     * infected animal. This comes before the rows are summed.
+     * @param index The infected animals of the field.
+     */
+    public void markInfected(InfectedIndex index)
+    {
+        Arrays.fill(infected, 0);
+        for(int s = 0; s < Species.count(); s++) {
+            Species kind = Species.fromOrdinal(s);
+            for(int i = 0; i < index.getCount(kind); i++) {
+                Location location = index.get(kind, i).getLocation();
+                if(location != null) {
+                    infected[(location.getRow() + 1) * stride + location.getCol() + 1]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sum some rows of the tables along the rows. Every row must be
+     * summed before any column is.
+     * @param codes The species code of every location, row by row.
+     * @param start The first row.
+     * @param end One past the last row.
+     */
+    public void sumRows(byte[] codes, int start, int end)
+    {
+        for(int row = start; row < end; row++) {
+            int base = row * width;
+            int entry = (row + 1) * stride + 1;
+            for(int s = 0; s < species.length; s++) {
+                int[] table = species[s];
+                int code = Species.fromOrdinal(s).getCode();
+                int sum = 0;
+                for(int col = 0; col < width; col++) {
+                    // Add 1 where the codes match, without a branch: codes
+                    // are small and not negative, so only a match gives
+                    // a negative difference.
+                    sum += ((codes[base + col] ^ code) - 1) >>> 31;
+                    table[entry + col] = sum;
+                }
+            }
+            int sum = 0;
+            for(int col = 0; col < width; col++) {
+                sum += infected[entry + col];
+                infected[entry + col] = sum;
+            }
+        }
+    }
+
+    /**
+     * Sum some columns of the tables down the columns, once the rows
+     * have been summed, which finishes building them.
+     * @param start The first column.
+     * @param end One past the last column.
+     */
+    public void sumColumns(int start, int end)
+    {
+        for(int[] table : species) {
+            sumColumns(table, start, end);
+        }
+        sumColumns(infected, start, end);
+    }
+
+    /**
+     * Return the number of organisms of a species in a rectangle of
+     * locations. The parts of the rectangle outside the field are empty.
+     * @param kind The species to count.
+     * @param top The first row of the rectangle.
+     * @param left The first column.
+     * @param bottom The last row.
+     * @param right The last column.
+     * @return The number of organisms of the species in the rectangle.
+     */
+    public int count(Species kind, int top, int left, int bottom, int right)
+    {
+        return sum(species[kind.ordinal()], top, left, bottom, right);
+    }
+
+    /**
+     * Return the number of live infected animals in a rectangle of
+     * locations. The parts of the rectangle outside the field are empty.
+     * @param top The first row of the rectangle.
+     * @param left The first column.
+     * @param bottom The last row.
+     * @param right The last column.
+     * @return The number of infected animals in the rectangle.
+     */
+    public int countInfected(int top, int left, int bottom, int right)
+    {
+        return sum(infected, top, left, bottom, right);
+    }
+
+    /**
+     * Sum some columns of a table down the columns.
+     * @param table The table, summed along the rows.
+     * @param start The first column.
+     * @param end One past the last column.
+     */
+    private void sumColumns(int[] table, int start, int end)
+    {
+        for(int row = 1; row < depth; row++) {
+            int entry = (row + 1) * stride + 1;
+            for(int col = start; col < end; col++) {
+                table[entry + col] += table[entry - stride + col];
+            }
+        }
+    }
+
+    /**
+     * Return the sum over a rectangle from the entries at its corners.
+     * @param table The table.
+     * @param top The first row of the rectangle.
+     * @param left The first column.
+     * @param bottom The last row.
+     * @param right The last column.
+     * @return The sum over the part of the rectangle in the field.
+     */
+    private int sum(int[] table, int top, int left, int bottom, int right)
+    {
+        top = Math.max(top, 0);
+        left = Math.max(left, 0);
+        bottom = Math.min(bottom, depth - 1);
+        right = Math.min(right, width - 1);
+        if(top > bottom || left > right) {
+            return 0;
+        }
+        int above = top * stride;
+        int below = (bottom + 1) * stride;
+        return table[below + right + 1] - table[above + right + 1]
+               - table[below + left] + table[above + left];
+    }
+}
@@ -9,29 +9,43 @@ public enum Weather
 {
     RAINING, SUNNY, WINDY, SNOWING;
     
-    // A shared random number generator.
-    private static final Random rand = Randomizer.getRandom();
-    
     /**
      * Randomise a weather condition with equal probabilities.
+     * @param rand The random number generator to draw from.
      * @return A random weather condition.
      */
-    public static Weather randomWeather(){
+    public static Weather randomWeather(Random rand){
         return Weather.values()[rand.nextInt(Weather.values().length)];
     }
     
     /**
      * Randomise a weather condition with weighted probabilities.
+     * @param rand The random number generator to draw from.
+     * @return A random weather condition.
+     */
+    public static Weather randomWeightedWeather(Random rand){
+        return randomWeightedWeather(rand, SimulationConfig.DEFAULT_SNOW_CHANCE,
+                                     SimulationConfig.DEFAULT_WIND_CHANCE,
+                                     SimulationConfig.DEFAULT_RAIN_CHANCE);
+    }
+
+    /**
+     * Randomise a weather condition with the given chances. Snow is
+     * checked first, then wind, then rain; otherwise it is sunny.
+     * @param rand The random number generator to draw from.
+     * @param snow The chance of snow.
+     * @param wind The chance of wind, if it is not snowing.
+     * @param rain The chance of rain, if it is neither snowing nor windy.
      * @return A random weather condition.
      */
-    public static Weather randomWeightedWeather(){
-        if (rand.nextDouble() <= 0.05){
+    public static Weather randomWeightedWeather(Random rand, double snow, double wind, double rain){
+        if (rand.nextDouble() <= snow){
             return SNOWING;
         }
-        else if (rand.nextDouble()  <= 0.18){
+        else if (rand.nextDouble()  <= wind){
             return WINDY;
         }
-        else if (rand.nextDouble() <= 0.34){
+        else if (rand.nextDouble() <= rain){
             return RAINING;
         }
         return SUNNY;
@@ -0,0 +1,295 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Kills organisms in wind and snow, drawing only the ones that die
+ * rather than rolling a die for every organism.
+ *
+ * The chance of dying is looked up in tables worked out once: for an
+ * animal by its species and age, for a plant by its size. Organisms
+ * with the same chance form a group. A pass over the organisms, with no
+ * random numbers, sorts them into their groups; then within each group
+ * the gap to the next organism that dies is drawn directly, with one
+ * random number, instead of rolling for each organism in between. Every
+ * organism so dies with exactly its own chance, and the random numbers
+ * drawn follow the number of deaths rather than the size of the list.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class WeatherMortality
+{
+    // The number of ages in the animal tables. No animal lives beyond
+    // its species' maximum age, the highest of which is 250.
+    private static final int AGES = 256;
+    // The number of sizes in the plant tables. Larger plants are taken
+    // to be of the largest size, which is safe because larger plants
+    // are no more likely to die.
+    private static final int SIZES = 256;
+
+    // The random number generator.
+    private final Random rand;
+    // The groups of animals in snow, by species ordinal and age, and of
+    // plants in wind and in snow, by size.
+    private final Table animalSnow;
+    private final Table plantWind;
+    private final Table plantSnow;
+
+    // Work space: the group of each organism, the organisms sorted by
+    // group, and the organisms that die.
+    private int[] groups = new int[0];
+    private int[] sorted = new int[0];
+    private int[] victims = new int[0];
+
+    /**
+     * Work out the tables of the chances of dying.
+     * @param rand The random number generator to draw deaths from.
+     */
+    public WeatherMortality(Random rand)
+    {
+        this.rand = rand;
+        double[] animalDeaths = new double[Species.count() * AGES];
+        for(Species species : Species.values()) {
+            for(int age = 0; age < AGES; age++) {
+                animalDeaths[species.ordinal() * AGES + age] =
+                    deathChance(snowSurvivalProbability(species, age));
+            }
+        }
+        animalSnow = new Table(animalDeaths);
+
+        double[] windDeaths = new double[SIZES];
+        double[] snowDeaths = new double[SIZES];
+        for(int size = 0; size < SIZES; size++) {
+            windDeaths[size] = deathChance(Plant.windSurvivalProbability(size));
+            snowDeaths[size] = deathChance(Plant.snowSurvivalProbability(size));
+        }
+        plantWind = new Table(windDeaths);
+        plantSnow = new Table(snowDeaths);
+    }
+
+    /**
+     * Let snow kill animals.
+     * @param animals The animals. Those no longer alive are passed over.
+     * @param regions The weather of each region, to kill only animals
+     *                where it snows, or null to kill anywhere.
+     * @return The number of animals killed.
+     */
+    public int snowOnAnimals(List<Animal> animals, RegionalWeather regions)
+    {
+        int count = animals.size();
+        reserve(count);
+        for(int i = 0; i < count; i++) {
+            Animal animal = animals.get(i);
+            Location location = animal.getLocation();
+            if(location == null
+               || (regions != null && regions.getWeather(location) != Weather.SNOWING)) {
+                groups[i] = Table.SAFE;
+            }
+            else {
+                int age = Math.min(animal.getAge(), AGES - 1);
+                groups[i] = animalSnow.groupOf[animal.getSpecies().ordinal() * AGES + age];
+            }
+        }
+        int deaths = drawVictims(count, animalSnow);
+        for(int i = 0; i < deaths; i++) {
+            animals.get(victims[i]).setDead();
+        }
+        return deaths;
+    }
+
+    /**
+     * Let wind kill plants.
+     * @param plants The plants. Those no longer alive are passed over.
+     * @param regions The weather of each region, to kill only plants
+     *                where it is windy, or null to kill anywhere.
+     * @return The number of plants killed.
+     */
+    public int windOnPlants(List<Plant> plants, RegionalWeather regions)
+    {
+        return killPlants(plants, plantWind, regions, Weather.WINDY);
+    }
+
+    /**
+     * Let snow kill plants.
+     * @param plants The plants. Those no longer alive are passed over.
+     * @param regions The weather of each region, to kill only plants
+     *                where it snows, or null to kill anywhere.
+     * @return The number of plants killed.
+     */
+    public int snowOnPlants(List<Plant> plants, RegionalWeather regions)
+    {
+        return killPlants(plants, plantSnow, regions, Weather.SNOWING);
+    }
+
+    /**
+     * Kill plants with the chances of a table.
+     * @param plants The plants.
+     * @param table The groups of plants by size.
+     * @param regions The weather of each region, or null.
+     * @param condition The weather that kills, if there are regions.
+     * @return The number of plants killed.
+     */
+    private int killPlants(List<Plant> plants, Table table, RegionalWeather regions,
+                           Weather condition)
+    {
+        int count = plants.size();
+        reserve(count);
+        for(int i = 0; i < count; i++) {
+            Plant plant = plants.get(i);
+            Location location = plant.getLocation();
+            if(location == null
+               || (regions != null && regions.getWeather(location) != condition)) {
+                groups[i] = Table.SAFE;
+            }
+            else {
+                groups[i] = table.groupOf[Math.max(0, Math.min(plant.getSize(), SIZES - 1))];
+            }
+        }
+        int deaths = drawVictims(count, table);
+        for(int i = 0; i < deaths; i++) {
+            plants.get(victims[i]).setDead();
+        }
+        return deaths;
+    }
+
+    /**
+     * Draw the organisms that die from their groups. Within a group each
+     * organism dies with the group's chance, so the gap from one death to
+     * the next is geometrically distributed and drawn directly.
+     * @param count The number of organisms, whose groups are in groups.
+     * @param table The table the groups come from.
+     * @return The number of organisms that die, whose indexes are put
+     *         in victims.
+     */
+    private int drawVictims(int count, Table table)
+    {
+        // Sort the organisms by group, keeping their order within each.
+        int[] starts = new int[table.chances.length + 1];
+        for(int i = 0; i < count; i++) {
+            starts[groups[i] + 1]++;
+        }
+        for(int g = 0; g < table.chances.length; g++) {
+            starts[g + 1] += starts[g];
+        }
+        int[] next = Arrays.copyOf(starts, table.chances.length);
+        for(int i = 0; i < count; i++) {
+            sorted[next[groups[i]]++] = i;
+        }
+
+        int deaths = 0;
+        for(int g = 0; g < table.chances.length; g++) {
+            double chance = table.chances[g];
+            int end = starts[g + 1];
+            if(chance <= 0) {
+                continue;
+            }
+            if(chance >= 1) {
+                // Every member dies.
+                for(int i = starts[g]; i < end; i++) {
+                    victims[deaths++] = sorted[i];
+                }
+                continue;
+            }
+            double logSurvival = table.logSurvivals[g];
+            int i = starts[g] - 1;
+            while(true) {
+                // 1 - nextDouble() lies in (0, 1], so its logarithm is finite.
+                double gap = Math.floor(Math.log(1 - rand.nextDouble()) / logSurvival);
+                if(gap >= end - i - 1) {
+                    break;
+                }
+                i += 1 + (int) gap;
+                victims[deaths++] = sorted[i];
+            }
+        }
+        return deaths;
+    }
+
+    /**
+     * Make sure the work space holds enough organisms.
+     * @param count The number of organisms.
+     */
+    private void reserve(int count)
+    {
+        if(groups.length < count) {
+            int length = Math.max(count, groups.length * 2);
+            groups = new int[length];
+            sorted = new int[length];
+            victims = new int[length];
+        }
+    }
+
+    /**
+     * @param survival A chance of surviving; it may lie outside 0 to 1.
+     * @return The matching chance of dying, from 0 to 1.
+     */
+    private static double deathChance(double survival)
+    {
+        return Math.max(0, Math.min(1, 1 - survival));
+    }
+
+    /**
+     * @param species A species of animal.
+     * @param age An age.
+     * @return The chance an animal of that species and age has of
+     *         surviving in snow.
+     */
+    public static double snowSurvivalProbability(Species species, int age)
+    {
+        switch(species) {
+            case FOX: return Fox.snowSurvivalProbability(age);
+            case RABBIT: return Rabbit.snowSurvivalProbability(age);
+            case EAGLE: return Eagles.snowSurvivalProbability(age);
+            case COW: return Cow.snowSurvivalProbability(age);
+            case MALE_ELEPHANT:
+            case FEMALE_ELEPHANT: return Elephant.snowSurvivalProbability(age);
+            default: return 1;
+        }
+    }
+
+    /**
+     * The groups of a table of chances of dying: the entries with the
+     * same chance share a group. Group SAFE holds those that cannot die.
+     */
+    private static class Table
+    {
+        // The group of organisms that cannot die.
+        private static final int SAFE = 0;
+
+        // The group of each entry.
+        private final int[] groupOf;
+        // The chance of dying of each group, and the logarithm of the
+        // chance of surviving.
+        private final double[] chances;
+        private final double[] logSurvivals;
+
+        /**
+         * @param deaths The chance of dying of each entry.
+         */
+        private Table(double[] deaths)
+        {
+            groupOf = new int[deaths.length];
+            double[] distinct = new double[deaths.length + 1];
+            int count = 1;
+            for(int i = 0; i < deaths.length; i++) {
+                int group = SAFE;
+                if(deaths[i] > 0) {
+                    group = 1;
+                    while(group < count && distinct[group] != deaths[i]) {
+                        group++;
+                    }
+                    if(group == count) {
+                        distinct[count++] = deaths[i];
+                    }
+                }
+                groupOf[i] = group;
+            }
+            chances = Arrays.copyOf(distinct, count);
+            logSurvivals = new double[count];
+            for(int g = 0; g < count; g++) {
+                logSurvivals[g] = Math.log1p(-chances[g]);
+            }
+        }
+    }
+}
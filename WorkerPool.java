@@ -0,0 +1,152 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A pool of worker threads that splits loops over a range of indices into
+ * chunks and runs the chunks in parallel. A pool of one thread runs every
+ * loop directly on the calling thread, and so does any loop too short to
+ * be worth splitting.
+ *
+ * The work done on each index must not depend on the work done on any
+ * other index, since the order in which chunks run is not defined.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class WorkerPool
+{
+    /**
+     * Work to be done on a range of indices.
+     */
+    public interface RangeAction
+    {
+        /**
+         * Do the work for the indices from start (inclusive) to end (exclusive).
+         * @param start The first index.
+         * @param end One past the last index.
+         */
+        void run(int start, int end);
+    }
+
+    // The fewest indices that are worth handing to another thread, for
+    // loops that do little work per index.
+    public static final int MIN_CHUNK = 2048;
+    // The number of chunks per thread, so that uneven chunks balance out.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // The number of threads that work on each loop.
+    private final int threads;
+    // The worker threads, or null if there is only one thread.
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a pool with the given number of threads.
+     * @param threads The number of threads. Must be at least one.
+     */
+    public WorkerPool(int threads)
+    {
+        if(threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        this.threads = threads;
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+     * @return The number of threads that work on each loop.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Do the given work for every index in a range, in parallel, and
+     * return once all of it is done.
+     * @param start The first index.
+     * @param end One past the last index.
+     * @param action The work to do on each chunk of the range.
+     */
+    public void forRange(int start, int end, RangeAction action)
+    {
+        forRange(start, end, MIN_CHUNK, action);
+    }
+
+    /**
+     * Do the given work for every index in a range, in parallel, handing
+     * no thread fewer than the given number of indices. Loops whose
+     * indices each stand for much work, such as a row of the field,
+     * can split into smaller chunks than the usual.
+     * @param start The first index.
+     * @param end One past the last index.
+     * @param minChunk The fewest indices worth handing to another thread.
+     * @param action The work to do on each chunk of the range.
+     */
+    public void forRange(int start, int end, int minChunk, RangeAction action)
+    {
+        int length = end - start;
+        minChunk = Math.max(1, minChunk);
+        if(pool == null || length < 2 * minChunk) {
+            if(length > 0) {
+                action.run(start, end);
+            }
+            return;
+        }
+        int chunks = Math.min(threads * CHUNKS_PER_THREAD, length / minChunk);
+        pool.invoke(new Chunks(start, end, chunks, action));
+    }
+
+    /**
+     * Stop the worker threads. Loops may still be run afterwards, but on
+     * the calling thread only.
+     */
+    public void shutdown()
+    {
+        if(pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A task that splits its chunks in half until one chunk is left,
+     * which it runs.
+     */
+    private static class Chunks extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int chunks;
+        private final RangeAction action;
+
+        /**
+         * @param start The first index.
+         * @param end One past the last index.
+         * @param chunks The number of chunks to divide the range into.
+         * @param action The work to do on each chunk.
+         */
+        Chunks(int start, int end, int chunks, RangeAction action)
+        {
+            this.start = start;
+            this.end = end;
+            this.chunks = chunks;
+            this.action = action;
+        }
+
+        /**
+         * Run the chunk, or split it and run the halves in parallel.
+         */
+        protected void compute()
+        {
+            if(chunks <= 1) {
+                action.run(start, end);
+                return;
+            }
+            int half = chunks / 2;
+            int middle = start + (int) ((long) (end - start) * half / chunks);
+            invokeAll(new Chunks(start, middle, half, action),
+                      new Chunks(middle, end, chunks - half, action));
+        }
+    }
+}
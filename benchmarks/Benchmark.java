@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small benchmark harness in the style of JMH, with no dependencies.
+ *
+ * Each benchmark runs for a number of warm-up iterations followed by a
+ * number of measured iterations, each lasting about the iteration time.
+ * An operation that can be repeated indefinitely is set up once per
+ * iteration and then run in batches until the time has passed. An
+ * operation that uses up its input, such as an animal eating its food, is
+ * instead run in passes of a fixed size, with the setup run again, untimed,
+ * before every pass. The time per operation and the bytes allocated per
+ * operation by the benchmark thread are reported; time and allocation in
+ * the setup are not counted.
+ *
+ * Every benchmark runs in the one JVM, after whatever ran before it, and
+ * the spread reported is the standard deviation of the iterations, not a
+ * confidence interval. It is good for a quick look at a hot path; to show
+ * that a change made something faster, use the JMH benchmarks (see
+ * benchmarks/pom.xml), which fork a JVM for each trial.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class Benchmark
+{
+    /**
+     * A benchmarked operation.
+     */
+    public interface Operation
+    {
+        /**
+         * Prepare to run the operation. This is not timed.
+         * @return The number of invocations that may follow before the
+         *         setup must be run again, or 0 if there is no limit.
+         */
+        int setup();
+
+        /**
+         * Run the operation once.
+         * @param i The number of the invocation since the setup.
+         * @return Any value, which is consumed so it cannot be optimised away.
+         */
+        Object run(int i);
+    }
+
+    // The number of invocations between checks of the clock.
+    private static final int BATCH = 256;
+    // How many times the iteration time a setup-heavy iteration may take.
+    private static final int MAX_OVERRUN = 10;
+
+    // Per-thread allocation counters, if the JVM provides them.
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // The number of warm-up and measured iterations, and their length.
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    // The results so far, one line each.
+    private final List<String[]> results;
+    // Consumes results so that the JIT cannot remove the operations.
+    private volatile int sink;
+
+    /**
+     * Create a harness.
+     * @param warmupIterations Iterations run before measuring.
+     * @param measuredIterations Iterations measured.
+     * @param iterationMillis The length of each iteration, in milliseconds.
+     */
+    public Benchmark(int warmupIterations, int measuredIterations, long iterationMillis)
+    {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        results = new ArrayList<>();
+        if(THREADS.isThreadAllocatedMemorySupported()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Run one benchmark and print its result.
+     * @param name The name of the benchmark.
+     * @param params A description of its parameters.
+     * @param operation The operation to measure.
+     */
+    public void run(String name, String params, Operation operation)
+    {
+        for(int i = 0; i < warmupIterations; i++) {
+            iterate(operation);
+        }
+        double[] nanosPerOp = new double[measuredIterations];
+        double bytesPerOp = 0;
+        for(int i = 0; i < measuredIterations; i++) {
+            double[] measured = iterate(operation);
+            nanosPerOp[i] = measured[0];
+            bytesPerOp += measured[1] / measuredIterations;
+        }
+        double mean = 0;
+        for(double value : nanosPerOp) {
+            mean += value / nanosPerOp.length;
+        }
+        double variance = 0;
+        for(double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean) / Math.max(1, nanosPerOp.length - 1);
+        }
+        String[] result = {
+            name, params,
+            String.format("%.1f", mean), String.format("%.1f", Math.sqrt(variance)),
+            String.format("%.1f", bytesPerOp)
+        };
+        results.add(result);
+        System.out.printf("%-40s %-24s %12s ns/op  sd %-8s %10s B/op%n", (Object[]) result);
+    }
+
+    /**
+     * Write all results so far as CSV.
+     * @param path The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeCsv(String path) throws IOException
+    {
+        try(PrintWriter out = new PrintWriter(path, "UTF-8")) {
+            out.println("benchmark,params,ns_per_op,ns_stddev,bytes_per_op");
+            for(String[] result : results) {
+                out.println(String.join(",", result));
+            }
+        }
+    }
+
+    /**
+     * Run one iteration.
+     * @param operation The operation to run.
+     * @return The nanoseconds and bytes allocated per operation.
+     */
+    private double[] iterate(Operation operation)
+    {
+        long thread = Thread.currentThread().getId();
+        long wallStart = System.nanoTime();
+        long elapsed = 0;
+        long bytes = 0;
+        long ops = 0;
+        int local = 0;
+        do {
+            int pass = operation.setup();
+            int size = pass > 0 ? pass : BATCH;
+            long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            int index = 0;
+            do {
+                for(int i = 0; i < size; i++) {
+                    Object result = operation.run(index++);
+                    local += result == null ? 0 : 1;
+                }
+                ops += size;
+            } while(pass == 0 && elapsed + System.nanoTime() - start < iterationNanos);
+            elapsed += System.nanoTime() - start;
+            bytes += THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+        } while(elapsed < iterationNanos
+                && System.nanoTime() - wallStart < MAX_OVERRUN * iterationNanos);
+        sink += local;
+        return new double[] { (double) elapsed / ops, (double) bytes / ops };
+    }
+}
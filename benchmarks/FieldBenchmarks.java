@@ -0,0 +1,407 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmarks of the field and neighbourhood operations that the
+ * simulation spends most of its time in, across grid sizes and levels of
+ * occupancy. Each benchmark reports the time and the bytes allocated per
+ * operation, so that a change to one of these paths can be measured before
+ * and after.
+ *
+ * The field is filled at random, with each occupied location equally
+ * likely to hold any species. The field operations run against that fixed
+ * field. findFood and spreadDisease change the field (prey is eaten,
+ * neighbours are infected and the infected may die), so they are run in
+ * passes of one call per animal of the species, on a freshly filled field
+ * each time, much as a step of the simulation would call them.
+ *
+ * Usage: java FieldBenchmarks [-w warmups] [-i iterations] [-t millis]
+ *                             [-csv file] [name filter ...]
+ *
+ * The same operations can be timed under JMH, through operation and
+ * pass; see benchmarks/pom.xml.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class FieldBenchmarks
+{
+    // The grid sizes benchmarked, as depth and width.
+    private static final int[][] SIZES = { { 50, 50 }, { 200, 250 }, { 1000, 1000 } };
+    // The fractions of locations occupied.
+    private static final double[] OCCUPANCIES = { 0.1, 0.5, 0.9 };
+    // The number of random locations the field operations cycle through.
+    private static final int LOCATIONS = 4096;
+    // The seed for filling the field and choosing locations.
+    private static final long SEED = 42;
+    // The names of the benchmarks of operations that leave the field as
+    // it was, in the order they are run.
+    private static final String[] CALLS = {
+        "Field.adjacentLocations", "Field.getFreeAdjacentLocations", "Field.freeAdjacentLocation",
+        "Field.getObjectAt", "Field.place+clear", "FieldStats.generateCounts",
+        "SummedAreaTables.build", "Field.countNear"
+    };
+
+    // The field being benchmarked, and how full it is kept.
+    private final int depth, width;
+    private final double occupancy;
+    private Field field;
+    // The animals of each species in the field, indexed by ordinal.
+    private List<List<Animal>> animals;
+    // Random locations in the field, for the field operations.
+    private final Location[] locations;
+    // The statistics that count the field.
+    private final FieldStats stats;
+    // The counts of organisms in rectangles of the field.
+    private SummedAreaTables counts;
+
+    /**
+     * Create the benchmarks for one grid size and occupancy.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param occupancy The fraction of locations occupied.
+     */
+    public FieldBenchmarks(int depth, int width, double occupancy)
+    {
+        this.depth = depth;
+        this.width = width;
+        this.occupancy = occupancy;
+        Random rand = new Random(SEED);
+        locations = new Location[LOCATIONS];
+        for(int i = 0; i < LOCATIONS; i++) {
+            locations[i] = new Location(rand.nextInt(depth), rand.nextInt(width));
+        }
+        stats = new FieldStats();
+        populate();
+    }
+
+    /**
+     * Run the benchmarks.
+     * @param args Options and name filters, as described above.
+     * @throws IOException If the CSV file cannot be written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int warmups = 3;
+        int iterations = 5;
+        long millis = 200;
+        String csv = null;
+        List<String> filters = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-w": warmups = Integer.parseInt(args[++i]); break;
+                case "-i": iterations = Integer.parseInt(args[++i]); break;
+                case "-t": millis = Long.parseLong(args[++i]); break;
+                case "-csv": csv = args[++i]; break;
+                default: filters.add(args[i]); break;
+            }
+        }
+
+        Benchmark benchmark = new Benchmark(warmups, iterations, millis);
+        for(int[] size : SIZES) {
+            for(double occupancy : OCCUPANCIES) {
+                new FieldBenchmarks(size[0], size[1], occupancy).runAll(benchmark, filters);
+            }
+        }
+        if(csv != null) {
+            benchmark.writeCsv(csv);
+        }
+    }
+
+    /**
+     * Run every benchmark whose name matches one of the filters.
+     * @param benchmark The harness to run them with.
+     * @param filters Parts of the names to run; all are run if empty.
+     */
+    public void runAll(Benchmark benchmark, List<String> filters)
+    {
+        String params = String.format("%dx%d@%.0f%%", depth, width, occupancy * 100);
+
+        for(String name : CALLS) {
+            run(benchmark, filters, name, params, call(name));
+        }
+        for(Species species : Species.values()) {
+            if(!Animal.class.isAssignableFrom(species.getOrganismClass())) {
+                continue;
+            }
+            String name = species.getOrganismClass().getSimpleName();
+            runPasses(benchmark, filters, name + ".findFood", params, species, false);
+            runPasses(benchmark, filters, name + ".spreadDisease", params, species, true);
+        }
+    }
+
+    /**
+     * Make one of the operations that leave the field as it was, on a
+     * field filled at random, for another harness, such as JMH, to time.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param occupancy The fraction of locations occupied.
+     * @param name The name of the benchmark, one of CALLS.
+     * @return The operation, given the number of the invocation.
+     */
+    public static IntFunction<Object> operation(int depth, int width, double occupancy, String name)
+    {
+        FieldBenchmarks benchmarks = new FieldBenchmarks(depth, width, occupancy);
+        FieldCall call = benchmarks.call(name);
+        benchmarks.field.takeChanges();
+        return call::apply;
+    }
+
+    /**
+     * Make the passes of findFood or spreadDisease, once for each animal
+     * of a species, for another harness, such as JMH, to time.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param occupancy The fraction of locations occupied.
+     * @param name The name of the benchmark, e.g. "Fox.findFood".
+     * @return Fills a new field at random, which is not to be timed, and
+     *         returns the pass over it.
+     */
+    public static Supplier<Runnable> pass(int depth, int width, double occupancy, String name)
+    {
+        FieldBenchmarks benchmarks = new FieldBenchmarks(depth, width, occupancy);
+        String[] parts = name.split("\\.");
+        Species species = null;
+        for(Species kind : Species.values()) {
+            if(kind.getOrganismClass().getSimpleName().equals(parts[0])) {
+                species = kind;
+            }
+        }
+        if(species == null || parts.length != 2) {
+            throw new IllegalArgumentException("No such benchmark: " + name);
+        }
+        Species actor = species;
+        boolean disease = parts[1].equals("spreadDisease");
+        return () -> {
+            List<Animal> actors = benchmarks.preparePass(actor, disease);
+            return () -> {
+                for(Animal animal : actors) {
+                    if(disease) {
+                        animal.spreadDisease();
+                    }
+                    else {
+                        animal.findFood();
+                    }
+                }
+            };
+        };
+    }
+
+    /**
+     * Return the operation of a benchmark that leaves the field as it was.
+     * @param name The name of the benchmark, one of CALLS.
+     * @return The operation, given the number of the invocation.
+     */
+    private FieldCall call(String name)
+    {
+        switch(name) {
+            case "Field.adjacentLocations":
+                return i -> field.adjacentLocations(locations[i % LOCATIONS]);
+            case "Field.getFreeAdjacentLocations":
+                return i -> field.getFreeAdjacentLocations(locations[i % LOCATIONS]);
+            case "Field.freeAdjacentLocation":
+                return i -> field.freeAdjacentLocation(locations[i % LOCATIONS]);
+            case "Field.getObjectAt":
+                return i -> field.getObjectAt(locations[i % LOCATIONS]);
+            case "Field.place+clear":
+                return i -> {
+                    Location location = locations[i % LOCATIONS];
+                    Object occupant = field.getObjectAt(location);
+                    field.clear(location);
+                    field.place(occupant, location);
+                    return location;
+                };
+            case "FieldStats.generateCounts":
+                return i -> {
+                    stats.reset();
+                    return stats.getPopulationDetails(field);
+                };
+            case "SummedAreaTables.build":
+                return i -> buildCounts();
+            case "Field.countNear":
+                return i -> field.countNear(Species.RABBIT, locations[i % LOCATIONS], 5);
+            default:
+                throw new IllegalArgumentException("No such benchmark: " + name);
+        }
+    }
+
+    /**
+     * Run a benchmark of an operation that leaves the field as it was.
+     * @param benchmark The harness to run it with.
+     * @param filters The name filters.
+     * @param name The name of the benchmark.
+     * @param params A description of the grid size and occupancy.
+     * @param call The operation, given the number of the invocation.
+     */
+    private void run(Benchmark benchmark, List<String> filters, String name, String params,
+                     FieldCall call)
+    {
+        if(!matches(filters, name)) {
+            return;
+        }
+        benchmark.run(name, params, new Benchmark.Operation() {
+            public int setup()
+            {
+                field.takeChanges();
+                return 0;
+            }
+
+            public Object run(int i)
+            {
+                return call.apply(i);
+            }
+        });
+    }
+
+    /**
+     * Run a benchmark of findFood or spreadDisease, calling it once for
+     * each animal of a species on a freshly filled field.
+     * @param benchmark The harness to run it with.
+     * @param filters The name filters.
+     * @param name The name of the benchmark.
+     * @param params A description of the grid size and occupancy.
+     * @param species The species whose animals act.
+     * @param disease true to spread disease from every animal of the
+     *                species, false to look for food.
+     */
+    private void runPasses(Benchmark benchmark, List<String> filters, String name,
+                           String params, Species species, boolean disease)
+    {
+        if(!matches(filters, name) || animals.get(species.ordinal()).isEmpty()) {
+            return;
+        }
+        benchmark.run(name, params, new Benchmark.Operation() {
+            private List<Animal> actors;
+
+            public int setup()
+            {
+                actors = preparePass(species, disease);
+                return actors.size();
+            }
+
+            public Object run(int i)
+            {
+                Animal animal = actors.get(i);
+                if(disease) {
+                    animal.spreadDisease();
+                    return animal;
+                }
+                return animal.findFood();
+            }
+        });
+        populate();
+    }
+
+    /**
+     * Fill a new field at random for a pass of findFood or spreadDisease.
+     * @param species The species whose animals act.
+     * @param disease true to infect every animal of the species first.
+     * @return The animals of the species, in the order they act.
+     */
+    private List<Animal> preparePass(Species species, boolean disease)
+    {
+        populate();
+        List<Animal> actors = animals.get(species.ordinal());
+        if(disease) {
+            for(Animal animal : actors) {
+                animal.infect();
+            }
+        }
+        return actors;
+    }
+
+    /**
+     * Fill a new field at random to the benchmark's occupancy, with each
+     * species equally likely.
+     */
+    private void populate()
+    {
+        Random rand = new Random(SEED);
+        Species[] species = Species.values();
+        field = new Field(depth, width);
+        animals = new ArrayList<>();
+        for(int i = 0; i < species.length; i++) {
+            animals.add(new ArrayList<>());
+        }
+        for(int row = 0; row < depth; row++) {
+            for(int col = 0; col < width; col++) {
+                if(rand.nextDouble() < occupancy) {
+                    Species kind = species[rand.nextInt(species.length)];
+                    Object organism = create(kind, new Location(row, col));
+                    if(organism instanceof Animal) {
+                        animals.get(kind.ordinal()).add((Animal) organism);
+                    }
+                }
+            }
+        }
+        counts = new SummedAreaTables(depth, width);
+        field.setSpatialCounts(counts);
+        buildCounts();
+    }
+
+    /**
+     * Build the counts of organisms in rectangles of the field, on this
+     * thread.
+     * @return The counts.
+     */
+    private SummedAreaTables buildCounts()
+    {
+        counts.markInfected(field.getInfectedIndex());
+        counts.sumRows(field.getSpeciesCodes(), 0, depth);
+        counts.sumColumns(0, width);
+        return counts;
+    }
+
+    /**
+     * Create an organism of the given species, of random age.
+     * @param species The species to create.
+     * @param location Where to place it.
+     * @return The new organism.
+     */
+    private Object create(Species species, Location location)
+    {
+        switch(species) {
+            case FOX: return new Fox(true, field, location);
+            case RABBIT: return new Rabbit(true, field, location);
+            case EAGLE: return new Eagles(true, field, location);
+            case COW: return new Cow(true, field, location);
+            case MALE_ELEPHANT: return new MaleElephant(true, field, location);
+            case FEMALE_ELEPHANT: return new FemaleElephant(true, field, location);
+            default: return new Plant(field, location);
+        }
+    }
+
+    /**
+     * @param filters The name filters.
+     * @param name The name of a benchmark.
+     * @return true if the benchmark is to be run.
+     */
+    private static boolean matches(List<String> filters, String name)
+    {
+        if(filters.isEmpty()) {
+            return true;
+        }
+        for(String filter : filters) {
+            if(name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An operation on the field that leaves it as it was.
+     */
+    private interface FieldCall
+    {
+        /**
+         * @param i The number of the invocation.
+         * @return The result of the operation.
+         */
+        Object apply(int i);
+    }
+}
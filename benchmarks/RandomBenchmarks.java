@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Microbenchmarks of the random number generators, drawing numbers the
+ * way the simulation does: a nextDouble compared with a chance (breeding,
+ * infection, weather), a nextInt below a bound (litter sizes, picking an
+ * animal), shuffling the eight locations around an animal, and a
+ * geometric gap as WeatherMortality draws them.
+ *
+ * Each draw pattern is run with java.util.Random, with the generator of
+ * the LEGACY algorithm, with RandomStream under each of its other
+ * algorithms, and with the generators of the JDK that those algorithms
+ * follow, for comparison.
+ *
+ * Usage: java RandomBenchmarks [-w warmups] [-i iterations] [-t millis]
+ *                              [-csv file] [name filter ...]
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class RandomBenchmarks
+{
+    // The seed of every generator.
+    private static final long SEED = 42;
+    // The chance the threshold tests compare with.
+    private static final double CHANCE = 0.08;
+    // The bound of the bounded draws, a litter size that is not a power of two.
+    private static final int BOUND = 12;
+    // The chance of dying that the geometric gaps are drawn for.
+    private static final double GAP_CHANCE = 0.01;
+
+    /**
+     * Run the benchmarks.
+     * @param args Options and name filters, as described above.
+     * @throws IOException If the CSV file cannot be written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int warmups = 3;
+        int iterations = 5;
+        long millis = 200;
+        String csv = null;
+        List<String> filters = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-w": warmups = Integer.parseInt(args[++i]); break;
+                case "-i": iterations = Integer.parseInt(args[++i]); break;
+                case "-t": millis = Long.parseLong(args[++i]); break;
+                case "-csv": csv = args[++i]; break;
+                default: filters.add(args[i]); break;
+            }
+        }
+
+        Benchmark benchmark = new Benchmark(warmups, iterations, millis);
+        runAll(benchmark, filters, "java.util.Random", new Random(SEED));
+        runAll(benchmark, filters, "legacy", new RestorableRandom(SEED));
+        for(Randomizer.Algorithm algorithm : Randomizer.Algorithm.values()) {
+            if(algorithm != Randomizer.Algorithm.LEGACY) {
+                RandomStream stream = new RandomStream();
+                stream.seed(algorithm, SEED, null);
+                runAll(benchmark, filters, algorithm.toString().toLowerCase(), stream);
+            }
+        }
+        for(String jdk : new String[] { "Xoroshiro128PlusPlus", "L64X128MixRandom" }) {
+            runAll(benchmark, filters, "jdk " + jdk, RandomGeneratorFactory.of(jdk).create(SEED));
+        }
+        if(csv != null) {
+            benchmark.writeCsv(csv);
+        }
+    }
+
+    /**
+     * Run every draw pattern whose name matches one of the filters with
+     * one generator.
+     * @param benchmark The harness to run them with.
+     * @param filters Parts of the names to run; all are run if empty.
+     * @param params The name of the generator.
+     * @param rand The generator.
+     */
+    private static void runAll(Benchmark benchmark, List<String> filters, String params,
+                               RandomGenerator rand)
+    {
+        double logSurvival = Math.log1p(-GAP_CHANCE);
+        int[] adjacent = { 0, 1, 2, 3, 4, 5, 6, 7 };
+
+        run(benchmark, filters, "nextDouble<chance", params,
+            i -> rand.nextDouble() < CHANCE);
+        run(benchmark, filters, "nextInt(bound)", params,
+            i -> rand.nextInt(BOUND));
+        run(benchmark, filters, "nextLong", params,
+            i -> rand.nextLong());
+        run(benchmark, filters, "shuffle(8 adjacent)", params, i -> {
+            // The draws of Collections.shuffle, which needs a Random.
+            for(int j = adjacent.length; j > 1; j--) {
+                int k = rand.nextInt(j);
+                int swap = adjacent[j - 1];
+                adjacent[j - 1] = adjacent[k];
+                adjacent[k] = swap;
+            }
+            return adjacent[0];
+        });
+        run(benchmark, filters, "geometricGap", params,
+            i -> Math.floor(Math.log(1 - rand.nextDouble()) / logSurvival));
+    }
+
+    /**
+     * Run a benchmark of one draw pattern.
+     * @param benchmark The harness to run it with.
+     * @param filters The name filters.
+     * @param name The name of the benchmark.
+     * @param params The name of the generator.
+     * @param draw The draw, given the number of the invocation.
+     */
+    private static void run(Benchmark benchmark, List<String> filters, String name,
+                            String params, Draw draw)
+    {
+        if(!matches(filters, name) && !matches(filters, params)) {
+            return;
+        }
+        benchmark.run(name, params, new Benchmark.Operation() {
+            public int setup()
+            {
+                return 0;
+            }
+
+            public Object run(int i)
+            {
+                return draw.apply(i);
+            }
+        });
+    }
+
+    /**
+     * @param filters The name filters.
+     * @param name The name of a benchmark.
+     * @return Whether it should be run.
+     */
+    private static boolean matches(List<String> filters, String name)
+    {
+        if(filters.isEmpty()) {
+            return true;
+        }
+        for(String filter : filters) {
+            if(name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One draw of random numbers.
+     */
+    private interface Draw
+    {
+        /**
+         * @param i The number of the invocation.
+         * @return The result of the draw.
+         */
+        Object apply(int i);
+    }
+}
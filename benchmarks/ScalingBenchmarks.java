@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measure how the simulation scales with the number of worker threads,
+ * for several grid sizes, in one run. Every combination of grid size and
+ * thread count is run a number of times from the same seed, without a
+ * view and with profiling on. For each the median throughput is reported,
+ * with the speedup and efficiency against the first thread count given
+ * (normally one) on the same grid.
+ *
+ * The fraction of each step that ran on one thread (everything outside
+ * the parallel loops) is reported too, as is the share of each step taken
+ * by each phase, so that the sections that limit scaling can be seen.
+ *
+ * Usage: java ScalingBenchmarks [-threads 1,2,4] [-sizes 200x250,1000x1000]
+ *                               [-runs n] [-steps n] [-o results.csv]
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class ScalingBenchmarks
+{
+    // The grid sizes run by default.
+    private static final String DEFAULT_SIZES = "200x250,500x500,1000x1000";
+    // Roughly how many cell-steps to time for each run, if the number of
+    // steps is not given.
+    private static final long CELL_STEPS = 5_000_000;
+
+    /**
+     * Run the sweep.
+     * @param args Options, as described above.
+     * @throws IOException If the CSV file cannot be written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int[] threadCounts = defaultThreadCounts();
+        String sizes = DEFAULT_SIZES;
+        int runs = 3;
+        int fixedSteps = 0;
+        String output = null;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-threads": threadCounts = parseList(args[++i]); break;
+                case "-sizes": sizes = args[++i]; break;
+                case "-runs": runs = Integer.parseInt(args[++i]); break;
+                case "-steps": fixedSteps = Integer.parseInt(args[++i]); break;
+                case "-o": output = args[++i]; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        StringBuilder header = new StringBuilder("size,threads,steps_per_s,speedup,efficiency,serial_fraction");
+        for(StepPhase phase : StepPhase.values()) {
+            header.append(',').append(phase.name().toLowerCase()).append("_share");
+        }
+        System.out.printf("%-11s %7s %10s %8s %10s %8s   phase shares%n",
+                          "size", "threads", "steps/s", "speedup", "efficiency", "serial");
+
+        for(String size : sizes.split(",")) {
+            String[] dimensions = size.split("x");
+            int depth = Integer.parseInt(dimensions[0]);
+            int width = Integer.parseInt(dimensions[1]);
+            int steps = fixedSteps > 0 ? fixedSteps
+                        : (int) Math.max(5, CELL_STEPS / ((long) depth * width));
+            double baseline = 0;
+            for(int threads : threadCounts) {
+                double[] result = measure(depth, width, threads, steps, runs);
+                if(baseline == 0) {
+                    baseline = result[0];
+                }
+                double speedup = result[0] / baseline;
+                double efficiency = speedup * threadCounts[0] / threads;
+
+                StringBuilder row = new StringBuilder();
+                row.append(size).append(',').append(threads).append(',').append(result[0])
+                   .append(',').append(speedup).append(',').append(efficiency)
+                   .append(',').append(result[1]);
+                StringBuilder shares = new StringBuilder();
+                for(int p = 0; p < StepPhase.values().length; p++) {
+                    row.append(',').append(result[2 + p]);
+                    shares.append(String.format(" %s=%.0f%%",
+                                                StepPhase.values()[p].name().toLowerCase(),
+                                                result[2 + p] * 100));
+                }
+                rows.add(row.toString());
+                System.out.printf("%-11s %7d %10.2f %8.2f %9.0f%% %7.1f%%  %s%n", size, threads,
+                                  result[0], speedup, efficiency * 100, result[1] * 100, shares);
+            }
+        }
+
+        if(output != null) {
+            try(PrintWriter out = new PrintWriter(output, "UTF-8")) {
+                out.println(header);
+                for(String row : rows) {
+                    out.println(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run one grid size with one thread count a number of times.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param threads The number of worker threads.
+     * @param steps The number of steps to time in each run.
+     * @param runs The number of runs.
+     * @return The median steps per second, then the mean serial fraction,
+     *         then the mean share of each phase.
+     */
+    private static double[] measure(int depth, int width, int threads, int steps, int runs)
+    {
+        int phases = StepPhase.values().length;
+        double[] stepsPerSecond = new double[runs];
+        double[] result = new double[2 + phases];
+        for(int run = 0; run < runs; run++) {
+            SimulationConfig config = new SimulationConfig();
+            config.setSize(depth, width);
+            config.setThreads(threads);
+            SimulationEngine simulator = new SimulationEngine(config);
+            simulator.setProfiling(true);
+            for(int i = 0; i < Math.max(2, steps / 5); i++) {
+                simulator.step();
+            }
+            StepProfiler profiler = simulator.getProfiler();
+            profiler.reset();
+
+            long start = System.nanoTime();
+            for(int i = 0; i < steps; i++) {
+                simulator.step();
+            }
+            long elapsed = System.nanoTime() - start;
+            simulator.shutdown();
+
+            stepsPerSecond[run] = steps / (elapsed / 1e9);
+            LatencyHistogram stepLatency = profiler.getStepLatency();
+            double stepTotal = stepLatency.getMean() * stepLatency.getCount();
+            LatencyHistogram parallel = profiler.getParallelLatency();
+            result[1] += (1 - parallel.getMean() * parallel.getCount() / stepTotal) / runs;
+            for(StepPhase phase : StepPhase.values()) {
+                LatencyHistogram latency = profiler.getPhaseLatency(phase);
+                result[2 + phase.ordinal()] += latency.getMean() * latency.getCount()
+                                               / stepTotal / runs;
+            }
+        }
+        Arrays.sort(stepsPerSecond);
+        result[0] = stepsPerSecond[runs / 2];
+        return result;
+    }
+
+    /**
+     * @return 1, 2, 4 ... up to the number of processors, and that number.
+     */
+    private static int[] defaultThreadCounts()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for(int threads = 1; threads < processors; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(processors);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param list Numbers separated by commas.
+     * @return The numbers.
+     */
+    private static int[] parseList(String list)
+    {
+        return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end benchmarks of whole simulation steps, run without a view
+ * under a fixed seed. Each scenario warms up for some steps, then times
+ * a number of steps of simulateOneStep and reports:
+ *
+ *   steps/s          - steps simulated per second;
+ *   entity-steps/s   - organisms simulated per second, i.e. the sum over
+ *                      the timed steps of the population at their start,
+ *                      divided by the time;
+ *   bytes/step       - bytes allocated by the simulating thread per step;
+ *   peak heap        - the highest heap use seen during the scenario.
+ *
+ * The results can be written to a CSV file and compared with a baseline
+ * written earlier in the same way. A scenario regresses if its throughput
+ * falls, or its allocation or peak heap rises, by more than the tolerance.
+ * The program then exits with status 1, so that it can gate a change.
+ *
+ * Usage: java ScenarioBenchmarks [-runs n] [-o results.csv]
+ *                                [-baseline baseline.csv] [-tolerance 0.1]
+ *                                [scenario ...]
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class ScenarioBenchmarks
+{
+    // The columns of the results file, after the scenario name.
+    private static final String[] COLUMNS = {
+        "steps_per_s", "entity_steps_per_s", "bytes_per_step", "peak_heap_mb"
+    };
+    // Whether a larger value of each column is better.
+    private static final boolean[] HIGHER_IS_BETTER = { true, true, false, false };
+
+    // Per-thread allocation counters.
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A named scenario: the settings, and the numbers of steps to warm up
+     * and to time.
+     */
+    private static class Scenario
+    {
+        private final String name;
+        private final SimulationConfig config;
+        private final int warmupSteps;
+        private final int steps;
+
+        /**
+         * @param name The name of the scenario.
+         * @param config The settings of the simulation.
+         * @param warmupSteps The steps to run before timing.
+         * @param steps The steps to time.
+         */
+        Scenario(String name, SimulationConfig config, int warmupSteps, int steps)
+        {
+            this.name = name;
+            this.config = config;
+            this.warmupSteps = warmupSteps;
+            this.steps = steps;
+        }
+    }
+
+    /**
+     * Run the scenarios.
+     * @param args Options and scenario names, as described above.
+     * @throws IOException If a results file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int runs = 1;
+        String output = null;
+        String baseline = null;
+        double tolerance = 0.10;
+        List<String> names = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-runs": runs = Integer.parseInt(args[++i]); break;
+                case "-o": output = args[++i]; break;
+                case "-baseline": baseline = args[++i]; break;
+                case "-tolerance": tolerance = Double.parseDouble(args[++i]); break;
+                default: names.add(args[i]); break;
+            }
+        }
+
+        Map<String, double[]> results = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        for(Scenario scenario : scenarios()) {
+            if(names.isEmpty() || names.contains(scenario.name)) {
+                double[] result = runScenario(scenario, runs);
+                results.put(scenario.name, result);
+                order.add(scenario.name);
+                System.out.printf("%-16s %10.3f steps/s %14.0f entity-steps/s %12.0f B/step %8.1f MB peak heap%n",
+                                  scenario.name, result[0], result[1], result[2], result[3]);
+            }
+        }
+        if(output != null) {
+            write(output, order, results);
+        }
+        if(baseline != null && !compare(read(baseline), order, results, tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return The scenarios, in the order they are run.
+     */
+    private static List<Scenario> scenarios()
+    {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        scenarios.add(new Scenario("default", new SimulationConfig(), 100, 500));
+
+        SimulationConfig dense = new SimulationConfig();
+        dense.setSize(2000, 2000);
+        dense.setDensity(2.0);
+        scenarios.add(new Scenario("dense-2000", dense, 1, 5));
+
+        SimulationConfig sparse = new SimulationConfig();
+        sparse.setSize(4000, 4000);
+        sparse.setDensity(0.05);
+        scenarios.add(new Scenario("sparse-huge", sparse, 2, 10));
+
+        SimulationConfig snow = new SimulationConfig();
+        snow.setWeatherChances(0.6, 0.18, 0.34);
+        scenarios.add(new Scenario("snow-heavy", snow, 50, 300));
+
+        SimulationConfig epidemic = new SimulationConfig();
+        epidemic.setDiseaseProbability(1.0);
+        scenarios.add(new Scenario("epidemic-heavy", epidemic, 50, 300));
+
+        SimulationConfig bitboard = new SimulationConfig();
+        bitboard.setDiseaseProbability(1.0);
+        bitboard.setBitboardContagion(true);
+        scenarios.add(new Scenario("epidemic-bitboard", bitboard, 50, 300));
+
+        SimulationConfig regional = new SimulationConfig();
+        regional.setRegionalWeather(8);
+        scenarios.add(new Scenario("regional-weather", regional, 100, 500));
+
+        SimulationConfig vision = new SimulationConfig();
+        vision.setSize(1000, 1000);
+        vision.setVisionRadius(4);
+        scenarios.add(new Scenario("vision-1000", vision, 2, 10));
+
+        SimulationConfig intents = new SimulationConfig();
+        intents.setSize(1000, 1000);
+        intents.setIntentMovement(true);
+        scenarios.add(new Scenario("intents-1000", intents, 2, 10));
+
+        SimulationConfig world = new SimulationConfig();
+        world.setWorld(10000, 10000, 50, 4900, 4850);
+        scenarios.add(new Scenario("world-10000", world, 1, 5));
+
+        return scenarios;
+    }
+
+    /**
+     * Run a scenario a number of times from the start and take the median
+     * of each measurement.
+     * @param scenario The scenario to run.
+     * @param runs The number of runs.
+     * @return The measurements, in the order of COLUMNS.
+     */
+    private static double[] runScenario(Scenario scenario, int runs)
+    {
+        double[][] measured = new double[COLUMNS.length][runs];
+        for(int run = 0; run < runs; run++) {
+            double[] result = runOnce(scenario);
+            for(int c = 0; c < COLUMNS.length; c++) {
+                measured[c][run] = result[c];
+            }
+        }
+        double[] medians = new double[COLUMNS.length];
+        for(int c = 0; c < COLUMNS.length; c++) {
+            Arrays.sort(measured[c]);
+            medians[c] = measured[c][runs / 2];
+        }
+        return medians;
+    }
+
+    /**
+     * Run a scenario once.
+     * @param scenario The scenario to run.
+     * @return The measurements, in the order of COLUMNS.
+     */
+    private static double[] runOnce(Scenario scenario)
+    {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if(pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        SimulationEngine simulator = new SimulationEngine(scenario.config);
+        for(int i = 0; i < scenario.warmupSteps; i++) {
+            simulator.step();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long entitySteps = 0;
+        long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for(int i = 0; i < scenario.steps; i++) {
+            entitySteps += simulator.getLatestSnapshot().getTotalCount();
+            simulator.step();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        long peakHeap = 0;
+        for(MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        double seconds = elapsed / 1e9;
+        return new double[] {
+            scenario.steps / seconds, entitySteps / seconds,
+            (double) bytes / scenario.steps, peakHeap / (1024.0 * 1024.0)
+        };
+    }
+
+    /**
+     * Compare results with a baseline and report any regressions.
+     * Scenarios missing from either are ignored.
+     * @param baseline The baseline results.
+     * @param order The names of the scenarios run, in order.
+     * @param results The results of this run.
+     * @param tolerance The fraction by which a measurement may be worse.
+     * @return true if nothing regressed.
+     */
+    private static boolean compare(Map<String, double[]> baseline, List<String> order,
+                                   Map<String, double[]> results, double tolerance)
+    {
+        boolean passed = true;
+        for(String name : order) {
+            double[] before = baseline.get(name);
+            if(before == null) {
+                continue;
+            }
+            double[] after = results.get(name);
+            for(int c = 0; c < COLUMNS.length; c++) {
+                double change = before[c] == 0 ? 0 : (after[c] - before[c]) / before[c];
+                boolean worse = HIGHER_IS_BETTER[c] ? change < -tolerance : change > tolerance;
+                System.out.printf("%-16s %-20s %14.3f -> %14.3f %+7.1f%%%s%n", name, COLUMNS[c],
+                                  before[c], after[c], change * 100, worse ? "  REGRESSION" : "");
+                passed &= !worse;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Write results as CSV.
+     * @param path The file to write.
+     * @param order The names of the scenarios, in order.
+     * @param results The results of each scenario.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void write(String path, List<String> order, Map<String, double[]> results)
+        throws IOException
+    {
+        try(PrintWriter out = new PrintWriter(path, "UTF-8")) {
+            out.println("scenario," + String.join(",", COLUMNS));
+            for(String name : order) {
+                StringBuilder line = new StringBuilder(name);
+                for(double value : results.get(name)) {
+                    line.append(',').append(value);
+                }
+                out.println(line);
+            }
+        }
+    }
+
+    /**
+     * Read results written by write.
+     * @param path The file to read.
+     * @return The results of each scenario.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Map<String, double[]> read(String path) throws IOException
+    {
+        Map<String, double[]> results = new HashMap<>();
+        try(BufferedReader in = new BufferedReader(new FileReader(path))) {
+            String line = in.readLine();    // The header.
+            while((line = in.readLine()) != null) {
+                String[] fields = line.split(",");
+                if(fields.length != COLUMNS.length + 1) {
+                    continue;
+                }
+                double[] values = new double[COLUMNS.length];
+                for(int c = 0; c < COLUMNS.length; c++) {
+                    values[c] = Double.parseDouble(fields[c + 1]);
+                }
+                results.put(fields[0], values);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,70 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The field operations of FieldBenchmarks that leave the field as it
+ * was, timed by JMH across grid sizes and occupancies.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldOperations
+{
+    @Param({ "50x50", "200x250", "1000x1000" })
+    public String size;
+
+    @Param({ "0.1", "0.5", "0.9" })
+    public double occupancy;
+
+    @Param({ "Field.adjacentLocations", "Field.getFreeAdjacentLocations",
+             "Field.freeAdjacentLocation", "Field.getObjectAt", "Field.place+clear",
+             "FieldStats.generateCounts", "SummedAreaTables.build", "Field.countNear" })
+    public String operation;
+
+    // The operation, and the number of its next invocation.
+    private IntFunction<Object> call;
+    private int invocation;
+
+    /**
+     * Fill a field at random and find the operation on it.
+     * @throws ReflectiveOperationException If FieldBenchmarks is missing.
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws ReflectiveOperationException
+    {
+        String[] dimensions = size.split("x");
+        call = (IntFunction<Object>) Simulation.invoke("operation", Integer.parseInt(dimensions[0]),
+                                                        Integer.parseInt(dimensions[1]),
+                                                        occupancy, operation);
+    }
+
+    /**
+     * @return The result of one invocation of the operation, which JMH
+     *         consumes.
+     */
+    @Benchmark
+    public Object run()
+    {
+        return call.apply(invocation++);
+    }
+}
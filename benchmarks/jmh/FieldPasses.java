@@ -0,0 +1,84 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The findFood and spreadDisease passes of FieldBenchmarks, timed by JMH
+ * across grid sizes and occupancies. These change the field, so each
+ * invocation is one call per animal of the species on a freshly filled
+ * field, and the time reported is per pass, not per call. Filling the
+ * field is not timed.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldPasses
+{
+    @Param({ "50x50", "200x250", "1000x1000" })
+    public String size;
+
+    @Param({ "0.1", "0.5", "0.9" })
+    public double occupancy;
+
+    @Param({ "Fox.findFood", "Fox.spreadDisease", "Rabbit.findFood", "Rabbit.spreadDisease",
+             "Eagles.findFood", "Eagles.spreadDisease", "Cow.findFood", "Cow.spreadDisease",
+             "MaleElephant.findFood", "MaleElephant.spreadDisease",
+             "FemaleElephant.findFood", "FemaleElephant.spreadDisease" })
+    public String operation;
+
+    // Fills a new field and returns the pass over it.
+    private Supplier<Runnable> passes;
+    // The pass of the next invocation.
+    private Runnable pass;
+
+    /**
+     * Find the passes of the benchmark.
+     * @throws ReflectiveOperationException If FieldBenchmarks is missing.
+     */
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setupTrial() throws ReflectiveOperationException
+    {
+        String[] dimensions = size.split("x");
+        passes = (Supplier<Runnable>) Simulation.invoke("pass", Integer.parseInt(dimensions[0]),
+                                                         Integer.parseInt(dimensions[1]),
+                                                         occupancy, operation);
+    }
+
+    /**
+     * Fill a new field for the next pass.
+     */
+    @Setup(Level.Invocation)
+    public void setupPass()
+    {
+        pass = passes.get();
+    }
+
+    /**
+     * Run one pass.
+     */
+    @Benchmark
+    public void run()
+    {
+        pass.run();
+    }
+}
@@ -0,0 +1,41 @@
+package jmh;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reaches the operations of FieldBenchmarks, which is in the default
+ * package with the simulation. Classes in a named package, as JMH
+ * requires benchmarks to be, cannot name classes in the default package,
+ * so the operations are looked up once, by reflection, and handed back
+ * as standard functional interfaces, which are then called directly.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+final class Simulation
+{
+    /**
+     * Not to be created.
+     */
+    private Simulation()
+    {
+    }
+
+    /**
+     * Call a static method of FieldBenchmarks that makes an operation.
+     * @param method The name of the method.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param occupancy The fraction of locations occupied.
+     * @param name The name of the benchmark.
+     * @return The operation.
+     * @throws ReflectiveOperationException If the method cannot be called.
+     */
+    static Object invoke(String method, int depth, int width, double occupancy, String name)
+        throws ReflectiveOperationException
+    {
+        Method maker = Class.forName("FieldBenchmarks").getMethod(method, int.class, int.class,
+                                                                  double.class, String.class);
+        return maker.invoke(null, depth, width, occupancy, name);
+    }
+}
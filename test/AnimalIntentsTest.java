@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of AnimalIntents.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class AnimalIntentsTest
+{
+    @Test
+    public void eatenAnimalTakesNoLocationFromAnother()
+    {
+        // A fox, a rabbit it eats, a free location and another rabbit in a
+        // row. Both rabbits want the free location; whatever the claims
+        // drawn, the rabbit that is eaten must not keep the other out.
+        for(long key = 0; key < 100; key++) {
+            Field field = new Field(1, 4, new Randomizer());
+            Fox fox = new Fox(false, field, new Location(0, 0));
+            Rabbit eaten = new Rabbit(false, field, new Location(0, 1));
+            Rabbit mover = new Rabbit(false, field, new Location(0, 3));
+            step(field, List.of(fox, eaten, mover), key, true);
+
+            assertFalse(eaten.isAlive(), "key " + key);
+            assertEquals(new Location(0, 1), fox.getLocation(), "key " + key);
+            assertTrue(mover.isAlive(), "key " + key);
+            assertEquals(new Location(0, 2), mover.getLocation(), "key " + key);
+        }
+    }
+
+    @Test
+    public void eatenAnimalTakesNoPlantFromAnother()
+    {
+        // An eagle, a rabbit it eats, a plant, a cow and a free location
+        // in a row. Both the rabbit and the cow want the plant; whatever
+        // the claims drawn, the rabbit that is eaten must not keep the cow
+        // from eating it. (Foxes hunt only at night, when cows sleep.)
+        for(long key = 0; key < 100; key++) {
+            Field field = new Field(1, 5, new Randomizer());
+            Eagles eagle = new Eagles(false, field, new Location(0, 0));
+            Rabbit eaten = new Rabbit(false, field, new Location(0, 1));
+            Plant plant = new Plant(field, new Location(0, 2));
+            Cow cow = new Cow(false, field, new Location(0, 3));
+            int plantSize = plant.getSize();
+            int fed = cow.getFoodLevel();
+            step(field, List.of(eagle, eaten, cow), key, false);
+
+            assertFalse(eaten.isAlive(), "key " + key);
+            assertEquals(new Location(0, 1), eagle.getLocation(), "key " + key);
+            assertTrue(cow.isAlive(), "key " + key);
+            assertEquals(fed, cow.getFoodLevel(), "key " + key);
+            assertTrue(!plant.isAlive() || plant.getSize() < plantSize, "key " + key);
+        }
+    }
+
+    /**
+     * Let the animals of a field act at once for one step.
+     * @param field The field.
+     * @param animals The animals.
+     * @param key The key of the step.
+     * @param night Whether it is night.
+     */
+    private static void step(Field field, List<Animal> animals, long key, boolean night)
+    {
+        RandomStream source = field.getRandomizer().getRandom(Randomizer.Stream.FIELD);
+        AnimalIntents intents = new AnimalIntents(field, source);
+        List<Animal> acting = new ArrayList<>(animals);
+        intents.start(acting, key, night);
+        intents.age(0, acting.size());
+        intents.decide(0, acting.size());
+        intents.claimFree(0, acting.size());
+        intents.resolve(0, acting.size());
+        intents.carryOut(new ArrayList<>());
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a checkpoint written to a file and read back continues the
+ * simulation it was taken of.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class CheckpointTest
+{
+    @TempDir
+    Path directory;
+
+    @Test
+    public void settingsSurviveRoundTrip() throws Exception
+    {
+        SimulationConfig config = settings();
+        SimulationEngine engine = new SimulationEngine(config);
+        engine.step(5);
+        File file = directory.resolve("settings.ckpt").toFile();
+        engine.saveCheckpoint(file).join();
+        engine.shutdown();
+
+        Checkpoint checkpoint = new Checkpoint(file);
+        SimulationConfig restored = checkpoint.toConfig(1);
+        assertEquals(5, checkpoint.getStep());
+        assertEquals(config.getDepth(), restored.getDepth());
+        assertEquals(config.getWidth(), restored.getWidth());
+        assertEquals(config.getDensity(), restored.getDensity());
+        assertEquals(config.getSnowChance(), restored.getSnowChance());
+        assertEquals(config.getWindChance(), restored.getWindChance());
+        assertEquals(config.getRainChance(), restored.getRainChance());
+        assertEquals(config.getDiseaseProbability(), restored.getDiseaseProbability());
+        assertEquals(config.getSeed(), restored.getSeed());
+        assertEquals(config.isBitboardContagion(), restored.isBitboardContagion());
+        assertEquals(config.getVisionRadius(), restored.getVisionRadius());
+        assertEquals(config.getRegionSize(), restored.getRegionSize());
+        assertEquals(config.getRandomAlgorithm(), restored.getRandomAlgorithm());
+    }
+
+    @Test
+    public void resumedSimulationRepopulatesAtSavedDensity() throws Exception
+    {
+        SimulationEngine engine = new SimulationEngine(settings());
+        engine.step(5);
+        File file = directory.resolve("density.ckpt").toFile();
+        engine.saveCheckpoint(file).join();
+        SimulationEngine resumed = SimulationEngine.resume(file, 1);
+
+        // Both start again from the same random state, so they must fill
+        // the field alike.
+        engine.reset();
+        resumed.reset();
+        assertArrayEquals(engine.getField().getSpeciesCodes(), resumed.getField().getSpeciesCodes());
+        assertEquals(engine.getLatestSnapshot().toString(), resumed.getLatestSnapshot().toString());
+        engine.shutdown();
+        resumed.shutdown();
+    }
+
+    /**
+     * @return Settings that differ from the defaults wherever a
+     *         checkpoint must keep them.
+     */
+    private static SimulationConfig settings()
+    {
+        SimulationConfig config = new SimulationConfig();
+        config.setSize(60, 80);
+        config.setDensity(2.5);
+        config.setWeatherChances(0.2, 0.3, 0.1);
+        config.setDiseaseProbability(0.4);
+        config.setBitboardContagion(true);
+        config.setVisionRadius(3);
+        config.setRegionalWeather(10);
+        config.setSeed(7);
+        config.setThreads(1);
+        return config;
+    }
+}
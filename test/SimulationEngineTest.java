@@ -0,0 +1,208 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that simulations in the same program do not disturb each other:
+ * two simulations stepped in turn must each go exactly as it goes when
+ * run on its own.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class SimulationEngineTest
+{
+    // The number of steps each simulation is run for.
+    private static final int STEPS = 25;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void interleavedEnginesMatchSoloRuns()
+    {
+        checkInterleaved(config -> { });
+    }
+
+    @Test
+    public void interleavedLegacyEnginesMatchSoloRuns()
+    {
+        checkInterleaved(config -> config.setRandomAlgorithm(Randomizer.Algorithm.LEGACY));
+    }
+
+    @Test
+    public void interleavedEnginesWithIntentsMatchSoloRuns()
+    {
+        checkInterleaved(config -> config.setIntentMovement(true));
+    }
+
+    @Test
+    public void interleavedEnginesWithBitboardContagionMatchSoloRuns()
+    {
+        checkInterleaved(config -> {
+            config.setDiseaseProbability(0.5);
+            config.setBitboardContagion(true);
+        });
+    }
+
+    @Test
+    public void interleavedEnginesWithVisionMatchSoloRuns()
+    {
+        checkInterleaved(config -> config.setVisionRadius(4));
+    }
+
+    @Test
+    public void interleavedEnginesWithWorldMatchSoloRuns()
+    {
+        checkInterleaved(config -> {
+            config.setSize(100, 100);
+            config.setWorld(300, 300, 50, 100, 100);
+        });
+    }
+
+    @Test
+    public void interleavedCheckpointsMatchSoloCheckpoints() throws Exception
+    {
+        SimulationEngine first = new SimulationEngine(config(1, config -> { }));
+        SimulationEngine second = new SimulationEngine(config(2, config -> { }));
+        for(int i = 0; i < STEPS; i++) {
+            first.step();
+            second.step();
+        }
+        File firstFile = directory.resolve("first.ckpt").toFile();
+        File secondFile = directory.resolve("second.ckpt").toFile();
+        first.saveCheckpoint(firstFile).join();
+        second.saveCheckpoint(secondFile).join();
+
+        // The resumed simulations are also stepped in turn.
+        SimulationEngine firstResumed = SimulationEngine.resume(firstFile, 1);
+        SimulationEngine secondResumed = SimulationEngine.resume(secondFile, 1);
+        for(int i = 0; i < STEPS; i++) {
+            firstResumed.step();
+            secondResumed.step();
+        }
+        List<Object[]> firstStates = new ArrayList<>();
+        List<Object[]> secondStates = new ArrayList<>();
+        firstStates.add(state(firstResumed));
+        secondStates.add(state(secondResumed));
+
+        assertSame(solo(config(1, config -> { }), 2 * STEPS, 2 * STEPS), firstStates);
+        assertSame(solo(config(2, config -> { }), 2 * STEPS, 2 * STEPS), secondStates);
+        assertArrayEquals(soloCheckpoint(1, "solo-first.ckpt"), new Checkpoint(firstFile).getRandomState());
+        assertArrayEquals(soloCheckpoint(2, "solo-second.ckpt"), new Checkpoint(secondFile).getRandomState());
+        for(SimulationEngine engine : List.of(first, second, firstResumed, secondResumed)) {
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * Step two simulations with different seeds in turn, and check each
+     * against the same simulation run on its own.
+     * @param mode Sets the mode under test on a configuration.
+     */
+    private void checkInterleaved(Consumer<SimulationConfig> mode)
+    {
+        SimulationEngine first = new SimulationEngine(config(1, mode));
+        SimulationEngine second = new SimulationEngine(config(2, mode));
+        List<Object[]> firstStates = new ArrayList<>();
+        List<Object[]> secondStates = new ArrayList<>();
+        for(int i = 0; i < STEPS; i++) {
+            first.step();
+            second.step();
+            firstStates.add(state(first));
+            secondStates.add(state(second));
+        }
+        first.shutdown();
+        second.shutdown();
+        assertSame(solo(config(1, mode), 1, STEPS), firstStates);
+        assertSame(solo(config(2, mode), 1, STEPS), secondStates);
+    }
+
+    /**
+     * Run a simulation on its own.
+     * @param config The configuration.
+     * @param from The first step whose state is kept.
+     * @param to The last step.
+     * @return The state after each step from the first kept.
+     */
+    private static List<Object[]> solo(SimulationConfig config, int from, int to)
+    {
+        SimulationEngine engine = new SimulationEngine(config);
+        List<Object[]> states = new ArrayList<>();
+        for(int i = 1; i <= to; i++) {
+            engine.step();
+            if(i >= from) {
+                states.add(state(engine));
+            }
+        }
+        engine.shutdown();
+        return states;
+    }
+
+    /**
+     * Run a simulation on its own and checkpoint it.
+     * @param seed The seed.
+     * @param name The name of the checkpoint file.
+     * @return The random state in the checkpoint.
+     * @throws Exception If the checkpoint cannot be written or read.
+     */
+    private long[] soloCheckpoint(long seed, String name) throws Exception
+    {
+        SimulationEngine engine = new SimulationEngine(config(seed, config -> { }));
+        engine.step(STEPS);
+        File file = directory.resolve(name).toFile();
+        engine.saveCheckpoint(file).join();
+        engine.shutdown();
+        return new Checkpoint(file).getRandomState();
+    }
+
+    /**
+     * @param seed The seed.
+     * @param mode Sets the mode under test.
+     * @return A small configuration for one thread.
+     */
+    private static SimulationConfig config(long seed, Consumer<SimulationConfig> mode)
+    {
+        SimulationConfig config = new SimulationConfig();
+        config.setSize(60, 80);
+        config.setSeed(seed);
+        config.setThreads(1);
+        mode.accept(config);
+        return config;
+    }
+
+    /**
+     * @param engine A simulation.
+     * @return The step, the species at every location, the population
+     *         and the state of the random number generators.
+     */
+    private static Object[] state(SimulationEngine engine)
+    {
+        return new Object[] {
+            engine.getStep(),
+            engine.getField().getSpeciesCodes().clone(),
+            engine.getLatestSnapshot().toString(),
+            engine.getField().getRandomizer().getState()
+        };
+    }
+
+    /**
+     * Check that two runs went through the same states.
+     * @param expected The states of the run on its own.
+     * @param actual The states of the run in turn with another.
+     */
+    private static void assertSame(List<Object[]> expected, List<Object[]> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "after step " + (i + 1));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the StepPublisher.
+ *
+ * @author Daniel Ratiu and Michael Jacob
+ * @version 19/10/2026
+ */
+public class StepPublisherTest
+{
+    @Test
+    public void interruptedBlockedPublisherKeepsUpdateAndInterrupt() throws Exception
+    {
+        SimulationConfig config = new SimulationConfig();
+        config.setSize(40, 40);
+        config.setThreads(1);
+        SimulationEngine engine = new SimulationEngine(config);
+        Recorder recorder = new Recorder();
+        engine.getStepPublisher().subscribe(recorder, StepPublisher.Backpressure.BLOCK, 1, false);
+        assertTrue(recorder.subscribed.await(10, TimeUnit.SECONDS));
+
+        // Nothing is requested, so the first update fills the buffer and
+        // the second step waits for room.
+        CountDownLatch firstStepped = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread simulation = new Thread(() -> {
+            engine.step();
+            firstStepped.countDown();
+            engine.step();
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        simulation.start();
+        assertTrue(firstStepped.await(10, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(simulation.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, simulation.getState());
+        simulation.interrupt();
+        simulation.join(10_000);
+
+        assertTrue(interrupted.get(), "The interrupt must not be swallowed.");
+        recorder.subscription.request(Long.MAX_VALUE);
+        engine.shutdown();
+        assertTrue(recorder.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), recorder.steps);
+        assertEquals(List.of(0, 0), recorder.skipped);
+    }
+
+    /**
+     * A subscriber that records the updates it is handed, and requests
+     * none itself.
+     */
+    private static class Recorder implements Flow.Subscriber<StepUpdate>
+    {
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final List<Integer> steps = new CopyOnWriteArrayList<>();
+        private final List<Integer> skipped = new CopyOnWriteArrayList<>();
+        private volatile Flow.Subscription subscription;
+
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        public void onNext(StepUpdate update)
+        {
+            steps.add(update.getStep());
+            skipped.add(update.getSkipped());
+        }
+
+        public void onError(Throwable failure)
+        {
+            completed.countDown();
+        }
+
+        public void onComplete()
+        {
+            completed.countDown();
+        }
+    }
+}